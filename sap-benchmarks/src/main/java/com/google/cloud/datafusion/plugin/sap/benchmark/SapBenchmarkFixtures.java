@@ -0,0 +1,311 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.benchmark;
+
+import com.google.cloud.datafusion.plugin.sap.metadata.model.SapFieldMetadata;
+import com.google.cloud.datafusion.plugin.sap.odata.source.metadata.SapODataEntityProvider;
+import com.google.cloud.datafusion.plugin.sap.table.metadata.model.SapColumn;
+import io.cdap.cdap.api.data.schema.Schema;
+import org.apache.olingo.odata2.api.edm.Edm;
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
+import org.apache.olingo.odata2.api.ep.EntityProvider;
+import org.apache.olingo.odata2.api.ep.EntityProviderReadProperties;
+import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds deterministic, SAP-width fixtures for the benchmarks. The table layout follows the first columns of the
+ * universal journal (ACDOCA), which is one of the widest and most extracted SAP tables, and is repeated with a
+ * numeric suffix when more columns are requested.
+ *
+ * @author sankalpbapat
+ */
+public final class SapBenchmarkFixtures {
+
+  public static final String ODATA_ENTITY_NAME = "BenchEntitySet";
+
+  private static final long SEED = 20210815L;
+
+  // name, ABAP internal type, length, decimals, key flag
+  private static final Object[][] ACDOCA_LAYOUT = {
+    {"RCLNT", "C", 3, 0, true}, {"RLDNR", "C", 2, 0, true}, {"RBUKRS", "C", 4, 0, true},
+    {"GJAHR", "N", 4, 0, true}, {"BELNR", "C", 10, 0, true}, {"DOCLN", "C", 6, 0, true},
+    {"RYEAR", "N", 4, 0, false}, {"DOCNR_LD", "C", 10, 0, false}, {"RRCTY", "C", 1, 0, false},
+    {"RMVCT", "C", 3, 0, false}, {"VORGN", "C", 4, 0, false}, {"VRGNG", "C", 4, 0, false},
+    {"BTTYPE", "C", 4, 0, false}, {"AWTYP", "C", 5, 0, false}, {"AWSYS", "C", 10, 0, false},
+    {"AWREF", "C", 10, 0, false}, {"AWITEM", "N", 6, 0, false}, {"XREVERSED", "C", 1, 0, false},
+    {"RTCUR", "C", 5, 0, false}, {"RWCUR", "C", 5, 0, false}, {"RHCUR", "C", 5, 0, false},
+    {"RKCUR", "C", 5, 0, false}, {"RUNIT", "C", 3, 0, false}, {"RACCT", "C", 10, 0, false},
+    {"RCNTR", "C", 10, 0, false}, {"PRCTR", "C", 10, 0, false}, {"RFAREA", "C", 16, 0, false},
+    {"KOKRS", "C", 4, 0, false}, {"TSL", "P", 21, 2, false}, {"WSL", "P", 21, 2, false},
+    {"HSL", "P", 21, 2, false}, {"KSL", "P", 21, 2, false}, {"MSL", "P", 21, 3, false},
+    {"BUDAT", "D", 8, 0, false}, {"BLDAT", "D", 8, 0, false}, {"CPUDT", "D", 8, 0, false},
+    {"CPUTM", "T", 6, 0, false}, {"POPER", "N", 3, 0, false}, {"FISCYEARPER", "N", 7, 0, false},
+    {"LINETYPE", "N", 5, 0, false}, {"KOART", "C", 1, 0, false}, {"BUZEI", "N", 3, 0, false},
+    {"USNAM", "C", 12, 0, false}, {"TIMESTAMP", "UTCL", 27, 0, false}, {"EBELP", "I", 10, 0, false},
+    {"MATNR", "C", 40, 0, false}, {"WERKS", "C", 4, 0, false}, {"SGTXT", "C", 50, 0, false}
+  };
+
+  private SapBenchmarkFixtures() {
+  }
+
+  /**
+   * Creates the column metadata as returned by /GOOG/RFC_READ_TABLE with running offsets.
+   *
+   * @param columnCount number of columns
+   * @return list of {@code SapColumn}
+   */
+  public static List<SapFieldMetadata> tableColumns(int columnCount) {
+    List<SapFieldMetadata> columns = new ArrayList<>(columnCount);
+    int offset = 0;
+    for (int i = 0; i < columnCount; i++) {
+      Object[] layout = ACDOCA_LAYOUT[i % ACDOCA_LAYOUT.length];
+      int round = i / ACDOCA_LAYOUT.length;
+      String name = round == 0 ? (String) layout[0] : layout[0] + "_" + round;
+      int decimals = (int) layout[3];
+      // For decimal type columns, metadata RFM gives partial length and number of decimals must be added to get
+      // real length
+      int length = (int) layout[2] + decimals;
+      boolean isKey = round == 0 && (boolean) layout[4];
+
+      columns.add(new SapColumn(name, name, name, i + 1, offset, length, decimals, (String) layout[1],
+        (String) layout[1], isKey));
+      offset += length;
+    }
+
+    return columns;
+  }
+
+  /**
+   * Creates fixed width raw records matching the {@code columns} layout, including SAP specific values like
+   * trailing minus signs, initial dates (00000000) and the 240000 time value.
+   *
+   * @param columns     column metadata
+   * @param recordCount number of records
+   * @return raw records as returned in the WA field
+   */
+  public static List<String> tableRecords(List<SapFieldMetadata> columns, int recordCount) {
+    Random random = new Random(SEED);
+    List<String> records = new ArrayList<>(recordCount);
+    for (int r = 0; r < recordCount; r++) {
+      StringBuilder record = new StringBuilder();
+      for (SapFieldMetadata column : columns) {
+        record.append(tableValue(random, column));
+      }
+      records.add(record.toString());
+    }
+
+    return records;
+  }
+
+  private static String tableValue(Random random, SapFieldMetadata column) {
+    int length = column.getLength();
+    switch (column.getAbapType()) {
+      case "N":
+        return leftPad(Long.toString(Math.abs(random.nextLong()) % pow10(Math.min(length, 18))), length, '0');
+      case "D":
+        return random.nextInt(10) == 0 ? "00000000"
+          : String.format("%04d%02d%02d", 2000 + random.nextInt(22), 1 + random.nextInt(12), 1 + random.nextInt(28));
+      case "T":
+        return random.nextInt(50) == 0 ? "240000"
+          : String.format("%02d%02d%02d", random.nextInt(24), random.nextInt(60), random.nextInt(60));
+      case "P":
+        String amount = BigDecimal.valueOf(random.nextInt(100_000_000), column.getDecimals()).toPlainString();
+        return leftPad(random.nextInt(4) == 0 ? amount + "-" : amount + " ", length, ' ');
+      case "I":
+        int intVal = random.nextInt(1_000_000);
+        return leftPad(random.nextInt(4) == 0 ? intVal + "-" : Integer.toString(intVal), length, ' ');
+      case "UTCL":
+        return String.format("%04d-%02d-%02d %02d:%02d:%02d.%07d", 2000 + random.nextInt(22),
+          1 + random.nextInt(12), 1 + random.nextInt(28), random.nextInt(24), random.nextInt(60),
+          random.nextInt(60), random.nextInt(10_000_000));
+      default:
+        return rightPad(randomText(random, random.nextInt(length + 1)), length);
+    }
+  }
+
+  /**
+   * Builds the EDMX document for an OData entity set with {@code columnCount} properties mixing the commonly
+   * exposed SAP Gateway types.
+   */
+  public static String odataMetadata(int columnCount) {
+    StringBuilder edmx = new StringBuilder()
+      .append("<?xml version=\"1.0\" encoding=\"utf-8\"?>")
+      .append("<edmx:Edmx Version=\"1.0\" xmlns:edmx=\"http://schemas.microsoft.com/ado/2007/06/edmx\"")
+      .append(" xmlns:m=\"http://schemas.microsoft.com/ado/2007/08/dataservices/metadata\">")
+      .append("<edmx:DataServices m:DataServiceVersion=\"2.0\">")
+      .append("<Schema Namespace=\"ZBENCH_SRV\" xmlns=\"http://schemas.microsoft.com/ado/2008/09/edm\">")
+      .append("<EntityType Name=\"BenchEntityType\"><Key><PropertyRef Name=\"Id\"/></Key>")
+      .append("<Property Name=\"Id\" Type=\"Edm.String\" Nullable=\"false\" MaxLength=\"20\"/>");
+
+    for (int col = 1; col < columnCount; col++) {
+      edmx.append("<Property Name=\"Column").append(col).append('"');
+      switch (col % 4) {
+        case 0:
+          edmx.append(" Type=\"Edm.Decimal\" Precision=\"23\" Scale=\"2\"/>");
+          break;
+        case 1:
+          edmx.append(" Type=\"Edm.DateTime\" Precision=\"0\"/>");
+          break;
+        case 2:
+          edmx.append(" Type=\"Edm.Int32\"/>");
+          break;
+        default:
+          edmx.append(" Type=\"Edm.String\" MaxLength=\"40\"/>");
+          break;
+      }
+    }
+
+    return edmx.append("</EntityType>")
+      .append("<EntityContainer Name=\"ZBENCH_SRV_Entities\" m:IsDefaultEntityContainer=\"true\">")
+      .append("<EntitySet Name=\"").append(ODATA_ENTITY_NAME).append("\" EntityType=\"ZBENCH_SRV.BenchEntityType\"/>")
+      .append("</EntityContainer></Schema></edmx:DataServices></edmx:Edmx>")
+      .toString();
+  }
+
+  /**
+   * Builds the CDAP schema for {@link #odataMetadata(int)}.
+   */
+  public static Schema odataSchema(int columnCount) {
+    List<Schema.Field> fields = new ArrayList<>(columnCount);
+    fields.add(Schema.Field.of("Id", Schema.of(Schema.Type.STRING)));
+    for (int col = 1; col < columnCount; col++) {
+      Schema fieldSchema;
+      switch (col % 4) {
+        case 0:
+          fieldSchema = Schema.decimalOf(23, 2);
+          break;
+        case 1:
+          fieldSchema = Schema.of(Schema.LogicalType.TIMESTAMP_MICROS);
+          break;
+        case 2:
+          fieldSchema = Schema.of(Schema.Type.INT);
+          break;
+        default:
+          fieldSchema = Schema.of(Schema.Type.STRING);
+          break;
+      }
+      fields.add(Schema.Field.of("Column" + col, Schema.nullableOf(fieldSchema)));
+    }
+
+    return Schema.recordOf("ODataColumnMetadata", fields);
+  }
+
+  /**
+   * Parses one JSON page of {@code rowCount} entries with Olingo, the same way the record reader does.
+   */
+  public static List<ODataEntry> odataEntries(int columnCount, int rowCount) throws Exception {
+    Random random = new Random(SEED);
+    StringBuilder feed = new StringBuilder("{\"d\":{\"results\":[");
+    for (int row = 0; row < rowCount; row++) {
+      feed.append(row == 0 ? "" : ",").append("{\"__metadata\":{\"type\":\"ZBENCH_SRV.BenchEntityType\"},")
+        .append("\"Id\":\"").append(String.format("%020d", row)).append('"');
+      for (int col = 1; col < columnCount; col++) {
+        feed.append(",\"Column").append(col).append("\":");
+        switch (col % 4) {
+          case 0:
+            feed.append('"').append(BigDecimal.valueOf(random.nextInt(100_000_000), 2).toPlainString()).append('"');
+            break;
+          case 1:
+            feed.append("\"/Date(").append(946684800000L + (long) random.nextInt(700_000) * 1_000_000L)
+              .append(")/\"");
+            break;
+          case 2:
+            feed.append(random.nextInt(1_000_000));
+            break;
+          default:
+            feed.append('"').append(randomText(random, random.nextInt(41))).append('"');
+            break;
+        }
+      }
+      feed.append('}');
+    }
+    feed.append("]}}");
+
+    Edm edm;
+    try (InputStream metadataStream =
+           new ByteArrayInputStream(odataMetadata(columnCount).getBytes(StandardCharsets.UTF_8))) {
+      edm = EntityProvider.readMetadata(metadataStream, false);
+    }
+    EdmEntitySet entitySet = new SapODataEntityProvider(edm).getEntitySet(ODATA_ENTITY_NAME);
+    try (InputStream feedStream = new ByteArrayInputStream(feed.toString().getBytes(StandardCharsets.UTF_8))) {
+      return EntityProvider.readFeed("application/json", entitySet, feedStream,
+        EntityProviderReadProperties.init().build()).getEntries();
+    }
+  }
+
+  /**
+   * Builds ODP subscriber/extract name like strings, which are shortened with {@code Base62Encoder}.
+   */
+  public static List<String> odpNames(int count) {
+    Random random = new Random(SEED);
+    List<String> names = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      names.add(String.format("%s_%s_0FI_ACDOCA_%02d_%s", randomText(random, 12), randomText(random, 20),
+        random.nextInt(100), randomText(random, 36)));
+    }
+
+    return names;
+  }
+
+  private static String randomText(Random random, int length) {
+    char[] chars = new char[length];
+    for (int i = 0; i < length; i++) {
+      int idx = random.nextInt(36);
+      chars[i] = (char) (idx < 10 ? '0' + idx : 'A' + idx - 10);
+    }
+
+    return new String(chars);
+  }
+
+  private static String leftPad(String value, int length, char pad) {
+    if (value.length() >= length) {
+      return value.substring(value.length() - length);
+    }
+    StringBuilder padded = new StringBuilder(length);
+    for (int i = value.length(); i < length; i++) {
+      padded.append(pad);
+    }
+
+    return padded.append(value).toString();
+  }
+
+  private static String rightPad(String value, int length) {
+    StringBuilder padded = new StringBuilder(length).append(value);
+    while (padded.length() < length) {
+      padded.append(' ');
+    }
+
+    return padded.toString();
+  }
+
+  private static long pow10(int exp) {
+    long result = 1L;
+    for (int i = 0; i < exp; i++) {
+      result *= 10L;
+    }
+
+    return result;
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmark jar. Accepts the standard JMH command line options, but unless overridden with
+ * {@code -rf} / {@code -rff} writes the results as JSON to {@code jmh-result.json}, so that runs can be compared
+ * by tooling.
+ *
+ * <pre>
+ *   java -jar sap-benchmarks/target/benchmarks.jar [regexp] [jmh options]
+ * </pre>
+ *
+ * Benchmarks running against the fake SAP backend also need the JCo library, which is not part of the benchmark jar:
+ *
+ * <pre>
+ *   java -cp sap-benchmarks/target/benchmarks.jar:lib/sapjco3.jar \
+ *     com.google.cloud.datafusion.plugin.sap.benchmark.SapBenchmarkRunner [regexp] [jmh options]
+ * </pre>
+ *
+ * @author sankalpbapat
+ */
+public final class SapBenchmarkRunner {
+
+  private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+  private SapBenchmarkRunner() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    CommandLineOptions cmdOptions = new CommandLineOptions(args);
+    Options options = new OptionsBuilder()
+      .parent(cmdOptions)
+      .resultFormat(cmdOptions.getResultFormat().orElse(ResultFormatType.JSON))
+      .result(cmdOptions.getResult().orElse(DEFAULT_RESULT_FILE))
+      .build();
+
+    new Runner(options).run();
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.benchmark.fake;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.Counter;
+import org.apache.hadoop.mapreduce.Counters;
+import org.apache.hadoop.mapreduce.StatusReporter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+
+/**
+ * Keeps the counters of a task outside of a MapReduce job, as the default
+ * reporter of {@link TaskAttemptContextImpl} returns no counters. Counters are
+ * not thread safe, so every split should be read with its own reporter.
+ *
+ * @author sankalpbapat
+ *
+ */
+public final class CountingStatusReporter extends StatusReporter {
+
+  private final Counters counters = new Counters();
+
+  /**
+   * Creates a task attempt context reporting to this instance.
+   *
+   * @param conf task configuration
+   * @return task attempt context
+   */
+  public TaskAttemptContext newTaskContext(Configuration conf) {
+    return new TaskAttemptContextImpl(conf, new TaskAttemptID(), this);
+  }
+
+  public long getValue(Enum<?> name) {
+    return counters.findCounter(name).getValue();
+  }
+
+  @Override
+  public Counter getCounter(Enum<?> name) {
+    return counters.findCounter(name);
+  }
+
+  @Override
+  public Counter getCounter(String group, String name) {
+    return counters.findCounter(group, name);
+  }
+
+  @Override
+  public void progress() {
+    // No task tracker to report to
+  }
+
+  @Override
+  public float getProgress() {
+    return 0f;
+  }
+
+  @Override
+  public void setStatus(String status) {
+    // No task tracker to report to
+  }
+}
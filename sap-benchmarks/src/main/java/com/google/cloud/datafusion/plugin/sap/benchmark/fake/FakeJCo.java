@@ -0,0 +1,297 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.benchmark.fake;
+
+import com.sap.conn.jco.JCoFunction;
+import com.sap.conn.jco.JCoParameterList;
+import com.sap.conn.jco.JCoTable;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal in-memory implementations of the JCo function, parameter list and
+ * table interfaces, covering the calls made by the plugins. Values are kept as
+ * set and read back as strings, unset fields read as empty strings like initial
+ * character fields in JCo. A row may hold a {@code char[]}, which is read as a
+ * new string every time, the same way JCo decodes a field from its row buffer.
+ *
+ * @author sankalpbapat
+ */
+final class FakeJCo {
+
+  private FakeJCo() {
+  }
+
+  /**
+   * Creates a function with empty parameter lists.
+   *
+   * @param name RFM name
+   * @return function
+   */
+  static JCoFunction function(String name) {
+    return proxy(JCoFunction.class, new FunctionHandler(name));
+  }
+
+  /**
+   * Fills an empty table created by this class with shared rows, without copying
+   * them. The rows must not be changed through the table afterwards.
+   *
+   * @param table  table of a fake function
+   * @param fields field names of the rows
+   * @param rows   rows holding the values of {@code fields}
+   * @param from   index of the first row
+   * @param count  number of rows, cycling through {@code rows}
+   */
+  static void fillSharedRows(JCoTable table, List<String> fields, List<Object[]> rows, long from, int count) {
+    TableHandler handler = (TableHandler) Proxy.getInvocationHandler(table);
+    handler.fields.clear();
+    handler.fields.addAll(fields);
+    handler.rows.ensureCapacity(handler.rows.size() + count);
+    int poolSize = rows.size();
+    for (int i = 0; i < count; i++) {
+      handler.rows.add(rows.get((int) ((from + i) % poolSize)));
+    }
+    handler.cursor = handler.rows.isEmpty() ? -1 : 0;
+  }
+
+  private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+    return type.cast(Proxy.newProxyInstance(FakeJCo.class.getClassLoader(), new Class<?>[] {type}, handler));
+  }
+
+  private static String asString(Object value) {
+    if (value == null) {
+      return "";
+    }
+
+    return value instanceof char[] ? new String((char[]) value) : String.valueOf(value);
+  }
+
+  private static UnsupportedOperationException notFaked(Object target, Method method) {
+    return new UnsupportedOperationException(method.getName() + " is not supported by the fake " + target);
+  }
+
+  /**
+   * Handles {@code toString}, {@code hashCode} and {@code equals}, the only
+   * methods of {@code java.lang.Object} passed to the handlers.
+   */
+  private static Object objectMethod(Object proxy, Method method, Object[] args, String description) {
+    switch (method.getName()) {
+      case "toString":
+        return description;
+      case "hashCode":
+        return System.identityHashCode(proxy);
+      case "equals":
+        return proxy == args[0];
+      default:
+        throw notFaked(description, method);
+    }
+  }
+
+  private static boolean isObjectMethod(Method method) {
+    return method.getDeclaringClass() == Object.class;
+  }
+
+  private static final class FunctionHandler implements InvocationHandler {
+    private final String name;
+    private final Map<String, JCoParameterList> lists = new HashMap<>();
+
+    private FunctionHandler(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+      if (isObjectMethod(method)) {
+        return objectMethod(proxy, method, args, "JCoFunction " + name);
+      }
+
+      switch (method.getName()) {
+        case "getName":
+          return name;
+        case "getImportParameterList":
+        case "getExportParameterList":
+        case "getChangingParameterList":
+        case "getTableParameterList":
+          return lists.computeIfAbsent(method.getName(),
+            key -> proxy(JCoParameterList.class, new ParameterListHandler(name + "." + key)));
+        default:
+          throw notFaked("JCoFunction " + name, method);
+      }
+    }
+  }
+
+  private static final class ParameterListHandler implements InvocationHandler {
+    private final String description;
+    private final Map<String, Object> values = new HashMap<>();
+    private final Map<String, JCoTable> tables = new HashMap<>();
+
+    private ParameterListHandler(String description) {
+      this.description = description;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+      if (isObjectMethod(method)) {
+        return objectMethod(proxy, method, args, description);
+      }
+
+      switch (method.getName()) {
+        case "getTable":
+          return tables.computeIfAbsent(String.valueOf(args[0]), key -> proxy(JCoTable.class, new TableHandler()));
+        case "setValue":
+          values.put(String.valueOf(args[0]), args[1]);
+          return null;
+        case "getValue":
+          return values.get(String.valueOf(args[0]));
+        case "getString":
+          return asString(values.get(String.valueOf(args[0])));
+        case "getInt":
+          return Integer.valueOf(asString(values.get(String.valueOf(args[0]))));
+        case "getLong":
+          return Long.valueOf(asString(values.get(String.valueOf(args[0]))));
+        default:
+          throw notFaked(description, method);
+      }
+    }
+  }
+
+  private static final class TableHandler implements InvocationHandler {
+    // Field names in the order of their first use
+    private final List<String> fields = new ArrayList<>();
+    private final ArrayList<Object[]> rows = new ArrayList<>();
+    private int cursor = -1;
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+      if (isObjectMethod(method)) {
+        return objectMethod(proxy, method, args, "JCoTable " + fields);
+      }
+
+      switch (method.getName()) {
+        case "appendRow":
+          rows.add(new Object[fields.size()]);
+          cursor = rows.size() - 1;
+          return null;
+        case "setValue":
+          setValue(args[0], args[1]);
+          return null;
+        case "getValue":
+          return getValue(args[0]);
+        case "getString":
+          return asString(getValue(args[0]));
+        case "getInt":
+          return Integer.valueOf(asString(getValue(args[0])).trim());
+        case "getLong":
+          return Long.valueOf(asString(getValue(args[0])).trim());
+        case "getNumRows":
+          return rows.size();
+        case "getRow":
+          return cursor;
+        case "setRow":
+          cursor = (Integer) args[0];
+          return null;
+        case "firstRow":
+          cursor = rows.isEmpty() ? -1 : 0;
+          return null;
+        case "lastRow":
+          cursor = rows.size() - 1;
+          return null;
+        case "nextRow":
+          if (cursor + 1 < rows.size()) {
+            cursor++;
+            return true;
+          }
+          return false;
+        case "isEmpty":
+          return rows.isEmpty();
+        case "deleteAllRows":
+        case "clear":
+          rows.clear();
+          cursor = -1;
+          return null;
+        case "getFieldCount":
+          return fields.size();
+        case "getMetaData":
+          return proxy(method.getReturnType(), new MetaDataHandler(fields));
+        default:
+          throw notFaked("JCoTable " + fields, method);
+      }
+    }
+
+    private void setValue(Object field, Object value) {
+      int idx = field instanceof Integer ? (Integer) field : fieldIndex((String) field);
+      Object[] row = rows.get(cursor);
+      if (row.length <= idx) {
+        row = Arrays.copyOf(row, idx + 1);
+        rows.set(cursor, row);
+      }
+      row[idx] = value;
+    }
+
+    private Object getValue(Object field) {
+      int idx = field instanceof Integer ? (Integer) field : fields.indexOf(field);
+      Object[] row = rows.get(cursor);
+
+      return idx < 0 || idx >= row.length ? null : row[idx];
+    }
+
+    private int fieldIndex(String field) {
+      int idx = fields.indexOf(field);
+      if (idx < 0) {
+        fields.add(field);
+        idx = fields.size() - 1;
+      }
+
+      return idx;
+    }
+  }
+
+  private static final class MetaDataHandler implements InvocationHandler {
+    private final List<String> fields;
+
+    private MetaDataHandler(List<String> fields) {
+      this.fields = new ArrayList<>(fields);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+      if (isObjectMethod(method)) {
+        return objectMethod(proxy, method, args, "JCoMetaData " + fields);
+      }
+
+      switch (method.getName()) {
+        case "indexOf":
+          return fields.indexOf(args[0]);
+        case "getName":
+          return fields.get((Integer) args[0]);
+        case "getFieldCount":
+          return fields.size();
+        case "hasField":
+          return fields.contains(args[0]);
+        default:
+          throw notFaked("JCoMetaData " + fields, method);
+      }
+    }
+  }
+}
@@ -0,0 +1,666 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.benchmark.fake;
+
+import com.google.cloud.datafusion.plugin.sap.benchmark.SapBenchmarkFixtures;
+import com.google.cloud.datafusion.plugin.sap.metadata.model.SapFieldMetadata;
+import com.sap.conn.jco.AbapException;
+import com.sap.conn.jco.JCoException;
+import com.sap.conn.jco.JCoFunction;
+import com.sap.conn.jco.JCoParameterList;
+import com.sap.conn.jco.JCoTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process stand-in for an SAP system, serving the RFMs used by the Table and
+ * ODP plugins from synthetic data, so that the readers and partition builders
+ * can be benchmarked end to end without SAP.
+ * <p>
+ * {@code /GOOG/RFC_READ_TABLE} returns fixed width {@code WA} records in the
+ * layout of {@link SapBenchmarkFixtures#tableColumns(int)}, projected to the
+ * requested {@code FIELDS}, and honours {@code ROW_SKIPS} and
+ * {@code ROW_COUNT}. Records are cycled from a pool, so that the backend itself
+ * allocates little. With numbered rows, every record carries its row number in
+ * {@link #ROW_NUMBER_FIELD}, and {@code OPTIONS} restricting that column to a
+ * range, like the conditions of key range splits, are evaluated. Any other
+ * {@code OPTIONS} are rejected rather than ignored. Like the RFM, a data read
+ * raises {@code DATA_BUFFER_EXCEEDED} if the requested columns are wider than
+ * 30000 characters, whatever the number of rows. {@code TH_WPINFO} counts
+ * the data reads in progress as busy dialog work processes,
+ * {@code SAPTUNE_GET_SUMMARY_STATISTIC} reports the configured work process
+ * memory, and {@code /GOOG/ODP_DS_EXTRACT_DATA} the number of packages of the
+ * same records. Every call waits for the configured latency, and data reads fail
+ * at the configured rate or interval. Further RFMs can be served through
+ * {@link #register(String, RfmHandler)}.
+ *
+ * @author sankalpbapat
+ *
+ */
+public final class FakeSapBackend {
+
+  public static final String TABLE_READER_RFM = "/GOOG/RFC_READ_TABLE";
+  public static final String METADATA_UTIL_RFM = "DDIF_FIELDINFO_GET";
+  public static final String WORK_PROCESS_RFM = "TH_WPINFO";
+  public static final String MEMORY_SUMMARY_RFM = "SAPTUNE_GET_SUMMARY_STATISTIC";
+  public static final String ODP_PACKAGE_BUILDER_RFM = "/GOOG/ODP_DS_EXTRACT_DATA";
+  // Key column holding the row number, starting at 0, if the rows are numbered
+  public static final String ROW_NUMBER_FIELD = "BELNR";
+
+  private static final String DATA_TABLE = "DATA";
+  private static final String WORK_AREA_FIELD = "WA";
+  private static final String MARK_FIELD_TRUE_VALUE = "X";
+  private static final String OPTIONS_TABLE = "OPTIONS";
+  private static final String OPTION_NOT_VALID = "OPTION_NOT_VALID";
+  // Widest record /GOOG/RFC_READ_TABLE returns
+  private static final int MAX_RECORD_WIDTH = 30000;
+  // Short dumps are reported to RFC clients as system failures, not as ABAP
+  // exceptions
+  private static final Set<String> SHORT_DUMPS = new HashSet<>(Arrays.asList("TSV_TNEW_PAGE_ALLOC_FAILED",
+    "TSV_TNEW_BLOCKS_NO_ROLL_MEMORY", "SYSTEM_NO_ROLL", "MEMORY_NO_MORE_PAGING", "TIME_OUT"));
+  // Condition on the numbered column, e.g. BELNR >= '0000000100'
+  private static final Pattern ROW_NUMBER_CONDITION = Pattern.compile("([^\\s<>=]+)\\s*(>=|<=|<|>|=)\\s*'(\\d+)'");
+  private static final Pattern AND_OPERATOR = Pattern.compile("\\s+AND\\s+", Pattern.CASE_INSENSITIVE);
+
+  private final List<SapFieldMetadata> columns;
+  private final int recordSize;
+  private final long rowCount;
+  private final int recordPoolSize;
+  private final long callLatencyNanos;
+  private final long rowLatencyNanos;
+  private final double failureRate;
+  private final int failureInterval;
+  private final String failureKey;
+  private final int totalWorkProcesses;
+  private final int busyWorkProcesses;
+  private final long wpMaxMemory;
+  private final boolean rowNumbered;
+
+  private final Map<String, RfmHandler> handlers = new ConcurrentHashMap<>();
+  // Record pools by requested columns, an empty list for all columns
+  private final Map<List<String>, Projection> projections = new ConcurrentHashMap<>();
+
+  private final AtomicLong calls = new AtomicLong();
+  private final AtomicLong dataCalls = new AtomicLong();
+  private final AtomicLong failedCalls = new AtomicLong();
+  private final AtomicLong servedRows = new AtomicLong();
+  private final AtomicInteger activeDataCalls = new AtomicInteger();
+
+  private FakeSapBackend(Builder builder) {
+    this.columns = SapBenchmarkFixtures.tableColumns(builder.columnCount);
+    SapFieldMetadata lastColumn = columns.get(columns.size() - 1);
+    this.recordSize = lastColumn.getOffset() + lastColumn.getLength();
+    this.rowCount = builder.rowCount;
+    this.recordPoolSize = builder.recordPoolSize;
+    this.callLatencyNanos = TimeUnit.MILLISECONDS.toNanos(builder.callLatencyMillis);
+    this.rowLatencyNanos = builder.rowLatencyNanos;
+    this.failureRate = builder.failureRate;
+    this.failureInterval = builder.failureInterval;
+    this.failureKey = builder.failureKey;
+    this.totalWorkProcesses = builder.totalWorkProcesses;
+    this.busyWorkProcesses = builder.busyWorkProcesses;
+    this.wpMaxMemory = builder.wpMaxMemory;
+    this.rowNumbered = builder.rowNumbered;
+    if (rowNumbered && columns.stream().noneMatch(column -> ROW_NUMBER_FIELD.equals(column.getName()))) {
+      throw new IllegalArgumentException("Numbered rows need the column " + ROW_NUMBER_FIELD);
+    }
+
+    handlers.put(TABLE_READER_RFM, this::readTable);
+    handlers.put(METADATA_UTIL_RFM, this::getFieldInfo);
+    handlers.put(WORK_PROCESS_RFM, this::getWorkProcesses);
+    handlers.put(MEMORY_SUMMARY_RFM, this::getMemoryStatistics);
+    handlers.put(ODP_PACKAGE_BUILDER_RFM, this::getOdpPackageCount);
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Serves {@code rfmName} with {@code handler}, replacing the built-in handler
+   * if there is one.
+   *
+   * @param rfmName RFM name
+   * @param handler reads the imports of the function and sets its exports
+   */
+  public void register(String rfmName, RfmHandler handler) {
+    handlers.put(rfmName, handler);
+  }
+
+  public boolean isServed(String rfmName) {
+    return handlers.containsKey(rfmName);
+  }
+
+  /**
+   * Creates an empty function for {@code rfmName}, to be executed with
+   * {@link #execute(JCoFunction)}.
+   */
+  public JCoFunction createFunction(String rfmName) {
+    return FakeJCo.function(rfmName);
+  }
+
+  /**
+   * Executes a function created by {@link #createFunction(String)}, after the
+   * configured latency.
+   *
+   * @param function function with its imports set
+   * @throws JCoException the exceptions raised by the handler or injected
+   */
+  public void execute(JCoFunction function) throws JCoException {
+    calls.incrementAndGet();
+    RfmHandler handler = handlers.get(function.getName());
+    if (handler == null) {
+      throw new JCoException(JCoException.JCO_ERROR_FUNCTION_NOT_FOUND, "FU_NOT_FOUND",
+        "Function " + function.getName() + " is not served by the fake SAP backend");
+    }
+
+    await(callLatencyNanos);
+    handler.execute(function);
+  }
+
+  public List<SapFieldMetadata> getColumns() {
+    return Collections.unmodifiableList(columns);
+  }
+
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * @return width of a record with all the columns
+   */
+  public int getRecordSize() {
+    return recordSize;
+  }
+
+  public long getCalls() {
+    return calls.get();
+  }
+
+  public long getDataCalls() {
+    return dataCalls.get();
+  }
+
+  public long getFailedCalls() {
+    return failedCalls.get();
+  }
+
+  public long getServedRows() {
+    return servedRows.get();
+  }
+
+  public void resetStatistics() {
+    calls.set(0L);
+    dataCalls.set(0L);
+    failedCalls.set(0L);
+    servedRows.set(0L);
+  }
+
+  private void readTable(JCoFunction function) throws JCoException {
+    JCoParameterList imports = function.getImportParameterList();
+    JCoParameterList tables = function.getTableParameterList();
+    Projection projection = projection(getRequestedFields(tables.getTable("FIELDS")));
+    projection.setFields(tables.getTable("FIELDS"));
+
+    long[] rowRange = getRowRange(tables.getTable(OPTIONS_TABLE));
+    long matchingRows = rowRange[1] - rowRange[0];
+    if (MARK_FIELD_TRUE_VALUE.equals(imports.getString("IM_REC_COUNT"))) {
+      function.getExportParameterList().setValue("EX_COUNT", matchingRows);
+    }
+    function.getExportParameterList().setValue("OUT_TABLE", DATA_TABLE);
+    if (MARK_FIELD_TRUE_VALUE.equals(imports.getString("NO_DATA"))) {
+      return;
+    }
+
+    if (projection.recordWidth > MAX_RECORD_WIDTH) {
+      throw new AbapException("DATA_BUFFER_EXCEEDED", "Requested columns are " + projection.recordWidth
+        + " characters wide");
+    }
+
+    long rowSkips = parseLong(imports.getString("ROW_SKIPS"));
+    long requestedRows = parseLong(imports.getString("ROW_COUNT"));
+    long from = Math.min(Math.max(0L, rowSkips), matchingRows);
+    // Like RFC_READ_TABLE, no row count means all the remaining rows
+    long rows = requestedRows > 0 ? Math.min(requestedRows, matchingRows - from) : matchingRows - from;
+    if (rows > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Fake backend serves at most " + Integer.MAX_VALUE + " rows per call, "
+        + rows + " requested");
+    }
+
+    long callNo = dataCalls.incrementAndGet();
+    activeDataCalls.incrementAndGet();
+    try {
+      await(rows * rowLatencyNanos);
+      injectFailure(callNo);
+      long firstRow = rowRange[0] + from;
+      if (projection.rowNumberOffset < 0) {
+        FakeJCo.fillSharedRows(tables.getTable(DATA_TABLE), Collections.singletonList(WORK_AREA_FIELD),
+          projection.records, firstRow, (int) rows);
+      } else {
+        FakeJCo.fillSharedRows(tables.getTable(DATA_TABLE), Collections.singletonList(WORK_AREA_FIELD),
+          numberRecords(projection, firstRow, (int) rows), 0L, (int) rows);
+      }
+      servedRows.addAndGet(rows);
+    } finally {
+      activeDataCalls.decrementAndGet();
+    }
+  }
+
+  /**
+   * Evaluates the {@code OPTIONS} of a data read. Only ranges of the numbered
+   * column joined by AND are supported, so parentheses do not change the result.
+   *
+   * @return first row and end row (exclusive) of the matching rows
+   * @throws AbapException if the options hold any other condition
+   */
+  private long[] getRowRange(JCoTable options) throws AbapException {
+    StringBuilder where = new StringBuilder();
+    for (int i = 0; i < options.getNumRows(); i++) {
+      options.setRow(i);
+      // Conditions are split into lines at any position
+      where.append(options.getString("TEXT"));
+    }
+
+    long first = 0L;
+    long end = rowCount;
+    String condition = where.toString().replace('(', ' ').replace(')', ' ').trim();
+    if (condition.isEmpty()) {
+      return new long[] {first, end};
+    }
+
+    if (!rowNumbered) {
+      throw new AbapException(OPTION_NOT_VALID, "Options are only evaluated for numbered rows: " + condition);
+    }
+
+    for (String part : AND_OPERATOR.split(condition)) {
+      Matcher matcher = ROW_NUMBER_CONDITION.matcher(part.trim());
+      if (!matcher.matches() || !ROW_NUMBER_FIELD.equals(matcher.group(1))) {
+        throw new AbapException(OPTION_NOT_VALID, "Only ranges of " + ROW_NUMBER_FIELD + " are supported: " + part);
+      }
+
+      long value = Long.parseLong(matcher.group(3));
+      switch (matcher.group(2)) {
+        case ">=":
+          first = Math.max(first, value);
+          break;
+        case ">":
+          first = Math.max(first, value + 1);
+          break;
+        case "<":
+          end = Math.min(end, value);
+          break;
+        case "<=":
+          end = Math.min(end, value + 1);
+          break;
+        default:
+          first = Math.max(first, value);
+          end = Math.min(end, value + 1);
+      }
+    }
+
+    return new long[] {first, Math.max(first, end)};
+  }
+
+  /**
+   * Copies the pooled records of the rows, with their row number.
+   */
+  private List<Object[]> numberRecords(Projection projection, long firstRow, int count) {
+    int poolSize = projection.records.size();
+    int width = projection.rowNumberLength;
+    List<Object[]> records = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      long rowNumber = firstRow + i;
+      char[] record = ((char[]) projection.records.get((int) (rowNumber % poolSize))[0]).clone();
+      long digits = rowNumber;
+      for (int pos = projection.rowNumberOffset + width - 1; pos >= projection.rowNumberOffset; pos--) {
+        record[pos] = (char) ('0' + digits % 10);
+        digits /= 10;
+      }
+      records.add(new Object[] {record});
+    }
+
+    return records;
+  }
+
+  private void injectFailure(long callNo) throws JCoException {
+    boolean fail = failureInterval > 0 ? callNo % failureInterval == 0
+      : failureRate > 0d && ThreadLocalRandom.current().nextDouble() < failureRate;
+    if (!fail) {
+      return;
+    }
+
+    failedCalls.incrementAndGet();
+    if (failureKey == null) {
+      throw new JCoException(JCoException.JCO_ERROR_COMMUNICATION, "JCO_ERROR_COMMUNICATION",
+        "Injected connection failure of data read " + callNo);
+    }
+
+    if (SHORT_DUMPS.contains(failureKey)) {
+      throw new JCoException(JCoException.JCO_ERROR_SYSTEM_FAILURE, failureKey,
+        "Injected short dump " + failureKey + " of data read " + callNo);
+    }
+
+    throw new AbapException(failureKey, "Injected failure of data read " + callNo);
+  }
+
+  private void getFieldInfo(JCoFunction function) {
+    function.getExportParameterList().setValue("DDOBJTYPE", "TRANSP");
+    JCoTable fieldMetaTable = function.getTableParameterList().getTable("DFIES_TAB");
+    for (SapFieldMetadata column : columns) {
+      fieldMetaTable.appendRow();
+      fieldMetaTable.setValue("FIELDNAME", column.getName());
+      fieldMetaTable.setValue("SCRTEXT_L", column.getLabel());
+      fieldMetaTable.setValue("FIELDTEXT", column.getDesc());
+      fieldMetaTable.setValue("POSITION", column.getPosition());
+      fieldMetaTable.setValue("DECIMALS", column.getDecimals());
+      fieldMetaTable.setValue("DATATYPE", column.getDataType());
+      fieldMetaTable.setValue("KEYFLAG", column.isKey() ? MARK_FIELD_TRUE_VALUE : "");
+      // Metadata RFM gives the length of decimal columns without the decimals
+      fieldMetaTable.setValue("LENG", column.getLength() - column.getDecimals());
+      fieldMetaTable.setValue("INTTYPE", column.getAbapType());
+    }
+  }
+
+  private void getWorkProcesses(JCoFunction function) {
+    int busy = Math.min(totalWorkProcesses, busyWorkProcesses + activeDataCalls.get());
+    JCoTable wpDetailTable = function.getTableParameterList().getTable("WPLIST");
+    for (int i = 0; i < totalWorkProcesses; i++) {
+      wpDetailTable.appendRow();
+      wpDetailTable.setValue("WP_TYP", "DIA");
+      wpDetailTable.setValue("WP_STATUS", i < busy ? "Running" : "Waiting");
+    }
+
+    // Background work processes are not used by the RFMs
+    for (int i = 0; i < 2; i++) {
+      wpDetailTable.appendRow();
+      wpDetailTable.setValue("WP_TYP", "BGD");
+      wpDetailTable.setValue("WP_STATUS", "Waiting");
+    }
+  }
+
+  private void getMemoryStatistics(JCoFunction function) {
+    JCoTable memoryDetailTable = function.getTableParameterList().getTable("ALLOC_PROCEDURE_DIA");
+    memoryDetailTable.appendRow();
+    memoryDetailTable.setValue("MEMTYPE", "1");
+    memoryDetailTable.setValue("AMOUNT", wpMaxMemory);
+    memoryDetailTable.appendRow();
+    memoryDetailTable.setValue("MEMTYPE", "2");
+    memoryDetailTable.setValue("AMOUNT", wpMaxMemory / 4);
+  }
+
+  private void getOdpPackageCount(JCoFunction function) {
+    long packageSizeBytes = parseLong(function.getImportParameterList().getString("I_MAXPACKAGESIZE"));
+    long totalBytes = rowCount * recordSize;
+    long packages = packageSizeBytes > 0 ? (totalBytes + packageSizeBytes - 1) / packageSizeBytes : 1L;
+
+    JCoParameterList exports = function.getExportParameterList();
+    exports.setValue("E_TOT_PACKAGES", Math.max(1L, packages));
+    exports.setValue("E_FLAG_DELTA", MARK_FIELD_TRUE_VALUE);
+    exports.setValue("E_JOBCOUNT", "00000001");
+    exports.setValue("E_JOBNAME", "FAKE_ODP_EXTRACT");
+    exports.setValue("E_JOB_STATUS", "F");
+  }
+
+  private List<String> getRequestedFields(JCoTable fieldList) {
+    List<String> fieldNames = new ArrayList<>(fieldList.getNumRows());
+    for (int j = 0; j < fieldList.getNumRows(); j++) {
+      fieldList.setRow(j);
+      fieldNames.add(fieldList.getString("FIELDNAME"));
+    }
+
+    return fieldNames;
+  }
+
+  private Projection projection(List<String> fieldNames) throws AbapException {
+    Projection projection = projections.get(fieldNames);
+    if (projection == null) {
+      projection = new Projection(fieldNames);
+      projections.putIfAbsent(fieldNames, projection);
+    }
+
+    return projection;
+  }
+
+  private static long parseLong(String value) {
+    return value == null || value.trim().isEmpty() ? 0L : Long.parseLong(value.trim());
+  }
+
+  private static void await(long nanos) throws JCoException {
+    if (nanos <= 0L) {
+      return;
+    }
+
+    try {
+      TimeUnit.NANOSECONDS.sleep(nanos);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new JCoException(JCoException.JCO_ERROR_COMMUNICATION, "JCO_ERROR_COMMUNICATION",
+        "Interrupted while waiting for the fake SAP backend");
+    }
+  }
+
+  /**
+   * Pool of records reduced to the requested columns, which are kept in the
+   * order of the table columns rather than the order of the request.
+   */
+  private final class Projection {
+    private final List<SapFieldMetadata> fields;
+    private final List<Object[]> records;
+    // Position of the row number in the projected record, -1 if not numbered
+    private final int rowNumberOffset;
+    private final int rowNumberLength;
+    private final int recordWidth;
+
+    private Projection(List<String> fieldNames) throws AbapException {
+      Map<String, SapFieldMetadata> columnsByName = new HashMap<>();
+      for (SapFieldMetadata column : columns) {
+        columnsByName.put(column.getName(), column);
+      }
+      for (String fieldName : fieldNames) {
+        if (!columnsByName.containsKey(fieldName)) {
+          throw new AbapException("FIELD_NOT_VALID", "Field " + fieldName + " does not exist");
+        }
+      }
+
+      this.fields = new ArrayList<>();
+      int offset = 0;
+      int numberOffset = -1;
+      int numberLength = 0;
+      for (SapFieldMetadata column : columns) {
+        if (fieldNames.isEmpty() || fieldNames.contains(column.getName())) {
+          fields.add(column);
+          if (rowNumbered && ROW_NUMBER_FIELD.equals(column.getName())) {
+            numberOffset = offset;
+            numberLength = column.getLength();
+          }
+          offset += column.getLength();
+        }
+      }
+      this.rowNumberOffset = numberOffset;
+      this.rowNumberLength = numberLength;
+      this.recordWidth = offset;
+
+      List<String> fullRecords = SapBenchmarkFixtures.tableRecords(columns, recordPoolSize);
+      this.records = new ArrayList<>(recordPoolSize);
+      for (String fullRecord : fullRecords) {
+        StringBuilder record = new StringBuilder();
+        for (SapFieldMetadata field : fields) {
+          record.append(fullRecord, field.getOffset(), field.getOffset() + field.getLength());
+        }
+        records.add(new Object[] {record.toString().toCharArray()});
+      }
+    }
+
+    /**
+     * Replaces the requested fields with their offsets and lengths in the
+     * projected record.
+     */
+    private void setFields(JCoTable fieldList) {
+      fieldList.deleteAllRows();
+      int offset = 0;
+      for (SapFieldMetadata field : fields) {
+        fieldList.appendRow();
+        fieldList.setValue("FIELDNAME", field.getName());
+        fieldList.setValue("OFFSET", String.format("%06d", offset));
+        fieldList.setValue("LENGTH", String.format("%06d", field.getLength()));
+        fieldList.setValue("TYPE", field.getAbapType());
+        fieldList.setValue("FIELDTEXT", field.getDesc());
+        offset += field.getLength();
+      }
+    }
+  }
+
+  /**
+   * Serves an RFM: reads the imports of the function and sets its exports and
+   * tables, or raises the exception SAP would raise.
+   */
+  public interface RfmHandler {
+    void execute(JCoFunction function) throws JCoException;
+  }
+
+  /**
+   * Builder for {@link FakeSapBackend}
+   */
+  public static final class Builder {
+    private int columnCount = 48;
+    private long rowCount = 1_000_000L;
+    private int recordPoolSize = 1_000;
+    private long callLatencyMillis;
+    private long rowLatencyNanos;
+    private double failureRate;
+    private int failureInterval;
+    private String failureKey;
+    private int totalWorkProcesses = 60;
+    private int busyWorkProcesses = 10;
+    private long wpMaxMemory = 2_147_483_648L;
+    private boolean rowNumbered;
+
+    private Builder() {
+    }
+
+    /**
+     * @param columnCount number of table columns, following the ACDOCA layout
+     */
+    public Builder setColumnCount(int columnCount) {
+      this.columnCount = columnCount;
+      return this;
+    }
+
+    public Builder setRowCount(long rowCount) {
+      this.rowCount = rowCount;
+      return this;
+    }
+
+    /**
+     * @param recordPoolSize number of distinct records, repeated for larger tables
+     */
+    public Builder setRecordPoolSize(int recordPoolSize) {
+      this.recordPoolSize = Math.max(1, recordPoolSize);
+      return this;
+    }
+
+    /**
+     * @param callLatencyMillis round trip time of every call
+     */
+    public Builder setCallLatencyMillis(long callLatencyMillis) {
+      this.callLatencyMillis = callLatencyMillis;
+      return this;
+    }
+
+    /**
+     * @param rowLatencyNanos additional time of a data read for every row, i.e.
+     *                        database and transfer time
+     */
+    public Builder setRowLatencyNanos(long rowLatencyNanos) {
+      this.rowLatencyNanos = rowLatencyNanos;
+      return this;
+    }
+
+    /**
+     * @param failureRate share of the data reads which fail at random
+     */
+    public Builder setFailureRate(double failureRate) {
+      this.failureRate = failureRate;
+      return this;
+    }
+
+    /**
+     * @param failureInterval every n-th data read fails, overrides the failure
+     *                        rate
+     */
+    public Builder setFailureInterval(int failureInterval) {
+      this.failureInterval = failureInterval;
+      return this;
+    }
+
+    /**
+     * @param failureKey short dump raised by failing data reads as a system
+     *                   failure, e.g. {@code TSV_TNEW_PAGE_ALLOC_FAILED}, any
+     *                   other ABAP exception, or null for a connection failure
+     */
+    public Builder setFailureKey(String failureKey) {
+      this.failureKey = failureKey;
+      return this;
+    }
+
+    public Builder setTotalWorkProcesses(int totalWorkProcesses) {
+      this.totalWorkProcesses = totalWorkProcesses;
+      return this;
+    }
+
+    /**
+     * @param busyWorkProcesses dialog work processes busy with other users
+     */
+    public Builder setBusyWorkProcesses(int busyWorkProcesses) {
+      this.busyWorkProcesses = busyWorkProcesses;
+      return this;
+    }
+
+    public Builder setWpMaxMemory(long wpMaxMemory) {
+      this.wpMaxMemory = wpMaxMemory;
+      return this;
+    }
+
+    /**
+     * @param rowNumbered {@code true} to keep the row number in
+     *                    {@link #ROW_NUMBER_FIELD}, so that lost or duplicated
+     *                    rows can be found. Every served record is then a copy.
+     */
+    public Builder setRowNumbered(boolean rowNumbered) {
+      this.rowNumbered = rowNumbered;
+      return this;
+    }
+
+    public FakeSapBackend build() {
+      return new FakeSapBackend(this);
+    }
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.benchmark.fake;
+
+import com.google.cloud.datafusion.plugin.sap.connection.SapConnection;
+import com.google.cloud.datafusion.plugin.sap.connection.SapDefinition;
+import com.google.cloud.datafusion.plugin.sap.exception.ConnectorException;
+import com.google.cloud.datafusion.plugin.util.ResourceConstants;
+import com.sap.conn.jco.JCoException;
+import com.sap.conn.jco.JCoFunction;
+import com.sap.conn.jco.ext.DestinationDataProvider;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Connection to a {@link FakeSapBackend}, which can be passed to the plugin
+ * interfaces and record readers in place of a JCo destination. Any number of
+ * calls may run on it at the same time.
+ *
+ * @author sankalpbapat
+ *
+ */
+public class FakeSapConnection extends SapConnection {
+
+  private final FakeSapBackend backend;
+
+  /**
+   * @param host application server host name in the connection parameters, so
+   *        the destination name and metadata cache keys tell fakes apart
+   * @param backend backend serving the calls
+   */
+  public FakeSapConnection(String host, FakeSapBackend backend) {
+    super(createDefinition(host));
+    this.backend = backend;
+  }
+
+  private static SapDefinition createDefinition(String host) {
+    Map<String, String> connParams = new HashMap<>();
+    connParams.put(DestinationDataProvider.JCO_ASHOST, host);
+    connParams.put(DestinationDataProvider.JCO_SYSNR, "00");
+    connParams.put(DestinationDataProvider.JCO_CLIENT, "100");
+    connParams.put(DestinationDataProvider.JCO_USER, "FAKE");
+    connParams.put(DestinationDataProvider.JCO_LANG, "EN");
+
+    return SapDefinition.builder(connParams).build();
+  }
+
+  @Override
+  public void initDestination() {
+    // Nothing to register
+  }
+
+  @Override
+  public void ping() {
+    // Backend is always reachable
+  }
+
+  @Override
+  public void refreshDestination(boolean forceRefresh) {
+    // Nothing to refresh
+  }
+
+  @Override
+  public boolean renewDestination(long callStartNanos) {
+    // Backend never loses the connection
+    return false;
+  }
+
+  @Override
+  public JCoFunction getJCoFunction(String rfmName) throws ConnectorException {
+    if (!backend.isServed(rfmName)) {
+      throw new ConnectorException(ResourceConstants.ERR_FUNC_MISSING.getCode(),
+        ResourceConstants.ERR_FUNC_MISSING.getMsgForKeyWithCode(rfmName));
+    }
+
+    return backend.createFunction(rfmName);
+  }
+
+  @Override
+  public void executeFunction(JCoFunction function) throws JCoException {
+    backend.execute(function);
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.benchmark.fake;
+
+import com.google.cloud.datafusion.plugin.sap.connection.SapConnection;
+import com.google.cloud.datafusion.plugin.sap.table.source.input.SapTableInputSplit;
+import com.google.cloud.datafusion.plugin.sap.table.source.input.SapTableRecordReader;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * {@link SapTableRecordReader} reading a split from a {@link FakeSapBackend}
+ * instead of a JCo destination. Everything else, i.e. package lookahead,
+ * adaptive package size, retries, the work process governor and the record
+ * conversion, runs as in the plugin.
+ *
+ * @author sankalpbapat
+ *
+ */
+public class FakeTableRecordReader extends SapTableRecordReader {
+
+  public static final String DEST_NAME = "FAKE_SAP";
+
+  private final FakeSapBackend backend;
+
+  /**
+   * @param backend               fake SAP system
+   * @param tableName             SAP table name
+   * @param schemaStr             output schema, which selects the columns to read
+   * @param split                 split to read
+   * @param totalWorkProcessCount total dialog work processes, as found by the
+   *                              planning
+   * @param packageLookahead      packages requested ahead of the current one
+   */
+  public FakeTableRecordReader(FakeSapBackend backend, String tableName, String schemaStr, SapTableInputSplit split,
+                               int totalWorkProcessCount, int packageLookahead) {
+
+    super(Collections.emptyMap(), tableName, Collections.emptyList(), schemaStr, split.getStart(), split.getEnd(),
+      split.getPackageSize(), String.valueOf(totalWorkProcessCount), packageLookahead, split.getKeyRange(),
+      split.isOpenEnded());
+
+    this.backend = backend;
+  }
+
+  @Override
+  protected SapConnection createConn(Map<String, String> pluginProps) {
+    return new FakeSapConnection(DEST_NAME, backend);
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.benchmark.odata;
+
+import com.google.cloud.datafusion.plugin.sap.benchmark.SapBenchmarkFixtures;
+import com.google.cloud.datafusion.plugin.sap.odata.source.transform.SapODataTransformer;
+import io.cdap.cdap.api.data.schema.Schema;
+import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per record cost of {@code SapODataTransformer} converting one parsed OData page into
+ * {@code StructuredRecord}s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ODataTransformerBenchmark {
+
+  private static final int PAGE_SIZE = 1000;
+
+  @Param({"16", "120"})
+  private int columnCount;
+
+  private Schema outputSchema;
+  private List<ODataEntry> page;
+
+  @Setup
+  public void setUp() throws Exception {
+    outputSchema = SapBenchmarkFixtures.odataSchema(columnCount);
+    page = SapBenchmarkFixtures.odataEntries(columnCount, PAGE_SIZE);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(PAGE_SIZE)
+  public void buildCurrentCDFRecord(Blackhole blackhole) {
+    SapODataTransformer transformer = new SapODataTransformer(outputSchema, page);
+    while (transformer.containsNextRow()) {
+      blackhole.consume(transformer.buildCurrentCDFRecord());
+    }
+  }
+}
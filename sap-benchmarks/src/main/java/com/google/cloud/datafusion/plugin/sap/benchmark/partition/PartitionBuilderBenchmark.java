@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.benchmark.partition;
+
+import com.google.cloud.datafusion.plugin.sap.exception.ConnectorException;
+import com.google.cloud.datafusion.plugin.sap.odata.source.input.SapODataInputSplit;
+import com.google.cloud.datafusion.plugin.sap.odata.source.input.SapODataPartitionBuilder;
+import com.google.cloud.datafusion.plugin.sap.odp.metadata.model.SapOdpRuntimeConfigInfo;
+import com.google.cloud.datafusion.plugin.sap.odp.source.input.SapOdpInputSplit;
+import com.google.cloud.datafusion.plugin.sap.odp.source.input.SapOdpPartitionBuilder;
+import com.google.cloud.datafusion.plugin.sap.table.metadata.model.SapTableRuntimeConfigInfo;
+import com.google.cloud.datafusion.plugin.sap.table.source.input.SapTableInputSplit;
+import com.google.cloud.datafusion.plugin.sap.table.source.input.SapTablePartitionBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures split planning of the Table, ODP and OData partition builders with runtime values typical for a mid
+ * sized SAP system (40 dialog work processes, 2 GB per work process).
+ *
+ * @author sankalpbapat
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PartitionBuilderBenchmark {
+
+  private static final int TOTAL_WORK_PROCESSES = 60;
+  private static final int AVAILABLE_WORK_PROCESSES = 40;
+  private static final long WP_MAX_MEMORY = 2_147_483_648L;
+  // Record width of ACDOCA as reported by /GOOG/RFC_READ_TABLE
+  private static final int RECORD_SIZE = 1_540;
+
+  @Param({"100000", "100000000"})
+  private long rowCount;
+
+  @Param({"0", "16"})
+  private int splitCount;
+
+  private SapTableRuntimeConfigInfo tableRuntimeConfig;
+  private SapOdpRuntimeConfigInfo odpRuntimeConfig;
+
+  @Setup
+  public void setUp() {
+    tableRuntimeConfig = SapTableRuntimeConfigInfo.builder()
+      .setRuntimeTableRecCount(rowCount)
+      .setRecordSize(RECORD_SIZE)
+      .setTotalWorkProcCount(TOTAL_WORK_PROCESSES)
+      .setAvailableWorkProcCount(AVAILABLE_WORK_PROCESSES)
+      .setWpMaxMemory(WP_MAX_MEMORY)
+      .build();
+
+    odpRuntimeConfig = SapOdpRuntimeConfigInfo.builder()
+      .setRuntimePackageCount(rowCount * RECORD_SIZE / 52_428_800L + 1)
+      .setTotalWorkProcCount(TOTAL_WORK_PROCESSES)
+      .setAvailableWorkProcCount(AVAILABLE_WORK_PROCESSES)
+      .setWpMaxMemory(WP_MAX_MEMORY)
+      .build();
+  }
+
+  @Benchmark
+  public List<SapTableInputSplit> tablePartitionBuilder() {
+    return new SapTablePartitionBuilder().build(tableRuntimeConfig, rowCount, 0L, splitCount, 0L);
+  }
+
+  @Benchmark
+  public List<SapOdpInputSplit> odpPartitionBuilder() throws ConnectorException {
+    return new SapOdpPartitionBuilder().build(odpRuntimeConfig, splitCount, 0L);
+  }
+
+  @Benchmark
+  public List<SapODataInputSplit> odataPartitionBuilder() {
+    return new SapODataPartitionBuilder().buildSplit(rowCount, 0L, 0L, splitCount, 0L);
+  }
+}
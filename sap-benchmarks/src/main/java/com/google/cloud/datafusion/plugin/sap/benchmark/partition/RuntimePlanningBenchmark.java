@@ -0,0 +1,108 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.benchmark.partition;
+
+import com.google.cloud.datafusion.plugin.sap.benchmark.fake.FakeSapBackend;
+import com.google.cloud.datafusion.plugin.sap.benchmark.fake.FakeSapConnection;
+import com.google.cloud.datafusion.plugin.sap.exception.ConnectorException;
+import com.google.cloud.datafusion.plugin.sap.metadata.model.SapFieldMetadata;
+import com.google.cloud.datafusion.plugin.sap.odp.connection.out.SapOdpInterfaceImpl;
+import com.google.cloud.datafusion.plugin.sap.odp.metadata.model.SapOdpRuntimeConfigInfo;
+import com.google.cloud.datafusion.plugin.sap.odp.source.SapOdpBatchSource;
+import com.google.cloud.datafusion.plugin.sap.odp.source.input.SapOdpInputSplit;
+import com.google.cloud.datafusion.plugin.sap.odp.source.input.SapOdpPartitionBuilder;
+import com.google.cloud.datafusion.plugin.sap.table.connection.out.SapTableInterfaceImpl;
+import com.google.cloud.datafusion.plugin.sap.table.metadata.model.SapTableRuntimeConfigInfo;
+import com.google.cloud.datafusion.plugin.sap.table.source.input.SapTableInputSplit;
+import com.google.cloud.datafusion.plugin.sap.table.source.input.SapTablePartitionBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the split planning of the Table and ODP sources end to end against a
+ * {@link FakeSapBackend}: the concurrent runtime RFM calls (record or package
+ * count, work processes and memory) followed by the partition builder. With a
+ * call latency, the result shows whether the RFM calls overlap.
+ *
+ * @author sankalpbapat
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuntimePlanningBenchmark {
+
+  private static final String TABLE_NAME = "ACDOCA";
+  private static final String DATASOURCE_NAME = "0FI_ACDOCA_10";
+  private static final long ODP_PACKAGE_SIZE_BYTES = 52_428_800L;
+
+  @Param({"100000000"})
+  private long rowCount;
+
+  @Param({"0", "5"})
+  private long callLatencyMillis;
+
+  private FakeSapConnection conn;
+  private List<String> fieldNames;
+
+  @Setup
+  public void setUp() {
+    FakeSapBackend backend = FakeSapBackend.builder()
+      .setRowCount(rowCount)
+      .setCallLatencyMillis(callLatencyMillis)
+      .build();
+    conn = new FakeSapConnection("FAKE_SAP", backend);
+
+    fieldNames = new ArrayList<>();
+    for (SapFieldMetadata column : backend.getColumns()) {
+      fieldNames.add(column.getName());
+    }
+  }
+
+  @Benchmark
+  public List<SapTableInputSplit> tablePlanning() throws ConnectorException {
+    SapTableRuntimeConfigInfo runtimeConfig =
+      new SapTableInterfaceImpl().getRuntimeConfigParams(TABLE_NAME, Collections.emptyList(), fieldNames, conn);
+
+    return new SapTablePartitionBuilder().build(runtimeConfig, runtimeConfig.getRuntimeTableRecCount(), 0L, 0, 0L);
+  }
+
+  @Benchmark
+  public List<SapOdpInputSplit> odpPlanning() throws ConnectorException {
+    SapOdpRuntimeConfigInfo runtimeConfig = new SapOdpInterfaceImpl().getRuntimeConfigParams(DATASOURCE_NAME,
+      Collections.emptyList(), false, SapOdpBatchSource.EXTRACTION_MODE_FULL, "BENCH_SUBSCRIBER",
+      ODP_PACKAGE_SIZE_BYTES, conn);
+
+    return new SapOdpPartitionBuilder().build(runtimeConfig, 0, ODP_PACKAGE_SIZE_BYTES);
+  }
+}
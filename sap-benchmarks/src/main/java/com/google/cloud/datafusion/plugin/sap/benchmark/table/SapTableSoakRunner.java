@@ -0,0 +1,317 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.benchmark.table;
+
+import com.google.cloud.datafusion.plugin.sap.benchmark.fake.CountingStatusReporter;
+import com.google.cloud.datafusion.plugin.sap.benchmark.fake.FakeSapBackend;
+import com.google.cloud.datafusion.plugin.sap.benchmark.fake.FakeSapConnection;
+import com.google.cloud.datafusion.plugin.sap.benchmark.fake.FakeTableRecordReader;
+import com.google.cloud.datafusion.plugin.sap.exception.ConnectorException;
+import com.google.cloud.datafusion.plugin.sap.metadata.model.SapFieldMetadata;
+import com.google.cloud.datafusion.plugin.sap.table.connection.out.SapTableInterfaceImpl;
+import com.google.cloud.datafusion.plugin.sap.table.metadata.model.SapTableRuntimeConfigInfo;
+import com.google.cloud.datafusion.plugin.sap.table.source.SapTableToStructuredSchemaTransformer;
+import com.google.cloud.datafusion.plugin.sap.table.source.config.SapTablePluginConfig;
+import com.google.cloud.datafusion.plugin.sap.table.source.input.SapTableInputSplit;
+import com.google.cloud.datafusion.plugin.sap.table.source.input.SapTablePartitionBuilder;
+import com.google.cloud.datafusion.plugin.sap.table.source.input.SapTableRecordReader.PackageCounter;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import org.apache.hadoop.conf.Configuration;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Extracts a table from a {@link FakeSapBackend} the way a pipeline run does:
+ * plans the splits with the runtime RFM calls and {@link SapTablePartitionBuilder},
+ * then reads them largest first with {@code SapTableRecordReader} on a pool of
+ * reader threads. Reports rows per second, CPU time and allocated bytes per row,
+ * and fails if any row is lost or duplicated. Rows are told apart by the row
+ * number the fake backend keeps in {@link FakeSapBackend#ROW_NUMBER_FIELD}, so a
+ * lost row and a duplicated one can't cancel out. With a duration, the
+ * extraction is repeated until the duration has passed, e.g. to find leaks on a
+ * laptop.
+ * <p>
+ * The run can be tuned with the following system properties:
+ * * sap.table.soak.rows, sap.table.soak.columns
+ * * sap.table.soak.splits, sap.table.soak.packageSize - 0 lets the partition builder decide
+ * * sap.table.soak.keyRanges - true to split by ranges of the row number column instead of row windows
+ * * sap.table.soak.threads, sap.table.soak.lookahead
+ * * sap.table.soak.latencyMillis, sap.table.soak.rowLatencyNanos
+ * * sap.table.soak.workProcesses, sap.table.soak.busyWorkProcesses
+ * * sap.table.soak.failEvery, sap.table.soak.failureKey - short dump or ABAP exception of failing data reads, by
+ * default the memory dump TSV_TNEW_PAGE_ALLOC_FAILED which shrinks the package, COMMUNICATION for a connection failure
+ * * sap.table.soak.durationSeconds - 0 for a single extraction
+ *
+ * <pre>
+ *   java -cp sap-benchmarks/target/benchmarks.jar:lib/sapjco3.jar -Dsap.table.soak.rows=10000000 \
+ *     com.google.cloud.datafusion.plugin.sap.benchmark.table.SapTableSoakRunner
+ * </pre>
+ *
+ * Reader CPU and allocation cover the reader threads, i.e. mainly the record
+ * conversion. Process CPU also covers package lookahead, the fake backend, JIT
+ * and GC. Without lookahead, the reader threads also copy every record in the
+ * fake backend to number it.
+ *
+ * @author sankalpbapat
+ */
+public final class SapTableSoakRunner {
+
+  private static final String PROPERTY_PREFIX = "sap.table.soak.";
+  private static final String TABLE_NAME = "ACDOCA";
+  private static final String COMMUNICATION_FAILURE = "COMMUNICATION";
+
+  private final FakeSapBackend backend;
+  private final int numSplits;
+  private final long packageSize;
+  private final int readerThreads;
+  private final int packageLookahead;
+  private final boolean keyRanges;
+
+  private SapTableSoakRunner(FakeSapBackend backend, int numSplits, long packageSize, int readerThreads,
+                             int packageLookahead, boolean keyRanges) {
+    this.backend = backend;
+    this.numSplits = numSplits;
+    this.packageSize = packageSize;
+    this.readerThreads = readerThreads;
+    this.packageLookahead = packageLookahead;
+    this.keyRanges = keyRanges;
+  }
+
+  public static void main(String[] args) throws Exception {
+    String failureKey = System.getProperty(PROPERTY_PREFIX + "failureKey", "TSV_TNEW_PAGE_ALLOC_FAILED");
+    FakeSapBackend backend = FakeSapBackend.builder()
+      .setRowCount(Long.getLong(PROPERTY_PREFIX + "rows", 5_000_000L))
+      .setColumnCount(Integer.getInteger(PROPERTY_PREFIX + "columns", 48))
+      .setCallLatencyMillis(Long.getLong(PROPERTY_PREFIX + "latencyMillis", 20L))
+      .setRowLatencyNanos(Long.getLong(PROPERTY_PREFIX + "rowLatencyNanos", 200L))
+      .setTotalWorkProcesses(Integer.getInteger(PROPERTY_PREFIX + "workProcesses", 60))
+      .setBusyWorkProcesses(Integer.getInteger(PROPERTY_PREFIX + "busyWorkProcesses", 10))
+      .setFailureInterval(Integer.getInteger(PROPERTY_PREFIX + "failEvery", 0))
+      .setFailureKey(COMMUNICATION_FAILURE.equalsIgnoreCase(failureKey) ? null : failureKey)
+      .setRowNumbered(true)
+      .build();
+
+    SapTableSoakRunner runner = new SapTableSoakRunner(backend,
+      Integer.getInteger(PROPERTY_PREFIX + "splits", 0),
+      Long.getLong(PROPERTY_PREFIX + "packageSize", 0L),
+      Integer.getInteger(PROPERTY_PREFIX + "threads", Runtime.getRuntime().availableProcessors()),
+      Integer.getInteger(PROPERTY_PREFIX + "lookahead", 1),
+      Boolean.getBoolean(PROPERTY_PREFIX + "keyRanges"));
+
+    long durationNanos = TimeUnit.SECONDS.toNanos(Long.getLong(PROPERTY_PREFIX + "durationSeconds", 0L));
+    long soakEnd = System.nanoTime() + durationNanos;
+    boolean complete = true;
+    int round = 0;
+    do {
+      complete &= runner.extract(++round);
+    } while (System.nanoTime() < soakEnd);
+
+    System.exit(complete ? 0 : 1);
+  }
+
+  /**
+   * Plans and reads all the records once, and prints the results.
+   *
+   * @param round number of the extraction
+   * @return {@code true} if every record was read exactly once
+   */
+  private boolean extract(int round) throws Exception {
+    backend.resetStatistics();
+    List<String> fieldNames = new ArrayList<>();
+    for (SapFieldMetadata column : backend.getColumns()) {
+      fieldNames.add(column.getName());
+    }
+    String schemaStr = Schema.recordOf("record",
+      new SapTableToStructuredSchemaTransformer().createSchemaFields(backend.getColumns())).toString();
+
+    com.sun.management.OperatingSystemMXBean osBean =
+      (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+    long startCpuNanos = osBean.getProcessCpuTime();
+    long startNanos = System.nanoTime();
+
+    SapTableInterfaceImpl sapInterface = new SapTableInterfaceImpl();
+    FakeSapConnection conn = new FakeSapConnection(FakeTableRecordReader.DEST_NAME, backend);
+    SapTableRuntimeConfigInfo runtimeConfig =
+      sapInterface.getRuntimeConfigParams(TABLE_NAME, Collections.emptyList(), fieldNames, conn);
+    SapTablePartitionBuilder.KeyRangeProbe keyRangeProbe = new SapTablePartitionBuilder.KeyRangeProbe() {
+      @Override
+      public String getKeyValueAt(long rowSkips) throws ConnectorException {
+        return sapInterface.getFieldValueAt(TABLE_NAME, Collections.emptyList(), FakeSapBackend.ROW_NUMBER_FIELD,
+          rowSkips, conn);
+      }
+
+      @Override
+      public long countRecords(String keyRange) throws ConnectorException {
+        return sapInterface.getRecordCount(TABLE_NAME,
+          SapTablePluginConfig.addFilterCondition(Collections.emptyList(), keyRange), conn);
+      }
+    };
+    // Reader threads play the executor slots of a cluster
+    SapTablePartitionBuilder partitionBuilder = new SapTablePartitionBuilder(readerThreads, 0L, packageLookahead);
+    List<SapTableInputSplit> splits = partitionBuilder.build(runtimeConfig, runtimeConfig.getRuntimeTableRecCount(),
+      0L, numSplits, packageSize, keyRanges ? FakeSapBackend.ROW_NUMBER_FIELD : null, keyRangeProbe);
+    // Same order as SapTableInputFormat hands them out
+    splits.sort(Comparator.comparingLong(SapTableInputSplit::getEstimatedBytes).reversed());
+    long planNanos = System.nanoTime() - startNanos;
+
+    ExecutorService readers = Executors.newFixedThreadPool(readerThreads);
+    SplitResult total = new SplitResult();
+    RowTracker rowTracker = new RowTracker(backend.getRowCount());
+    try {
+      List<Future<SplitResult>> results = new ArrayList<>(splits.size());
+      for (SapTableInputSplit split : splits) {
+        results.add(readers.submit(() -> readSplit(split, schemaStr, runtimeConfig.getTotalWorkProcCount(),
+          rowTracker)));
+      }
+      for (Future<SplitResult> result : results) {
+        total.add(result.get());
+      }
+    } finally {
+      readers.shutdownNow();
+    }
+
+    long elapsedNanos = System.nanoTime() - startNanos;
+    long processCpuNanos = osBean.getProcessCpuTime() - startCpuNanos;
+    long rows = Math.max(1L, total.rows);
+    double seconds = elapsedNanos / 1e9d;
+
+    System.out.printf("Round %d: %d rows of %d bytes in %d splits, planned in %d ms, extracted in %.1f s%n", round,
+      total.rows, backend.getRecordSize(), splits.size(), TimeUnit.NANOSECONDS.toMillis(planNanos), seconds);
+    System.out.printf("  throughput        %,.0f rows/s%n", total.rows / seconds);
+    System.out.printf("  predicted         %d s%n", partitionBuilder.getPredictedDurationSeconds());
+    System.out.printf("  reader CPU        %,.0f ns/row, process CPU %,.0f ns/row%n",
+      total.cpuNanos / (double) rows, processCpuNanos / (double) rows);
+    System.out.printf("  reader allocation %,.0f bytes/row, %,.1f MB/s%n",
+      total.allocatedBytes / (double) rows, total.allocatedBytes / seconds / (1024 * 1024));
+    System.out.printf("  SAP calls         %d (%d data reads, %d failures injected), counters %s%n",
+      backend.getCalls(), backend.getDataCalls(), backend.getFailedCalls(), total.counters);
+
+    long lostRows = backend.getRowCount() - rowTracker.getReadRows();
+    boolean complete = total.rows == backend.getRowCount() && lostRows == 0L && rowTracker.duplicates.get() == 0L
+      && rowTracker.unknown.get() == 0L;
+    if (!complete) {
+      System.out.printf("  ERROR: expected %d rows, read %d: %d lost, %d duplicated, %d unknown%n",
+        backend.getRowCount(), total.rows, lostRows, rowTracker.duplicates.get(), rowTracker.unknown.get());
+    }
+
+    return complete;
+  }
+
+  private SplitResult readSplit(SapTableInputSplit split, String schemaStr, int totalWorkProcesses,
+                                RowTracker rowTracker) throws Exception {
+
+    com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+    long startCpuNanos = threadBean.getCurrentThreadCpuTime();
+    long startAllocatedBytes = threadBean.getThreadAllocatedBytes(threadId);
+
+    CountingStatusReporter reporter = new CountingStatusReporter();
+    SplitResult result = new SplitResult();
+    try (FakeTableRecordReader reader =
+           new FakeTableRecordReader(backend, TABLE_NAME, schemaStr, split, totalWorkProcesses, packageLookahead)) {
+
+      reader.initialize(split, reporter.newTaskContext(new Configuration(false)));
+      while (reader.nextKeyValue()) {
+        StructuredRecord record = reader.getCurrentValue();
+        rowTracker.add(record.get(FakeSapBackend.ROW_NUMBER_FIELD));
+        result.rows++;
+      }
+    }
+
+    result.cpuNanos = threadBean.getCurrentThreadCpuTime() - startCpuNanos;
+    result.allocatedBytes = threadBean.getThreadAllocatedBytes(threadId) - startAllocatedBytes;
+    for (PackageCounter counter : PackageCounter.values()) {
+      result.counters.put(counter, reporter.getValue(counter));
+    }
+
+    return result;
+  }
+
+  /**
+   * Rows read by all the splits of an extraction, by row number
+   */
+  private static final class RowTracker {
+    private final long rowCount;
+    private final AtomicLongArray readRows;
+    private final AtomicLong duplicates = new AtomicLong();
+    // Rows without a valid row number
+    private final AtomicLong unknown = new AtomicLong();
+
+    private RowTracker(long rowCount) {
+      this.rowCount = rowCount;
+      this.readRows = new AtomicLongArray((int) ((rowCount + 63) / 64));
+    }
+
+    private void add(Object rowNumberValue) {
+      long rowNumber;
+      try {
+        rowNumber = rowNumberValue == null ? -1L : Long.parseLong(rowNumberValue.toString().trim());
+      } catch (NumberFormatException e) {
+        rowNumber = -1L;
+      }
+      if (rowNumber < 0L || rowNumber >= rowCount) {
+        unknown.incrementAndGet();
+        return;
+      }
+
+      int word = (int) (rowNumber >>> 6);
+      long bit = 1L << rowNumber;
+      if ((readRows.getAndAccumulate(word, bit, (read, mask) -> read | mask) & bit) != 0L) {
+        duplicates.incrementAndGet();
+      }
+    }
+
+    private long getReadRows() {
+      long readRowCount = 0L;
+      for (int i = 0; i < readRows.length(); i++) {
+        readRowCount += Long.bitCount(readRows.get(i));
+      }
+
+      return readRowCount;
+    }
+  }
+
+  /**
+   * Records read by a split, or all the splits
+   */
+  private static final class SplitResult {
+    private final Map<PackageCounter, Long> counters = new EnumMap<>(PackageCounter.class);
+    private long rows;
+    private long cpuNanos;
+    private long allocatedBytes;
+
+    private void add(SplitResult other) {
+      rows += other.rows;
+      cpuNanos += other.cpuNanos;
+      allocatedBytes += other.allocatedBytes;
+      other.counters.forEach((counter, value) -> counters.merge(counter, value, Long::sum));
+    }
+  }
+}
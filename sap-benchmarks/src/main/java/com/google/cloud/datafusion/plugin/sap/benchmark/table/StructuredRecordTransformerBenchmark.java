@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.benchmark.table;
+
+import com.google.cloud.datafusion.plugin.sap.benchmark.SapBenchmarkFixtures;
+import com.google.cloud.datafusion.plugin.sap.metadata.model.SapFieldMetadata;
+import com.google.cloud.datafusion.plugin.sap.metadata.model.SapObjectMetadata;
+import com.google.cloud.datafusion.plugin.sap.table.source.SapTableToStructuredSchemaTransformer;
+import io.cdap.cdap.api.data.schema.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per record cost of converting a fixed width /GOOG/RFC_READ_TABLE record into a
+ * {@code StructuredRecord}, i.e. {@code AbstractStructuredSchemaTransformer#readFields} and the column slicing in
+ * {@code SapTableToStructuredSchemaTransformer#getFieldNativeValue}.
+ *
+ * @author sankalpbapat
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StructuredRecordTransformerBenchmark {
+
+  private static final int RECORDS = 1000;
+
+  @Param({"48", "240"})
+  private int columnCount;
+
+  private SapTableToStructuredSchemaTransformer transformer;
+  private SapObjectMetadata runtimeMetadata;
+  private Schema outputSchema;
+  private List<String> rawRecords;
+
+  @Setup
+  public void setUp() {
+    transformer = new SapTableToStructuredSchemaTransformer();
+    List<SapFieldMetadata> columns = SapBenchmarkFixtures.tableColumns(columnCount);
+    runtimeMetadata = new SapObjectMetadata(columns);
+    outputSchema = Schema.recordOf("record", transformer.createSchemaFields(columns));
+    rawRecords = SapBenchmarkFixtures.tableRecords(columns, RECORDS);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RECORDS)
+  public void readFields(Blackhole blackhole) throws IOException {
+    for (String rawRecord : rawRecords) {
+      blackhole.consume(transformer.readFields(rawRecord, runtimeMetadata, outputSchema));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RECORDS)
+  public void getFieldNativeValue(Blackhole blackhole) {
+    for (String rawRecord : rawRecords) {
+      for (int col = 0; col < columnCount; col++) {
+        blackhole.consume(transformer.getFieldNativeValue(runtimeMetadata, rawRecord, col));
+      }
+    }
+  }
+}
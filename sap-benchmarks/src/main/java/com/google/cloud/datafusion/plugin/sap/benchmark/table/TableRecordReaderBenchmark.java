@@ -0,0 +1,111 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.benchmark.table;
+
+import com.google.cloud.datafusion.plugin.sap.benchmark.fake.CountingStatusReporter;
+import com.google.cloud.datafusion.plugin.sap.benchmark.fake.FakeSapBackend;
+import com.google.cloud.datafusion.plugin.sap.benchmark.fake.FakeTableRecordReader;
+import com.google.cloud.datafusion.plugin.sap.table.source.SapTableToStructuredSchemaTransformer;
+import com.google.cloud.datafusion.plugin.sap.table.source.input.SapTableInputSplit;
+import io.cdap.cdap.api.data.schema.Schema;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the records per second of {@code SapTableRecordReader} reading a
+ * split end to end from a {@link FakeSapBackend}: package requests through the
+ * work process governor, package lookahead, and the conversion of the fixed
+ * width records. Run with {@code -prof gc} for the allocation rate per record.
+ * The JCo library ({@code sapjco3.jar}) must be on the class path, as it is not
+ * part of the benchmark jar.
+ *
+ * @author sankalpbapat
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TableRecordReaderBenchmark {
+
+  private static final String TABLE_NAME = "ACDOCA";
+  private static final int ROWS = 100_000;
+  private static final long PACKAGE_SIZE = 10_000L;
+  private static final int TOTAL_WORK_PROCESSES = 60;
+
+  @Param({"48", "240"})
+  private int columnCount;
+
+  @Param({"0", "2"})
+  private int packageLookahead;
+
+  // Round trip time of every package request
+  @Param({"0", "10"})
+  private long callLatencyMillis;
+
+  private FakeSapBackend backend;
+  private String schemaStr;
+  private SapTableInputSplit split;
+  private TaskAttemptContext taContext;
+
+  @Setup
+  public void setUp() {
+    backend = FakeSapBackend.builder()
+      .setColumnCount(columnCount)
+      .setRowCount(ROWS)
+      .setCallLatencyMillis(callLatencyMillis)
+      .setTotalWorkProcesses(TOTAL_WORK_PROCESSES)
+      .build();
+    schemaStr = Schema.recordOf("record",
+      new SapTableToStructuredSchemaTransformer().createSchemaFields(backend.getColumns())).toString();
+    split = new SapTableInputSplit(1L, ROWS, PACKAGE_SIZE);
+    taContext = new CountingStatusReporter().newTaskContext(new Configuration(false));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public long readSplit(Blackhole blackhole) throws Exception {
+    long rows = 0L;
+    try (FakeTableRecordReader reader =
+           new FakeTableRecordReader(backend, TABLE_NAME, schemaStr, split, TOTAL_WORK_PROCESSES, packageLookahead)) {
+
+      reader.initialize(split, taContext);
+      while (reader.nextKeyValue()) {
+        blackhole.consume(reader.getCurrentValue());
+        rows++;
+      }
+    }
+
+    return rows;
+  }
+}
@@ -0,0 +1,413 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.codec;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts the character representation of ABAP values, as returned by SAP in
+ * fixed width records, into the values stored by CDF for the corresponding
+ * schema types.
+ * <p>
+ * Values in the usual SAP format are parsed by hand, digit by digit, without
+ * any intermediate object. Any other value is parsed with {@code java.time} and
+ * {@link BigDecimal} exactly as before, so that results and errors do not
+ * depend on which path was taken. All methods expect trimmed values, identified
+ * by the range {@code from} (inclusive) to {@code to} (exclusive).
+ *
+ * @author sankalpbapat
+ */
+public final class AbapValueCodec {
+
+  private static final char MINUS = '-';
+  private static final char PLUS = '+';
+  private static final char DECIMAL_POINT = '.';
+
+  // Default/uninitialized value of date and timestamp fields starts with 0000
+  private static final String INITIAL_YEAR = "0000";
+  // Invalid time which must be rolled over to 000000
+  private static final String TIME_24 = "240000";
+
+  private static final long MICROS_PER_SECOND = 1_000_000L;
+  private static final long SECONDS_PER_DAY = 86_400L;
+  // Days from 0000-01-01 to 1970-01-01 in proleptic ISO calendar
+  private static final long DAYS_0000_TO_1970 = 719_528L;
+
+  // UTCLONG format yyyy-MM-dd HH:mm:ss with optional fraction of 7 digits
+  private static final int UTCLONG_SECONDS_LENGTH = 19;
+  private static final int UTCLONG_LENGTH = 27;
+
+  // Max. digits which always fit in a long
+  private static final int MAX_LONG_DIGITS = 18;
+  private static final long[] POWERS_OF_TEN = new long[MAX_LONG_DIGITS + 1];
+
+  static {
+    POWERS_OF_TEN[0] = 1L;
+    for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+      POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10L;
+    }
+  }
+
+  private AbapValueCodec() {
+  }
+
+  /**
+   * Checks if the date or timestamp value is the default/uninitialized value in
+   * SAP e.g. {@code 00000000}.
+   *
+   * @param value trimmed value
+   * @param from  start index, inclusive
+   * @param to    end index, exclusive
+   * @return True, if the value starts with year 0000
+   */
+  public static boolean isInitialDate(CharSequence value, int from, int to) {
+    if (to - from < INITIAL_YEAR.length()) {
+      return false;
+    }
+
+    for (int i = 0; i < INITIAL_YEAR.length(); i++) {
+      if (value.charAt(from + i) != INITIAL_YEAR.charAt(i)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Parses a whole number, which may have its minus sign at the end like
+   * {@code 12345-}.
+   *
+   * @param value trimmed value
+   * @param from  start index, inclusive
+   * @param to    end index, exclusive
+   * @return long value
+   * @throws NumberFormatException if the value is not a valid long
+   */
+  public static long parseLong(CharSequence value, int from, int to) {
+    int end = to;
+    boolean negative = false;
+    if (end > from && value.charAt(end - 1) == MINUS) {
+      negative = true;
+      end--;
+    }
+
+    int i = from;
+    if (i < end && (value.charAt(i) == MINUS || value.charAt(i) == PLUS) && !negative) {
+      negative = value.charAt(i) == MINUS;
+      i++;
+    }
+
+    int digitCount = end - i;
+    if (digitCount > 0 && digitCount <= MAX_LONG_DIGITS) {
+      long result = 0L;
+      for (; i < end; i++) {
+        int digit = value.charAt(i) - '0';
+        if (digit < 0 || digit > 9) {
+          break;
+        }
+        result = result * 10L + digit;
+      }
+
+      if (i == end) {
+        return negative ? -result : result;
+      }
+    }
+
+    return Long.parseLong(moveMinusToStart(value, from, to));
+  }
+
+  /**
+   * Parses a decimal number to the given {@code scale}, which may have its minus
+   * sign at the end like {@code 123.45-}. Numbers with up to 18 digits are
+   * parsed into an unscaled long.
+   *
+   * @param value trimmed value
+   * @param from  start index, inclusive
+   * @param to    end index, exclusive
+   * @param scale scale of the decimal schema
+   * @return BigDecimal with {@code scale}
+   * @throws NumberFormatException if the value is not a valid decimal
+   * @throws ArithmeticException   if the value has more decimals than
+   *                               {@code scale}
+   */
+  public static BigDecimal parseDecimal(CharSequence value, int from, int to, int scale) {
+    BigDecimal decimal = parseScaledDecimal(value, from, to, scale);
+    if (decimal != null) {
+      return decimal;
+    }
+
+    return new BigDecimal(moveMinusToStart(value, from, to)).setScale(scale);
+  }
+
+  /**
+   * Parses a date in SAP format {@code yyyyMMdd}.
+   *
+   * @param value trimmed value, which is not an initial date
+   * @param from  start index, inclusive
+   * @param to    end index, exclusive
+   * @return days since epoch
+   * @throws java.time.DateTimeException if the value is not a valid date
+   */
+  public static int parseDateToEpochDay(CharSequence value, int from, int to) {
+    if (to - from == 8) {
+      int year = parseDigits(value, from, 4);
+      int month = parseDigits(value, from + 4, 2);
+      int day = parseDigits(value, from + 6, 2);
+      if (year >= 0 && isValidDate(year, month, day)) {
+        return (int) toEpochDay(year, month, day);
+      }
+    }
+
+    return (int) LocalDate.parse(value.subSequence(from, to), DateTimeFormatter.BASIC_ISO_DATE).toEpochDay();
+  }
+
+  /**
+   * Parses a time in SAP format {@code HHmmss}. Value {@code 240000} is rolled
+   * over to midnight.
+   *
+   * @param value trimmed value
+   * @param from  start index, inclusive
+   * @param to    end index, exclusive
+   * @return microseconds since midnight
+   * @throws java.time.DateTimeException if the value is not a valid time
+   */
+  public static long parseTimeToMicrosOfDay(CharSequence value, int from, int to) {
+    if (to - from == 6) {
+      int hour = parseDigits(value, from, 2);
+      int minute = parseDigits(value, from + 2, 2);
+      int second = parseDigits(value, from + 4, 2);
+      if (hour == 24 && minute == 0 && second == 0) {
+        return 0L;
+      }
+
+      if (isValidTime(hour, minute, second)) {
+        return (hour * 3_600L + minute * 60L + second) * MICROS_PER_SECOND;
+      }
+    }
+
+    String timeVal = value.subSequence(from, to).toString();
+    if (timeVal.equals(TIME_24)) {
+      timeVal = "000000";
+    }
+    // Time field in SAP has values in format HHmmss, so add colon separators to
+    // make it parseable
+    StringBuilder timeValBuilder = new StringBuilder(timeVal).insert(4, ':').insert(2, ':');
+    LocalTime localTime = LocalTime.parse(timeValBuilder, DateTimeFormatter.ISO_LOCAL_TIME);
+
+    return TimeUnit.NANOSECONDS.toMicros(localTime.toNanoOfDay());
+  }
+
+  /**
+   * Parses a UTCLONG timestamp in SAP format
+   * {@code yyyy-MM-dd HH:mm:ss.SSSSSSS}, where the fraction is in units of
+   * 100 nanoseconds.
+   *
+   * @param value trimmed value, which is not an initial date
+   * @param from  start index, inclusive
+   * @param to    end index, exclusive
+   * @return microseconds since epoch
+   * @throws java.time.DateTimeException if the value is not a valid timestamp
+   */
+  public static long parseUtcLongToEpochMicros(CharSequence value, int from, int to) {
+    int length = to - from;
+    if ((length == UTCLONG_SECONDS_LENGTH || length == UTCLONG_LENGTH) && value.charAt(from + 4) == MINUS
+      && value.charAt(from + 7) == MINUS && value.charAt(from + 10) == ' ' && value.charAt(from + 13) == ':'
+      && value.charAt(from + 16) == ':') {
+
+      int year = parseDigits(value, from, 4);
+      int month = parseDigits(value, from + 5, 2);
+      int day = parseDigits(value, from + 8, 2);
+      int hour = parseDigits(value, from + 11, 2);
+      int minute = parseDigits(value, from + 14, 2);
+      int second = parseDigits(value, from + 17, 2);
+      int fraction = 0;
+      if (length == UTCLONG_LENGTH) {
+        fraction = value.charAt(from + 19) == DECIMAL_POINT ? parseDigits(value, from + 20, 7) : -1;
+      }
+
+      if (year >= 0 && fraction >= 0 && isValidDate(year, month, day) && isValidTime(hour, minute, second)) {
+        long epochSecond =
+          toEpochDay(year, month, day) * SECONDS_PER_DAY + hour * 3_600L + minute * 60L + second;
+        // Fraction is in units of 100 nanoseconds
+        return epochSecond * MICROS_PER_SECOND + fraction / 10;
+      }
+    }
+
+    return parseUtcLongWithDateTime(value.subSequence(from, to).toString());
+  }
+
+  private static long parseUtcLongWithDateTime(String utcLong) {
+    String parseableTimestamp = utcLong.replace(' ', 'T');
+
+    String dateTimePart = parseableTimestamp + "+00:00";
+    String nanoSecPart = "0";
+    int nanoSecPartIdx = parseableTimestamp.indexOf('.');
+    if (nanoSecPartIdx > 0) {
+      dateTimePart = parseableTimestamp.substring(0, nanoSecPartIdx) + "+00:00";
+      // nano second part is precise only to 1/10th of nanosecond so need to append 2
+      // more zeros
+      nanoSecPart = parseableTimestamp.substring(nanoSecPartIdx + 1) + "00";
+    }
+    ZonedDateTime zonedDateTime = ZonedDateTime.parse(dateTimePart, DateTimeFormatter.ISO_DATE_TIME);
+    Instant instant = zonedDateTime.plus(Long.parseLong(nanoSecPart), ChronoUnit.NANOS).toInstant();
+
+    return Math.addExact(TimeUnit.SECONDS.toMicros(instant.getEpochSecond()),
+      TimeUnit.NANOSECONDS.toMicros(instant.getNano()));
+  }
+
+  /**
+   * Parses a plain decimal number with at most 18 digits and at most
+   * {@code scale} decimals into an unscaled long.
+   *
+   * @return BigDecimal, or null if the value is not a plain decimal number
+   */
+  private static BigDecimal parseScaledDecimal(CharSequence value, int from, int to, int scale) {
+    int end = to;
+    boolean negative = false;
+    if (end > from && value.charAt(end - 1) == MINUS) {
+      negative = true;
+      end--;
+    }
+
+    int i = from;
+    if (i < end && (value.charAt(i) == MINUS || value.charAt(i) == PLUS)) {
+      // Only one sign is allowed
+      if (negative) {
+        return null;
+      }
+      negative = value.charAt(i) == MINUS;
+      i++;
+    }
+
+    long unscaled = 0L;
+    int digitCount = 0;
+    int decimals = -1;
+    for (; i < end; i++) {
+      char c = value.charAt(i);
+      if (c >= '0' && c <= '9') {
+        if (digitCount == MAX_LONG_DIGITS) {
+          return null;
+        }
+        unscaled = unscaled * 10L + (c - '0');
+        digitCount++;
+        if (decimals >= 0) {
+          decimals++;
+        }
+      } else if (c == DECIMAL_POINT && decimals < 0) {
+        decimals = 0;
+      } else {
+        return null;
+      }
+    }
+
+    int shift = scale - Math.max(decimals, 0);
+    if (digitCount == 0 || shift < 0 || shift > MAX_LONG_DIGITS || unscaled > Long.MAX_VALUE / POWERS_OF_TEN[shift]) {
+      return null;
+    }
+
+    unscaled *= POWERS_OF_TEN[shift];
+    return BigDecimal.valueOf(negative ? -unscaled : unscaled, scale);
+  }
+
+  /**
+   * Moves minus sign from the end of the value to its beginning, as expected by
+   * the standard number parsers.
+   */
+  private static String moveMinusToStart(CharSequence value, int from, int to) {
+    if (to > from && value.charAt(to - 1) == MINUS) {
+      return MINUS + value.subSequence(from, to - 1).toString();
+    }
+
+    return value.subSequence(from, to).toString();
+  }
+
+  /**
+   * Parses {@code count} ASCII digits.
+   *
+   * @return parsed number, or -1 if any char is not a digit
+   */
+  private static int parseDigits(CharSequence value, int from, int count) {
+    int result = 0;
+    for (int i = from; i < from + count; i++) {
+      int digit = value.charAt(i) - '0';
+      if (digit < 0 || digit > 9) {
+        return -1;
+      }
+      result = result * 10 + digit;
+    }
+
+    return result;
+  }
+
+  private static boolean isValidDate(int year, int month, int day) {
+    return month >= 1 && month <= 12 && day >= 1 && day <= lengthOfMonth(year, month);
+  }
+
+  private static boolean isValidTime(int hour, int minute, int second) {
+    return hour >= 0 && hour < 24 && minute >= 0 && minute < 60 && second >= 0 && second < 60;
+  }
+
+  private static int lengthOfMonth(int year, int month) {
+    switch (month) {
+      case 2:
+        return isLeapYear(year) ? 29 : 28;
+
+      case 4: // FALLTHROUGH
+
+      case 6: // FALLTHROUGH
+
+      case 9: // FALLTHROUGH
+
+      case 11:
+        return 30;
+
+      default:
+        return 31;
+    }
+  }
+
+  private static boolean isLeapYear(int year) {
+    return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+  }
+
+  /**
+   * Same calculation as {@link LocalDate#toEpochDay()}, for a non negative year
+   * and a valid date.
+   */
+  private static long toEpochDay(int year, int month, int day) {
+    long y = year;
+    long total = 365L * y + (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+    total += (367L * month - 362) / 12;
+    total += day - 1;
+    if (month > 2) {
+      total--;
+      if (!isLeapYear(year)) {
+        total--;
+      }
+    }
+
+    return total - DAYS_0000_TO_1970;
+  }
+}
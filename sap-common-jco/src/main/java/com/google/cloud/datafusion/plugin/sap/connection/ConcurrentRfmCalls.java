@@ -0,0 +1,160 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.connection;
+
+import com.google.cloud.datafusion.plugin.sap.exception.ConnectorException;
+import com.google.cloud.datafusion.plugin.util.ResourceConstants;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs independent RFM calls at the same time, each on its own connection of
+ * the destination, so that a group of calls takes about one round trip to SAP.
+ * All the calls share one timeout, counted from the creation of this instance,
+ * unless their result is waited for with {@link #getUntimed(Future)}. The first
+ * failure or the timeout cancels the remaining calls.
+ *
+ * @author sankalpbapat
+ *
+ */
+public final class ConcurrentRfmCalls implements AutoCloseable {
+
+  // Default runtime limit of a dialog work process in SAP (rdisp/max_wprun_time)
+  public static final long DEFAULT_TIMEOUT_MILLIS = 600000L;
+
+  private final ExecutorService executor;
+  private final long timeoutMillis;
+  private final long deadlineNanos;
+  private final List<Future<?>> calls;
+
+  public ConcurrentRfmCalls() {
+    this(DEFAULT_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * @param timeoutMillis Max. time for all the calls together
+   */
+  public ConcurrentRfmCalls(long timeoutMillis) {
+    this.executor = Executors.newCachedThreadPool(
+      new ThreadFactoryBuilder().setNameFormat("sap-rfm-call-%d").setDaemon(true).build());
+    this.timeoutMillis = timeoutMillis;
+    this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    this.calls = new ArrayList<>();
+  }
+
+  /**
+   * Starts an RFM call in the background.
+   *
+   * @param call RFM call
+   * @return pending result, to be retrieved with {@link #get(Future)}
+   */
+  public synchronized <T> Future<T> submit(RfmCall<T> call) {
+    Future<T> pendingCall = executor.submit(call::execute);
+    calls.add(pendingCall);
+
+    return pendingCall;
+  }
+
+  /**
+   * Waits for the result of a call until the shared timeout expires.
+   *
+   * @param pendingCall call started through {@link #submit(RfmCall)}
+   * @return result of the call
+   * @throws ConnectorException exception raised by the call, or if the timeout
+   *                            expired
+   */
+  public <T> T get(Future<T> pendingCall) throws ConnectorException {
+    return get(pendingCall, Math.max(0L, deadlineNanos - System.nanoTime()));
+  }
+
+  /**
+   * Waits for the result of a call that may take longer than the shared timeout,
+   * e.g. counting the records of a very large table. SAP still ends the call once
+   * it exceeds the runtime limit of its work process.
+   *
+   * @param pendingCall call started through {@link #submit(RfmCall)}
+   * @return result of the call
+   * @throws ConnectorException exception raised by the call
+   */
+  public <T> T getUntimed(Future<T> pendingCall) throws ConnectorException {
+    return get(pendingCall, Long.MAX_VALUE);
+  }
+
+  private <T> T get(Future<T> pendingCall, long timeoutNanos) throws ConnectorException {
+    try {
+      return pendingCall.get(timeoutNanos, TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      cancelAll();
+      String errMsg =
+        ResourceConstants.ERR_RFM_TIMEOUT.getMsgForKeyWithCode(TimeUnit.MILLISECONDS.toSeconds(timeoutMillis));
+
+      throw new ConnectorException(ResourceConstants.ERR_RFM_TIMEOUT.getCode(), errMsg, e);
+    } catch (InterruptedException e) {
+      cancelAll();
+      Thread.currentThread().interrupt();
+
+      throw new ConnectorException(ResourceConstants.ERR_RFM_INTERRUPTED.getCode(),
+        ResourceConstants.ERR_RFM_INTERRUPTED.getMsgForKeyWithCode(), e);
+    } catch (ExecutionException e) {
+      cancelAll();
+      Throwable cause = e.getCause();
+      if (cause instanceof ConnectorException) {
+        throw (ConnectorException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        // e.g. LinkageError for missing JCo libraries, handled by the callers
+        throw (Error) cause;
+      }
+
+      throw new ConnectorException(ResourceConstants.ERR_EXEC_FUNC.getCode(), cause);
+    }
+  }
+
+  private synchronized void cancelAll() {
+    for (Future<?> call : calls) {
+      call.cancel(true);
+    }
+  }
+
+  /**
+   * Cancels the calls still running, e.g. if a validation failed before their
+   * results were needed.
+   */
+  @Override
+  public void close() {
+    cancelAll();
+    executor.shutdownNow();
+  }
+
+  /**
+   * RFM call returning a result
+   *
+   * @param <T> result type
+   */
+  public interface RfmCall<T> {
+    T execute() throws ConnectorException;
+  }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.cloud.datafusion.plugin.sap.connection;
+
+import com.google.cloud.datafusion.plugin.sap.exception.ConnectorException;
+import com.google.cloud.datafusion.plugin.sap.exception.RfcErrorClassifier;
+import com.google.cloud.datafusion.plugin.sap.exception.RfcErrorClassifier.ErrorType;
+import com.google.cloud.datafusion.plugin.util.ResourceConstants;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Retries RFM calls which failed for a temporary reason, as classified by
+ * {@link RfcErrorClassifier}. Fatal failures are raised at once. Before a retry
+ * the policy waits for an exponentially growing time, of which a random half is
+ * left out, so that splits failing at the same time do not call SAP again at the
+ * same time. If the connection was lost, the destination is refreshed first,
+ * once for all the calls sharing it. The policy counts its retries and failures
+ * for all the calls made through it, so a split uses a policy of its own to
+ * publish them as its metrics.
+ *
+ * @author sankalpbapat
+ *
+ */
+public final class RfcRetryPolicy {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(RfcRetryPolicy.class);
+
+  public static final int DEFAULT_MAX_RETRIES = 3;
+  public static final long DEFAULT_BASE_DELAY_MILLIS = 5000L;
+  public static final long DEFAULT_MAX_DELAY_MILLIS = 60000L;
+
+  private static final RfcRetryPolicy DEFAULT =
+    new RfcRetryPolicy(DEFAULT_MAX_RETRIES, DEFAULT_BASE_DELAY_MILLIS, DEFAULT_MAX_DELAY_MILLIS);
+
+  private final int maxRetries;
+  private final long baseDelayMillis;
+  private final long maxDelayMillis;
+  private final DoubleSupplier random;
+  private final Sleeper sleeper;
+
+  private final AtomicLong retryCount = new AtomicLong();
+  private final AtomicLong fatalFailureCount = new AtomicLong();
+  private final AtomicLong exhaustedRetryCount = new AtomicLong();
+  private final AtomicLong destinationRefreshCount = new AtomicLong();
+  private final AtomicLong backoffMillis = new AtomicLong();
+
+  /**
+   * @param maxRetries      Max. retries of a call
+   * @param baseDelayMillis Max. wait time before the first retry, doubled for
+   *                        every following retry
+   * @param maxDelayMillis  Max. wait time before any retry
+   */
+  public RfcRetryPolicy(int maxRetries, long baseDelayMillis, long maxDelayMillis) {
+    this(maxRetries, baseDelayMillis, maxDelayMillis, () -> ThreadLocalRandom.current().nextDouble(), Thread::sleep);
+  }
+
+  RfcRetryPolicy(int maxRetries, long baseDelayMillis, long maxDelayMillis, DoubleSupplier random,
+                 Sleeper sleeper) {
+
+    this.maxRetries = maxRetries;
+    this.baseDelayMillis = baseDelayMillis;
+    this.maxDelayMillis = Math.max(baseDelayMillis, maxDelayMillis);
+    this.random = random;
+    this.sleeper = sleeper;
+  }
+
+  /**
+   * @return policy shared by the RFM calls of this JVM, with 3 retries waiting up
+   *         to 5, 10 and 20 seconds
+   */
+  public static RfcRetryPolicy getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * Executes an RFM call, and calls it again as long as it fails for a temporary
+   * reason and retries are left. Only idempotent calls may be retried, e.g. reads
+   * of metadata or SAP resources, but not the start of an extraction.
+   *
+   * @param rfmName name of the RFM, for logging
+   * @param conn    connection used by the call
+   * @param call    RFM call
+   * @return result of the call
+   * @throws ConnectorException exception of the last attempt, if it failed for a
+   *                            fatal reason or no retries were left
+   */
+  public <T> T call(String rfmName, SapConnection conn, ConcurrentRfmCalls.RfmCall<T> call)
+    throws ConnectorException {
+
+    int retry = 1;
+    while (true) {
+      long callStartNanos = System.nanoTime();
+      try {
+        return call.execute();
+      } catch (ConnectorException e) {
+        long delayMillis = retryDelay(RfcErrorClassifier.classify(e), retry, conn, callStartNanos);
+        if (delayMillis < 0) {
+          throw e;
+        }
+
+        LOGGER.warn(ResourceConstants.WARN_RETRY_RFM_CALL.getMsgForKey(rfmName, retry, delayMillis));
+        try {
+          sleeper.sleep(delayMillis);
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          e.addSuppressed(ie);
+
+          throw e;
+        }
+        retry++;
+      }
+    }
+  }
+
+  /**
+   * Decides whether a failed call is retried, and prepares the retry: the
+   * destination is refreshed if the connection to SAP was lost, unless another
+   * call refreshed it since this one started. The caller waits for the returned
+   * time before it calls again.
+   *
+   * @param errorType      type of the failure, see
+   *                       {@link RfcErrorClassifier#classify(Throwable)}
+   * @param retry          number of the retry, starting at 1
+   * @param conn           connection used by the call
+   * @param callStartNanos {@link System#nanoTime()} when the failed call started
+   * @return time to wait in milliseconds before the retry, or -1 if the call
+   *         must not be retried
+   */
+  public long retryDelay(ErrorType errorType, int retry, SapConnection conn, long callStartNanos) {
+    if (errorType == ErrorType.FATAL) {
+      fatalFailureCount.incrementAndGet();
+      return -1L;
+    }
+
+    if (retry > maxRetries) {
+      exhaustedRetryCount.incrementAndGet();
+      return -1L;
+    }
+
+    if (errorType == ErrorType.CONNECTION_LOST) {
+      try {
+        if (conn.renewDestination(callStartNanos)) {
+          destinationRefreshCount.incrementAndGet();
+        }
+      } catch (ConnectorException e) {
+        // SAP may still be unreachable, the retry raises the failure again if so
+        LOGGER.debug("Unable to refresh destination {} before retry", conn.getDestName(), e);
+      }
+    }
+
+    long delayMillis = backoff(retry);
+    retryCount.incrementAndGet();
+    backoffMillis.addAndGet(delayMillis);
+
+    return delayMillis;
+  }
+
+  /**
+   * Computes the wait time before a retry, randomly between half of and the full
+   * exponential backoff.
+   *
+   * @param retry number of the retry, starting at 1
+   * @return wait time in milliseconds
+   */
+  long backoff(int retry) {
+    int doublings = Math.min(Math.max(retry - 1, 0), Long.numberOfLeadingZeros(baseDelayMillis) - 2);
+    long exponentialMillis = Math.min(maxDelayMillis, baseDelayMillis << doublings);
+    long halfMillis = exponentialMillis / 2;
+
+    return halfMillis + (long) (random.getAsDouble() * (exponentialMillis - halfMillis));
+  }
+
+  /**
+   * @return retries made
+   */
+  public long getRetryCount() {
+    return retryCount.get();
+  }
+
+  /**
+   * @return failures raised without retry, as they were fatal
+   */
+  public long getFatalFailureCount() {
+    return fatalFailureCount.get();
+  }
+
+  /**
+   * @return temporary failures raised, as no retries were left
+   */
+  public long getExhaustedRetryCount() {
+    return exhaustedRetryCount.get();
+  }
+
+  /**
+   * @return destinations refreshed after the connection was lost, not counting
+   *         the calls retried on a destination refreshed by another call
+   */
+  public long getDestinationRefreshCount() {
+    return destinationRefreshCount.get();
+  }
+
+  /**
+   * @return total time waited before retries, in milliseconds
+   */
+  public long getBackoffMillis() {
+    return backoffMillis.get();
+  }
+
+  /**
+   * Waits before a retry, replaced by the tests
+   */
+  interface Sleeper {
+    void sleep(long millis) throws InterruptedException;
+  }
+}
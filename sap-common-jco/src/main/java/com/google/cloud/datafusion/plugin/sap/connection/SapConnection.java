@@ -26,6 +26,7 @@ import com.sap.conn.jco.JCoFunction;
 import com.sap.conn.jco.ext.DestinationDataProvider;
 
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * The SAP connection wrapper containing parameters along with credentials to
@@ -38,8 +39,10 @@ import java.util.Map;
 public class SapConnection {
 
   private final String destName;
-  private final SapDefinition definition;
   private final SapConnector connector;
+  private final AtomicBoolean closed = new AtomicBoolean();
+
+  private volatile SapDefinition definition;
 
   public SapConnection(Map<String, String> connParams) {
     definition = SapDefinition.builder(connParams).build();
@@ -47,8 +50,22 @@ public class SapConnection {
     connector = new SapConnector(definition);
   }
 
+  /**
+   * Creates a connection which is not backed by a JCo destination, e.g. for an
+   * in-process fake of SAP. The connection parameters are available as usual,
+   * the methods which reach SAP fail with {@link IllegalStateException} unless a
+   * subclass overrides them.
+   *
+   * @param definition connection parameters
+   */
+  protected SapConnection(SapDefinition definition) {
+    this.definition = definition;
+    this.destName = definition.getProviderKey(false);
+    this.connector = null;
+  }
+
   public void initDestination() throws ConnectorException {
-    connector.initDestination(destName);
+    getConnector().initDestination(destName);
   }
 
   public String getDestName() {
@@ -62,7 +79,7 @@ public class SapConnection {
    */
   public void ping() throws ConnectorException {
     try {
-      connector.ping();
+      getConnector().ping();
     } catch (JCoException e) {
       String errMsg = ResourceConstants.ERR_SAP_PING.getMsgForKeyWithCode() + "\n"
         + ResourceConstants.ROOT_CAUSE_LOG.getMsgForKey() + e.getKey() + " - " + ExceptionHandler.getRootMessage(e);
@@ -96,7 +113,53 @@ public class SapConnection {
    * @throws ConnectorException
    */
   public void refreshDestination(boolean forceRefresh) throws ConnectorException {
-    connector.refreshDestination(destName, forceRefresh);
+    getConnector().refreshDestination(destName, forceRefresh);
+  }
+
+  /**
+   * Refreshes the {@link JCoDestination} after a call lost the connection to
+   * SAP, unless another call sharing this connection refreshed it since the
+   * failed call started
+   * 
+   * @param callStartNanos {@link System#nanoTime()} when the failed call started
+   * @return {@code true} if the destination was refreshed
+   * @throws ConnectorException
+   */
+  public boolean renewDestination(long callStartNanos) throws ConnectorException {
+    return getConnector().renewDestination(destName, callStartNanos);
+  }
+
+  /**
+   * Replaces the connection parameters of this connection, e.g. to resize the JCo
+   * connection pool. JCo applies them through the change event of the
+   * destination data provider, so the {@link JCoDestination} and the cached
+   * function templates stay in use by the splits in the middle of a call. The
+   * parameters must identify the same destination.
+   * 
+   * @param connParams Connection parameters
+   */
+  void updateDefinition(Map<String, String> connParams) {
+    SapDefinition newDefinition = SapDefinition.builder(connParams).build();
+    if (!destName.equals(newDefinition.getProviderKey(false))) {
+      throw new IllegalArgumentException("Connection parameters do not belong to destination " + destName);
+    }
+
+    definition = newDefinition;
+    if (connector != null) {
+      connector.updateDefinition(newDefinition);
+    }
+  }
+
+  /**
+   * Releases the reference this connection holds on its destination. The
+   * destination stays registered in JCo while other connections in the JVM
+   * refer to it, e.g. the connection shared by the splits. The connection must
+   * not be used afterwards, closing it again has no effect.
+   */
+  public void close() {
+    if (connector != null && closed.compareAndSet(false, true)) {
+      connector.release(destName);
+    }
   }
 
   /**
@@ -107,7 +170,7 @@ public class SapConnection {
    * @throws ConnectorException
    */
   public JCoFunction getJCoFunction(String rfmName) throws ConnectorException {
-    return connector.getJCoFunction(rfmName, destName);
+    return getConnector().getJCoFunction(rfmName, destName);
   }
 
   /**
@@ -117,6 +180,14 @@ public class SapConnection {
    * @throws ConnectorException
    */
   public void executeFunction(JCoFunction function) throws JCoException {
-    connector.executeFunction(function);
+    getConnector().executeFunction(function);
+  }
+
+  private SapConnector getConnector() {
+    if (connector == null) {
+      throw new IllegalStateException("Connection " + destName + " is not backed by a JCo destination");
+    }
+
+    return connector;
   }
 }
@@ -19,16 +19,21 @@ package com.google.cloud.datafusion.plugin.sap.connection;
 import com.google.cloud.datafusion.plugin.sap.connection.out.SapDestinationDataProvider;
 import com.google.cloud.datafusion.plugin.sap.exception.ConnectorException;
 import com.google.cloud.datafusion.plugin.sap.exception.ExceptionHandler;
+import com.google.cloud.datafusion.plugin.sap.exception.RfcErrorClassifier;
 import com.google.cloud.datafusion.plugin.util.ResourceConstants;
 import com.sap.conn.jco.JCoDestination;
 import com.sap.conn.jco.JCoDestinationManager;
 import com.sap.conn.jco.JCoException;
 import com.sap.conn.jco.JCoFunction;
+import com.sap.conn.jco.JCoFunctionTemplate;
 import com.sap.conn.jco.JCoRepository;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * The connector wrapper containing the required JCo objects and is used for low
  * level operations in SAP.
@@ -42,7 +47,10 @@ public final class SapConnector {
 
   private static final int MAX_RETRIES = 1;
 
-  private JCoDestination jcoDest;
+  // Shared by all the splits using the same SapConnection. The destination and
+  // its templates are swapped together, so that a template looked up in a
+  // replaced destination is never cached for the new one.
+  private volatile BoundDestination dest;
 
   /**
    * Sets up Destination Provider with JCo RT environment
@@ -56,6 +64,25 @@ public final class SapConnector {
     destinationDataProvider.register(def);
   }
 
+  /**
+   * Removes the reference to the destination added when this connector was
+   * created. JCo drops the destination once no connector refers to it.
+   * 
+   * @param destName
+   */
+  void release(String destName) {
+    SapDestinationDataProvider.getInstance().release(destName);
+  }
+
+  /**
+   * Updates the connection parameters of the destination in JCo RT environment
+   * 
+   * @param def
+   */
+  void updateDefinition(SapDefinition def) {
+    SapDestinationDataProvider.getInstance().update(def);
+  }
+
   /**
    * Initializes the JCoDestination for use.
    * 
@@ -65,7 +92,7 @@ public final class SapConnector {
   public void initDestination(String destName) throws ConnectorException {
     LOGGER.debug("JCoDestination init requested, for destination = {}", destName);
     try {
-      jcoDest = JCoDestinationManager.getDestination(destName);
+      dest = new BoundDestination(JCoDestinationManager.getDestination(destName));
     } catch (JCoException e) {
       String errMsg = ResourceConstants.ERR_GET_DEST_FROM_MGR.getMsgForKeyWithCode() + "\n"
         + ResourceConstants.ROOT_CAUSE_LOG.getMsgForKey() + e.getKey() + " - " + ExceptionHandler.getRootMessage(e);
@@ -80,7 +107,7 @@ public final class SapConnector {
    * @throws JCoException
    */
   public void ping() throws JCoException {
-    jcoDest.ping();
+    dest.jcoDest.ping();
   }
 
   /**
@@ -93,15 +120,43 @@ public final class SapConnector {
    * @throws ConnectorException
    */
   public void refreshDestination(String destName, boolean forceRefresh) throws ConnectorException {
-    LOGGER.debug("JCoDestination refresh requested. isValid = {}; forceRefresh = {}", jcoDest.isValid(), forceRefresh);
-    if (!jcoDest.isValid() || forceRefresh) {
+    boolean valid = dest.jcoDest.isValid();
+    LOGGER.debug("JCoDestination refresh requested. isValid = {}; forceRefresh = {}", valid, forceRefresh);
+    if (!valid || forceRefresh) {
       initDestination(destName);
     }
   }
 
+  /**
+   * Refreshes the {@link JCoDestination} identified by {@code destName} after a
+   * call on it lost the connection to SAP, even if it is still valid. The splits
+   * sharing this connector usually lose their connections together, so the
+   * destination is only refreshed if it was not refreshed since the failed call
+   * started, the other splits retry on the refreshed destination.
+   * 
+   * @param destName
+   * @param callStartNanos {@link System#nanoTime()} when the failed call started
+   * @return {@code true} if the destination was refreshed, {@code false} if it
+   *         was already refreshed after the call started
+   * @throws ConnectorException
+   */
+  public synchronized boolean renewDestination(String destName, long callStartNanos) throws ConnectorException {
+    BoundDestination current = dest;
+    if (current != null && current.initNanos - callStartNanos > 0) {
+      LOGGER.debug("JCoDestination renewal skipped, already refreshed for destination = {}", destName);
+      return false;
+    }
+
+    initDestination(destName);
+    return true;
+  }
+
   /**
    * Retrieves the {@link JCoFunction} for an SAP RFM having {@code rfmName}, from
-   * the SAP destination {@code destName}.
+   * the SAP destination {@code destName}. The {@link JCoFunctionTemplate} is
+   * looked up in the repository only once per destination, every following call
+   * creates the function from the cached template, without any metadata lookup
+   * in SAP.
    * 
    * @param rfmName
    * @param destName
@@ -109,16 +164,28 @@ public final class SapConnector {
    * @throws ConnectorException
    */
   public JCoFunction getJCoFunction(String rfmName, String destName) throws ConnectorException {
+    BoundDestination current = dest;
+    JCoFunctionTemplate jcoFuncTemplate = current.functionTemplates.get(rfmName);
+    if (jcoFuncTemplate == null) {
+      jcoFuncTemplate = getJCoFunctionTemplate(rfmName, destName);
+      // Lands in the templates of a destination replaced meanwhile, which are dropped along with it
+      current.functionTemplates.putIfAbsent(rfmName, jcoFuncTemplate);
+    }
+
+    return jcoFuncTemplate.getFunction();
+  }
+
+  private JCoFunctionTemplate getJCoFunctionTemplate(String rfmName, String destName) throws ConnectorException {
     JCoRepository jcoRepo = initRepository(destName);
     try {
-      LOGGER.debug("JCoFunction requested for RFM = {}, in destination = {}", rfmName, destName);
-      JCoFunction jcoFunc = jcoRepo.getFunction(rfmName);
+      LOGGER.debug("JCoFunctionTemplate requested for RFM = {}, in destination = {}", rfmName, destName);
+      JCoFunctionTemplate jcoFuncTemplate = jcoRepo.getFunctionTemplate(rfmName);
       // No Exception from JCo is thrown, so create custom and throw
-      if (jcoFunc == null) {
+      if (jcoFuncTemplate == null) {
         throw new ConnectorException(ResourceConstants.ERR_FUNC_MISSING.getCode(),
           ResourceConstants.ERR_FUNC_MISSING.getMsgForKeyWithCode(rfmName));
       }
-      return jcoFunc;
+      return jcoFuncTemplate;
     } catch (JCoException e) {
       String errMsg = ResourceConstants.ERR_GET_FUNC_FROM_REPO.getMsgForKeyWithCode(rfmName) + "\n"
         + ResourceConstants.ROOT_CAUSE_LOG.getMsgForKey() + e.getKey() + " - " + ExceptionHandler.getRootMessage(e);
@@ -131,7 +198,8 @@ public final class SapConnector {
    * Initializes the {@code JCoRepository} from destination. During init,
    * {@code JCoDestination} may be stale and any subsequent operation on it would
    * result in a {@code JCoException}. In such case, the destination needs to be
-   * refreshed before attempting the repository initialization again.
+   * refreshed before attempting the repository initialization again. Fatal
+   * failures, e.g. a logon failure, are raised without refresh.
    * 
    * @param destName
    * @return JCoRepository instance
@@ -142,9 +210,9 @@ public final class SapConnector {
     int retryCount = 1;
     while (true) {
       try {
-        return jcoDest.getRepository();
+        return dest.jcoDest.getRepository();
       } catch (JCoException e) {
-        if (retryCount > MAX_RETRIES) {
+        if (retryCount > MAX_RETRIES || !RfcErrorClassifier.isRetryable(e)) {
           String errMsg = ResourceConstants.ERR_GET_REPO_FROM_DEST.getMsgForKeyWithCode() + "\n"
             + ResourceConstants.ROOT_CAUSE_LOG.getMsgForKey() + e.getKey() + " - " + ExceptionHandler.getRootMessage(e);
 
@@ -165,6 +233,21 @@ public final class SapConnector {
    */
   public void executeFunction(JCoFunction function) throws JCoException {
     LOGGER.debug("Executing JCoFunction for RFM = {}", function.getName());
-    function.execute(jcoDest);
+    function.execute(dest.jcoDest);
+  }
+
+  /**
+   * JCoDestination along with the JCoFunctionTemplate per RFM name looked up in
+   * it, and the time it was initialized at
+   */
+  private static final class BoundDestination {
+    private final JCoDestination jcoDest;
+    private final ConcurrentMap<String, JCoFunctionTemplate> functionTemplates = new ConcurrentHashMap<>();
+    private final long initNanos;
+
+    private BoundDestination(JCoDestination jcoDest) {
+      this.jcoDest = jcoDest;
+      this.initNanos = System.nanoTime();
+    }
   }
 }
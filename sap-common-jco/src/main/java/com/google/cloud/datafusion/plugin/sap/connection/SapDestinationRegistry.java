@@ -0,0 +1,215 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.connection;
+
+import com.google.cloud.datafusion.plugin.sap.exception.ConnectorException;
+import com.google.cloud.datafusion.plugin.util.Util;
+import com.sap.conn.jco.ext.DestinationDataProvider;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JVM wide registry handing out the same pooled {@link SapConnection} to every
+ * split targeting the same SAP destination, so that all the splits in an
+ * executor share one JCo connection pool. The shared connection is kept open
+ * for the following splits, so its destination stays registered in JCo.
+ * <p>
+ * Pool capacity follows the number of splits holding the connection, and never
+ * exceeds the peak limit ({@code jco.destination.peak_limit}), which JCo
+ * enforces per destination i.e. across all the splits. A resize only updates
+ * the destination properties, the destination itself is not rebuilt.
+ *
+ * @author sankalpbapat
+ */
+public final class SapDestinationRegistry {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SapDestinationRegistry.class);
+
+  static final int INITIAL_POOL_CAPACITY = 5;
+
+  private static final Map<String, SharedDestination> DESTINATIONS = new HashMap<>();
+
+  private SapDestinationRegistry() {
+  }
+
+  /**
+   * Acquires the shared connection for the destination identified by
+   * {@code connParams}, creating and initializing it on first use. Each call must
+   * be paired with {@link #release(SapConnection)}.
+   *
+   * @param connParams Connection parameters, pool capacity if present is ignored
+   * @return Initialized SapConnection
+   * @throws ConnectorException
+   */
+  public static SapConnection acquire(Map<String, String> connParams) throws ConnectorException {
+    return acquire(connParams, 1);
+  }
+
+  /**
+   * Acquires the shared connection for a split running up to
+   * {@code concurrentCalls} RFM calls at the same time, e.g. while prefetching
+   * packages. Each call must be paired with
+   * {@link #release(SapConnection, int)} with the same count.
+   *
+   * @param connParams      Connection parameters, pool capacity if present is
+   *                        ignored
+   * @param concurrentCalls Max. number of pooled connections the split uses at
+   *                        the same time
+   * @return Initialized SapConnection
+   * @throws ConnectorException
+   */
+  public static SapConnection acquire(Map<String, String> connParams, int concurrentCalls)
+    throws ConnectorException {
+
+    Map<String, String> baseParams = new HashMap<>(connParams);
+    baseParams.remove(DestinationDataProvider.JCO_POOL_CAPACITY);
+    String destKey = SapDefinition.builder(baseParams).build().getProviderKey(false);
+
+    synchronized (DESTINATIONS) {
+      SharedDestination shared = DESTINATIONS.get(destKey);
+      int leases = shared == null ? concurrentCalls : shared.leases + concurrentCalls;
+      int peakLimit = getPeakLimit(baseParams);
+
+      if (shared == null) {
+        int capacity = nextPoolCapacity(0, leases, peakLimit);
+        SapConnection sapConn = new SapConnection(withPoolCapacity(baseParams, capacity));
+        sapConn.initDestination();
+        shared = new SharedDestination(sapConn, baseParams, capacity);
+        DESTINATIONS.put(destKey, shared);
+      } else {
+        int capacity = nextPoolCapacity(shared.poolCapacity, leases, peakLimit);
+        if (capacity != shared.poolCapacity || !baseParams.equals(shared.baseParams)) {
+          LOGGER.debug("Resizing JCo connection pool of destination '{}' from {} to {} for {} splits", destKey,
+            shared.poolCapacity, capacity, leases);
+
+          shared.connection.updateDefinition(withPoolCapacity(baseParams, capacity));
+          shared.baseParams = baseParams;
+          shared.poolCapacity = capacity;
+        }
+      }
+
+      shared.leases = leases;
+      return shared.connection;
+    }
+  }
+
+  /**
+   * Releases a connection acquired through {@link #acquire(Map)}. The
+   * destination and its pooled connections are kept for the next splits, idle
+   * connections are closed by JCo after the configured expiration time.
+   *
+   * @param sapConn Connection to release
+   */
+  public static void release(SapConnection sapConn) {
+    release(sapConn, 1);
+  }
+
+  /**
+   * Releases a connection acquired through {@link #acquire(Map, int)}.
+   *
+   * @param sapConn         Connection to release
+   * @param concurrentCalls Same count as used to acquire the connection
+   */
+  public static void release(SapConnection sapConn, int concurrentCalls) {
+    synchronized (DESTINATIONS) {
+      SharedDestination shared = DESTINATIONS.get(sapConn.getDestName());
+      if (shared != null && shared.connection == sapConn) {
+        shared.leases = Math.max(0, shared.leases - concurrentCalls);
+      }
+    }
+  }
+
+  /**
+   * Calculates the pool capacity needed for {@code leases} concurrent calls.
+   * Capacity is doubled when it falls short, so that a burst of starting splits
+   * resizes the pool only a few times, and is capped by {@code peakLimit}.
+   *
+   * @param currentCapacity Current pool capacity, 0 if no pool exists yet
+   * @param leases          Number of concurrent calls of all the splits holding
+   *                        the connection
+   * @param peakLimit       Max. number of connections to the destination
+   * @return new pool capacity, same as {@code currentCapacity} if no resize is
+   *         needed
+   */
+  static int nextPoolCapacity(int currentCapacity, int leases, int peakLimit) {
+    int capacity = currentCapacity;
+    if (capacity == 0) {
+      capacity = INITIAL_POOL_CAPACITY;
+    }
+
+    while (capacity < leases) {
+      capacity *= 2;
+    }
+
+    return Math.min(capacity, peakLimit);
+  }
+
+  private static int getPeakLimit(Map<String, String> connParams) {
+    String peakLimit = connParams.get(DestinationDataProvider.JCO_PEAK_LIMIT);
+    if (Util.isNotNullOrEmpty(peakLimit)) {
+      try {
+        int limit = Integer.parseInt(peakLimit.trim());
+        if (limit > 0) {
+          return limit;
+        }
+      } catch (NumberFormatException e) {
+        LOGGER.warn("Ignoring invalid JCo peak limit '{}'", peakLimit);
+      }
+    }
+
+    return Integer.MAX_VALUE;
+  }
+
+  private static Map<String, String> withPoolCapacity(Map<String, String> baseParams, int capacity) {
+    Map<String, String> params = new HashMap<>(baseParams);
+    params.put(DestinationDataProvider.JCO_POOL_CAPACITY, String.valueOf(capacity));
+    return params;
+  }
+
+  /**
+   * Removes all the shared destinations and closes their connections, mainly used
+   * by the tests.
+   */
+  static void clear() {
+    synchronized (DESTINATIONS) {
+      for (SharedDestination shared : DESTINATIONS.values()) {
+        shared.connection.close();
+      }
+      DESTINATIONS.clear();
+    }
+  }
+
+  /**
+   * Connection shared by all the splits of a destination
+   */
+  private static final class SharedDestination {
+    private final SapConnection connection;
+    private Map<String, String> baseParams;
+    private int poolCapacity;
+    private int leases;
+
+    private SharedDestination(SapConnection connection, Map<String, String> baseParams, int poolCapacity) {
+      this.connection = connection;
+      this.baseParams = baseParams;
+      this.poolCapacity = poolCapacity;
+    }
+  }
+}
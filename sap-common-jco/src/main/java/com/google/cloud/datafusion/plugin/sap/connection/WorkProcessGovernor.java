@@ -0,0 +1,243 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.connection;
+
+import com.google.cloud.datafusion.plugin.sap.exception.ConnectorException;
+import com.google.cloud.datafusion.plugin.util.ResourceConstants;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the number of concurrent extraction calls that the splits in this JVM
+ * make to an SAP destination, based on the dialog work processes free in SAP.
+ * <p>
+ * Free work processes are polled again every {@value #POLL_INTERVAL_MILLIS}
+ * milliseconds by the next call. When fewer than the reserved number are free,
+ * the limit drops right away, down to pausing all the calls, so that online
+ * users keep enough work processes. When work processes become free again, the
+ * limit is at most doubled after every poll, up to the number of dialog work
+ * processes.
+ * <p>
+ * The splits of an extraction run in several JVMs, each with its own governor,
+ * so every governor only uses its share of the work processes free above the
+ * reserved ones: the splits extracting in this JVM out of the splits extracting
+ * at the same time in all of them.
+ *
+ * @author sankalpbapat
+ *
+ */
+public final class WorkProcessGovernor {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(WorkProcessGovernor.class);
+
+  static final long POLL_INTERVAL_MILLIS = 30000L;
+  // Part of the dialog work processes always left free for other SAP users
+  static final double MIN_FREE_WORK_PROCESS_FACTOR = 0.2d;
+
+  private static final Map<String, WorkProcessGovernor> GOVERNORS = new HashMap<>();
+
+  private final WorkProcessProbe probe;
+  private final long pollIntervalNanos;
+  private final LongSupplier nanoClock;
+
+  private int totalWorkProcesses;
+  private int minFreeWorkProcesses;
+  // Splits extracting at the same time in all the JVMs, and in this JVM
+  private int concurrentSplits;
+  private int localSplits;
+  private int callLimit;
+  private int activeCalls;
+  private long nextPollNanos;
+  private boolean polling;
+
+  WorkProcessGovernor(WorkProcessProbe probe, int totalWorkProcesses, int minFreeWorkProcesses,
+                      long pollIntervalMillis, LongSupplier nanoClock) {
+
+    this.probe = probe;
+    this.totalWorkProcesses = Math.max(1, totalWorkProcesses);
+    this.minFreeWorkProcesses = Math.max(0, minFreeWorkProcesses);
+    this.pollIntervalNanos = TimeUnit.MILLISECONDS.toNanos(pollIntervalMillis);
+    this.nanoClock = nanoClock;
+    this.callLimit = this.totalWorkProcesses;
+    // First call polls SAP before going ahead
+    this.nextPollNanos = nanoClock.getAsLong();
+  }
+
+  /**
+   * Returns the governor shared by all the splits calling {@code destName} in
+   * this JVM, creates it on first use, and adds a split to it. The work processes
+   * and concurrent splits of the latest split apply. Each call must be paired
+   * with {@link #removeSplit()}.
+   *
+   * @param destName           SAP destination name
+   * @param totalWorkProcesses Total number of dialog work processes in SAP
+   * @param concurrentSplits   Number of splits extracting at the same time in all
+   *                           the JVMs
+   * @param probe              Retrieves the number of free dialog work processes,
+   *                           used only if the governor is created
+   * @return shared governor
+   */
+  public static WorkProcessGovernor forSplit(String destName, int totalWorkProcesses, int concurrentSplits,
+                                             WorkProcessProbe probe) {
+
+    WorkProcessGovernor governor;
+    synchronized (GOVERNORS) {
+      governor = GOVERNORS.computeIfAbsent(destName, name -> new WorkProcessGovernor(probe, totalWorkProcesses,
+        getMinFreeWorkProcesses(totalWorkProcesses), POLL_INTERVAL_MILLIS, System::nanoTime));
+    }
+    governor.addSplit(totalWorkProcesses, concurrentSplits);
+
+    return governor;
+  }
+
+  private static int getMinFreeWorkProcesses(int totalWorkProcesses) {
+    return (int) Math.ceil(totalWorkProcesses * MIN_FREE_WORK_PROCESS_FACTOR);
+  }
+
+  synchronized void addSplit(int totalWorkProcesses, int concurrentSplits) {
+    this.totalWorkProcesses = Math.max(1, totalWorkProcesses);
+    this.minFreeWorkProcesses = getMinFreeWorkProcesses(this.totalWorkProcesses);
+    this.concurrentSplits = Math.max(1, concurrentSplits);
+    localSplits++;
+    callLimit = Math.min(callLimit, getMaxCalls());
+  }
+
+  /**
+   * Removes a split added by {@link #forSplit}, once it stops extracting.
+   */
+  public synchronized void removeSplit() {
+    localSplits = Math.max(0, localSplits - 1);
+  }
+
+  /**
+   * Waits until one more call is allowed, polling SAP if the last poll is older
+   * than the poll interval. Each call must be paired with {@link #release()}.
+   *
+   * @return {@code true} if the call had to wait
+   * @throws InterruptedException
+   */
+  public boolean acquire() throws InterruptedException {
+    boolean waited = false;
+    while (true) {
+      synchronized (this) {
+        long untilNextPoll = nextPollNanos - nanoClock.getAsLong();
+        if (untilNextPoll > 0 || polling) {
+          if (activeCalls < callLimit) {
+            activeCalls++;
+            return waited;
+          }
+
+          waited = true;
+          long waitMillis = Math.min(TimeUnit.NANOSECONDS.toMillis(pollIntervalNanos),
+            TimeUnit.NANOSECONDS.toMillis(untilNextPoll));
+          wait(Math.max(1L, waitMillis));
+          continue;
+        }
+
+        polling = true;
+      }
+
+      poll();
+    }
+  }
+
+  /**
+   * Releases a call allowed through {@link #acquire()}.
+   */
+  public synchronized void release() {
+    activeCalls = Math.max(0, activeCalls - 1);
+    notifyAll();
+  }
+
+  synchronized int getCallLimit() {
+    return callLimit;
+  }
+
+  /**
+   * @return part of the work processes this JVM may use, 1 if no split was added
+   *         or all the concurrent splits run in this JVM
+   */
+  private double getShare() {
+    return localSplits == 0 || localSplits >= concurrentSplits ? 1d : localSplits / (double) concurrentSplits;
+  }
+
+  private int getMaxCalls() {
+    return Math.max(1, (int) (totalWorkProcesses * getShare()));
+  }
+
+  private void poll() {
+    int freeWorkProcesses = -1;
+    try {
+      freeWorkProcesses = probe.getFreeWorkProcesses();
+    } catch (ConnectorException | RuntimeException e) {
+      LOGGER.warn("Unable to poll free dialog work processes in SAP, keeping the limit of concurrent calls", e);
+    }
+
+    synchronized (this) {
+      polling = false;
+      nextPollNanos = nanoClock.getAsLong() + pollIntervalNanos;
+      if (freeWorkProcesses >= 0) {
+        updateCallLimit(freeWorkProcesses);
+      }
+
+      notifyAll();
+    }
+  }
+
+  /**
+   * Sets the call limit to the share of this JVM in the work processes that can
+   * be used without going below the reserved free work processes. Work processes
+   * busy with the calls of this JVM are not free in SAP, so they count towards
+   * the limit.
+   */
+  private void updateCallLimit(int freeWorkProcesses) {
+    long headroom = (long) Math.floor((freeWorkProcesses - minFreeWorkProcesses) * getShare());
+    long usable = activeCalls + headroom;
+    int targetLimit = (int) Math.max(0, Math.min(getMaxCalls(), usable));
+
+    if (targetLimit < callLimit) {
+      callLimit = targetLimit;
+      LOGGER.info(ResourceConstants.INFO_THROTTLE_SAP_CALLS.getMsgForKey(freeWorkProcesses, callLimit));
+    } else if (targetLimit > callLimit) {
+      callLimit = Math.min(targetLimit, Math.max(1, callLimit * 2));
+      LOGGER.info(ResourceConstants.INFO_RAMP_UP_SAP_CALLS.getMsgForKey(freeWorkProcesses, callLimit));
+    }
+  }
+
+  /**
+   * Removes all the shared governors, mainly used by the tests.
+   */
+  static void clear() {
+    synchronized (GOVERNORS) {
+      GOVERNORS.clear();
+    }
+  }
+
+  /**
+   * Retrieves the number of dialog work processes currently free in SAP, e.g.
+   * with {@code TH_WPINFO}
+   */
+  public interface WorkProcessProbe {
+    int getFreeWorkProcesses() throws ConnectorException;
+  }
+}
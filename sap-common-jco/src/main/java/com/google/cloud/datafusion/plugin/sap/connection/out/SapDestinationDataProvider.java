@@ -24,14 +24,21 @@ import com.sap.conn.jco.ext.Environment;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Implements the JCo Destination Data Provider to initialize and utilize JCo
  * Runtime for connecting to SAP, without the requirement of a physical
  * connection file.
+ * <p>
+ * Definitions are kept as immutable, versioned entries in a concurrent map and
+ * are replaced with compare-and-set, so that neither the splits registering
+ * their connections nor the JCo threads reading the properties ever block on
+ * each other. Every entry counts the connections registered for it, and JCo is
+ * notified only when the properties of a destination really change.
  * 
  * @author sankalpbapat
  */
@@ -41,12 +48,14 @@ public class SapDestinationDataProvider implements DestinationDataProvider {
 
   private static final SapDestinationDataProvider DEST_DATA_PROVIDER = new SapDestinationDataProvider();
 
-  private final Map<String, SapDefinition> defs;
+  private final ConcurrentMap<String, VersionedDefinition> defs;
+  private final AtomicLong versionSeq;
 
-  private DestinationDataEventListener eventListener;
+  private volatile DestinationDataEventListener eventListener;
 
   private SapDestinationDataProvider() {
-    this.defs = new HashMap<>();
+    this.defs = new ConcurrentHashMap<>();
+    this.versionSeq = new AtomicLong();
   }
 
   public static final SapDestinationDataProvider getInstance() {
@@ -62,9 +71,9 @@ public class SapDestinationDataProvider implements DestinationDataProvider {
    */
   @Override
   public Properties getDestinationProperties(String name) {
-    SapDefinition def = this.defs.get(name);
-    if (def != null && def.getProviderKey(false).equalsIgnoreCase(name)) {
-      return def.getProperties();
+    VersionedDefinition versionedDef = name == null ? null : this.defs.get(name);
+    if (versionedDef != null) {
+      return versionedDef.getProperties();
     }
 
     return null;
@@ -94,45 +103,160 @@ public class SapDestinationDataProvider implements DestinationDataProvider {
 
   /**
    * Registers the {@link DestinationDataProvider} in SAP JCo Runtime Environment,
-   * and updates connection parameters definition. Expected to be called for every
-   * new SapConnection.
+   * and adds a reference to the connection parameters definition. Expected to be
+   * called for every new SapConnection.
    * 
    * @param def Connection parameters
    */
   public void register(SapDefinition def) {
-    LOGGER.debug("Destination Data Provider already registered? {}", Environment.isDestinationDataProviderRegistered());
-    synchronized (this) {
-      // This check passes only the first time upon JVM start.
-      if (this.defs.isEmpty() && !Environment.isDestinationDataProviderRegistered()) {
-        LOGGER.debug("Registering Destination Data Provider in JCo environment");
-        // This activity is needed once during the whole JVM life cycle, before the
-        // first SAP call over network.
-        Environment.registerDestinationDataProvider(this);
+    registerInEnvironment();
+    putDefinition(def, 1);
+  }
+
+  /**
+   * Replaces the connection parameters definition of an already registered
+   * destination, without adding any reference to it.
+   * 
+   * @param def Connection parameters
+   */
+  public void update(SapDefinition def) {
+    registerInEnvironment();
+    putDefinition(def, 0);
+  }
+
+  /**
+   * Removes a reference to the connection parameters definition, and removes the
+   * definition from JCo destination manager once no connection refers to it.
+   * 
+   * @param destKey Connection parameters identifier
+   */
+  public void release(String destKey) {
+    while (true) {
+      VersionedDefinition current = this.defs.get(destKey);
+      if (current == null) {
+        return;
       }
 
-      String destKey = def.getProviderKey(false);
-      SapDefinition previousDef = this.defs.put(destKey, def);
-      if (previousDef != null) {
-        LOGGER.debug("Updating Destination Data Event Listener to the latest destination name '{}'", destKey);
-        eventListener.updated(destKey);
+      if (current.refCount > 1) {
+        if (this.defs.replace(destKey, current, current.withRefCount(current.refCount - 1))) {
+          return;
+        }
+      } else if (this.defs.remove(destKey, current)) {
+        fireDeleted(destKey);
+        return;
       }
     }
   }
 
   /**
-   * Removes connection parameters definition from JCo destination manager.
+   * Removes connection parameters definition from JCo destination manager,
+   * irrespective of the connections still referring to it.
    * 
    * @param destKey Connection parameters identifier
    */
   public void removeDefinition(String destKey) {
-    synchronized (this) {
-      if (this.defs != null && !defs.isEmpty()) {
-        SapDefinition def = this.defs.remove(destKey);
-        if (def != null) {
-          LOGGER.debug("Deleting the destination name '{}' from Destination Data Event Listener", destKey);
-          eventListener.deleted(destKey);
+    if (this.defs.remove(destKey) != null) {
+      fireDeleted(destKey);
+    }
+  }
+
+  /**
+   * Retrieves the version of the current connection parameters definition. It
+   * changes every time the parameters of the destination change.
+   * 
+   * @param destKey Connection parameters identifier
+   * @return version, or -1 if the destination is not registered
+   */
+  public long getDefinitionVersion(String destKey) {
+    VersionedDefinition current = this.defs.get(destKey);
+    return current == null ? -1L : current.version;
+  }
+
+  private void registerInEnvironment() {
+    // This check passes only the first time upon JVM start.
+    if (Environment.isDestinationDataProviderRegistered()) {
+      return;
+    }
+
+    try {
+      LOGGER.debug("Registering Destination Data Provider in JCo environment");
+      // This activity is needed once during the whole JVM life cycle, before the
+      // first SAP call over network.
+      Environment.registerDestinationDataProvider(this);
+    } catch (IllegalStateException e) {
+      // Another thread has registered a provider in the meantime
+      LOGGER.debug("Destination Data Provider already registered", e);
+    }
+  }
+
+  private void putDefinition(SapDefinition def, int refDelta) {
+    String destKey = def.getProviderKey(false);
+    Properties props = def.getProperties();
+    while (true) {
+      VersionedDefinition current = this.defs.get(destKey);
+      if (current == null) {
+        VersionedDefinition created =
+          new VersionedDefinition(props, versionSeq.incrementAndGet(), Math.max(refDelta, 1));
+        if (this.defs.putIfAbsent(destKey, created) == null) {
+          return;
+        }
+        continue;
+      }
+
+      boolean changed = !current.props.equals(props);
+      VersionedDefinition next = changed
+        ? new VersionedDefinition(props, versionSeq.incrementAndGet(), current.refCount + refDelta)
+        : current.withRefCount(current.refCount + refDelta);
+
+      if (next == current || this.defs.replace(destKey, current, next)) {
+        if (changed) {
+          fireUpdated(destKey);
         }
+        return;
       }
     }
   }
+
+  private void fireUpdated(String destKey) {
+    DestinationDataEventListener listener = this.eventListener;
+    if (listener != null) {
+      LOGGER.debug("Updating Destination Data Event Listener to the latest destination name '{}'", destKey);
+      listener.updated(destKey);
+    }
+  }
+
+  private void fireDeleted(String destKey) {
+    DestinationDataEventListener listener = this.eventListener;
+    if (listener != null) {
+      LOGGER.debug("Deleting the destination name '{}' from Destination Data Event Listener", destKey);
+      listener.deleted(destKey);
+    }
+  }
+
+  /**
+   * Immutable connection parameters definition along with its version and the
+   * number of connections referring to it.
+   */
+  private static final class VersionedDefinition {
+    private final Properties props;
+    private final long version;
+    private final int refCount;
+
+    private VersionedDefinition(Properties props, long version, int refCount) {
+      this.props = props;
+      this.version = version;
+      this.refCount = refCount;
+    }
+
+    private VersionedDefinition withRefCount(int newRefCount) {
+      return newRefCount == refCount ? this : new VersionedDefinition(props, version, newRefCount);
+    }
+
+    private Properties getProperties() {
+      // JCo must not be able to modify the shared definition
+      Properties copy = new Properties();
+      copy.putAll(props);
+      return copy;
+    }
+  }
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.cloud.datafusion.plugin.sap.exception;
+
+import com.google.common.collect.ImmutableSet;
+import com.sap.conn.jco.AbapException;
+import com.sap.conn.jco.JCoException;
+
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Classifies the failures of RFM calls by the {@link JCoException} group and
+ * ABAP exception key found in their cause chain, so that only failures which
+ * may not happen again are retried. An exception without such a cause, e.g. a
+ * validation failure of the plugin, is fatal.
+ * 
+ * @author sankalpbapat
+ *
+ */
+public final class RfcErrorClassifier {
+
+  // ABAP exceptions raised by RFMs for failures of the SAP system itself, all
+  // others are an answer of the RFM to its input, e.g. NOT_AUTHORIZED,
+  // OPTION_NOT_VALID or TABLE_NOT_AVAILABLE
+  private static final Set<String> TRANSIENT_ABAP_KEYS =
+    ImmutableSet.of("SYSTEM_FAILURE", "COMMUNICATION_FAILURE", "RESOURCE_FAILURE");
+
+  // System failures that reject the RFC user, which no retry changes
+  private static final Set<String> AUTHORIZATION_FAILURES = ImmutableSet.of("RFC_NO_AUTHORITY", "NO_AUTHORITY");
+  private static final String AUTHORIZATION_FAILURE_TEXT = "NO RFC AUTHORIZATION";
+
+  private RfcErrorClassifier() {
+  }
+
+  /**
+   * Type of failure, which decides whether and how an RFM call is retried
+   */
+  public enum ErrorType {
+    // Temporary failure in SAP, e.g. a short dump or no free work process
+    TRANSIENT,
+    // Connection to SAP was lost, the destination is refreshed before a retry
+    CONNECTION_LOST,
+    // Failure caused by the call itself or the configuration, never retried
+    FATAL
+  }
+
+  /**
+   * Classifies the failure of an RFM call.
+   * 
+   * @param e exception raised for the call, usually a
+   *          {@link ConnectorException} wrapping a {@link JCoException}
+   * @return type of the failure
+   */
+  public static ErrorType classify(Throwable e) {
+    Throwable cause = e;
+    while (cause != null) {
+      if (cause instanceof JCoException) {
+        return classify((JCoException) cause);
+      } else if (cause instanceof TimeoutException) {
+        return ErrorType.TRANSIENT;
+      }
+
+      Throwable next = cause.getCause();
+      cause = next == cause ? null : next;
+    }
+
+    return ErrorType.FATAL;
+  }
+
+  /**
+   * Checks if a failed RFM call may succeed when called again.
+   * 
+   * @param e exception raised for the call
+   * @return {@code true} unless the failure is fatal
+   */
+  public static boolean isRetryable(Throwable e) {
+    return classify(e) != ErrorType.FATAL;
+  }
+
+  private static ErrorType classify(JCoException e) {
+    if (e instanceof AbapException) {
+      String key = e.getKey();
+      return key != null && TRANSIENT_ABAP_KEYS.contains(key.toUpperCase()) ? ErrorType.TRANSIENT : ErrorType.FATAL;
+    }
+
+    switch (e.getGroup()) {
+      case JCoException.JCO_ERROR_COMMUNICATION:
+        return ErrorType.CONNECTION_LOST;
+
+      case JCoException.JCO_ERROR_SYSTEM_FAILURE:
+      case JCoException.JCO_ERROR_RESOURCE:
+        return isAuthorizationFailure(e) ? ErrorType.FATAL : ErrorType.TRANSIENT;
+
+      default:
+        // e.g. logon failure, missing RFM or invalid configuration
+        return ErrorType.FATAL;
+    }
+  }
+
+  private static boolean isAuthorizationFailure(JCoException e) {
+    String key = e.getKey();
+    if (key != null && AUTHORIZATION_FAILURES.contains(key.toUpperCase())) {
+      return true;
+    }
+
+    String message = e.getMessage();
+    return message != null && message.toUpperCase().contains(AUTHORIZATION_FAILURE_TEXT);
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.metadata;
+
+import com.google.common.hash.Hashing;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import javax.annotation.Nullable;
+
+/**
+ * Keeps the cached metadata in a host wide directory, one file per key. Files
+ * are replaced atomically, so that other processes on the same host never read
+ * partially written metadata.
+ *
+ * @author sankalpbapat
+ *
+ */
+public class LocalSapMetadataStore implements SapMetadataStore {
+
+  private static final String CACHE_DIR_NAME = "sap_metadata_cache";
+  private static final String FILE_EXTENSION = ".json";
+
+  private final Path dirPath;
+
+  public LocalSapMetadataStore() {
+    this(Paths.get(System.getProperty("java.io.tmpdir"), CACHE_DIR_NAME));
+  }
+
+  /**
+   * @param dirPath directory of the cached metadata, created on first write
+   */
+  public LocalSapMetadataStore(Path dirPath) {
+    this.dirPath = dirPath;
+  }
+
+  @Override
+  @Nullable
+  public String read(String key) throws IOException {
+    try {
+      return new String(Files.readAllBytes(getFilePath(key)), StandardCharsets.UTF_8);
+    } catch (NoSuchFileException e) {
+      return null;
+    }
+  }
+
+  @Override
+  public void write(String key, String content) throws IOException {
+    Files.createDirectories(dirPath);
+    Path filePath = getFilePath(key);
+    Path partFilePath = Files.createTempFile(dirPath, filePath.getFileName().toString(), ".part");
+    try {
+      Files.write(partFilePath, content.getBytes(StandardCharsets.UTF_8));
+      Files.move(partFilePath, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(partFilePath);
+    }
+  }
+
+  private Path getFilePath(String key) {
+    // Object names may contain '/' for customer namespaces, so only a hash of the
+    // key is safe as a file name
+    return dirPath.resolve(Hashing.sha256().hashString(key, StandardCharsets.UTF_8).toString() + FILE_EXTENSION);
+  }
+}
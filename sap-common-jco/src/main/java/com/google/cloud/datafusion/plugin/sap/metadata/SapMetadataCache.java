@@ -0,0 +1,275 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.metadata;
+
+import com.google.cloud.datafusion.plugin.sap.connection.SapConnection;
+import com.google.cloud.datafusion.plugin.sap.exception.ConnectorException;
+import com.google.cloud.datafusion.plugin.sap.source.config.SapJcoPluginConfigWrapper;
+import com.google.cloud.datafusion.plugin.util.Util;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import javax.annotation.Nullable;
+
+/**
+ * Caches the metadata of SAP objects, so that repeated validations and
+ * scheduled runs do not call the metadata RFM every time.
+ * <p>
+ * Metadata is kept in memory, shared by all the stages in the JVM, and in a
+ * {@link SapMetadataStore} that outlives the JVM. The default
+ * {@link LocalSapMetadataStore} is a directory of the host, so every node of a
+ * cluster loads the metadata from SAP once. Cached metadata is used as is
+ * until its TTL expires. After that, it is revalidated with the change stamp of
+ * the object if a {@link ChangeStampProbe} is given, e.g. the last activation
+ * date and time of a table in the ABAP dictionary, otherwise it is loaded again
+ * from SAP.
+ *
+ * @param <T> metadata type, must be serializable with Gson
+ *
+ * @author sankalpbapat
+ *
+ */
+public final class SapMetadataCache<T> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SapMetadataCache.class);
+
+  static final int MAX_MEMORY_ENTRIES = 500;
+
+  private static final Gson GSON = new Gson();
+
+  // Least recently used entries are removed first
+  private static final Map<String, CacheEntry> MEMORY_TIER =
+    Collections.synchronizedMap(new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+        return size() > MAX_MEMORY_ENTRIES;
+      }
+    });
+
+  private final Type metadataType;
+  private final SapMetadataStore store;
+  private final long ttlMillis;
+  private final LongSupplier clock;
+
+  /**
+   * @param metadataType type of the cached metadata
+   * @param ttlMillis    time after which cached metadata is revalidated
+   */
+  public SapMetadataCache(Type metadataType, long ttlMillis) {
+    this(metadataType, new LocalSapMetadataStore(), ttlMillis, System::currentTimeMillis);
+  }
+
+  SapMetadataCache(Type metadataType, SapMetadataStore store, long ttlMillis, LongSupplier clock) {
+    this.metadataType = metadataType;
+    this.store = store;
+    this.ttlMillis = ttlMillis;
+    this.clock = clock;
+  }
+
+  /**
+   * Creates the cache key of an SAP object, which identifies the SAP system,
+   * client, logon language and user of the connection, as field descriptions
+   * depend on the language, and the metadata a user can read on the
+   * authorizations of the user.
+   *
+   * @param conn       SapConnection
+   * @param objectType type of the SAP object, e.g. table or ODP datasource
+   * @param objectName name of the SAP object
+   * @return cache key
+   */
+  public static String createKey(SapConnection conn, String objectType, String objectName) {
+    String user = conn.getConnParam(SapJcoPluginConfigWrapper.JCO_USER);
+
+    return String.join("|", createSystemKey(conn, objectType, objectName),
+      user == null ? "" : user.toUpperCase());
+  }
+
+  /**
+   * Creates the key of an SAP object that is the same for all the users, which
+   * identifies the SAP system, client and logon language of the connection.
+   *
+   * @param conn       SapConnection
+   * @param objectType type of the SAP object, e.g. table watermark
+   * @param objectName name of the SAP object
+   * @return key
+   */
+  public static String createSystemKey(SapConnection conn, String objectType, String objectName) {
+    String systemId = conn.getConnParam(SapJcoPluginConfigWrapper.JCO_R3NAME);
+    if (Util.isNotNullOrEmpty(systemId)) {
+      systemId = conn.getConnParam(SapJcoPluginConfigWrapper.JCO_MSHOST) + "/" + systemId;
+    } else {
+      systemId = conn.getConnParam(SapJcoPluginConfigWrapper.JCO_ASHOST) + "/"
+        + conn.getConnParam(SapJcoPluginConfigWrapper.JCO_SYSNR);
+    }
+
+    return String.join("|", systemId, conn.getConnParam(SapJcoPluginConfigWrapper.JCO_CLIENT),
+      conn.getConnParam(SapJcoPluginConfigWrapper.JCO_LANG), objectType, objectName);
+  }
+
+  /**
+   * Retrieves the metadata for the key from the cache, or from SAP if it is not
+   * cached or has changed.
+   *
+   * @param key    cache key, see {@link #createKey(SapConnection, String, String)}
+   * @param loader loads the metadata from SAP
+   * @param probe  retrieves the change stamp of the object, may be null if the
+   *               object has none
+   * @return metadata
+   * @throws ConnectorException exception raised by the loader
+   */
+  public T get(String key, MetadataLoader<T> loader, @Nullable ChangeStampProbe probe) throws ConnectorException {
+    CacheEntry entry = lookup(key);
+    T metadata = entry == null ? null : decode(entry);
+    if (metadata != null) {
+      if (clock.getAsLong() - entry.validatedAtMillis < ttlMillis) {
+        LOGGER.debug("Using cached SAP metadata for '{}'", key);
+        return metadata;
+      }
+
+      if (probe != null && entry.changeStamp != null) {
+        String changeStamp = getChangeStamp(key, probe);
+        if (entry.changeStamp.equals(changeStamp)) {
+          LOGGER.debug("Cached SAP metadata for '{}' is unchanged since {}", key, changeStamp);
+          save(new CacheEntry(key, clock.getAsLong(), changeStamp, entry.metadata));
+          return metadata;
+        }
+
+        return load(key, loader, changeStamp);
+      }
+    }
+
+    // Change stamp is taken before loading the metadata, so that a change in
+    // between causes a reload next time instead of keeping outdated metadata
+    return load(key, loader, probe == null ? null : getChangeStamp(key, probe));
+  }
+
+  private T load(String key, MetadataLoader<T> loader, @Nullable String changeStamp) throws ConnectorException {
+    T metadata = loader.load();
+    save(new CacheEntry(key, clock.getAsLong(), changeStamp, GSON.toJson(metadata, metadataType)));
+
+    return metadata;
+  }
+
+  @Nullable
+  private String getChangeStamp(String key, ChangeStampProbe probe) {
+    try {
+      return probe.getChangeStamp();
+    } catch (ConnectorException | RuntimeException e) {
+      // e.g. missing authorization for the ABAP dictionary, cached metadata then
+      // only lives until its TTL
+      LOGGER.debug("Unable to retrieve change stamp for '{}'", key, e);
+      return null;
+    }
+  }
+
+  @Nullable
+  private CacheEntry lookup(String key) {
+    CacheEntry entry = MEMORY_TIER.get(key);
+    if (entry != null) {
+      return entry;
+    }
+
+    try {
+      String content = store.read(key);
+      entry = content == null ? null : GSON.fromJson(content, CacheEntry.class);
+    } catch (IOException | JsonParseException e) {
+      LOGGER.debug("Unable to read cached SAP metadata for '{}'", key, e);
+      return null;
+    }
+
+    // Stored entries are looked up by a hash of the key
+    if (entry == null || !key.equals(entry.key)) {
+      return null;
+    }
+
+    MEMORY_TIER.put(key, entry);
+    return entry;
+  }
+
+  @Nullable
+  private T decode(CacheEntry entry) {
+    try {
+      return GSON.fromJson(entry.metadata, metadataType);
+    } catch (JsonParseException e) {
+      LOGGER.debug("Discarding unreadable cached SAP metadata for '{}'", entry.key, e);
+      return null;
+    }
+  }
+
+  private void save(CacheEntry entry) {
+    MEMORY_TIER.put(entry.key, entry);
+    try {
+      store.write(entry.key, GSON.toJson(entry));
+    } catch (IOException e) {
+      // Memory tier still serves this JVM
+      LOGGER.debug("Unable to store SAP metadata for '{}'", entry.key, e);
+    }
+  }
+
+  /**
+   * Removes all the metadata cached in memory, mainly used by the tests.
+   */
+  static void clearMemoryTier() {
+    MEMORY_TIER.clear();
+  }
+
+  /**
+   * Cached metadata along with the time it was last confirmed as current
+   */
+  private static final class CacheEntry {
+    private final String key;
+    private final long validatedAtMillis;
+    @Nullable
+    private final String changeStamp;
+    private final String metadata;
+
+    private CacheEntry(String key, long validatedAtMillis, @Nullable String changeStamp, String metadata) {
+      this.key = key;
+      this.validatedAtMillis = validatedAtMillis;
+      this.changeStamp = changeStamp;
+      this.metadata = metadata;
+    }
+  }
+
+  /**
+   * Loads the metadata of an SAP object from SAP
+   *
+   * @param <T> metadata type
+   */
+  public interface MetadataLoader<T> {
+    T load() throws ConnectorException;
+  }
+
+  /**
+   * Retrieves a value which changes whenever the metadata of an SAP object
+   * changes, e.g. its last activation date and time
+   */
+  public interface ChangeStampProbe {
+    @Nullable
+    String getChangeStamp() throws ConnectorException;
+  }
+}
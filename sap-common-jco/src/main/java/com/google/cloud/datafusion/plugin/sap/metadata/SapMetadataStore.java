@@ -0,0 +1,48 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.metadata;
+
+import java.io.IOException;
+
+import javax.annotation.Nullable;
+
+/**
+ * Persistent tier of the {@link SapMetadataCache}, which outlives the JVM so
+ * that later validations and scheduled runs find the metadata cached.
+ *
+ * @author sankalpbapat
+ *
+ */
+public interface SapMetadataStore {
+
+  /**
+   * @param key cache key
+   * @return content stored for the key, or null if there is none
+   * @throws IOException
+   */
+  @Nullable
+  String read(String key) throws IOException;
+
+  /**
+   * Stores the content for the key, replacing any previous content.
+   *
+   * @param key     cache key
+   * @param content content to store
+   * @throws IOException
+   */
+  void write(String key, String content) throws IOException;
+}
@@ -16,6 +16,7 @@
 
 package com.google.cloud.datafusion.plugin.sap.source;
 
+import com.google.cloud.datafusion.plugin.sap.codec.AbapValueCodec;
 import com.google.cloud.datafusion.plugin.sap.metadata.model.SapFieldMetadata;
 import com.google.cloud.datafusion.plugin.sap.metadata.model.SapObjectMetadata;
 import com.google.cloud.datafusion.plugin.util.ResourceConstants;
@@ -26,12 +27,6 @@ import io.cdap.cdap.api.data.format.UnexpectedFormatException;
 import io.cdap.cdap.api.data.schema.Schema;
 
 import java.io.IOException;
-import java.math.BigDecimal;
-import java.time.LocalDate;
-import java.time.LocalTime;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -50,6 +45,8 @@ public abstract class AbstractStructuredSchemaTransformer {
   public static final char HYPHEN = '-';
 
   public static final String EMPTY_STRING = "";
+  // CDF compliant replacement of '/' in SAP field names
+  public static final String ENCODED_FWD_SLASH = "__";
 
   // Mapping of Abap type as key and its corresponding CDF type as value
   private static final Map<String, Schema> SAP_CDF_DATA_TYPE_MAPPING;
@@ -105,7 +102,7 @@ public abstract class AbstractStructuredSchemaTransformer {
 
         // SAP column names may contain '/' char, which is NOT allowed by CDF, so encode
         // '/' to '__'. Single underscore is often used in column names in SAP.
-        String encodedColName = sapNativeField.getName().replace("/", "__");
+        String encodedColName = sapNativeField.getName().replace(String.valueOf(FWD_SLASH), ENCODED_FWD_SLASH);
 
         fields
           .add(Schema.Field.of(encodedColName, sapNativeField.isKey() ? fieldSchema : Schema.nullableOf(fieldSchema)));
@@ -115,6 +112,28 @@ public abstract class AbstractStructuredSchemaTransformer {
     return fields;
   }
 
+  /**
+   * Retrieves the SAP field names for the fields of {@code outputSchema}, in the
+   * same order, by reverting the encoding done in
+   * {@link #createSchemaFields(List)}.
+   * 
+   * @param outputSchema Plugin schema
+   * @return List of SAP field names
+   */
+  public List<String> getNativeFieldNames(Schema outputSchema) {
+    List<Schema.Field> schemaFields = outputSchema.getFields();
+    if (schemaFields == null) {
+      return Collections.emptyList();
+    }
+
+    List<String> fieldNames = new ArrayList<>(schemaFields.size());
+    for (Schema.Field field : schemaFields) {
+      fieldNames.add(field.getName().replace(ENCODED_FWD_SLASH, String.valueOf(FWD_SLASH)));
+    }
+
+    return fieldNames;
+  }
+
   /**
    * Builds the {@code record} using the specified raw SAP record and column
    * metadata corresponding to SAP object.<br/>
@@ -220,57 +239,31 @@ public abstract class AbstractStructuredSchemaTransformer {
   private void processLogicalTypeVal(Schema nonNullSchema, StructuredRecord.Builder recBuilder, String fieldName,
                                      String fieldValTrim) {
 
+    int valLength = fieldValTrim.length();
     switch (nonNullSchema.getLogicalType()) {
       case DECIMAL:
-        fieldValTrim = handleMinusAtEnd(fieldValTrim);
-        recBuilder.setDecimal(fieldName, new BigDecimal(fieldValTrim).setScale(nonNullSchema.getScale()));
+        recBuilder.setDecimal(fieldName,
+          AbapValueCodec.parseDecimal(fieldValTrim, 0, valLength, nonNullSchema.getScale()));
         break;
 
       case DATE:
-        LocalDate localDate = null;
         // Date field in SAP has default/uninitialized value of 00000000
-        if (!fieldValTrim.startsWith("0000")) {
-          localDate = LocalDate.parse(fieldValTrim, DateTimeFormatter.BASIC_ISO_DATE);
-        }
-        recBuilder.setDate(fieldName, localDate);
+        recBuilder.set(fieldName, AbapValueCodec.isInitialDate(fieldValTrim, 0, valLength) ? null
+          : AbapValueCodec.parseDateToEpochDay(fieldValTrim, 0, valLength));
         break;
 
       case TIME_MICROS:
         // Fix for bug 190464284 - handle missing characters in time value (Jira GCB-218)
-        // Handle invalid time values = 240000. It is invalid and must be rolled over to
-        // 000000. Any other invalid values > 235959, must simply throw an error
-        if (fieldValTrim.equals("240000")) {
-          fieldValTrim = "000000";
-        }
-        StringBuilder timeValBuilder = new StringBuilder(fieldValTrim);
-
-        // Time field in SAP has values in format HHmmss, so add colon separators to
-        // make it parseable
-        timeValBuilder.insert(4, ':').insert(2, ':');
-        LocalTime localTime = LocalTime.parse(timeValBuilder, DateTimeFormatter.ISO_LOCAL_TIME);
-        recBuilder.setTime(fieldName, localTime);
+        // Invalid time value 240000 is rolled over to 000000. Any other invalid values
+        // > 235959, must simply throw an error
+        recBuilder.set(fieldName, AbapValueCodec.parseTimeToMicrosOfDay(fieldValTrim, 0, valLength));
         break;
 
       case TIMESTAMP_MICROS:
-        ZonedDateTime zonedDateTime = null;
         // Check if UTCLONG string having format yyyy-MM-dd HH:mm:ss.SSSSSSS does not
         // start with default date value part 0000
-        if (!fieldValTrim.startsWith("0000")) {
-          String parseableTimestamp = fieldValTrim.replace(' ', 'T');
-
-          String dateTimePart = parseableTimestamp + "+00:00";
-          String nanoSecPart = "0";
-          int nanoSecPartIdx = parseableTimestamp.indexOf('.');
-          if (nanoSecPartIdx > 0) {
-            dateTimePart = parseableTimestamp.substring(0, nanoSecPartIdx) + "+00:00";
-            // nano second part is precise only to 1/10th of nanosecond so need to append 2
-            // more zeros
-            nanoSecPart = parseableTimestamp.substring(nanoSecPartIdx + 1) + "00";
-          }
-          zonedDateTime = ZonedDateTime.parse(dateTimePart, DateTimeFormatter.ISO_DATE_TIME);
-          zonedDateTime = zonedDateTime.plus(Long.parseLong(nanoSecPart), ChronoUnit.NANOS);
-        }
-        recBuilder.setTimestamp(fieldName, zonedDateTime);
+        recBuilder.set(fieldName, AbapValueCodec.isInitialDate(fieldValTrim, 0, valLength) ? null
+          : AbapValueCodec.parseUtcLongToEpochMicros(fieldValTrim, 0, valLength));
         break;
 
       default:
@@ -319,13 +312,9 @@ public abstract class AbstractStructuredSchemaTransformer {
         break;
 
       case STRING:
-        char[] colValArr = fieldValStr.toCharArray();
         int length = fieldValStr.length();
-        // Right trim string
-        for (int i = length - 1; i > -1; i--) {
-          if (!Character.isWhitespace(colValArr[i])) {
-            break;
-          }
+        // Right trim string, without copying its chars
+        while (length > 0 && Character.isWhitespace(fieldValStr.charAt(length - 1))) {
           length--;
         }
         recBuilder.set(fieldName, fieldValStr.substring(0, length));
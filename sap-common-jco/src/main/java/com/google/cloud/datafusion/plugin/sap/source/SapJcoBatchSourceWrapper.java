@@ -17,17 +17,21 @@
 package com.google.cloud.datafusion.plugin.sap.source;
 
 import com.google.cloud.datafusion.plugin.sap.source.config.SapJcoPluginConfigWrapper;
+import com.google.cloud.datafusion.plugin.sap.source.input.SplitMetrics;
 import com.google.cloud.datafusion.plugin.util.JcoLibrariesManager;
 
 import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.dataset.lib.KeyValue;
+import io.cdap.cdap.etl.api.Emitter;
 import io.cdap.cdap.etl.api.FailureCollector;
 import io.cdap.cdap.etl.api.PipelineConfigurer;
+import io.cdap.cdap.etl.api.StageMetrics;
+import io.cdap.cdap.etl.api.batch.BatchRuntimeContext;
 import io.cdap.cdap.etl.api.batch.BatchSource;
 import io.cdap.cdap.etl.api.batch.BatchSourceContext;
 
 import org.apache.hadoop.io.LongWritable;
 
-import java.io.File;
 import java.io.IOException;
 
 /**
@@ -39,11 +43,15 @@ import java.io.IOException;
 public abstract class SapJcoBatchSourceWrapper extends BatchSource<LongWritable, StructuredRecord, StructuredRecord> {
 
   public static final String PLUGIN_SOURCE_JCO_PROPERTY_NAMES = "sap.batch.source.jco.props";
+  public static final String PLUGIN_STAGE_NAME = "sap.batch.source.stage.name";
 
   private final SapJcoPluginConfigWrapper config;
   private final JcoLibrariesManager jcoLibMgr;
 
   private BatchSource<LongWritable, StructuredRecord, StructuredRecord> delegate;
+  // Executors only, metrics of the splits read by this stage
+  private StageMetrics stageMetrics;
+  private SplitMetrics splitMetrics;
 
   public SapJcoBatchSourceWrapper(SapJcoPluginConfigWrapper config) {
     this.config = config;
@@ -67,7 +75,7 @@ public abstract class SapJcoBatchSourceWrapper extends BatchSource<LongWritable,
       } catch (IOException e) { // Catch needed as super method does NOT have any throws clause
         throw new RuntimeException("Unable to access GCS or download JCo libraries from GCS", e);
       } finally {
-        jcoLibMgr.cleanUpResources(delegate);
+        jcoLibMgr.release();
       }
     }
   }
@@ -80,26 +88,58 @@ public abstract class SapJcoBatchSourceWrapper extends BatchSource<LongWritable,
     config.validateOptionalProps(collector);
     collector.getOrThrowException();
 
+    // The delegate still needs the JCo classes in onRunFinish, so the libraries are
+    // only released here if the run could not be prepared
     try {
       delegate = createDelegate();
       delegate.prepareRun(batchSourceContext);
-    } finally {
-      jcoLibMgr.cleanUpResources(delegate);
+    } catch (Exception | Error e) {
+      jcoLibMgr.release();
+      throw e;
     }
   }
 
   @Override
   public void onRunFinish(boolean succeeded, BatchSourceContext context) {
-    jcoLibMgr.cleanUpResources(delegate);
+    try {
+      if (delegate != null) {
+        delegate.onRunFinish(succeeded, context);
+      }
+    } finally {
+      jcoLibMgr.release();
+    }
+  }
+
+  @Override
+  public void initialize(BatchRuntimeContext context) throws Exception {
+    super.initialize(context);
+    stageMetrics = context.getMetrics();
+    splitMetrics = SplitMetrics.forStage(context.getStageName());
+  }
+
+  // Counts the metrics of the splits along with their records, as the record
+  // readers have no access to the stage metrics
+  @Override
+  public void transform(KeyValue<LongWritable, StructuredRecord> input, Emitter<StructuredRecord> emitter)
+    throws Exception {
+
+    splitMetrics.countTo(stageMetrics);
+    emitter.emit(input.getValue());
+  }
+
+  @Override
+  public void destroy() {
+    if (splitMetrics != null) {
+      splitMetrics.countTo(stageMetrics);
+    }
+    super.destroy();
   }
 
   protected abstract BatchSource<LongWritable, StructuredRecord, StructuredRecord>
     loadInitPluginAndBatchConfig(ClassLoader jcoClassLoader) throws IOException;
 
   private BatchSource<LongWritable, StructuredRecord, StructuredRecord> createDelegate() throws IOException {
-    File jcoJarFile = jcoLibMgr.downloadAndGetLocalJcoPath(config.getProject(), config.getGcsPathString());
-
-    ClassLoader jcoClassLoader = jcoLibMgr.createJcoClassLoader(jcoJarFile);
+    ClassLoader jcoClassLoader = jcoLibMgr.acquireJcoClassLoader(config.getProject(), config.getGcsPathString());
 
     return loadInitPluginAndBatchConfig(jcoClassLoader);
   }
@@ -16,6 +16,7 @@
 
 package com.google.cloud.datafusion.plugin.sap.source.input;
 
+import com.google.cloud.datafusion.plugin.sap.source.SapJcoBatchSourceWrapper;
 import com.google.cloud.datafusion.plugin.util.JcoLibrariesManager;
 
 import io.cdap.cdap.api.data.format.StructuredRecord;
@@ -26,32 +27,55 @@ import org.apache.hadoop.mapreduce.RecordReader;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
 
 import java.io.IOException;
-import java.nio.file.Path;
+import java.util.Map;
+import java.util.function.Supplier;
 
 /**
+ * Delegates to a record reader loaded by the JCo class loader. If the delegate
+ * supplies metrics, they are added to the {@link SplitMetrics} of the stage
+ * after every record.
+ *
  * @author sankalpbapat
  *
  */
 public class RecordReaderWrapper extends RecordReader<LongWritable, StructuredRecord> {
 
   private final RecordReader<LongWritable, StructuredRecord> delegateReader;
-  private final Path cleanupPath;
+  private final JcoLibrariesManager jcoLibMgr;
+  private final Supplier<Map<String, Long>> delegateMetrics;
+
+  private SplitMetrics splitMetrics;
+
+  @SuppressWarnings("unchecked")
+  public RecordReaderWrapper(RecordReader<LongWritable, StructuredRecord> delegateReader,
+                             JcoLibrariesManager jcoLibMgr) {
 
-  public RecordReaderWrapper(RecordReader<LongWritable, StructuredRecord> delegateReader, Path cleanupPath) {
     this.delegateReader = delegateReader;
-    this.cleanupPath = cleanupPath;
+    this.jcoLibMgr = jcoLibMgr;
+    // Only JDK types are shared with the JCo class loader
+    this.delegateMetrics =
+      delegateReader instanceof Supplier ? (Supplier<Map<String, Long>>) delegateReader : null;
   }
 
   @Override
   public void initialize(InputSplit paramInputSplit, TaskAttemptContext taContext)
     throws IOException, InterruptedException {
 
+    String stageName = taContext.getConfiguration().get(SapJcoBatchSourceWrapper.PLUGIN_STAGE_NAME);
+    if (delegateMetrics != null && stageName != null) {
+      splitMetrics = SplitMetrics.forStage(stageName);
+    }
+
     delegateReader.initialize(paramInputSplit, taContext);
   }
 
   @Override
   public boolean nextKeyValue() throws IOException, InterruptedException {
-    return delegateReader.nextKeyValue();
+    try {
+      return delegateReader.nextKeyValue();
+    } finally {
+      addMetrics();
+    }
   }
 
   @Override
@@ -71,6 +95,22 @@ public class RecordReaderWrapper extends RecordReader<LongWritable, StructuredRe
 
   @Override
   public void close() throws IOException {
-    JcoLibrariesManager.cleanUpResources(delegateReader, cleanupPath);
+    try {
+      delegateReader.close();
+      addMetrics();
+    } finally {
+      jcoLibMgr.release();
+    }
+  }
+
+  private void addMetrics() {
+    if (splitMetrics == null) {
+      return;
+    }
+
+    Map<String, Long> metrics = delegateMetrics.get();
+    if (!metrics.isEmpty()) {
+      splitMetrics.add(metrics);
+    }
   }
 }
@@ -29,7 +29,6 @@ import org.apache.hadoop.mapreduce.InputSplit;
 import org.apache.hadoop.mapreduce.RecordReader;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
 
-import java.io.File;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
@@ -40,27 +39,30 @@ import java.util.Map;
  */
 public abstract class SapJcoInputFormat extends InputFormat<LongWritable, StructuredRecord> {
 
-  private JcoLibrariesManager jcoLibMgr;
-
   @Override
   public RecordReader<LongWritable, StructuredRecord> createRecordReader(InputSplit split, TaskAttemptContext taContext)
     throws IOException, InterruptedException {
 
-    RecordReader<LongWritable, StructuredRecord> delegateReader =
-      createDelegateReader(split, taContext.getConfiguration());
+    // Every reader holds its own reference on the JVM wide JCo libraries, released when the reader is closed
+    JcoLibrariesManager jcoLibMgr = new JcoLibrariesManager();
+    try {
+      RecordReader<LongWritable, StructuredRecord> delegateReader =
+        createDelegateReader(jcoLibMgr, split, taContext.getConfiguration());
 
-    return new RecordReaderWrapper(delegateReader, jcoLibMgr.getLocalTempDirPath());
+      return new RecordReaderWrapper(delegateReader, jcoLibMgr);
+    } catch (IOException | RuntimeException e) {
+      jcoLibMgr.release();
+      throw e;
+    }
   }
 
-  private RecordReader<LongWritable, StructuredRecord> createDelegateReader(InputSplit split, Configuration conf)
+  private RecordReader<LongWritable, StructuredRecord> createDelegateReader(JcoLibrariesManager jcoLibMgr,
+                                                                            InputSplit split, Configuration conf)
     throws IOException {
 
-    jcoLibMgr = new JcoLibrariesManager();
-    File jcoJarFile = jcoLibMgr.downloadAndGetLocalJcoPath(conf.get(SapJcoPluginConfigWrapper.GCP_PROJECT_ID),
+    ClassLoader jcoClassLoader = jcoLibMgr.acquireJcoClassLoader(conf.get(SapJcoPluginConfigWrapper.GCP_PROJECT_ID),
       conf.get(SapJcoPluginConfigWrapper.GCS_PATH));
 
-    ClassLoader jcoClassLoader = jcoLibMgr.createJcoClassLoader(jcoJarFile);
-
     return loadInitRecordReader(jcoClassLoader, conf, split);
   }
 
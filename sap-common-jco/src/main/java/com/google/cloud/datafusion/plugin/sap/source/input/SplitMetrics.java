@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.cloud.datafusion.plugin.sap.source.input;
+
+import io.cdap.cdap.api.metrics.Metrics;
+
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of the splits read in this JVM, not counted as stage metrics yet.
+ * Record readers run in the JCo class loader and have no access to the stage
+ * metrics, so {@link RecordReaderWrapper} adds up their metrics here by stage,
+ * and the source of the stage counts them while it transforms the records.
+ * 
+ * @author sankalpbapat
+ */
+public final class SplitMetrics {
+  private static final ConcurrentMap<String, SplitMetrics> STAGES = new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<String, LongAdder> pending;
+  private final AtomicBoolean updated;
+
+  private SplitMetrics() {
+    this.pending = new ConcurrentHashMap<>();
+    this.updated = new AtomicBoolean();
+  }
+
+  /**
+   * @param stageName name of the source stage
+   * @return metrics of the splits of the stage in this JVM
+   */
+  public static SplitMetrics forStage(String stageName) {
+    return STAGES.computeIfAbsent(stageName, name -> new SplitMetrics());
+  }
+
+  /**
+   * Adds metrics of a split.
+   *
+   * @param metrics counts by metric name
+   */
+  public void add(Map<String, Long> metrics) {
+    for (Entry<String, Long> metric : metrics.entrySet()) {
+      pending.computeIfAbsent(metric.getKey(), name -> new LongAdder()).add(metric.getValue());
+    }
+    updated.set(true);
+  }
+
+  /**
+   * Counts the metrics added since the last call, if any.
+   *
+   * @param stageMetrics metrics of the stage
+   */
+  public void countTo(Metrics stageMetrics) {
+    if (!updated.compareAndSet(true, false)) {
+      return;
+    }
+
+    for (Entry<String, LongAdder> metric : pending.entrySet()) {
+      long count = metric.getValue().sumThenReset();
+      while (count > 0) {
+        int delta = (int) Math.min(count, Integer.MAX_VALUE);
+        stageMetrics.count(metric.getKey(), delta);
+        count -= delta;
+      }
+    }
+  }
+}
@@ -1,12 +1,12 @@
 /*
  * Copyright © 2021 Cask Data, Inc.
- * 
+ *
  * Licensed under the Apache License, Version 2.0 (the "License"); you may not
  * use this file except in compliance with the License. You may obtain a copy of
  * the License at
- * 
+ *
  * http://www.apache.org/licenses/LICENSE-2.0
- * 
+ *
  * Unless required by applicable law or agreed to in writing, software
  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
@@ -20,23 +20,51 @@ import com.google.auth.oauth2.GoogleCredentials;
 import com.google.cloud.storage.Blob;
 import com.google.cloud.storage.Storage;
 import com.google.cloud.storage.StorageOptions;
+import com.google.common.hash.Hashing;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nullable;
 
 /**
- * @author sankalpbapat
+ * Provides the SAP JCo libraries and the classloader built on top of them.
+ * <p>
+ * Libraries are shared JVM wide, per GCP project and GCS path, and reference counted: every split or plugin stage
+ * acquires them through its own {@code JcoLibrariesManager} and releases them when done. Unused libraries are kept
+ * for {@link #IDLE_EVICTION_MINUTES} so that the next split on the same executor does not download and load them
+ * again. Downloaded files are kept in a host wide directory, protected by a file lock across processes and verified
+ * against the GCS checksums before being reused. Every classloader loads its own copy of the files from a directory
+ * of its own, as the JVM loads a native library into only one classloader at a time: an evicted classloader may still
+ * hold {@code libsapjco3.so} until it is garbage collected.
  *
+ * @author sankalpbapat
  */
 public class JcoLibrariesManager {
   private static final Logger LOGGER = LoggerFactory.getLogger(JcoLibrariesManager.class);
@@ -44,16 +72,143 @@ public class JcoLibrariesManager {
   public static final String JCO_OBJECT_NAME = "sapjco3.jar";
   public static final String SO_OBJECT_NAME = "libsapjco3.so";
 
+  static final long IDLE_EVICTION_MINUTES = 10L;
+
+  private static final String CACHE_DIR_NAME = "sap_jco_libs";
+  private static final String LOCK_FILE_NAME = ".lock";
+
+  private static final Map<String, SharedJcoLibraries> SHARED_LIBRARIES = new HashMap<>();
+
+  private static final ScheduledExecutorService EVICTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread evictorThread = new Thread(r, "sap-jco-libraries-evictor");
+    evictorThread.setDaemon(true);
+    return evictorThread;
+  });
+
   // Deliberately non-final, as it is needed only when basic validations are
   // successful
-  private Path localTempDirPath;
+  private SharedJcoLibraries libraries;
+
+  /**
+   * Acquires the JVM wide JCo classloader for the given GCS path, downloading and loading the libraries only if no
+   * other split or stage in this JVM holds them. Each call must be paired with {@link #release()}.
+   *
+   * @param gcpProjectId  GCP project id used to access GCS
+   * @param gcsPathString GCS path containing the JCo libraries
+   * @return JCo classloader
+   * @throws IOException if the libraries could not be downloaded
+   */
+  public ClassLoader acquireJcoClassLoader(String gcpProjectId, String gcsPathString) throws IOException {
+    if (libraries != null) {
+      return libraries.classLoader;
+    }
+
+    String key = gcpProjectId + "|" + gcsPathString;
+    SharedJcoLibraries shared;
+    synchronized (SHARED_LIBRARIES) {
+      shared = SHARED_LIBRARIES.computeIfAbsent(key, SharedJcoLibraries::new);
+      shared.refCount++;
+      if (shared.eviction != null) {
+        shared.eviction.cancel(false);
+        shared.eviction = null;
+      }
+    }
+
+    try {
+      synchronized (shared) {
+        if (shared.classLoader == null) {
+          Path loaderDirPath = downloadLibraries(gcpProjectId, gcsPathString);
+          shared.classLoader = createJcoClassLoader(loaderDirPath.resolve(JCO_OBJECT_NAME).toFile());
+          shared.loaderDirPath = loaderDirPath;
+          LOGGER.debug("Loaded SAP JCo libraries from '{}'", loaderDirPath);
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      releaseShared(shared);
+      throw e;
+    }
+
+    libraries = shared;
+    return shared.classLoader;
+  }
+
+  /**
+   * Releases the libraries acquired by this manager, calling it more than once has no effect.
+   */
+  public void release() {
+    SharedJcoLibraries shared = libraries;
+    libraries = null;
+    if (shared != null) {
+      releaseShared(shared);
+    }
+  }
+
+  private static void releaseShared(SharedJcoLibraries shared) {
+    synchronized (SHARED_LIBRARIES) {
+      if (--shared.refCount > 0) {
+        return;
+      }
+      shared.eviction = EVICTOR.schedule(() -> evict(shared), IDLE_EVICTION_MINUTES, TimeUnit.MINUTES);
+    }
+  }
+
+  private static void evict(SharedJcoLibraries shared) {
+    synchronized (SHARED_LIBRARIES) {
+      if (shared.refCount > 0 || SHARED_LIBRARIES.get(shared.key) != shared) {
+        return;
+      }
+      SHARED_LIBRARIES.remove(shared.key);
+    }
+
+    synchronized (shared) {
+      if (shared.classLoader != null) {
+        try {
+          shared.classLoader.close();
+        } catch (IOException e) {
+          LOGGER.warn("Unable to close custom JCo classloader", e);
+        }
+        shared.classLoader = null;
+        deleteLoaderDir(shared.loaderDirPath);
+        shared.loaderDirPath = null;
+      }
+    }
+  }
+
+  /**
+   * Evicts all the libraries no split or stage holds right away, instead of after
+   * {@link #IDLE_EVICTION_MINUTES}, mainly used by the tests.
+   */
+  static void evictIdle() {
+    List<SharedJcoLibraries> idle = new ArrayList<>();
+    synchronized (SHARED_LIBRARIES) {
+      for (SharedJcoLibraries shared : SHARED_LIBRARIES.values()) {
+        if (shared.eviction != null) {
+          shared.eviction.cancel(false);
+          shared.eviction = null;
+          idle.add(shared);
+        }
+      }
+    }
+
+    for (SharedJcoLibraries shared : idle) {
+      evict(shared);
+    }
+  }
 
-  @Nullable
-  public Path getLocalTempDirPath() {
-    return localTempDirPath;
+  /**
+   * Downloads the libraries, if not yet on this host, and copies them into a new
+   * directory for one classloader.
+   *
+   * @param gcpProjectId  GCP project id used to access GCS
+   * @param gcsPathString GCS path containing the JCo libraries
+   * @return directory of the copies, used by no other classloader
+   * @throws IOException
+   */
+  Path downloadLibraries(String gcpProjectId, String gcsPathString) throws IOException {
+    return downloadAndGetLocalJcoDir(gcpProjectId, gcsPathString);
   }
 
-  public ClassLoader createJcoClassLoader(File jcoJarFile) {
+  URLClassLoader createJcoClassLoader(File jcoJarFile) {
     try {
       ClassLoader pluginClassLoader = this.getClass().getClassLoader();
       if (!(pluginClassLoader instanceof URLClassLoader)) {
@@ -78,7 +233,7 @@ public class JcoLibrariesManager {
     }
   }
 
-  public File downloadAndGetLocalJcoPath(String gcpProjectId, String gcsPathString) throws IOException {
+  private static Path downloadAndGetLocalJcoDir(String gcpProjectId, String gcsPathString) throws IOException {
     GCSPath gcsPathObj = GCSPath.from(gcsPathString);
     String bucketName = gcsPathObj.getBucket();
     String bucketFilePath = gcsPathObj.getName();
@@ -89,10 +244,6 @@ public class JcoLibrariesManager {
       bucketFilePath += bucketFilePath.endsWith(GCSPath.ROOT_DIR) ? "" : GCSPath.ROOT_DIR;
     }
 
-    localTempDirPath = Files.createTempDirectory("jco_");
-    Path jarFilePath = Paths.get(localTempDirPath.toString(), JCO_OBJECT_NAME);
-    Path soFilePath = Paths.get(localTempDirPath.toString(), SO_OBJECT_NAME);
-
     StorageOptions options = StorageOptions.newBuilder().setProjectId(gcpProjectId)
       .setCredentials(GoogleCredentials.getApplicationDefault()).build();
 
@@ -107,40 +258,124 @@ public class JcoLibrariesManager {
           + " were uploaded to your specified Google Cloud Storage bucket '" + gcsPathString + "'.");
     }
 
-    jarBlob.downloadTo(jarFilePath);
-    soBlob.downloadTo(soFilePath);
+    // Both files must be in the same directory, so that JCo finds its native library next to the jar
+    String dirName = Hashing.sha256().hashString(gcpProjectId + "|" + gcsPathString, StandardCharsets.UTF_8)
+      .toString();
+    Path localDirPath = Paths.get(System.getProperty("java.io.tmpdir"), CACHE_DIR_NAME, dirName);
+    Files.createDirectories(localDirPath);
+
+    // Other processes on the same host may be downloading or verifying the same files
+    try (FileChannel lockChannel = FileChannel.open(localDirPath.resolve(LOCK_FILE_NAME), StandardOpenOption.CREATE,
+      StandardOpenOption.WRITE);
+         FileLock lock = lockChannel.lock()) {
+
+      downloadIfChanged(jarBlob, localDirPath.resolve(JCO_OBJECT_NAME));
+      downloadIfChanged(soBlob, localDirPath.resolve(SO_OBJECT_NAME));
 
-    return new File(jarFilePath.toString());
+      // Copied under the lock, as another process may replace the downloaded files
+      return copyToLoaderDir(localDirPath);
+    }
   }
 
-  public void cleanUpResources(@Nullable Object delegate) {
-    cleanUpResources(delegate, localTempDirPath);
+  /**
+   * Copies the JCo jar and native library into a new directory next to
+   * {@code localDirPath}, so that every classloader loads the native library from
+   * a path of its own. The copies are deleted once the classloader is evicted, or
+   * else when the JVM exits.
+   *
+   * @param localDirPath directory of the verified libraries
+   * @return new directory with both files
+   * @throws IOException
+   */
+  static Path copyToLoaderDir(Path localDirPath) throws IOException {
+    Path loaderDirPath = Files.createTempDirectory(localDirPath.getParent(), localDirPath.getFileName() + "-");
+    loaderDirPath.toFile().deleteOnExit();
+    for (String fileName : new String[] {JCO_OBJECT_NAME, SO_OBJECT_NAME}) {
+      Path copyPath = Files.copy(localDirPath.resolve(fileName), loaderDirPath.resolve(fileName));
+      // Deleted before the directory, in the reverse order of registration
+      copyPath.toFile().deleteOnExit();
+    }
+
+    return loaderDirPath;
   }
 
-  public static void cleanUpResources(@Nullable Object delegate, @Nullable Path localPathToDelete) {
-    if (delegate != null) {
-      try {
-        ((URLClassLoader) delegate.getClass().getClassLoader()).close();
-      } catch (IOException e) {
-        LOGGER.warn("Unable to close custom JCo classloader", e);
-      }
+  private static void deleteLoaderDir(Path loaderDirPath) {
+    try {
+      Files.deleteIfExists(loaderDirPath.resolve(JCO_OBJECT_NAME));
+      Files.deleteIfExists(loaderDirPath.resolve(SO_OBJECT_NAME));
+      Files.deleteIfExists(loaderDirPath);
+    } catch (IOException e) {
+      LOGGER.warn("Unable to delete SAP JCo libraries at '{}'", loaderDirPath, e);
     }
+  }
 
-    if (localPathToDelete == null) {
+  private static void downloadIfChanged(Blob blob, Path filePath) throws IOException {
+    if (Files.exists(filePath) && isChecksumMatching(blob.getMd5(), blob.getCrc32c(), filePath)) {
+      LOGGER.debug("Reusing verified SAP JCo library at '{}'", filePath);
       return;
     }
 
-    File folderToDelete = localPathToDelete.toFile();
-    // Folder can't be deleted unless its contents are removed
-    File[] contents = folderToDelete.listFiles();
-    if (contents != null) {
-      for (File f : contents) {
-        try {
-          Files.deleteIfExists(f.toPath());
-        } catch (IOException e) {
-          LOGGER.warn("Unable to delete contents at path '{}'", f.getPath(), e);
-        }
+    Path partFilePath = filePath.resolveSibling(filePath.getFileName() + ".part");
+    blob.downloadTo(partFilePath);
+    if (!isChecksumMatching(blob.getMd5(), blob.getCrc32c(), partFilePath)) {
+      Files.deleteIfExists(partFilePath);
+      throw new IOException(String.format("Checksum of the downloaded SAP JCo library '%s' does not match with "
+        + "gs://%s/%s. Please retry.", filePath.getFileName(), blob.getBucket(), blob.getName()));
+    }
+
+    Files.move(partFilePath, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Verifies the file against the Base64 encoded MD5 checksum of the GCS object, or its CRC32C checksum for composite
+   * objects which do not have any MD5.
+   *
+   * @param md5    Base64 encoded MD5 checksum, may be null
+   * @param crc32c Base64 encoded big-endian CRC32C checksum, may be null
+   * @param file   local file
+   * @return true if the available checksum matches
+   */
+  static boolean isChecksumMatching(@Nullable String md5, @Nullable String crc32c, Path file) throws IOException {
+    if (md5 != null) {
+      return md5.equals(Base64.getEncoder().encodeToString(md5Of(file)));
+    }
+
+    if (crc32c != null) {
+      int crc = com.google.common.io.Files.asByteSource(file.toFile()).hash(Hashing.crc32c()).asInt();
+      return crc32c.equals(Base64.getEncoder().encodeToString(ByteBuffer.allocate(4).putInt(crc).array()));
+    }
+
+    return false;
+  }
+
+  private static byte[] md5Of(Path file) throws IOException {
+    try (InputStream in = Files.newInputStream(file)) {
+      MessageDigest digest = MessageDigest.getInstance("MD5");
+      byte[] buffer = new byte[8192];
+      int numRead;
+      while ((numRead = in.read(buffer)) > -1) {
+        digest.update(buffer, 0, numRead);
       }
+
+      return digest.digest();
+    } catch (NoSuchAlgorithmException e) {
+      // every JVM is required to support MD5
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * JCo classloader shared by all the managers acquiring the same GCS path.
+   */
+  private static final class SharedJcoLibraries {
+    private final String key;
+    private URLClassLoader classLoader;
+    private Path loaderDirPath;
+    private int refCount;
+    private ScheduledFuture<?> eviction;
+
+    private SharedJcoLibraries(String key) {
+      this.key = key;
     }
   }
 }
@@ -0,0 +1,226 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.codec;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the codec with the {@code java.time} and {@link BigDecimal} based
+ * conversion used so far, for randomly generated valid and invalid values.
+ *
+ * @author sankalpbapat
+ *
+ */
+public class AbapValueCodecTest {
+
+  private static final int SAMPLES = 20_000;
+  // No exponent, as a random one makes BigDecimal.setScale take forever
+  private static final String NUMBER_CHARS = "0123456789012345678901234567890123456789.-+ ";
+
+  // Fixed seed keeps failures reproducible
+  private final Random random = new Random(20211018L);
+
+  @Test
+  public void testParseDateSameAsLocalDate() throws Exception {
+    for (int i = 0; i < SAMPLES; i++) {
+      String date = String.format("%04d%02d%02d", 1 + random.nextInt(9999), random.nextInt(14), random.nextInt(33));
+      assertSameResult(date, () -> (int) LocalDate.parse(date, DateTimeFormatter.BASIC_ISO_DATE).toEpochDay(),
+        () -> AbapValueCodec.parseDateToEpochDay(date, 0, date.length()));
+    }
+
+    for (int i = 0; i < SAMPLES; i++) {
+      String date = randomString("0123456789-/Z", 10);
+      assertSameResult(date, () -> (int) LocalDate.parse(date, DateTimeFormatter.BASIC_ISO_DATE).toEpochDay(),
+        () -> AbapValueCodec.parseDateToEpochDay(date, 0, date.length()));
+    }
+  }
+
+  @Test
+  public void testParseTimeSameAsLocalTime() throws Exception {
+    for (int i = 0; i < SAMPLES; i++) {
+      String time = String.format("%02d%02d%02d", random.nextInt(26), random.nextInt(62), random.nextInt(62));
+      assertSameResult(time, () -> referenceTime(time), () -> AbapValueCodec.parseTimeToMicrosOfDay(time, 0, 6));
+    }
+
+    for (int i = 0; i < SAMPLES; i++) {
+      String time = randomString("0123456789: ", 8);
+      assertSameResult(time, () -> referenceTime(time),
+        () -> AbapValueCodec.parseTimeToMicrosOfDay(time, 0, time.length()));
+    }
+  }
+
+  @Test
+  public void testParseUtcLongSameAsZonedDateTime() throws Exception {
+    for (int i = 0; i < SAMPLES; i++) {
+      StringBuilder utcLong = new StringBuilder(String.format("%04d-%02d-%02d %02d:%02d:%02d",
+        1 + random.nextInt(9999), random.nextInt(14), random.nextInt(33), random.nextInt(25), random.nextInt(61),
+        random.nextInt(61)));
+      if (random.nextBoolean()) {
+        utcLong.append(String.format(".%07d", random.nextInt(10_000_000)));
+      }
+
+      String value = utcLong.toString();
+      assertSameResult(value, () -> referenceUtcLong(value),
+        () -> AbapValueCodec.parseUtcLongToEpochMicros(value, 0, value.length()));
+    }
+
+    for (int i = 0; i < SAMPLES; i++) {
+      // Valid timestamp with a fraction of any length or a changed char
+      char[] value = String.format("%04d-%02d-%02d %02d:%02d:%02d.%07d", 1 + random.nextInt(9999),
+        1 + random.nextInt(12), 1 + random.nextInt(28), random.nextInt(24), random.nextInt(60), random.nextInt(60),
+        random.nextInt(10_000_000)).toCharArray();
+      value[random.nextInt(value.length)] = "0123456789 -:.T".charAt(random.nextInt(15));
+      String utcLong = new String(value, 0, 19 + random.nextInt(9));
+      assertSameResult(utcLong, () -> referenceUtcLong(utcLong),
+        () -> AbapValueCodec.parseUtcLongToEpochMicros(utcLong, 0, utcLong.length()));
+    }
+  }
+
+  @Test
+  public void testParseDecimalSameAsBigDecimal() throws Exception {
+    for (int i = 0; i < SAMPLES; i++) {
+      int scale = random.nextInt(12);
+      BigDecimal decimal = BigDecimal.valueOf(random.nextLong() >> random.nextInt(64), random.nextInt(scale + 2));
+      String plain = decimal.abs().toPlainString();
+      if (random.nextBoolean()) {
+        plain = "000".substring(random.nextInt(4) % 3) + plain;
+      }
+      // SAP sends negative values with a minus sign at the end
+      String value = decimal.signum() < 0 ? (random.nextBoolean() ? plain + "-" : "-" + plain) : plain;
+
+      assertSameResult(value, () -> referenceDecimal(value, scale),
+        () -> AbapValueCodec.parseDecimal(value, 0, value.length(), scale));
+    }
+
+    for (int i = 0; i < SAMPLES; i++) {
+      int scale = random.nextInt(6);
+      String value = randomString(NUMBER_CHARS, 25);
+      assertSameResult(value, () -> referenceDecimal(value, scale),
+        () -> AbapValueCodec.parseDecimal(value, 0, value.length(), scale));
+    }
+  }
+
+  @Test
+  public void testParseLongSameAsLong() throws Exception {
+    for (int i = 0; i < SAMPLES; i++) {
+      long number = random.nextLong() >> random.nextInt(64);
+      String value = number < 0 && random.nextBoolean() ? (-number) + "-" : String.valueOf(number);
+      assertSameResult(value, () -> Long.parseLong(moveMinusToStart(value)),
+        () -> AbapValueCodec.parseLong(value, 0, value.length()));
+    }
+
+    for (int i = 0; i < SAMPLES; i++) {
+      String value = randomString(NUMBER_CHARS, 22);
+      assertSameResult(value, () -> Long.parseLong(moveMinusToStart(value)),
+        () -> AbapValueCodec.parseLong(value, 0, value.length()));
+    }
+  }
+
+  @Test
+  public void testSapQuirks() {
+    Assert.assertTrue(AbapValueCodec.isInitialDate("00000000", 0, 8));
+    Assert.assertTrue(AbapValueCodec.isInitialDate("0000-00-00 00:00:00.0000000", 0, 27));
+    Assert.assertFalse(AbapValueCodec.isInitialDate("00010101", 0, 8));
+    Assert.assertFalse(AbapValueCodec.isInitialDate("000", 0, 3));
+
+    Assert.assertEquals(0L, AbapValueCodec.parseTimeToMicrosOfDay("240000", 0, 6));
+    Assert.assertEquals(86_399_000_000L, AbapValueCodec.parseTimeToMicrosOfDay("235959", 0, 6));
+
+    Assert.assertEquals(new BigDecimal("-1234.560"), AbapValueCodec.parseDecimal("1234.56-", 0, 8, 3));
+    Assert.assertEquals(new BigDecimal("150.00"), AbapValueCodec.parseDecimal("1.5E2", 0, 5, 2));
+    Assert.assertEquals(-12345L, AbapValueCodec.parseLong("  12345-  ", 2, 8));
+
+    Assert.assertEquals(LocalDate.of(2017, 10, 8).toEpochDay(), AbapValueCodec.parseDateToEpochDay("20171008", 0, 8));
+    Assert.assertEquals(1_507_505_085_324_574L,
+      AbapValueCodec.parseUtcLongToEpochMicros("2017-10-08 23:24:45.3245740", 0, 27));
+  }
+
+  private String randomString(String chars, int maxLength) {
+    int length = 1 + random.nextInt(maxLength);
+    StringBuilder value = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      value.append(chars.charAt(random.nextInt(chars.length())));
+    }
+
+    return value.toString().trim().isEmpty() ? "0" : value.toString().trim();
+  }
+
+  /**
+   * Asserts that both conversions return the same value, or both fail.
+   */
+  private static void assertSameResult(String value, Callable<Object> expected, Callable<Object> actual)
+    throws Exception {
+
+    Object expectedVal;
+    try {
+      expectedVal = expected.call();
+    } catch (RuntimeException e) {
+      Object actualVal;
+      try {
+        actualVal = actual.call();
+      } catch (RuntimeException expectedFailure) {
+        return;
+      }
+      throw new AssertionError("Value '" + value + "' must fail with " + e + ", but is converted to " + actualVal);
+    }
+
+    Assert.assertEquals("Value '" + value + "'", expectedVal, actual.call());
+  }
+
+  private static String moveMinusToStart(String value) {
+    return value.endsWith("-") ? "-" + value.substring(0, value.length() - 1) : value;
+  }
+
+  private static BigDecimal referenceDecimal(String value, int scale) {
+    return new BigDecimal(moveMinusToStart(value)).setScale(scale);
+  }
+
+  private static long referenceTime(String value) {
+    String timeVal = value.equals("240000") ? "000000" : value;
+    StringBuilder timeValBuilder = new StringBuilder(timeVal).insert(4, ':').insert(2, ':');
+    LocalTime localTime = LocalTime.parse(timeValBuilder, DateTimeFormatter.ISO_LOCAL_TIME);
+
+    return TimeUnit.NANOSECONDS.toMicros(localTime.toNanoOfDay());
+  }
+
+  private static long referenceUtcLong(String value) {
+    String parseableTimestamp = value.replace(' ', 'T');
+    String dateTimePart = parseableTimestamp + "+00:00";
+    String nanoSecPart = "0";
+    int nanoSecPartIdx = parseableTimestamp.indexOf('.');
+    if (nanoSecPartIdx > 0) {
+      dateTimePart = parseableTimestamp.substring(0, nanoSecPartIdx) + "+00:00";
+      nanoSecPart = parseableTimestamp.substring(nanoSecPartIdx + 1) + "00";
+    }
+    ZonedDateTime zonedDateTime = ZonedDateTime.parse(dateTimePart, DateTimeFormatter.ISO_DATE_TIME);
+    Instant instant = zonedDateTime.plus(Long.parseLong(nanoSecPart), ChronoUnit.NANOS).toInstant();
+
+    return TimeUnit.SECONDS.toMicros(instant.getEpochSecond()) + TimeUnit.NANOSECONDS.toMicros(instant.getNano());
+  }
+}
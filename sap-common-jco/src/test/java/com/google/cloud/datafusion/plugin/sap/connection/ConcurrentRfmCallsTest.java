@@ -0,0 +1,160 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.connection;
+
+import com.google.cloud.datafusion.plugin.sap.exception.ConnectorException;
+import com.google.cloud.datafusion.plugin.util.ResourceConstants;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author sankalpbapat
+ *
+ */
+public class ConcurrentRfmCallsTest {
+
+  @Test
+  public void testCallsRunConcurrently() throws ConnectorException {
+    // Every call waits until all of them have started, which only succeeds if they
+    // run at the same time
+    CountDownLatch started = new CountDownLatch(3);
+    try (ConcurrentRfmCalls rfmCalls = new ConcurrentRfmCalls(TimeUnit.SECONDS.toMillis(10))) {
+      Future<String> ping = rfmCalls.submit(() -> awaitOthers(started, "PONG"));
+      Future<Integer> workProcesses = rfmCalls.submit(() -> awaitOthers(started, 30));
+      Future<Long> memory = rfmCalls.submit(() -> awaitOthers(started, 400000000L));
+
+      Assert.assertEquals("PONG", rfmCalls.get(ping));
+      Assert.assertEquals(Integer.valueOf(30), rfmCalls.get(workProcesses));
+      Assert.assertEquals(Long.valueOf(400000000L), rfmCalls.get(memory));
+    }
+  }
+
+  @Test
+  public void testFailureCancelsOtherCalls() throws InterruptedException {
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    String errMsg = ResourceConstants.ERR_NOT_AUTHORIZED_FOR_TABLE.getMsgForKeyWithCode("VBAK");
+
+    try (ConcurrentRfmCalls rfmCalls = new ConcurrentRfmCalls(TimeUnit.SECONDS.toMillis(10))) {
+      Future<Long> slowCall = rfmCalls.submit(() -> {
+        try {
+          blocked.await();
+        } catch (InterruptedException e) {
+          interrupted.countDown();
+        }
+        return 0L;
+      });
+      Future<Long> failingCall = rfmCalls.submit(() -> {
+        throw new ConnectorException(ResourceConstants.ERR_NOT_AUTHORIZED_FOR_TABLE.getCode(), errMsg);
+      });
+
+      try {
+        rfmCalls.get(failingCall);
+        Assert.fail("Failing call expected to raise its exception");
+      } catch (ConnectorException e) {
+        Assert.assertEquals(ResourceConstants.ERR_NOT_AUTHORIZED_FOR_TABLE.getCode(), e.getCode());
+        Assert.assertEquals(errMsg, e.getMessage());
+      }
+
+      Assert.assertTrue("Remaining calls must be cancelled", slowCall.isCancelled());
+      Assert.assertTrue("Remaining calls must be interrupted", interrupted.await(5, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  public void testTimeoutSharedByCalls() {
+    CountDownLatch blocked = new CountDownLatch(1);
+    try (ConcurrentRfmCalls rfmCalls = new ConcurrentRfmCalls(200L)) {
+      Future<Long> fastCall = rfmCalls.submit(() -> 1L);
+      Future<Long> slowCall = rfmCalls.submit(() -> {
+        try {
+          blocked.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return 2L;
+      });
+
+      Assert.assertEquals(Long.valueOf(1L), rfmCalls.get(fastCall));
+      rfmCalls.get(slowCall);
+      Assert.fail("Slow call expected to time out");
+    } catch (ConnectorException e) {
+      Assert.assertEquals(ResourceConstants.ERR_RFM_TIMEOUT.getCode(), e.getCode());
+    }
+  }
+
+  @Test
+  public void testInterruptCancelsCalls() {
+    CountDownLatch blocked = new CountDownLatch(1);
+    try (ConcurrentRfmCalls rfmCalls = new ConcurrentRfmCalls(TimeUnit.SECONDS.toMillis(10))) {
+      Future<Long> slowCall = rfmCalls.submit(() -> {
+        try {
+          blocked.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return 0L;
+      });
+
+      Thread.currentThread().interrupt();
+      try {
+        rfmCalls.get(slowCall);
+        Assert.fail("Interrupted wait expected to fail");
+      } catch (ConnectorException e) {
+        Assert.assertEquals(ResourceConstants.ERR_RFM_INTERRUPTED.getCode(), e.getCode());
+        Assert.assertEquals(ResourceConstants.ERR_RFM_INTERRUPTED.getMsgForKeyWithCode(), e.getMessage());
+      }
+
+      Assert.assertTrue("Interrupt status must be kept", Thread.interrupted());
+      Assert.assertTrue("Remaining calls must be cancelled", slowCall.isCancelled());
+    }
+  }
+
+  @Test
+  public void testUntimedCallOutlivesTimeout() throws ConnectorException {
+    try (ConcurrentRfmCalls rfmCalls = new ConcurrentRfmCalls(100L)) {
+      Future<Long> countCall = rfmCalls.submit(() -> {
+        try {
+          Thread.sleep(300L);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return 5L;
+      });
+
+      Assert.assertEquals(Long.valueOf(5L), rfmCalls.getUntimed(countCall));
+    }
+  }
+
+  private static <T> T awaitOthers(CountDownLatch started, T result) throws ConnectorException {
+    started.countDown();
+    try {
+      if (!started.await(5, TimeUnit.SECONDS)) {
+        throw new ConnectorException("NOT_CONCURRENT", "Calls did not run at the same time");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    return result;
+  }
+}
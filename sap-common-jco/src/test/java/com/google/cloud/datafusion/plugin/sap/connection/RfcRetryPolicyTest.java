@@ -0,0 +1,164 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.cloud.datafusion.plugin.sap.connection;
+
+import com.google.cloud.datafusion.plugin.sap.exception.ConnectorException;
+import com.google.cloud.datafusion.plugin.util.ResourceConstants;
+import com.sap.conn.jco.AbapException;
+import com.sap.conn.jco.JCoException;
+
+import mockit.Expectations;
+import mockit.Mocked;
+import mockit.Verifications;
+import mockit.integration.junit4.JMockit;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the retry policy with a fixed random value and without waiting.
+ *
+ * @author sankalpbapat
+ *
+ */
+@RunWith(JMockit.class)
+public class RfcRetryPolicyTest {
+
+  private static final String RFM_NAME = "TH_WPINFO";
+
+  @Mocked
+  SapConnection conn;
+
+  private final List<Long> waits = new ArrayList<>();
+  private final AtomicInteger attempts = new AtomicInteger();
+
+  private RfcRetryPolicy retryPolicy;
+
+  @Before
+  public void setUp() {
+    waits.clear();
+    attempts.set(0);
+    retryPolicy = new RfcRetryPolicy(3, 1000L, 3000L, () -> 0.5d, waits::add);
+  }
+
+  @Test
+  public void testJitteredBackoff() {
+    RfcRetryPolicy lowest = new RfcRetryPolicy(5, 1000L, 3000L, () -> 0d, millis -> { });
+    RfcRetryPolicy highest = new RfcRetryPolicy(5, 1000L, 3000L, () -> 0.999999d, millis -> { });
+
+    Assert.assertEquals(500L, lowest.backoff(1));
+    Assert.assertEquals(999L, highest.backoff(1));
+    Assert.assertEquals(1000L, lowest.backoff(2));
+    Assert.assertEquals("Backoff must not exceed the max. delay", 1500L, lowest.backoff(4));
+    Assert.assertEquals(2999L, highest.backoff(60));
+  }
+
+  @Test
+  public void testTransientFailureRetried() throws ConnectorException {
+    int result = retryPolicy.call(RFM_NAME, conn, () -> {
+      if (attempts.incrementAndGet() < 3) {
+        throw failure(new JCoException(JCoException.JCO_ERROR_SYSTEM_FAILURE, "TIME_OUT", "Mocked short dump"));
+      }
+      return 42;
+    });
+
+    Assert.assertEquals(42, result);
+    Assert.assertEquals(3, attempts.get());
+    Assert.assertEquals("Wait must double for every retry", 2, waits.size());
+    Assert.assertEquals(750L, waits.get(0).longValue());
+    Assert.assertEquals(1500L, waits.get(1).longValue());
+    Assert.assertEquals(2, retryPolicy.getRetryCount());
+    Assert.assertEquals(2250L, retryPolicy.getBackoffMillis());
+    Assert.assertEquals(0, retryPolicy.getDestinationRefreshCount());
+  }
+
+  @Test
+  public void testFatalFailureNotRetried() {
+    try {
+      retryPolicy.call(RFM_NAME, conn, () -> {
+        attempts.incrementAndGet();
+        throw failure(new AbapException("NOT_AUTHORIZED", "Mocked NOT_AUTHORIZED"));
+      });
+      Assert.fail("Fatal failure expected to be raised but call succeeded");
+    } catch (ConnectorException e) {
+      Assert.assertEquals(1, attempts.get());
+      Assert.assertTrue("Fatal failure must not wait", waits.isEmpty());
+      Assert.assertEquals(1, retryPolicy.getFatalFailureCount());
+    }
+  }
+
+  @Test
+  public void testConnectionLostRefreshesDestination() throws ConnectorException {
+    new Expectations() {
+      {
+        conn.renewDestination(anyLong);
+        result = true;
+      }
+    };
+
+    try {
+      retryPolicy.call(RFM_NAME, conn, () -> {
+        attempts.incrementAndGet();
+        throw failure(new JCoException(JCoException.JCO_ERROR_COMMUNICATION, "JCO_ERROR_COMMUNICATION", "Reset"));
+      });
+      Assert.fail("Failure expected to be raised after all the retries but call succeeded");
+    } catch (ConnectorException e) {
+      Assert.assertEquals("Call must be made once and retried 3 times", 4, attempts.get());
+      Assert.assertEquals(3, retryPolicy.getDestinationRefreshCount());
+      Assert.assertEquals(1, retryPolicy.getExhaustedRetryCount());
+    }
+
+    new Verifications() {
+      {
+        conn.renewDestination(anyLong);
+        times = 3;
+      }
+    };
+  }
+
+  @Test
+  public void testDestinationRefreshedByOtherCallNotCounted() throws ConnectorException {
+    new Expectations() {
+      {
+        conn.renewDestination(anyLong);
+        result = false;
+      }
+    };
+
+    int result = retryPolicy.call(RFM_NAME, conn, () -> {
+      if (attempts.incrementAndGet() < 2) {
+        throw failure(new JCoException(JCoException.JCO_ERROR_COMMUNICATION, "JCO_ERROR_COMMUNICATION", "Reset"));
+      }
+      return 42;
+    });
+
+    Assert.assertEquals(42, result);
+    Assert.assertEquals(1, retryPolicy.getRetryCount());
+    Assert.assertEquals("Refresh by another call must not be counted", 0, retryPolicy.getDestinationRefreshCount());
+  }
+
+  private static ConnectorException failure(JCoException e) {
+    return new ConnectorException(ResourceConstants.ERR_EXEC_FUNC.getCode(), e.getMessage(), e);
+  }
+}
@@ -34,6 +34,7 @@ import com.sap.conn.jco.rt.RfcDestination;
 
 import mockit.Expectations;
 import mockit.Mocked;
+import mockit.Verifications;
 import mockit.integration.junit4.JMockit;
 
 import org.junit.After;
@@ -242,6 +243,32 @@ public class SapConnectionTest {
     }
   }
 
+  /**
+   * Test method for
+   * {@link com.google.cloud.datafusion.plugin.sap.connection.SapConnection#renewDestination(long)}.
+   * 
+   * @throws Exception
+   */
+  @Test
+  public void testRenewDestinationOncePerFailure() throws Exception {
+    sapConn = new SapConnection(connParams);
+    sapConn.initDestination();
+    long callStartNanos = System.nanoTime();
+    sapConn.getJCoFunction(COLUMN_METADATA_RFM);
+
+    Assert.assertTrue("Destination must be refreshed although it is valid", sapConn.renewDestination(callStartNanos));
+    Assert.assertFalse("Destination refreshed since the call started must not be refreshed again",
+      sapConn.renewDestination(callStartNanos));
+    sapConn.getJCoFunction(COLUMN_METADATA_RFM);
+
+    new Verifications() {
+      {
+        jcoRepo.getFunctionTemplate(COLUMN_METADATA_RFM);
+        times = 2;
+      }
+    };
+  }
+
   /**
    * Test method for
    * {@link com.google.cloud.datafusion.plugin.sap.connection.SapConnection#getJCoFunction(java.lang.String)}.
@@ -262,6 +289,58 @@ public class SapConnectionTest {
     }
   }
 
+  /**
+   * Test method for
+   * {@link com.google.cloud.datafusion.plugin.sap.connection.SapConnection#close()}.
+   */
+  @Test
+  public void testCloseKeepsDestinationOfOtherConnections() {
+    SapDestinationDataProvider destDataProv = SapDestinationDataProvider.getInstance();
+    SapConnection sharedConn = new SapConnection(connParams);
+    sapConn = new SapConnection(connParams);
+
+    sapConn.close();
+    sapConn.close();
+    Assert.assertNotEquals("Destination must stay registered for the open connection", -1L,
+      destDataProv.getDefinitionVersion(sapConn.getDestName()));
+
+    sharedConn.close();
+    Assert.assertEquals("Destination must be removed once no connection refers to it", -1L,
+      destDataProv.getDefinitionVersion(sapConn.getDestName()));
+  }
+
+  /**
+   * Test method for
+   * {@link com.google.cloud.datafusion.plugin.sap.connection.SapConnection#getJCoFunction(java.lang.String)}.
+   * 
+   * @throws Exception
+   */
+  @Test
+  public void testGetJCoFunctionTemplateCached() throws Exception {
+    sapConn = new SapConnection(connParams);
+    sapConn.initDestination();
+    sapConn.getJCoFunction(COLUMN_METADATA_RFM);
+    sapConn.getJCoFunction(COLUMN_METADATA_RFM);
+
+    new Verifications() {
+      {
+        jcoRepo.getFunctionTemplate(COLUMN_METADATA_RFM);
+        times = 1;
+      }
+    };
+
+    // Refreshing the destination drops the cached templates
+    sapConn.refreshDestination(true);
+    sapConn.getJCoFunction(COLUMN_METADATA_RFM);
+
+    new Verifications() {
+      {
+        jcoRepo.getFunctionTemplate(COLUMN_METADATA_RFM);
+        times = 2;
+      }
+    };
+  }
+
   /**
    * Test method for
    * {@link com.google.cloud.datafusion.plugin.sap.connection.SapConnection#getJCoFunction(java.lang.String)}.
@@ -275,7 +354,7 @@ public class SapConnectionTest {
 
     new Expectations() {
       {
-        jcoRepo.getFunction(anyString);
+        jcoRepo.getFunctionTemplate(anyString);
         result = new JCoException(getFuncErrCode, getFuncErrMsg);
         minTimes = 0;
       }
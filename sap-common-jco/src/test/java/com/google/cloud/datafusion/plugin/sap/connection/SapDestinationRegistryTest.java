@@ -0,0 +1,158 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.connection;
+
+import com.google.cloud.datafusion.plugin.sap.connection.out.SapDestinationDataProvider;
+import com.google.cloud.datafusion.plugin.util.PayloadHelper;
+import com.sap.conn.jco.JCoDestinationManager;
+import com.sap.conn.jco.ext.DestinationDataEventListener;
+import com.sap.conn.jco.ext.DestinationDataProvider;
+import com.sap.conn.jco.ext.Environment;
+import com.sap.conn.jco.rt.DefaultDestinationManager;
+import com.sap.conn.jco.rt.RfcDestination;
+
+import mockit.Expectations;
+import mockit.Mocked;
+import mockit.Verifications;
+import mockit.integration.junit4.JMockit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author sankalpbapat
+ *
+ */
+@RunWith(JMockit.class)
+public class SapDestinationRegistryTest {
+
+  static Map<String, String> connParams;
+
+  @Mocked
+  DestinationDataEventListener eventListener;
+
+  @Mocked
+  DefaultDestinationManager jcoDestMgr;
+
+  @Mocked
+  RfcDestination jcoDest;
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    connParams = PayloadHelper.loadProperties("connection/connParams_direct.properties");
+    connParams.put(DestinationDataProvider.JCO_PEAK_LIMIT, "8");
+  }
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @Before
+  public void setUp() throws Exception {
+    new Expectations(Environment.class) {
+      {
+        Environment.registerDestinationDataProvider((DestinationDataProvider) any);
+        minTimes = 0;
+
+        Environment.unregisterDestinationDataProvider((DestinationDataProvider) any);
+        minTimes = 0;
+      }
+    };
+
+    new Expectations(jcoDestMgr) {
+      {
+        JCoDestinationManager.getDestination(anyString);
+        result = jcoDest;
+        minTimes = 0;
+      }
+    };
+
+    SapDestinationDataProvider.getInstance().setDestinationDataEventListener(eventListener);
+  }
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @After
+  public void tearDown() throws Exception {
+    SapDestinationRegistry.clear();
+    SapDestinationDataProvider destDataProv = SapDestinationDataProvider.getInstance();
+    destDataProv.removeDefinition(SapDefinition.builder(connParams).build().getProviderKey(false));
+    Environment.unregisterDestinationDataProvider(destDataProv);
+  }
+
+  @Test
+  public void testSameConnectionForAllSplits() throws Exception {
+    SapConnection first = SapDestinationRegistry.acquire(connParams);
+    SapConnection second = SapDestinationRegistry.acquire(new HashMap<>(connParams));
+
+    Assert.assertSame("Splits of the same destination must share the connection", first, second);
+    Assert.assertEquals(String.valueOf(SapDestinationRegistry.INITIAL_POOL_CAPACITY),
+      first.getConnParam(DestinationDataProvider.JCO_POOL_CAPACITY));
+
+    SapDestinationRegistry.release(first);
+    SapDestinationRegistry.release(second);
+  }
+
+  @Test
+  public void testPoolCapacityFollowsSplitsUpToPeakLimit() throws Exception {
+    for (int i = 0; i < 6; i++) {
+      SapDestinationRegistry.acquire(connParams);
+    }
+
+    SapConnection sapConn = SapDestinationRegistry.acquire(connParams);
+    Assert.assertEquals("8", sapConn.getConnParam(DestinationDataProvider.JCO_POOL_CAPACITY));
+  }
+
+  @Test
+  public void testPoolResizeDoesNotRebuildDestination() throws Exception {
+    for (int i = 0; i < 6; i++) {
+      SapDestinationRegistry.acquire(connParams);
+    }
+
+    new Verifications() {
+      {
+        // Only the initial lookup, the resize is applied through the change event
+        JCoDestinationManager.getDestination(anyString);
+        times = 1;
+
+        eventListener.updated(anyString);
+        times = 1;
+      }
+    };
+  }
+
+  @Test
+  public void testNextPoolCapacity() {
+    Assert.assertEquals(5, SapDestinationRegistry.nextPoolCapacity(0, 1, Integer.MAX_VALUE));
+    Assert.assertEquals(2, SapDestinationRegistry.nextPoolCapacity(0, 1, 2));
+    Assert.assertEquals(5, SapDestinationRegistry.nextPoolCapacity(5, 5, Integer.MAX_VALUE));
+    Assert.assertEquals(10, SapDestinationRegistry.nextPoolCapacity(5, 6, Integer.MAX_VALUE));
+    Assert.assertEquals(20, SapDestinationRegistry.nextPoolCapacity(5, 11, Integer.MAX_VALUE));
+    Assert.assertEquals(8, SapDestinationRegistry.nextPoolCapacity(5, 11, 8));
+    Assert.assertEquals(8, SapDestinationRegistry.nextPoolCapacity(8, 20, 8));
+  }
+}
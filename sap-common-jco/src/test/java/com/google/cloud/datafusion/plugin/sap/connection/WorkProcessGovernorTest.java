@@ -0,0 +1,183 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.connection;
+
+import com.google.cloud.datafusion.plugin.sap.exception.ConnectorException;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the governor with a local probe and clock instead of SAP.
+ *
+ * @author sankalpbapat
+ *
+ */
+public class WorkProcessGovernorTest {
+
+  private static final long POLL_INTERVAL_MILLIS = 20L;
+
+  private final AtomicLong clock = new AtomicLong();
+  private final AtomicInteger freeWorkProcesses = new AtomicInteger();
+  private final AtomicInteger pollCount = new AtomicInteger();
+
+  private WorkProcessGovernor governor;
+
+  @Before
+  public void setUp() {
+    // 8 dialog work processes, 2 of them always left free
+    governor = new WorkProcessGovernor(() -> {
+      pollCount.incrementAndGet();
+      return freeWorkProcesses.get();
+    }, 8, 2, POLL_INTERVAL_MILLIS, clock::get);
+  }
+
+  @After
+  public void tearDown() {
+    WorkProcessGovernor.clear();
+  }
+
+  @Test
+  public void testPollOnlyAfterInterval() throws InterruptedException {
+    freeWorkProcesses.set(8);
+
+    Assert.assertFalse(governor.acquire());
+    governor.release();
+    Assert.assertFalse(governor.acquire());
+    governor.release();
+    Assert.assertEquals("Free work processes must be polled once per interval", 1, pollCount.get());
+    Assert.assertEquals(6, governor.getCallLimit());
+
+    elapsePollInterval();
+    governor.acquire();
+    Assert.assertEquals(2, pollCount.get());
+  }
+
+  @Test
+  public void testThrottleAndRampUp() throws InterruptedException {
+    freeWorkProcesses.set(10);
+    governor.acquire();
+    Assert.assertEquals("Call limit must not exceed the work processes", 8, governor.getCallLimit());
+
+    // SAP load rises, only 1 more than the reserved work processes is free
+    freeWorkProcesses.set(3);
+    elapsePollInterval();
+    Assert.assertFalse(governor.acquire());
+    Assert.assertEquals(2, governor.getCallLimit());
+
+    Thread waitingCall = startCall();
+    waitingCall.join(200L);
+    Assert.assertTrue("Call above the limit must wait", waitingCall.isAlive());
+
+    // Capacity returns, waiting call polls again and goes ahead
+    freeWorkProcesses.set(10);
+    elapsePollInterval();
+    waitingCall.join(TimeUnit.SECONDS.toMillis(5));
+    Assert.assertFalse("Call must go ahead once work processes are free", waitingCall.isAlive());
+    Assert.assertEquals("Call limit must ramp up gradually", 4, governor.getCallLimit());
+
+    elapsePollInterval();
+    governor.acquire();
+    Assert.assertEquals(8, governor.getCallLimit());
+  }
+
+  @Test
+  public void testPauseAndResume() throws InterruptedException {
+    freeWorkProcesses.set(1);
+    elapsePollInterval();
+
+    Thread waitingCall = startCall();
+    waitingCall.join(200L);
+    Assert.assertTrue("Calls must pause while below the reserved work processes", waitingCall.isAlive());
+    Assert.assertEquals(0, governor.getCallLimit());
+
+    freeWorkProcesses.set(4);
+    elapsePollInterval();
+    waitingCall.join(TimeUnit.SECONDS.toMillis(5));
+    Assert.assertFalse(waitingCall.isAlive());
+    Assert.assertEquals(1, governor.getCallLimit());
+  }
+
+  @Test
+  public void testPollFailureKeepsLimit() throws InterruptedException {
+    freeWorkProcesses.set(5);
+    governor.acquire();
+    Assert.assertEquals(3, governor.getCallLimit());
+
+    WorkProcessGovernor failingGovernor = new WorkProcessGovernor(() -> {
+      throw new ConnectorException("JCO_ERROR_COMMUNICATION", "Connection lost");
+    }, 8, 2, POLL_INTERVAL_MILLIS, clock::get);
+    Assert.assertFalse(failingGovernor.acquire());
+    Assert.assertEquals(8, failingGovernor.getCallLimit());
+  }
+
+  @Test
+  public void testHeadroomSharedByConcurrentSplits() throws InterruptedException {
+    // 2 of the 4 splits extracting at the same time run in this JVM
+    governor.addSplit(8, 4);
+    governor.addSplit(8, 4);
+    freeWorkProcesses.set(8);
+    governor.acquire();
+    governor.release();
+    Assert.assertEquals("Only half of the headroom above the reserved work processes must be used", 3,
+      governor.getCallLimit());
+
+    freeWorkProcesses.set(20);
+    elapsePollInterval();
+    governor.acquire();
+    governor.release();
+    Assert.assertEquals("Call limit must not exceed half of the work processes", 4, governor.getCallLimit());
+
+    // 1 of the 4 splits left in this JVM
+    governor.removeSplit();
+    freeWorkProcesses.set(10);
+    elapsePollInterval();
+    governor.acquire();
+    Assert.assertEquals(2, governor.getCallLimit());
+  }
+
+  @Test
+  public void testForSplitShared() {
+    WorkProcessGovernor first = WorkProcessGovernor.forSplit("DEST_A", 10, 1, () -> 10);
+    Assert.assertSame(first, WorkProcessGovernor.forSplit("DEST_A", 20, 1, () -> 20));
+    Assert.assertNotSame(first, WorkProcessGovernor.forSplit("DEST_B", 10, 1, () -> 10));
+  }
+
+  private void elapsePollInterval() {
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(POLL_INTERVAL_MILLIS));
+  }
+
+  private Thread startCall() {
+    Thread call = new Thread(() -> {
+      try {
+        governor.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    call.setDaemon(true);
+    call.start();
+
+    return call;
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.connection.out;
+
+import com.google.cloud.datafusion.plugin.sap.connection.SapDefinition;
+import com.google.cloud.datafusion.plugin.util.PayloadHelper;
+import com.sap.conn.jco.ext.DestinationDataEventListener;
+import com.sap.conn.jco.ext.DestinationDataProvider;
+import com.sap.conn.jco.ext.Environment;
+
+import mockit.Expectations;
+import mockit.Mocked;
+import mockit.Verifications;
+import mockit.integration.junit4.JMockit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Map;
+
+/**
+ * @author sankalpbapat
+ *
+ */
+@RunWith(JMockit.class)
+public class SapDestinationDataProviderTest {
+
+  private final SapDestinationDataProvider destDataProv = SapDestinationDataProvider.getInstance();
+
+  private Map<String, String> connParams;
+  private String destKey;
+
+  @Mocked
+  DestinationDataEventListener eventListener;
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @Before
+  public void setUp() throws Exception {
+    new Expectations(Environment.class) {
+      {
+        Environment.registerDestinationDataProvider((DestinationDataProvider) any);
+        minTimes = 0;
+
+        Environment.unregisterDestinationDataProvider((DestinationDataProvider) any);
+        minTimes = 0;
+      }
+    };
+
+    connParams = PayloadHelper.loadProperties("connection/connParams_direct.properties");
+    destKey = SapDefinition.builder(connParams).build().getProviderKey(false);
+    destDataProv.setDestinationDataEventListener(eventListener);
+  }
+
+  /**
+   * @throws java.lang.Exception
+   */
+  @After
+  public void tearDown() throws Exception {
+    destDataProv.removeDefinition(destKey);
+    Environment.unregisterDestinationDataProvider(destDataProv);
+  }
+
+  @Test
+  public void testRegisterSameDefinitionDoesNotUpdate() {
+    destDataProv.register(SapDefinition.builder(connParams).build());
+    long version = destDataProv.getDefinitionVersion(destKey);
+    destDataProv.register(SapDefinition.builder(connParams).build());
+
+    Assert.assertEquals("Version must not change for the same properties", version,
+      destDataProv.getDefinitionVersion(destKey));
+    Assert.assertEquals(connParams.get(DestinationDataProvider.JCO_USER),
+      destDataProv.getDestinationProperties(destKey).getProperty(DestinationDataProvider.JCO_USER));
+
+    new Verifications() {
+      {
+        eventListener.updated(anyString);
+        times = 0;
+      }
+    };
+  }
+
+  @Test
+  public void testUpdateChangedDefinition() {
+    destDataProv.register(SapDefinition.builder(connParams).build());
+    long version = destDataProv.getDefinitionVersion(destKey);
+    destDataProv.update(SapDefinition.builder(connParams).setDestJcoPoolCapacity("10").build());
+
+    Assert.assertTrue("Version must change for changed properties",
+      destDataProv.getDefinitionVersion(destKey) > version);
+    Assert.assertEquals("10",
+      destDataProv.getDestinationProperties(destKey).getProperty(DestinationDataProvider.JCO_POOL_CAPACITY));
+
+    new Verifications() {
+      {
+        eventListener.updated(destKey);
+        times = 1;
+      }
+    };
+  }
+
+  @Test
+  public void testReleaseRemovesLastReference() {
+    destDataProv.register(SapDefinition.builder(connParams).build());
+    destDataProv.register(SapDefinition.builder(connParams).build());
+
+    destDataProv.release(destKey);
+    Assert.assertNotNull("Definition still referenced must be kept", destDataProv.getDestinationProperties(destKey));
+
+    destDataProv.release(destKey);
+    Assert.assertNull("Definition no more referenced must be removed", destDataProv.getDestinationProperties(destKey));
+    Assert.assertEquals(-1L, destDataProv.getDefinitionVersion(destKey));
+
+    new Verifications() {
+      {
+        eventListener.deleted(destKey);
+        times = 1;
+      }
+    };
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.cloud.datafusion.plugin.sap.exception;
+
+import com.google.cloud.datafusion.plugin.sap.exception.RfcErrorClassifier.ErrorType;
+import com.google.cloud.datafusion.plugin.util.ResourceConstants;
+import com.sap.conn.jco.AbapException;
+import com.sap.conn.jco.JCoException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * @author sankalpbapat
+ *
+ */
+public class RfcErrorClassifierTest {
+
+  @Test
+  public void testFatalAbapExceptions() {
+    for (String key : new String[] {"NOT_AUTHORIZED", "OPTION_NOT_VALID", "TABLE_NOT_AVAILABLE", "SQL_FAILURE"}) {
+      Assert.assertEquals(key + " must not be retried", ErrorType.FATAL,
+        RfcErrorClassifier.classify(wrap(new AbapException(key, "Mocked " + key))));
+    }
+
+    Assert.assertEquals(ErrorType.TRANSIENT,
+      RfcErrorClassifier.classify(wrap(new AbapException("SYSTEM_FAILURE", "Mocked SYSTEM_FAILURE"))));
+  }
+
+  @Test
+  public void testJCoErrorGroups() {
+    Assert.assertEquals(ErrorType.CONNECTION_LOST, RfcErrorClassifier.classify(
+      wrap(new JCoException(JCoException.JCO_ERROR_COMMUNICATION, "JCO_ERROR_COMMUNICATION", "Connection reset"))));
+    Assert.assertEquals(ErrorType.TRANSIENT, RfcErrorClassifier.classify(
+      wrap(new JCoException(JCoException.JCO_ERROR_SYSTEM_FAILURE, "TSV_TNEW_PAGE_ALLOC_FAILED", "Short dump"))));
+    Assert.assertEquals(ErrorType.TRANSIENT, RfcErrorClassifier.classify(
+      wrap(new JCoException(JCoException.JCO_ERROR_RESOURCE, "JCO_ERROR_RESOURCE", "Pool exhausted"))));
+
+    Assert.assertEquals(ErrorType.FATAL, RfcErrorClassifier.classify(
+      wrap(new JCoException(JCoException.JCO_ERROR_LOGON_FAILURE, "JCO_ERROR_LOGON_FAILURE", "Name or password"))));
+    Assert.assertEquals(ErrorType.FATAL, RfcErrorClassifier.classify(
+      wrap(new JCoException(JCoException.JCO_ERROR_SYSTEM_FAILURE, "RFC_ERROR_SYSTEM_FAILURE",
+        "No RFC authorization for function module /GOOG/RFC_READ_TABLE"))));
+  }
+
+  @Test
+  public void testWithoutJCoCause() {
+    Assert.assertEquals(ErrorType.FATAL,
+      RfcErrorClassifier.classify(new ConnectorException(ResourceConstants.ERR_FUNC_MISSING.getCode(), "Missing")));
+    Assert.assertEquals(ErrorType.TRANSIENT, RfcErrorClassifier.classify(
+      new ConnectorException(ResourceConstants.ERR_RFM_TIMEOUT.getCode(), new TimeoutException())));
+    Assert.assertFalse(RfcErrorClassifier.isRetryable(new IllegalStateException()));
+  }
+
+  private static ConnectorException wrap(JCoException e) {
+    return new ConnectorException(ResourceConstants.ERR_EXEC_FUNC.getCode(), e.getMessage(), e);
+  }
+}
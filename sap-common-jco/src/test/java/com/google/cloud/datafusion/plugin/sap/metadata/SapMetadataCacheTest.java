@@ -0,0 +1,196 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.metadata;
+
+import com.google.cloud.datafusion.plugin.sap.connection.SapConnection;
+import com.google.cloud.datafusion.plugin.sap.exception.ConnectorException;
+import com.google.cloud.datafusion.plugin.sap.source.config.SapJcoPluginConfigWrapper;
+import com.google.gson.reflect.TypeToken;
+
+import mockit.Expectations;
+import mockit.Mocked;
+import mockit.integration.junit4.JMockit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the metadata cache with a local store and clock instead of SAP.
+ *
+ * @author sankalpbapat
+ *
+ */
+@RunWith(JMockit.class)
+public class SapMetadataCacheTest {
+
+  private static final Type METADATA_TYPE = new TypeToken<List<String>>() { }.getType();
+  private static final long TTL_MILLIS = TimeUnit.MINUTES.toMillis(10L);
+  private static final String KEY = "sapserver/00|100|EN|TABLE|VBAK";
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private final AtomicLong clock = new AtomicLong();
+  private final AtomicInteger loadCount = new AtomicInteger();
+  private final AtomicInteger probeCount = new AtomicInteger();
+
+  private SapMetadataStore store;
+  private SapMetadataCache<List<String>> cache;
+  private List<String> columns;
+  private String changeStamp;
+
+  @Before
+  public void setUp() throws IOException {
+    store = new LocalSapMetadataStore(tempFolder.newFolder().toPath());
+    cache = new SapMetadataCache<>(METADATA_TYPE, store, TTL_MILLIS, clock::get);
+    columns = Arrays.asList("MANDT", "VBELN", "ERDAT");
+    changeStamp = "20210315 101500";
+  }
+
+  @After
+  public void tearDown() {
+    SapMetadataCache.clearMemoryTier();
+  }
+
+  @Test
+  public void testCachedWithinTtl() throws ConnectorException {
+    Assert.assertEquals(columns, get(cache));
+    clock.addAndGet(TTL_MILLIS - 1);
+    Assert.assertEquals(columns, get(cache));
+
+    Assert.assertEquals("Metadata must be loaded once", 1, loadCount.get());
+    Assert.assertEquals("Change stamp must not be checked within the TTL", 1, probeCount.get());
+  }
+
+  @Test
+  public void testRevalidatedAfterTtl() throws ConnectorException {
+    get(cache);
+    clock.addAndGet(TTL_MILLIS);
+    Assert.assertEquals(columns, get(cache));
+    Assert.assertEquals("Unchanged metadata must not be loaded again", 1, loadCount.get());
+    Assert.assertEquals(2, probeCount.get());
+
+    // Revalidation restarts the TTL
+    clock.addAndGet(TTL_MILLIS - 1);
+    get(cache);
+    Assert.assertEquals(2, probeCount.get());
+  }
+
+  @Test
+  public void testReloadedAfterChange() throws ConnectorException {
+    get(cache);
+    columns = Arrays.asList("MANDT", "VBELN", "ERDAT", "ZZCUSTOM");
+    changeStamp = "20210316 080000";
+    clock.addAndGet(TTL_MILLIS);
+
+    Assert.assertEquals(columns, get(cache));
+    Assert.assertEquals(2, loadCount.get());
+  }
+
+  @Test
+  public void testReloadedAfterTtlWithoutProbe() throws ConnectorException {
+    cache.get(KEY, this::load, null);
+    clock.addAndGet(TTL_MILLIS);
+    cache.get(KEY, this::load, null);
+
+    Assert.assertEquals(2, loadCount.get());
+  }
+
+  @Test
+  public void testProbeFailureReloads() throws ConnectorException {
+    get(cache);
+    clock.addAndGet(TTL_MILLIS);
+    List<String> metadata = cache.get(KEY, this::load, () -> {
+      throw new ConnectorException("NOT_AUTHORIZED", "No authorization for DD02L");
+    });
+
+    Assert.assertEquals(columns, metadata);
+    Assert.assertEquals(2, loadCount.get());
+  }
+
+  @Test
+  public void testStoredAcrossJvms() throws ConnectorException {
+    get(cache);
+    // Another JVM only finds the metadata in the store
+    SapMetadataCache.clearMemoryTier();
+    SapMetadataCache<List<String>> otherCache = new SapMetadataCache<>(METADATA_TYPE, store, TTL_MILLIS, clock::get);
+
+    Assert.assertEquals(columns, get(otherCache));
+    Assert.assertEquals(1, loadCount.get());
+  }
+
+  @Test
+  public void testUnreadableStoreIgnored() throws ConnectorException, IOException {
+    store.write(KEY, "{not json");
+
+    Assert.assertEquals(columns, get(cache));
+    Assert.assertEquals(1, loadCount.get());
+  }
+
+  @Test
+  public void testKeyPerUser(@Mocked SapConnection conn) {
+    new Expectations() {
+      {
+        conn.getConnParam(SapJcoPluginConfigWrapper.JCO_ASHOST);
+        result = "sapserver";
+
+        conn.getConnParam(SapJcoPluginConfigWrapper.JCO_SYSNR);
+        result = "00";
+
+        conn.getConnParam(SapJcoPluginConfigWrapper.JCO_CLIENT);
+        result = "100";
+
+        conn.getConnParam(SapJcoPluginConfigWrapper.JCO_LANG);
+        result = "EN";
+
+        conn.getConnParam(SapJcoPluginConfigWrapper.JCO_USER);
+        returns("alice", "bob");
+      }
+    };
+
+    Assert.assertEquals(KEY + "|ALICE", SapMetadataCache.createKey(conn, "TABLE", "VBAK"));
+    Assert.assertEquals("Metadata of other users must not be shared", KEY + "|BOB",
+      SapMetadataCache.createKey(conn, "TABLE", "VBAK"));
+    Assert.assertEquals("Keys of objects of all the users must not depend on the user", KEY,
+      SapMetadataCache.createSystemKey(conn, "TABLE", "VBAK"));
+  }
+
+  private List<String> get(SapMetadataCache<List<String>> metadataCache) throws ConnectorException {
+    return metadataCache.get(KEY, this::load, () -> {
+      probeCount.incrementAndGet();
+      return changeStamp;
+    });
+  }
+
+  private List<String> load() {
+    loadCount.incrementAndGet();
+    return columns;
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.util;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * @author sankalpbapat
+ *
+ */
+public class JcoLibrariesManagerTest {
+
+  // Checksums of "hello world" as reported by GCS
+  private static final String MD5 = "XrY7u+Ae7tCTyyK7j1rNww==";
+  private static final String CRC32C = "yZRlqg==";
+
+  private static final String GCP_PROJECT_ID = "test-project";
+  private static final String GCS_PATH = "gs://cdf-sap-jco-libs/unix/v3_0_20";
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testChecksumMatching() throws IOException {
+    Path file = tempFolder.newFile("sapjco3.jar").toPath();
+    Files.write(file, "hello world".getBytes(StandardCharsets.UTF_8));
+
+    Assert.assertTrue(JcoLibrariesManager.isChecksumMatching(MD5, null, file));
+    Assert.assertTrue(JcoLibrariesManager.isChecksumMatching(null, CRC32C, file));
+    Assert.assertFalse(JcoLibrariesManager.isChecksumMatching(null, null, file));
+  }
+
+  @Test
+  public void testChecksumMismatch() throws IOException {
+    Path file = tempFolder.newFile("libsapjco3.so").toPath();
+    Files.write(file, "hello world!".getBytes(StandardCharsets.UTF_8));
+
+    Assert.assertFalse(JcoLibrariesManager.isChecksumMatching(MD5, CRC32C, file));
+    Assert.assertFalse(JcoLibrariesManager.isChecksumMatching(null, CRC32C, file));
+  }
+
+  @Test
+  public void testReleaseWithoutAcquire() {
+    JcoLibrariesManager jcoLibMgr = new JcoLibrariesManager();
+    jcoLibMgr.release();
+    jcoLibMgr.release();
+  }
+
+  @Test
+  public void testAcquireAfterEviction() throws Exception {
+    Path localDirPath = tempFolder.newFolder("sap_jco_libs", "verified").toPath();
+    Files.write(localDirPath.resolve(JcoLibrariesManager.JCO_OBJECT_NAME), "jar".getBytes(StandardCharsets.UTF_8));
+    Files.write(localDirPath.resolve(JcoLibrariesManager.SO_OBJECT_NAME), "so".getBytes(StandardCharsets.UTF_8));
+
+    JcoLibrariesManager first = new LocalJcoLibrariesManager(localDirPath);
+    ClassLoader firstLoader = first.acquireJcoClassLoader(GCP_PROJECT_ID, GCS_PATH);
+    Path firstDirPath = getJarDir(firstLoader);
+    Assert.assertNotEquals(localDirPath, firstDirPath);
+    Assert.assertTrue(Files.exists(firstDirPath.resolve(JcoLibrariesManager.SO_OBJECT_NAME)));
+
+    first.release();
+    JcoLibrariesManager.evictIdle();
+    Assert.assertFalse("Copies of an evicted classloader must be deleted", Files.exists(firstDirPath));
+
+    JcoLibrariesManager second = new LocalJcoLibrariesManager(localDirPath);
+    try {
+      ClassLoader secondLoader = second.acquireJcoClassLoader(GCP_PROJECT_ID, GCS_PATH);
+      Path secondDirPath = getJarDir(secondLoader);
+
+      Assert.assertNotSame(firstLoader, secondLoader);
+      Assert.assertNotEquals("Native library must not be loaded again from the path of the evicted classloader",
+        firstDirPath, secondDirPath);
+      Assert.assertTrue(Files.exists(secondDirPath.resolve(JcoLibrariesManager.SO_OBJECT_NAME)));
+    } finally {
+      second.release();
+      JcoLibrariesManager.evictIdle();
+    }
+  }
+
+  private static Path getJarDir(ClassLoader jcoClassLoader) throws Exception {
+    URL[] urls = ((URLClassLoader) jcoClassLoader).getURLs();
+    return Paths.get(urls[urls.length - 1].toURI()).getParent();
+  }
+
+  /**
+   * Takes the libraries from a local directory instead of GCS
+   */
+  private static final class LocalJcoLibrariesManager extends JcoLibrariesManager {
+    private final Path localDirPath;
+
+    private LocalJcoLibrariesManager(Path localDirPath) {
+      this.localDirPath = localDirPath;
+    }
+
+    @Override
+    Path downloadLibraries(String gcpProjectId, String gcsPathString) throws IOException {
+      return copyToLoaderDir(localDirPath);
+    }
+  }
+}
@@ -60,6 +60,8 @@ public enum ResourceConstants {
   ERR_GET_FUNC_FROM_REPO("CDF_SAP_01513", "err.get.func.from.repo"),
   ERR_FUNC_MISSING("CDF_SAP_01501", "err.func.missing"),
   ERR_EXEC_FUNC("CDF_SAP_01406", "err.exec.func"),
+  ERR_RFM_TIMEOUT("CDF_SAP_01408", "err.rfm.timeout"),
+  ERR_RFM_INTERRUPTED("CDF_SAP_01409", "err.rfm.interrupted"),
 
   ERR_UNAVAILABLE_WP("CDF_SAP_01545", "err.unavailable.wp"),
   ERR_UNAVAILABLE_MAX_MEMORY_FOR_WP("CDF_SAP_01546,", "err.unavailable.max.memory.for.wp"),
@@ -67,6 +69,9 @@ public enum ResourceConstants {
   INFO_FOUND_MAX_MEMORY_FOR_WP(null, "info.found.max.memory.for.wp"),
   INFO_FOUND_AVAILABLE_WP(null, "info.found.available.wp"),
   INFO_NUM_SPLITS(null, "info.num.splits"),
+  INFO_THROTTLE_SAP_CALLS(null, "info.throttle.sap.calls"),
+  INFO_RAMP_UP_SAP_CALLS(null, "info.ramp.up.sap.calls"),
+  WARN_RETRY_RFM_CALL(null, "warn.retry.rfm.call"),
 
   ERR_FIELD_VAL_CONVERT("CDF_SAP_01550", "err.field.val.convert"),
 
@@ -79,13 +84,33 @@ public enum ResourceConstants {
   ERR_NOT_AUTHORIZED_FOR_TABLE("CDF_SAP_TABLE_01403", "err.not.authorized.for.table"),
   ERR_SQL_FAILURE("CDF_SAP_TABLE_01535", "err.sql.failure"),
   ERR_DB_FAILURE("CDF_SAP_TABLE_01536", "err.db.failure"),
+  ERR_FIELD_NOT_RETURNED("CDF_SAP_TABLE_01537", "err.field.not.returned"),
 
   INFO_NO_RECORDS(null, "info.no.records"),
   INFO_FOUND_NUM_RECORDS(null, "info.found.num.records"),
   INFO_NUM_RECORDS_PACKAGE(null, "info.num.records.package"),
   INFO_EXTRACT_NUM_RECORDS(null, "info.extract.num.records"),
+  INFO_KEY_RANGE_SPLITS(null, "info.key.range.splits"),
+  INFO_PREDICTED_DURATION(null, "info.predicted.duration"),
+  INFO_SPLIT_THROUGHPUT(null, "info.split.throughput"),
+  INFO_SPLIT_NETWORK_CALLS(null, "info.split.network.calls"),
+  INFO_ESTIMATED_NUM_RECORDS(null, "info.estimated.num.records"),
+  INFO_SAMPLED_NUM_RECORDS(null, "info.sampled.num.records"),
+  INFO_RECORD_COUNT_NOT_ESTIMATED(null, "info.record.count.not.estimated"),
+  ERR_INVALID_RECORD_COUNT_MODE(null, "err.invalid.record.count.mode"),
+  ERR_INVALID_WATERMARK_FIELD(null, "err.invalid.watermark.field"),
+  INFO_INCREMENTAL_EXTRACT(null, "info.incremental.extract"),
+  INFO_FULL_EXTRACT_NO_WATERMARK(null, "info.full.extract.no.watermark"),
+  INFO_WATERMARK_COMMITTED(null, "info.watermark.committed"),
+  WARN_WATERMARK_NOT_COMMITTED(null, "warn.watermark.not.committed"),
+  ERR_INVALID_SPLIT_RECOVERY(null, "err.invalid.split.recovery"),
+  INFO_REPLAY_SPLIT(null, "info.replay.split"),
+  WARN_SPLIT_CHECKPOINT_FAILED(null, "warn.split.checkpoint.failed"),
   WARN_RETRY_PACKAGE_EXTRACT(null, "warn.retry.package.extract"),
+  WARN_SHRINK_PACKAGE_EXTRACT(null, "warn.shrink.package.extract"),
+  INFO_GROW_PACKAGE_SIZE(null, "info.grow.package.size"),
   ERR_FAILED_PACKAGE_EXTRACT("CDF_SAP_TABLE_01520", "err.failed.package.extract"),
+  ERR_FATAL_PACKAGE_EXTRACT("CDF_SAP_TABLE_01521", "err.fatal.package.extract"),
 
   // ODP constants
   ERR_INVALID_EXTRACT_TYPE(null, "err.invalid.extract.type"),
@@ -129,6 +154,10 @@ public enum ResourceConstants {
   DEBUG_CALL_SERVICE_START(null, "debug.call.service.start"),
   DEBUG_CALL_SERVICE_END(null, "debug.call.service.end"),
 
+  DEBUG_CATALOG_ENDPOINT(null, "debug.catalog.endpoint"),
+  ERR_CATALOG_SERVICE_CALL(null, "err.catalog.service.call"),
+  ERR_READING_CATALOG(null, "err.reading.catalog"),
+
   ERR_METADATA_CALL(null, "err.metadata.call"),
   ERR_READING_METADATA(null, "err.reading.metadata"),
 
@@ -31,6 +31,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -48,6 +49,9 @@ public class SapODataRuntimeHelper {
 
   private static final Gson GSON = new Gson();
 
+  private static final long DEFAULT_PREVIEW_RECORDS = 100L;
+  private static final long BYTES_PER_ROW_SAMPLE_ROWS = 10L;
+
   private final SapODataPluginConfig pluginConfig;
   private final SapODataService oDataService;
   private final SapX509Manager x509Manager;
@@ -74,6 +78,11 @@ public class SapODataRuntimeHelper {
     int splitCount = pluginConfig.getSplitCount() != null ? pluginConfig.getSplitCount() : 0;
     long packageSize = pluginConfig.getBatchSize() != null ? pluginConfig.getBatchSize() : 0L;
 
+    if (context.isPreviewEnabled()) {
+      configurePreviewJob(context, outputSchema, skipRowCount, fetchRowCount);
+      return;
+    }
+
     long availableRowCount = oDataService.getTotalAvailableRowCount();
     LOGGER.info("Total available row count:  {}", availableRowCount);
 
@@ -82,22 +91,58 @@ public class SapODataRuntimeHelper {
         ResourceConstants.ERR_NO_RECORD_FOUND.getMsgForKeyWithCode(pluginConfig.getEntityName()));
     }
 
-    if (context.isPreviewEnabled()) {
-      long previewRecordCount = context.getMaxPreviewRecords();
-      if (previewRecordCount <= 0) {
-        fetchRowCount = 100L;
-      }
-      fetchRowCount = Math.min(previewRecordCount, Math.min(fetchRowCount, availableRowCount));
-    }
+    long bytesPerRow = probeBytesPerRow(availableRowCount, skipRowCount);
 
     SapODataPartitionBuilder partitionBuilder = new SapODataPartitionBuilder();
     List<SapODataInputSplit> partitions = partitionBuilder.buildSplit(availableRowCount,
-      fetchRowCount, skipRowCount, splitCount, packageSize);
+      fetchRowCount, skipRowCount, splitCount, packageSize, bytesPerRow);
 
     setJobForDataRead(context, outputSchema, partitions);
     LOGGER.info("end of setJob");
   }
 
+  /**
+   * Estimates the bytes per row from a small sample page, so that the splits carry their size in bytes. The estimate
+   * only orders the splits, hence a failed sample falls back to ordering them by row count.
+   */
+  private long probeBytesPerRow(long availableRowCount, long skipRowCount) {
+    long sampleRows = Math.min(BYTES_PER_ROW_SAMPLE_ROWS, availableRowCount - skipRowCount);
+    if (sampleRows < 1) {
+      return 0L;
+    }
+
+    try {
+      long bytesPerRow = oDataService.getBytesPerRow(skipRowCount, sampleRows);
+      LOGGER.info("Estimated bytes per row: {}", bytesPerRow);
+      return bytesPerRow;
+    } catch (ODataServiceException | TransportException e) {
+      LOGGER.warn("Unable to estimate the bytes per row, splits are sized by row count", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    return 0L;
+  }
+
+  /**
+   * Preview reads a single page of rows, so neither the '$count' call nor the split planning is required. The
+   * service metadata and the X509 certificate are served by their caches when design time already fetched them.
+   */
+  private void configurePreviewJob(BatchSourceContext context, Schema outputSchema, long skipRowCount,
+                                   long fetchRowCount) throws ODataServiceException, TransportException, IOException {
+
+    long previewRowCount = context.getMaxPreviewRecords() > 0 ? context.getMaxPreviewRecords() :
+      DEFAULT_PREVIEW_RECORDS;
+    if (fetchRowCount > 0) {
+      previewRowCount = Math.min(previewRowCount, fetchRowCount);
+    }
+
+    SapODataInputSplit previewSplit = new SapODataPartitionBuilder().buildPreviewSplit(skipRowCount, previewRowCount);
+
+    setJobForDataRead(context, outputSchema, Collections.singletonList(previewSplit));
+    LOGGER.info("end of setJob for preview");
+  }
+
   private void setJobForDataRead(BatchSourceContext context, Schema outputSchema, List<SapODataInputSplit> partitions)
     throws IOException, ODataServiceException, TransportException {
 
@@ -17,6 +17,7 @@
 package com.google.cloud.datafusion.plugin.sap.odata.source;
 
 import com.google.cloud.datafusion.plugin.sap.odata.source.config.SapODataPluginConfig;
+import com.google.cloud.datafusion.plugin.sap.odata.source.connection.SapODataMetadataCache;
 import com.google.cloud.datafusion.plugin.sap.odata.source.exception.ODataServiceException;
 import com.google.cloud.datafusion.plugin.sap.odata.source.exception.TransportException;
 import com.google.cloud.datafusion.plugin.sap.odata.source.metadata.SapODataEntityProvider;
@@ -69,11 +70,14 @@ public class SapODataService {
   private final SapODataPluginConfig pluginConfig;
   private final SapODataTransporter oDataHttpClient;
   private final SapODataUrlContainer  urlContainer;
+  private final String connectionKey;
 
   public SapODataService(SapODataPluginConfig pluginConfig, SapODataTransporter oDataHttpClient) {
     this.pluginConfig = pluginConfig;
     this.oDataHttpClient = oDataHttpClient;
     urlContainer = new SapODataUrlContainer(pluginConfig);
+    connectionKey = SapODataMetadataCache.getConnectionKey(pluginConfig.getBaseURL(), pluginConfig.getUsername(),
+      pluginConfig.getPassword());
   }
 
   /**
@@ -126,12 +130,34 @@ public class SapODataService {
    * @throws ODataServiceException any OData service based exception is wrapped under it.
    */
   private SapODataEntityProvider fetchServiceMetadata() throws ODataServiceException, TransportException {
-    try (InputStream metadataStream = callEntityMetadata()) {
-      return fetchServiceMetadata(metadataStream);
-    } catch (IOException e) {
-      String errMsg = ResourceConstants.ERR_READING_METADATA.getMsgForKey(pluginConfig.getServiceName());
-      throw new ODataServiceException(errMsg, e);
+    return new SapODataEntityProvider(getServiceEdm());
+  }
+
+  /**
+   * Returns the parsed service metadata, it is downloaded only when the {@code SapODataMetadataCache} does not
+   * hold it for the same connection and service.
+   *
+   * @return {@code Edm}
+   * @throws TransportException    any http client exceptions are wrapped under it.
+   * @throws ODataServiceException any OData service based exception is wrapped under it.
+   */
+  public Edm getServiceEdm() throws ODataServiceException, TransportException {
+    return getServiceMetadata().getEdm();
+  }
+
+  private SapODataMetadataCache.ServiceMetadata getServiceMetadata() throws ODataServiceException,
+    TransportException {
+
+    SapODataMetadataCache.ServiceMetadata metadata =
+      SapODataMetadataCache.getMetadata(connectionKey, pluginConfig.getServiceName());
+    if (metadata == null) {
+      byte[] rawMetadata = readEntityMetadata();
+      Edm edm = fetchServiceMetadata(new ByteArrayInputStream(rawMetadata)).getEdmMetadata();
+      metadata = new SapODataMetadataCache.ServiceMetadata(Base64.getEncoder().encodeToString(rawMetadata), edm);
+      SapODataMetadataCache.putMetadata(connectionKey, pluginConfig.getServiceName(), metadata);
     }
+
+    return metadata;
   }
 
   /**
@@ -202,6 +228,33 @@ public class SapODataService {
     }
   }
 
+  /**
+   * Reads a sample page of the entity data to estimate the bytes SAP sends for every row.
+   *
+   * @param skip       number of rows to skip before the sample
+   * @param sampleRows number of rows in the sample, must not exceed the rows available after {@code skip}
+   * @return bytes per row, rounded up
+   * @throws ODataServiceException any OData service based exception is wrapped under it.
+   * @throws TransportException    any http client exceptions are wrapped under it.
+   * @throws InterruptedException
+   */
+  public long getBytesPerRow(long skip, long sampleRows)
+    throws ODataServiceException, TransportException, InterruptedException {
+
+    byte[] buffer = new byte[8192];
+    long sampleBytes = 0L;
+    int numRead;
+    try (InputStream dataStream = callEntityData(skip, sampleRows)) {
+      while ((numRead = dataStream.read(buffer)) > -1) {
+        sampleBytes += numRead;
+      }
+    } catch (IOException ioe) {
+      throw new ODataServiceException("Error while reading the sample of OData entity data.", ioe);
+    }
+
+    return (sampleBytes + sampleRows - 1) / sampleRows;
+  }
+
 
   public ODataFeed getODataFeedForGivenMetadata(final Edm edm, Long skip, Long top)
     throws ODataServiceException, TransportException, InterruptedException {
@@ -242,6 +295,10 @@ public class SapODataService {
   }
 
   public String getEncodedServiceMetadata() throws ODataServiceException, TransportException {
+    return getServiceMetadata().getEncodedMetadata();
+  }
+
+  private byte[] readEntityMetadata() throws ODataServiceException, TransportException {
     byte[] buffer = new byte[1024];
     ByteArrayOutputStream output = new ByteArrayOutputStream();
     int numRead = 0;
@@ -250,7 +307,7 @@ public class SapODataService {
         output.write(buffer, 0, numRead);
       }
 
-      return Base64.getEncoder().encodeToString(output.toByteArray());
+      return output.toByteArray();
     } catch (IOException ioe) {
       throw new ODataServiceException("Error while converting OData service metadata to string.", ioe);
     }
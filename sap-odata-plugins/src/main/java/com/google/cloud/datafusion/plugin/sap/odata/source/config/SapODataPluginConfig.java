@@ -654,10 +654,14 @@ public class SapODataPluginConfig extends ReferencePluginConfig {
         }
 
         public SapODataPluginConfig build() {
-            return new SapODataPluginConfig(this.serviceName, this.entityName,this.referenceName, this.gcpProjectId, this.certGcsPath,
-                    this.certPassphrase,
+            SAPODataConnectorConfig connectionConfig = this.connection != null ? this.connection
+                    : new SAPODataConnectorConfig(this.baseURL, this.oDataVersion, this.securityType, this.username,
+                    this.password);
+
+            return new SapODataPluginConfig(this.referenceName, this.serviceName, this.entityName, this.gcpProjectId,
+                    this.certGcsPath, this.certPassphrase,
                     this.filterOption, this.selectOption, this.expandOption, this.skipRowCount, this.numRowsToFetch,
-                    this.splitCount, this.batchSize, this.connection);
+                    this.splitCount, this.batchSize, connectionConfig);
         }
 
     }
@@ -1,19 +1,72 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
 package com.google.cloud.datafusion.plugin.sap.odata.source.connection;
 
-import com.google.auth.oauth2.GoogleCredentials;
 import com.google.cloud.datafusion.plugin.sap.exception.ConnectorException;
 import com.google.cloud.datafusion.plugin.sap.odata.source.model.Entities;
 import com.google.cloud.datafusion.plugin.sap.odata.source.model.NameSpace;
-import com.google.cloud.datafusion.plugin.sap.odata.source.model.Services;
+import com.google.cloud.datafusion.plugin.sap.odata.source.model.ServicesPage;
+import io.cdap.cdap.api.data.format.StructuredRecord;
 
 import java.io.IOException;
 import java.util.List;
 
+/**
+ * This {@code ODataInterface} lists the SAP OData services and entities exposed by a SAP Gateway connection.
+ */
 public interface ODataInterface {
 
-    List<Services> listServices(String service) throws ConnectorException, IOException;
+  /**
+   * Lists one page of the services registered in the SAP Gateway catalog service, paged on the server by '$skip' and
+   * '$top'.
+   *
+   * @param skip number of services to skip
+   * @param top  maximum number of services to list
+   * @return registered services of the page, and the count of all the registered services
+   * @throws ConnectorException if the catalog service call fails
+   */
+  ServicesPage listServices(long skip, int top) throws ConnectorException;
+
+  List<NameSpace> listNameSpace(String nameSpace) throws ConnectorException, IOException;
+
+  /**
+   * Lists the entity sets from the metadata of the given service.
+   *
+   * @param servicePath service path relative to the base URL e.g. 'sap/opu/odata/sap/ZFI_ACDOCA_SRV'
+   * @return entity sets of the service
+   * @throws ConnectorException if the metadata call fails
+   */
+  List<Entities> listEntities(String servicePath) throws ConnectorException;
 
-    List<NameSpace> listNameSpace(String nameSpace) throws ConnectorException, IOException;
+  /**
+   * Reads at most {@code limit} records of the given entity set, converted with the default output schema.
+   *
+   * @param servicePath service path relative to the base URL
+   * @param entityName  entity set name
+   * @param limit       maximum number of records to read
+   * @return sampled records
+   * @throws ConnectorException if the metadata or data call fails
+   */
+  List<StructuredRecord> sampleEntity(String servicePath, String entityName, int limit) throws ConnectorException;
 
-    List<Entities> listEntities(String projectId) throws ConnectorException;
+  /**
+   * Calls the catalog service without using any cached listing, to check that the connection works.
+   *
+   * @throws ConnectorException if the catalog service call fails
+   */
+  void testConnection() throws ConnectorException;
 }
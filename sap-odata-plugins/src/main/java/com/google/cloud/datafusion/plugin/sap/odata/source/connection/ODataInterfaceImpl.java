@@ -1,43 +1,275 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
 package com.google.cloud.datafusion.plugin.sap.odata.source.connection;
 
 import com.google.cloud.datafusion.plugin.sap.exception.ConnectorException;
+import com.google.cloud.datafusion.plugin.sap.odata.source.SapODataService;
+import com.google.cloud.datafusion.plugin.sap.odata.source.config.SapODataPluginConfig;
+import com.google.cloud.datafusion.plugin.sap.odata.source.connector.SAPODataConnectorConfig;
+import com.google.cloud.datafusion.plugin.sap.odata.source.exception.ODataServiceException;
+import com.google.cloud.datafusion.plugin.sap.odata.source.exception.TransportException;
+import com.google.cloud.datafusion.plugin.sap.odata.source.metadata.SapODataEntityProvider;
+import com.google.cloud.datafusion.plugin.sap.odata.source.metadata.SapODataSchemaGenerator;
 import com.google.cloud.datafusion.plugin.sap.odata.source.model.Entities;
 import com.google.cloud.datafusion.plugin.sap.odata.source.model.NameSpace;
 import com.google.cloud.datafusion.plugin.sap.odata.source.model.Services;
+import com.google.cloud.datafusion.plugin.sap.odata.source.model.ServicesPage;
+import com.google.cloud.datafusion.plugin.sap.odata.source.transform.SapODataTransformer;
+import com.google.cloud.datafusion.plugin.sap.odata.source.transport.SapODataResponseContainer;
+import com.google.cloud.datafusion.plugin.sap.odata.source.transport.SapODataTransporter;
+import com.google.cloud.datafusion.plugin.sap.odata.source.transport.SapODataUrlContainer;
+import com.google.cloud.datafusion.plugin.sap.odata.source.transport.SapX509Manager;
+import com.google.cloud.datafusion.plugin.sap.odata.source.util.ExceptionParser;
+import com.google.cloud.datafusion.plugin.util.ResourceConstants;
+import com.google.cloud.datafusion.plugin.util.Util;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.annotations.SerializedName;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import okhttp3.HttpUrl;
+import org.apache.olingo.odata2.api.edm.Edm;
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
+import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
 
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import javax.annotation.Nullable;
+import javax.ws.rs.core.MediaType;
+
+/**
+ * This {@code ODataInterfaceImpl} browses a SAP Gateway connection:
+ * * services are listed from the SAP Gateway catalog service, paged on the server by '$skip' and '$top'
+ * * entities are listed from the '$metadata' of the selected service, only when that service is browsed
+ * * entities are sampled with a single '$top' request
+ * <p>
+ * Both listings are kept in the {@link SapODataMetadataCache} shared by all the calls on the same connection.
+ */
+public class ODataInterfaceImpl implements ODataInterface {
+
+  public static final String CATALOG = "CATALOG";
+
+  private static final Gson GSON = new Gson();
+
+  /**
+   * Service path prefix used when the catalog entry does not provide its service URL.
+   */
+  private static final String DEFAULT_SERVICE_PREFIX = "sap/opu/odata/sap/";
+
+  private final SAPODataConnectorConfig config;
+  private final String baseURL;
+  private final String connectionKey;
+  private final SapODataTransporter transporter;
+
+  public ODataInterfaceImpl(SAPODataConnectorConfig config) {
+    this(config, new SapODataTransporter(config.getUsername(), config.getPassword(),
+      new SapX509Manager(null, null, null)));
+  }
+
+  ODataInterfaceImpl(SAPODataConnectorConfig config, SapODataTransporter transporter) {
+    this.config = config;
+    this.baseURL = config.getBaseURL();
+    this.connectionKey = SapODataMetadataCache.getConnectionKey(config.getBaseURL(), config.getUsername(),
+      config.getPassword());
+    this.transporter = transporter;
+  }
+
+  @Override
+  public ServicesPage listServices(long skip, int top) throws ConnectorException {
+    ServicesPage page = SapODataMetadataCache.getServices(connectionKey, skip, top);
+    if (page == null) {
+      page = fetchServices(skip, top);
+      SapODataMetadataCache.putServices(connectionKey, skip, top, page);
+    }
+
+    return page;
+  }
+
+  @Override
+  public List<NameSpace> listNameSpace(String nameSpace) throws ConnectorException, IOException {
+    return Collections.singletonList(new NameSpace("sap/opu/odata/sap"));
+  }
+
+  @Override
+  public List<Entities> listEntities(String servicePath) throws ConnectorException {
+    Edm metadata = getServiceMetadata(servicePath);
+    try {
+      List<EdmEntitySet> entitySets = metadata.getEntitySets();
+      List<Entities> entities = new ArrayList<>(entitySets.size());
+      for (EdmEntitySet entitySet : entitySets) {
+        entities.add(new Entities(entitySet.getName()));
+      }
+
+      return entities;
+    } catch (EdmException e) {
+      String errMsg = ResourceConstants.ERR_READING_METADATA.getMsgForKey(servicePath);
+      throw new ConnectorException(ResourceConstants.ERR_ODATA_SERVICE_FAILURE.getCode(), errMsg, e);
+    }
+  }
+
+  @Override
+  public void testConnection() throws ConnectorException {
+    fetchServices(0L, 1);
+  }
 
-public class ODataInterfaceImpl implements ODataInterface{
-    @Override
-    public List<Services> listServices(String nameSpace) throws IOException, ConnectorException {
-        List<Services> serviceList= new ArrayList<>();
-        Services service1 = new Services("sap/opu/odata/sap/ZACDOCA_CDS");
-        Services service2 = new Services("Service_2");
-        Services service3 = new Services("Service_3");
+  @Override
+  public List<StructuredRecord> sampleEntity(String servicePath, String entityName, int limit)
+    throws ConnectorException {
 
-        serviceList.add(service1); serviceList.add(service2); serviceList.add(service3);
-        return serviceList;
+    SapODataService oDataService = getODataService(servicePath, entityName);
+    try {
+      Edm metadata = oDataService.getServiceEdm();
+      Schema schema = new SapODataSchemaGenerator(new SapODataEntityProvider(metadata))
+        .buildDefaultOutputSchema(entityName);
+
+      // single '$top' request, neither '$count' nor any split planning is required to sample
+      List<ODataEntry> entries = oDataService.getEntityListForGivenMetadata(metadata, 0L, (long) limit);
+      SapODataTransformer transformer = new SapODataTransformer(schema, entries);
+      List<StructuredRecord> records = new ArrayList<>(entries.size());
+      while (transformer.containsNextRow()) {
+        records.add(transformer.buildCurrentCDFRecord());
+      }
+
+      return records;
+    } catch (TransportException te) {
+      throw new ConnectorException(ResourceConstants.ERR_ODATA_SERVICE_CALL.getCode(),
+        ExceptionParser.buildTransportError(te), te);
+    } catch (ODataServiceException ose) {
+      throw new ConnectorException(ResourceConstants.ERR_ODATA_SERVICE_FAILURE.getCode(),
+        ExceptionParser.buildODataServiceError(ose), ose);
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      throw new ConnectorException(ResourceConstants.ERR_ODATA_SERVICE_CALL.getCode(), ie);
     }
+  }
 
-    @Override
-    public List<NameSpace> listNameSpace(String nameSpace) throws ConnectorException, IOException {
-        NameSpace root = new NameSpace("sap/opu/odata/sap");
-        List<NameSpace> rootList = new ArrayList<>();
-        rootList.add(root);
-        return rootList;
+  /**
+   * Returns the parsed metadata of the given service, from the {@link SapODataMetadataCache} when available.
+   *
+   * @param servicePath service path relative to the base URL
+   * @return {@code Edm}
+   * @throws ConnectorException if the metadata call fails
+   */
+  public Edm getServiceMetadata(String servicePath) throws ConnectorException {
+    try {
+      return getODataService(servicePath, null).getServiceEdm();
+    } catch (TransportException te) {
+      throw new ConnectorException(ResourceConstants.ERR_ODATA_SERVICE_CALL.getCode(),
+        ExceptionParser.buildTransportError(te), te);
+    } catch (ODataServiceException ose) {
+      throw new ConnectorException(ResourceConstants.ERR_ODATA_SERVICE_FAILURE.getCode(),
+        ExceptionParser.buildODataServiceError(ose), ose);
     }
+  }
+
+  private SapODataService getODataService(String servicePath, @Nullable String entityName) {
+    SapODataPluginConfig pluginConfig = SapODataPluginConfig.builder()
+      .connection(config)
+      .serviceName(servicePath)
+      .entityName(entityName)
+      .build();
+
+    return new SapODataService(pluginConfig, transporter);
+  }
+
+  private ServicesPage fetchServices(long skip, int top) throws ConnectorException {
+    try {
+      SapODataResponseContainer responseContainer = transporter.callSapOData(
+        SapODataUrlContainer.getCatalogServiceURL(baseURL, skip, top), MediaType.APPLICATION_JSON, CATALOG);
+
+      ExceptionParser.checkAndThrowException(ResourceConstants.ERR_CATALOG_SERVICE_CALL.getMsgForKey(),
+        responseContainer);
+
+      CatalogResponse response;
+      try (Reader reader = new InputStreamReader(responseContainer.getResponseStream(), StandardCharsets.UTF_8)) {
+        response = GSON.fromJson(reader, CatalogResponse.class);
+      }
+
+      List<Services> services = new ArrayList<>();
+      long totalCount = 0L;
+      if (response != null && response.d != null) {
+        if (response.d.results != null) {
+          for (CatalogEntry entry : response.d.results) {
+            services.add(new Services(getServicePath(entry)));
+          }
+        }
+        // '__count' is only missing if the server ignores '$inlinecount', then at least the listed ones are known
+        totalCount = Util.isNullOrEmpty(response.d.count) ? skip + services.size() : Long.parseLong(response.d.count);
+      }
 
-    @Override
-    public List<Entities> listEntities(String projectId) throws ConnectorException {
-        Entities entity1 = new Entities("ZACDOCA");
-        Entities entity2 = new Entities("Entity_2");
+      return new ServicesPage(Collections.unmodifiableList(services), totalCount);
+    } catch (TransportException te) {
+      throw new ConnectorException(ResourceConstants.ERR_ODATA_SERVICE_CALL.getCode(),
+        ExceptionParser.buildTransportError(te), te);
+    } catch (ODataServiceException ose) {
+      throw new ConnectorException(ResourceConstants.ERR_ODATA_SERVICE_FAILURE.getCode(),
+        ExceptionParser.buildODataServiceError(ose), ose);
+    } catch (IOException | JsonParseException | NumberFormatException e) {
+      throw new ConnectorException(ResourceConstants.ERR_ODATA_SERVICE_FAILURE.getCode(),
+        ResourceConstants.ERR_READING_CATALOG.getMsgForKey(), e);
+    }
+  }
 
-        List<Entities> entitiesList = new ArrayList<>();
-        entitiesList.add(entity1);
-        entitiesList.add(entity2);
+  /**
+   * Derives the service path relative to the base URL from the catalog 'ServiceUrl', e.g.
+   * 'https://host:44300/sap/opu/odata/sap/ZFI_ACDOCA_SRV/' becomes 'sap/opu/odata/sap/ZFI_ACDOCA_SRV'.
+   */
+  static String getServicePath(CatalogEntry entry) {
+    HttpUrl serviceUrl = Util.isNullOrEmpty(entry.serviceUrl) ? null : HttpUrl.parse(entry.serviceUrl);
+    String path = serviceUrl != null ? serviceUrl.encodedPath() : DEFAULT_SERVICE_PREFIX + entry.technicalServiceName;
 
-        return entitiesList;
+    int start = 0;
+    int end = path.length();
+    while (start < end && path.charAt(start) == '/') {
+      start++;
+    }
+    while (end > start && path.charAt(end - 1) == '/') {
+      end--;
     }
+
+    return path.substring(start, end);
+  }
+
+  /**
+   * SAP Gateway catalog service JSON response, only the selected fields are mapped.
+   */
+  static class CatalogResponse {
+    private CatalogResults d;
+  }
+
+  static class CatalogResults {
+    private List<CatalogEntry> results;
+
+    // '$inlinecount=allpages' count of all the registered services, as a string in OData V2 JSON
+    @SerializedName("__count")
+    private String count;
+  }
+
+  static class CatalogEntry {
+    @SerializedName("TechnicalServiceName")
+    private String technicalServiceName;
+
+    @SerializedName("ServiceUrl")
+    private String serviceUrl;
+  }
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.odata.source.connection;
+
+import com.google.cloud.datafusion.plugin.sap.odata.source.model.ServicesPage;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import org.apache.olingo.odata2.api.edm.Edm;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * This {@code SapODataMetadataCache} keeps the SAP Gateway catalog listings and the parsed service metadata in
+ * memory for a limited time, so that every browse, sample or spec generation call on the same connection does not
+ * download and parse them again.
+ * <p>
+ * Entries are keyed by the connection (base URL and credentials) so that users of different connections never
+ * see each other's services.
+ */
+public final class SapODataMetadataCache {
+
+  private static final long TTL_MINUTES = 10L;
+
+  private static final Cache<String, ServicesPage> SERVICES_CACHE = CacheBuilder.newBuilder()
+    .maximumSize(64)
+    .expireAfterWrite(TTL_MINUTES, TimeUnit.MINUTES)
+    .build();
+
+  private static final Cache<String, ServiceMetadata> METADATA_CACHE = CacheBuilder.newBuilder()
+    .maximumSize(256)
+    .expireAfterWrite(TTL_MINUTES, TimeUnit.MINUTES)
+    .build();
+
+  private SapODataMetadataCache() {
+  }
+
+  /**
+   * Builds the cache key of a connection. Credentials are part of the key, but only their hash is kept in memory.
+   *
+   * @param baseURL  SAP Gateway OData base URL
+   * @param username SAP Logon user ID
+   * @param password SAP Logon password
+   * @return connection key
+   */
+  public static String getConnectionKey(String baseURL, String username, String password) {
+    return Hashing.sha256()
+      .hashString(String.join("\u0000", String.valueOf(baseURL), String.valueOf(username), String.valueOf(password)),
+        StandardCharsets.UTF_8)
+      .toString();
+  }
+
+  @Nullable
+  public static ServicesPage getServices(String connectionKey, long skip, int top) {
+    return SERVICES_CACHE.getIfPresent(connectionKey + "|" + skip + "|" + top);
+  }
+
+  public static void putServices(String connectionKey, long skip, int top, ServicesPage page) {
+    SERVICES_CACHE.put(connectionKey + "|" + skip + "|" + top, page);
+  }
+
+  @Nullable
+  public static ServiceMetadata getMetadata(String connectionKey, String servicePath) {
+    return METADATA_CACHE.getIfPresent(connectionKey + "|" + servicePath);
+  }
+
+  public static void putMetadata(String connectionKey, String servicePath, ServiceMetadata metadata) {
+    METADATA_CACHE.put(connectionKey + "|" + servicePath, metadata);
+  }
+
+  /**
+   * Removes all the cached entries, mainly used by the tests.
+   */
+  static void invalidateAll() {
+    SERVICES_CACHE.invalidateAll();
+    METADATA_CACHE.invalidateAll();
+  }
+
+  /**
+   * Service metadata as downloaded (Base64 encoded, to be passed to the runtime) and parsed.
+   */
+  public static final class ServiceMetadata {
+    private final String encodedMetadata;
+    private final Edm edm;
+
+    public ServiceMetadata(String encodedMetadata, Edm edm) {
+      this.encodedMetadata = encodedMetadata;
+      this.edm = edm;
+    }
+
+    public String getEncodedMetadata() {
+      return encodedMetadata;
+    }
+
+    public Edm getEdm() {
+      return edm;
+    }
+  }
+}
@@ -7,6 +7,7 @@ import com.google.cloud.datafusion.plugin.sap.odata.source.connection.ODataInter
 import com.google.cloud.datafusion.plugin.sap.odata.source.connection.ODataInterfaceImpl;
 import com.google.cloud.datafusion.plugin.sap.odata.source.model.Entities;
 import com.google.cloud.datafusion.plugin.sap.odata.source.model.Services;
+import com.google.cloud.datafusion.plugin.sap.odata.source.model.ServicesPage;
 import com.google.cloud.datafusion.plugin.sap.odata.source.util.SAPOdataUtil;
 import com.google.cloud.datafusion.plugin.util.Util;
 import io.cdap.cdap.api.annotation.Description;
@@ -21,7 +22,6 @@ import io.cdap.cdap.etl.api.validation.ValidationException;
 import io.cdap.plugin.common.ConfigUtil;
 
 import java.io.IOException;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,13 +34,26 @@ import java.util.Map;
 @Description("This connector enables browsing feature to fetch the service and entity information from SAP")
 public class SapODataConnector implements DirectConnector {
     public static final String NAME = "SAPOData";
+
+    /**
+     * Number of services listed when the browse request does not provide any limit.
+     */
+    private static final int DEFAULT_BROWSE_LIMIT = 1000;
+
+    /**
+     * Type of the browsable entry which lists the next page of services.
+     */
+    private static final String SERVICES_PAGE_TYPE = "page";
+
+    /**
+     * Number of records sampled when the sample request does not provide any limit.
+     */
+    private static final int DEFAULT_SAMPLE_LIMIT = 100;
     //private static final String NAME_SPACE = "namespace";
 
     private final SAPODataConnectorConfig config;
     private SAPOdataUtil util;
 
-    private static final ODataInterface odataInterface = new ODataInterfaceImpl();
-
     public SapODataConnector(SAPODataConnectorConfig config) {
         this.config = config;
     }
@@ -48,15 +61,17 @@ public class SapODataConnector implements DirectConnector {
     @Override
     public List<StructuredRecord> sample(ConnectorContext connectorContext, SampleRequest sampleRequest)
             throws IOException {
-        /*SapODataPath path = new SapODataPath(sampleRequest.getPath());
+        SapODataPath path = new SapODataPath(sampleRequest.getPath());
         String entity = path.getEntity();
         if (entity == null) {
             throw new IllegalArgumentException("Path should contain both service and entity.");
         }
-        String service = path.getService();*/
-        /*return getTableData(getBigQuery(config.getProject()), config.getDatasetProject(), service, entity,
-                sampleRequest.getLimit());*/
-        return Collections.emptyList();
+        int limit = sampleRequest.getLimit() > 0 ? sampleRequest.getLimit() : DEFAULT_SAMPLE_LIMIT;
+        try {
+            return getODataInterface().sampleEntity(path.getService(), entity, limit);
+        } catch (ConnectorException e) {
+            throw new IOException(e.getMessage(), e);
+        }
     }
 
     @Override
@@ -84,7 +99,7 @@ public class SapODataConnector implements DirectConnector {
             //failureCollector.getOrThrowException();
         }
         try {
-            odataInterface.listServices(config.tryGetProject());
+            getODataInterface().testConnection();
         } catch (Exception e) {
             failureCollector.addFailure(String.format("Could not connect to SAP: %s", e.getMessage()),
                     "Please specify correct connection properties.");
@@ -96,24 +111,24 @@ public class SapODataConnector implements DirectConnector {
         SapODataPath path = new SapODataPath(browseRequest.getPath());
 
         try {
-        /*String nameSpace = path.getNameSpace();
-        if (nameSpace == null) {
-             browse project to list all Servi\ces
-            return listNameSpace(path,browseRequest.getLimit());
-        }*/
             String sapServices = path.getService();
             if (sapServices == null) {
-                return listServices(path, browseRequest.getLimit());
+                return listServices(path.getSkip(), browseRequest.getLimit());
             }
 
             String sapEntities = path.getEntity();
             if (sapEntities == null) {
                 return listEntities(path, browseRequest.getLimit());
             }
+
+            // an entity path is a leaf, it is listed as itself
+            return BrowseDetail.builder().setTotalCount(1)
+                    .addEntity(BrowseEntity.builder(sapEntities, browseRequest.getPath(),
+                            SapODataPluginConfig.ENTITY_NAME).canSample(true).build())
+                    .build();
         } catch (ConnectorException e) {
-            e.printStackTrace();
+            throw new IOException(e.getMessage(), e);
         }
-        return BrowseDetail.builder().setTotalCount(0).build();
     }
 
     @Override
@@ -139,39 +154,55 @@ public class SapODataConnector implements DirectConnector {
                 .build();
     }
 
-    private BrowseDetail listServices(SapODataPath path, Integer limit) throws IOException, ConnectorException {
-        int countLimit = limit == null || limit <= 0 ? Integer.MAX_VALUE : limit;
-        int count = 0;
+    /**
+     * Lists a page of the services from the SAP Gateway catalog service, paged by the server through '$skip' and
+     * '$top' so that only the browsed page is downloaded on systems with thousands of registered services. The total
+     * count is the count of all the registered services, and while more services follow, the last entry browses the
+     * next page lazily.
+     */
+    private BrowseDetail listServices(long skip, Integer limit) throws ConnectorException {
+        int countLimit = limit == null || limit <= 0 ? DEFAULT_BROWSE_LIMIT : limit;
         BrowseDetail.Builder builder = BrowseDetail.builder();
-        // String parentPath = String.format("/%s/", path.getNameSpace());
-        List<Services> locationList = odataInterface.listServices(config.tryGetProject());
-        for (Services service : locationList) {
-            if (count >= countLimit) {
-                break;
-            }
+        ServicesPage page = getODataInterface().listServices(skip, countLimit);
+        for (Services service : page.getServices()) {
             builder.addEntity(
-                    BrowseEntity.builder(service.getServiceName(), "/" + service.getServiceName(), SapODataPluginConfig.SERVICE_NAME)
-                            .canSample(true).canBrowse(true).build());
-            count++;
+                    BrowseEntity.builder(service.getServiceName(), "/" + service.getServiceName(),
+                            SapODataPluginConfig.SERVICE_NAME).canBrowse(true).build());
         }
-        return builder.setTotalCount(count).build();
+
+        long nextSkip = skip + page.getServices().size();
+        if (!page.getServices().isEmpty() && nextSkip < page.getTotalCount()) {
+            String name = String.format("Services %d - %d of %d", nextSkip + 1,
+                    Math.min(nextSkip + countLimit, page.getTotalCount()), page.getTotalCount());
+            builder.addEntity(BrowseEntity.builder(name, "/" + SapODataPath.SKIP_MARKER + nextSkip,
+                    SERVICES_PAGE_TYPE).canBrowse(true).build());
+        }
+        return builder.setTotalCount((int) Math.min(Integer.MAX_VALUE, page.getTotalCount())).build();
     }
 
-    private BrowseDetail listEntities(SapODataPath path, Integer limit) throws IOException, ConnectorException {
+    /**
+     * Lists the entity sets from the metadata of the browsed service, the metadata is only fetched at this point. The
+     * total count is the count of all the entity sets, also when only the first {@code limit} of them are listed.
+     */
+    private BrowseDetail listEntities(SapODataPath path, Integer limit) throws ConnectorException {
         int countLimit = limit == null || limit <= 0 ? Integer.MAX_VALUE : limit;
         int count = 0;
-        String parentPath = String.format("/%s/%s/", path.getService(), "entity");
+        String parentPath = "/" + path.getService() + SapODataPath.ENTITY_MARKER;
         BrowseDetail.Builder builder = BrowseDetail.builder();
-        List<Entities> entitiesList = odataInterface.listEntities(config.tryGetProject());
+        List<Entities> entitiesList = getODataInterface().listEntities(path.getService());
         for (Entities entity : entitiesList) {
             if (count >= countLimit) {
                 break;
             }
             builder.addEntity(
-                    BrowseEntity.builder(entity.getEntityName(), parentPath + entity.getEntityName(), SapODataPluginConfig.ENTITY_NAME)
-                            .canSample(true).build());
+                    BrowseEntity.builder(entity.getEntityName(), parentPath + entity.getEntityName(),
+                            SapODataPluginConfig.ENTITY_NAME).canSample(true).build());
             count++;
         }
-        return builder.setTotalCount(count).build();
+        return builder.setTotalCount(entitiesList.size()).build();
+    }
+
+    private ODataInterface getODataInterface() {
+        return new ODataInterfaceImpl(config);
     }
 }
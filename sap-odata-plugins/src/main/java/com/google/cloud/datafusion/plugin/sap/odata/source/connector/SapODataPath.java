@@ -1,10 +1,3 @@
-package com.google.cloud.datafusion.plugin.sap.odata.source.connector;
-
-import com.google.cloud.datafusion.plugin.sap.odata.source.model.NameSpace;
-
-import javax.annotation.Nullable;
-import java.util.*;
-
 /*
  * Copyright © 2021 Cask Data, Inc.
  *
@@ -21,91 +14,111 @@ import java.util.*;
  * the License.
  */
 
+package com.google.cloud.datafusion.plugin.sap.odata.source.connector;
+
+import javax.annotation.Nullable;
+
 /**
- * BigQuery Path that parses the path in the request of connection service
- * A valid path can start with/without a slash, e.g. "/" , "", "/dataset/table", "dataset/table" are all valid.
- * A valid path can end with/without a slash, e.g. "/", "", "/dataset/table/", "dataset/table/" are all valid.
- * A valid path should contain at most two parts separated by slash, the first part is dataset name and the second
- * part is table name. Both of them are optional. e.g. "/" , "/dataset" , "/dataset/table".
- * Consecutive slashes are not valid , it will be parsed as there is an empty string part between the slashes. e.g.
- * "//a" will be parsed as dataset name as empty and table name as "a". Similarly "/a//" will be parsed as dataset
- * name as "a" and table name as empty.
+ * SAP OData Path that parses the path in the request of connection service.
+ * A valid path can start and end with/without a slash, e.g. "/", "", "/sap/opu/odata/sap/ZSRV/" are all valid.
+ * The root path lists the services, a service path is the service path relative to the base URL, e.g.
+ * "/sap/opu/odata/sap/ZSRV", and an entity path appends "/entity/" and the entity set name to the service path,
+ * e.g. "/sap/opu/odata/sap/ZSRV/entity/ZEntitySet".
+ * A page of the services after the first one is addressed by the number of services to skip, e.g. "/$skip/1000".
  */
 public class SapODataPath {
-    //public static String NAMESPACE;
-    public static String SERVICE;
-    public static String ENTITY;
-    private static boolean flag = false;
-    private static int counter = 0;
-    private static final int NAME_MAX_LENGTH = 1024;
-    private List<String> list = new ArrayList<>();
-
-    public SapODataPath(String path) {
-        parsePath(path);
-    }
-
-    private void parsePath(String path) {
-        if (path == null) {
-            throw new IllegalArgumentException("Path should not be null.");
-        }
-
-        //remove heading "/" if exists
-        if (path.startsWith("/")) {
-            path = path.substring(1);
-        }
 
-        // both "" and "/" are taken as root path
-        if (path.isEmpty()) {
-            return;
-        }
+  static final String ENTITY_MARKER = "/entity/";
+  static final String SKIP_MARKER = "$skip/";
 
-        if (path.endsWith("/")) {
-            path = path.substring(0, path.length() - 1);
-        }
+  private static final int NAME_MAX_LENGTH = 1024;
 
-        String[] parts = path.split("entity", -1);
+  private String service;
+  private String entity;
+  private long skip;
 
-        SERVICE = parts[0];
-        validateName("Service", SERVICE);
-
-        if(parts.length>1){
-            ENTITY = parts[1];
-            if (parts[1].startsWith("/")) {
-                ENTITY = parts[1].substring(1);
-            }
-        validateName("Entity", ENTITY);
-        }
+  public SapODataPath(String path) {
+    parsePath(path);
+  }
 
+  private void parsePath(String path) {
+    if (path == null) {
+      throw new IllegalArgumentException("Path should not be null.");
     }
 
+    //remove heading "/" if exists
+    if (path.startsWith("/")) {
+      path = path.substring(1);
+    }
 
-    /**
-     * The dataset and table name must contain only letters, numbers, and underscores.
-     * And it must be 1024 characters or fewer.
-     */
-    private void validateName(String property, String name) {
-        if (name.isEmpty()) {
-            throw new IllegalArgumentException(
-                    String.format("%s should not be empty.", property));
-        }
-        if (name.length() > NAME_MAX_LENGTH) {
-            throw new IllegalArgumentException(
-                    String.format("%s is invalid, it should contain at most %d characters.", property, NAME_MAX_LENGTH));
-        }
+    // both "" and "/" are taken as root path
+    if (path.isEmpty()) {
+      return;
     }
 
-   /* public String getNameSpace() {
+    if (path.endsWith("/")) {
+      path = path.substring(0, path.length() - 1);
+    }
 
-        return NAMESPACE;
-    }*/
+    // '$' is not valid in a service name, so a services page path can not be taken for a service
+    if (path.startsWith(SKIP_MARKER)) {
+      skip = parseSkip(path.substring(SKIP_MARKER.length()));
+      return;
+    }
 
-    @Nullable
-    public String getService() {
-        return SERVICE;
+    int entityIdx = ("/" + path).lastIndexOf(ENTITY_MARKER);
+    if (entityIdx < 0) {
+      service = path;
+      validateName("Service", service);
+      return;
     }
 
-    @Nullable
-    public String getEntity() {
-        return ENTITY;
+    // the index was found in the path with the heading "/" restored
+    service = path.substring(0, Math.max(0, entityIdx - 1));
+    entity = path.substring(entityIdx - 1 + ENTITY_MARKER.length());
+    validateName("Service", service);
+    validateName("Entity", entity);
+  }
+
+  private static long parseSkip(String skip) {
+    try {
+      long value = Long.parseLong(skip);
+      if (value >= 0) {
+        return value;
+      }
+    } catch (NumberFormatException e) {
+      // handled below
+    }
+    throw new IllegalArgumentException(String.format("Services to skip '%s' is not a valid number.", skip));
+  }
+
+  /**
+   * The service and entity name must not be empty. And it must be 1024 characters or fewer.
+   */
+  private void validateName(String property, String name) {
+    if (name.isEmpty()) {
+      throw new IllegalArgumentException(String.format("%s should not be empty.", property));
+    }
+    if (name.length() > NAME_MAX_LENGTH) {
+      throw new IllegalArgumentException(
+        String.format("%s is invalid, it should contain at most %d characters.", property, NAME_MAX_LENGTH));
     }
+  }
+
+  @Nullable
+  public String getService() {
+    return service;
+  }
+
+  @Nullable
+  public String getEntity() {
+    return entity;
+  }
+
+  /**
+   * @return number of services to skip when the path lists the services, 0 for the first page
+   */
+  public long getSkip() {
+    return skip;
+  }
 }
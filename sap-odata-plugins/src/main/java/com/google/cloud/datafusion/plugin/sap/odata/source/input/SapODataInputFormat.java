@@ -27,6 +27,7 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 import static com.google.cloud.datafusion.plugin.sap.odata.source.SapODataRuntimeHelper.ENCODED_ENTITY_METADATA_STRING;
@@ -56,6 +57,8 @@ public class SapODataInputFormat extends InputFormat<LongWritable, StructuredRec
 
     // Deserialize partitions from Hadoop Configuration
     List<SapODataInputSplit> partitions = new Gson().fromJson(configuration.get(PARTITIONS_PROPERTY), INPUT_SPLIT_TYPE);
+    // Largest splits first, so that they do not start last and hold up the run
+    partitions.sort(Comparator.comparingLong(SapODataInputSplit::getEstimatedBytes).reversed());
 
     for (SapODataInputSplit partition : partitions) {
       splits.add(partition);
@@ -28,7 +28,9 @@ import java.io.IOException;
 /**
  * Pojo to hold a wrapper for partition details like start and end indices of
  * the records and static information like runtime Metadata which remains same
- * for all splits generated in this instance of InputFormat.
+ * for all splits generated in this instance of InputFormat. The length of a split
+ * is its estimated size in bytes, so that splits of different widths can be compared
+ * when scheduling them.
  */
 public class SapODataInputSplit extends InputSplit implements Writable {
   private static final Logger LOGGER = LoggerFactory.getLogger(SapODataInputSplit.class);
@@ -38,6 +40,8 @@ public class SapODataInputSplit extends InputSplit implements Writable {
   // Standard package size. A split may need multiple SAP network calls (batches),
   // and last batch may have lesser number of records than this packageSize
   private long packageSize;
+  // Estimated bytes to extract, i.e. record count times bytes per record
+  private long estimatedBytes;
 
   public SapODataInputSplit() {
   }
@@ -52,7 +56,7 @@ public class SapODataInputSplit extends InputSplit implements Writable {
 
   @Override
   public long getLength() throws IOException, InterruptedException {
-    return end - start + 1;
+    return getEstimatedBytes();
   }
 
   @Override
@@ -65,6 +69,7 @@ public class SapODataInputSplit extends InputSplit implements Writable {
     out.writeLong(start);
     out.writeLong(end);
     out.writeLong(packageSize);
+    out.writeLong(estimatedBytes);
   }
 
   @Override
@@ -72,6 +77,7 @@ public class SapODataInputSplit extends InputSplit implements Writable {
     this.start = in.readLong();
     this.end = in.readLong();
     this.packageSize = in.readLong();
+    this.estimatedBytes = in.readLong();
   }
 
   public long getStart() {
@@ -85,4 +91,15 @@ public class SapODataInputSplit extends InputSplit implements Writable {
   public long getPackageSize() {
     return packageSize;
   }
+
+  /**
+   * @return Estimated bytes to extract, or the record count if the size is not estimated
+   */
+  public long getEstimatedBytes() {
+    return estimatedBytes > 0 ? estimatedBytes : end - start + 1;
+  }
+
+  public void setEstimatedBytes(long estimatedBytes) {
+    this.estimatedBytes = estimatedBytes;
+  }
 }
@@ -71,6 +71,23 @@ public class SapODataPartitionBuilder {
   public List<SapODataInputSplit> buildSplit(long availableRecordCount, long fetchRowCount,
                                              long skipRowCount,
                                              int splitCount, long packageSize) {
+    return buildSplit(availableRecordCount, fetchRowCount, skipRowCount, splitCount, packageSize, 0L);
+  }
+
+  /**
+   * builds the list of {@code SapODataInputSplit}, each carrying its estimated size in bytes
+   *
+   * @param availableRecordCount available row count
+   * @param fetchRowCount        plugin property, number of rows to extract
+   * @param skipRowCount         plugin property, number of rows to skip
+   * @param splitCount           plugin property, number of splits required
+   * @param packageSize          plugin property, size of the package in each splits
+   * @param bytesPerRow          bytes per row probed from SAP, 0 if unknown
+   * @return list of {@code SapODataInputSplit}
+   */
+  public List<SapODataInputSplit> buildSplit(long availableRecordCount, long fetchRowCount,
+                                             long skipRowCount,
+                                             int splitCount, long packageSize, long bytesPerRow) {
     List<SapODataInputSplit> list = new ArrayList<>();
 
     long recordReadStartIndex = (skipRowCount == 0 ? 1 : (skipRowCount + 1));
@@ -147,6 +164,8 @@ public class SapODataPartitionBuilder {
     //prepare splits
     list.add(new SapODataInputSplit(start, end, (packageSize == 0 ? end - start + 1 : optimalPackageSize)));
 
+    list.forEach(s -> s.setEstimatedBytes((s.getEnd() - s.getStart() + 1) * bytesPerRow));
+
     list.forEach(s -> LOGGER.info(
       "start: " + s.getStart() + "\nend: " + s.getEnd() + "\ndiff: " + (s.getEnd() - s.getStart()) + "\nbatch: " +
         s.getPackageSize() + "\n\n"));
@@ -158,5 +177,21 @@ public class SapODataPartitionBuilder {
     return list;
   }
 
+  /**
+   * builds the single {@code SapODataInputSplit} used in preview mode, it reads the given number of rows after the
+   * skipped ones in one package so that no record count is required.
+   *
+   * @param skipRowCount    plugin property, number of rows to skip
+   * @param previewRowCount number of rows to preview
+   * @return {@code SapODataInputSplit}
+   */
+  public SapODataInputSplit buildPreviewSplit(long skipRowCount, long previewRowCount) {
+    long start = skipRowCount + 1;
+    long end = skipRowCount + previewRowCount;
+    long packageSize = Math.min(previewRowCount, MAX_ALLOWED_BATCH_SIZE);
 
+    LOGGER.info("Preview record extraction from index: {} to index: {}", start, end);
+
+    return new SapODataInputSplit(start, end, packageSize);
+  }
 }
@@ -0,0 +1,42 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.odata.source.model;
+
+import java.util.List;
+
+/**
+ * One '$skip' / '$top' page of the services registered in the SAP Gateway catalog service, along with the count of
+ * all the registered services.
+ */
+public class ServicesPage {
+
+    private final List<Services> services;
+    private final long totalCount;
+
+    public ServicesPage(List<Services> services, long totalCount) {
+        this.services = services;
+        this.totalCount = totalCount;
+    }
+
+    public List<Services> getServices() {
+        return services;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+}
@@ -56,6 +56,7 @@ public class SapODataRecordReader extends RecordReader<LongWritable, StructuredR
   private SapODataService oDataServices;
 
   private Edm edmData;
+  private boolean endOfData;
 
   private Map<String, Long> operProps;
 
@@ -104,7 +105,7 @@ public class SapODataRecordReader extends RecordReader<LongWritable, StructuredR
   public boolean nextKeyValue() throws IOException, InterruptedException {
     key.set(numRowsProcessed);
     //check if existing batch set has records left to read
-    if (valueConverter.containsNextRow()) {
+    if (valueConverter != null && valueConverter.containsNextRow()) {
       return true;
     }
     //check if next batch call is required if the existing batch set contains no records
@@ -155,7 +156,8 @@ public class SapODataRecordReader extends RecordReader<LongWritable, StructuredR
 
   private boolean isNextCallReqd(long rowsDone) {
 //    return getLength() - rowsDone > packageSize;
-    return getLength() - rowsDone > 0;
+    // an empty page means the entity has no more records, e.g. a preview split planned without '$count'
+    return !endOfData && getLength() - rowsDone > 0;
   }
 
   private void calculateSkipAndFetchCount(long rowsDone) {
@@ -191,6 +193,7 @@ public class SapODataRecordReader extends RecordReader<LongWritable, StructuredR
     } else {
       LOGGER.info("No records found in '{}' for given split indexes (skip: {} & top: {})",
         pluginConfig.getEntityName(), rowsToSkip, rowsToFetch);
+      endOfData = true;
       return false;
     }
   }
@@ -45,11 +45,23 @@ public class SapODataTransporter {
 
   public static final String SERVICE_VERSION = "dataserviceversion";
 
+  /**
+   * Shared by all the transporters so that they reuse the same connection pool and dispatcher. Each transporter
+   * derives its own client from it with {@code newBuilder()}, which keeps the pool but allows a different SSL layer.
+   */
+  private static final OkHttpClient BASE_CLIENT = new OkHttpClient.Builder()
+    .readTimeout(10, TimeUnit.SECONDS)
+    .writeTimeout(10, TimeUnit.SECONDS)
+    .connectTimeout(10, TimeUnit.SECONDS)
+    .build();
+
   private final String username;
   private final String password;
 
   private final SapX509Manager x509Manager;
 
+  private volatile OkHttpClient httpClient;
+
   public SapODataTransporter(String username,
                              String password,
                              SapX509Manager x509Manager) {
@@ -122,10 +134,29 @@ public class SapODataTransporter {
   }
 
   private Response transport(URL endpoint, String mediaType) throws IOException, TransportException {
-    OkHttpClient enhancedOkHttpClient = getConfiguredClient().build();
     Request req = buildRequest(endpoint, mediaType);
 
-    return enhancedOkHttpClient.newCall(req).execute();
+    return getHttpClient().newCall(req).execute();
+  }
+
+  /**
+   * Returns the client of this transporter, the SSL layer is configured only on the first call.
+   *
+   * @return {@code OkHttpClient}
+   */
+  private OkHttpClient getHttpClient() throws TransportException {
+    OkHttpClient client = httpClient;
+    if (client == null) {
+      synchronized (this) {
+        client = httpClient;
+        if (client == null) {
+          client = getConfiguredClient().build();
+          httpClient = client;
+        }
+      }
+    }
+
+    return client;
   }
 
   private SapODataResponseContainer prepareResponseContainer(Response res) {
@@ -153,7 +184,7 @@ public class SapODataTransporter {
   }
 
   /**
-   * Builds the {@code OkHttpClient.Builder} with following optimized configuration parameters
+   * Builds the {@code OkHttpClient.Builder} from the shared client with following optimized configuration parameters
    * Connection Timeout in seconds: 10
    * Read Timeout in seconds: 10
    * Write Timeout in seconds: 10
@@ -162,10 +193,7 @@ public class SapODataTransporter {
    */
   private OkHttpClient.Builder getConfiguredClient() throws TransportException {
 
-    OkHttpClient.Builder httpClientBuilder = new OkHttpClient.Builder()
-      .readTimeout(10, TimeUnit.SECONDS)
-      .writeTimeout(10, TimeUnit.SECONDS)
-      .connectTimeout(10, TimeUnit.SECONDS);
+    OkHttpClient.Builder httpClientBuilder = BASE_CLIENT.newBuilder();
 
     try {
       x509Manager.configureSSLLayer(httpClientBuilder);
@@ -17,7 +17,6 @@
 package com.google.cloud.datafusion.plugin.sap.odata.source.transport;
 
 import com.google.cloud.datafusion.plugin.sap.odata.source.config.SapODataPluginConfig;
-import com.google.cloud.datafusion.plugin.sap.odata.source.connector.SAPODataConnectorConfig;
 import com.google.cloud.datafusion.plugin.util.ResourceConstants;
 import com.google.cloud.datafusion.plugin.util.Util;
 import okhttp3.HttpUrl;
@@ -29,6 +28,7 @@ import java.net.URL;
 /**
  * This {@code SapODataRequestContainer} contains the implementation of different SAP OData url:
  * * Test url
+ * * Catalog service url
  * * Metadata url
  * * Available record count url
  * * Data url
@@ -40,8 +40,10 @@ public class SapODataUrlContainer {
   private static final String SKIP_OPTION = "$skip";
   private static final String TOP_OPTION = "$top";
 
+  private static final String CATALOG_SERVICE_PATH = "sap/opu/odata/IWFND/CATALOGSERVICE;v=2/ServiceCollection";
+  private static final String CATALOG_SELECT_FIELDS = "TechnicalServiceName,ServiceUrl";
+
   private final SapODataPluginConfig pluginConfig;
-  private SAPODataConnectorConfig connection;
 
   public SapODataUrlContainer(SapODataPluginConfig pluginConfig) {
     this.pluginConfig = pluginConfig;
@@ -74,15 +76,15 @@ public class SapODataUrlContainer {
    * @return tester URL.
    */
   public URL getConnectorTesterURL() {
-    HttpUrl.Builder builder = HttpUrl.parse(connection.getBaseURL())
-            .newBuilder()
-            .addPathSegments(pluginConfig.getServiceName())
-            .addPathSegment(pluginConfig.getEntityName());
+    HttpUrl.Builder builder = HttpUrl.parse(pluginConfig.getBaseURL())
+      .newBuilder()
+      .addPathSegments(pluginConfig.getServiceName())
+      .addPathSegment(pluginConfig.getEntityName());
 
     URL testerURL = buildQueryOptions(builder)
-            .addQueryParameter(TOP_OPTION, "0")
-            .build()
-            .url();
+      .addQueryParameter(TOP_OPTION, "0")
+      .build()
+      .url();
 
     LOGGER.debug(ResourceConstants.DEBUG_TEST_ENDPOINT.getMsgForKey(testerURL));
 
@@ -95,9 +97,20 @@ public class SapODataUrlContainer {
    * @return metadata URL.
    */
   public URL getMetadataURL() {
-    URL metadataURL = HttpUrl.parse(connection.getBaseURL())
+    return getServiceMetadataURL(pluginConfig.getBaseURL(), pluginConfig.getServiceName());
+  }
+
+  /**
+   * Constructs metadata URL for the given service path, used while browsing the services of a connection.
+   *
+   * @param baseURL     SAP Gateway OData base URL.
+   * @param servicePath service path relative to the base URL e.g. 'sap/opu/odata/sap/ZFI_ACDOCA_SRV'.
+   * @return metadata URL.
+   */
+  public static URL getServiceMetadataURL(String baseURL, String servicePath) {
+    URL metadataURL = HttpUrl.parse(baseURL)
       .newBuilder()
-      .addPathSegments(pluginConfig.getServiceName())
+      .addPathSegments(servicePath)
       .addPathSegment("$metadata")
       .build()
       .url();
@@ -107,6 +120,37 @@ public class SapODataUrlContainer {
     return metadataURL;
   }
 
+  /**
+   * Constructs the SAP Gateway catalog service URL which lists at most {@code top} registered services after
+   * skipping {@code skip} of them, along with the count of all the registered services ('$inlinecount').
+   * Only the fields required for browsing are selected so that the catalog stays cheap to call on systems with
+   * thousands of registered services.
+   *
+   * @param baseURL SAP Gateway OData base URL.
+   * @param skip    number of services to skip.
+   * @param top     maximum number of services to return.
+   * @return catalog service URL.
+   */
+  public static URL getCatalogServiceURL(String baseURL, long skip, int top) {
+    HttpUrl.Builder builder = HttpUrl.parse(baseURL)
+      .newBuilder()
+      .addPathSegments(CATALOG_SERVICE_PATH)
+      .addQueryParameter("$select", CATALOG_SELECT_FIELDS);
+
+    if (skip > 0) {
+      builder.addQueryParameter(SKIP_OPTION, String.valueOf(skip));
+    }
+    URL catalogURL = builder.addQueryParameter(TOP_OPTION, String.valueOf(top))
+      .addQueryParameter("$inlinecount", "allpages")
+      .addQueryParameter("$format", "json")
+      .build()
+      .url();
+
+    LOGGER.debug(ResourceConstants.DEBUG_CATALOG_ENDPOINT.getMsgForKey(catalogURL));
+
+    return catalogURL;
+  }
+
   /**
    * Constructs total available record count URL.
    *
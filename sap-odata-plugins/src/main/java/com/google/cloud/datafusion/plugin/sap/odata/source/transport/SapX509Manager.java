@@ -7,6 +7,10 @@ import com.google.cloud.datafusion.plugin.util.Util;
 import com.google.cloud.storage.Blob;
 import com.google.cloud.storage.Storage;
 import com.google.cloud.storage.StorageOptions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import okhttp3.OkHttpClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,6 +19,7 @@ import org.slf4j.LoggerFactory;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -27,8 +32,10 @@ import java.util.Arrays;
 import java.util.Base64;
 import java.util.Comparator;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.TrustManagerFactory;
 import javax.net.ssl.X509TrustManager;
@@ -42,6 +49,22 @@ public class SapX509Manager {
 
   private static final String AUTO_DETECT = "auto-detect";
 
+  /**
+   * Certificates downloaded from GCS, so that design time, prepareRun and preview download them only once per JVM.
+   */
+  private static final Cache<String, byte[]> DOWNLOADED_CERTIFICATES = CacheBuilder.newBuilder()
+    .maximumSize(16)
+    .expireAfterWrite(10, TimeUnit.MINUTES)
+    .build();
+
+  /**
+   * SSL layers keyed by the hash of the certificate and its passphrase, shared by all the transporters using them.
+   */
+  private static final Cache<String, SslLayer> SSL_LAYERS = CacheBuilder.newBuilder()
+    .maximumSize(16)
+    .expireAfterWrite(10, TimeUnit.MINUTES)
+    .build();
+
   private Path localCertPath;
 
   private final String x509EncodedString;
@@ -75,10 +98,29 @@ public class SapX509Manager {
       return;
     }
 
+    byte[] cert = readX509();
+    Hasher hasher = Hashing.sha256().newHasher().putBytes(cert);
+    if (certPassphrase != null) {
+      hasher.putString(certPassphrase, StandardCharsets.UTF_8);
+    }
+    String sslLayerKey = hasher.hash().toString();
+
+    SslLayer sslLayer = SSL_LAYERS.getIfPresent(sslLayerKey);
+    if (sslLayer == null) {
+      sslLayer = buildSslLayer(cert);
+      SSL_LAYERS.put(sslLayerKey, sslLayer);
+    }
+
+    builder.sslSocketFactory(sslLayer.socketFactory, sslLayer.trustManager);
+  }
+
+  private SslLayer buildSslLayer(byte[] cert)
+    throws CertificateException, IOException, KeyStoreException, NoSuchAlgorithmException, KeyManagementException {
+
     final KeyStore trustStore;
-    try (ByteArrayInputStream cert = getX509AsStream()) {
+    try (ByteArrayInputStream certStream = new ByteArrayInputStream(cert)) {
       trustStore = KeyStore.getInstance("PKCS12");
-      trustStore.load(cert, certPassphrase.toCharArray());
+      trustStore.load(certStream, certPassphrase.toCharArray());
     }
 
     TrustManagerFactory trustManagerFactory = TrustManagerFactory
@@ -93,8 +135,7 @@ public class SapX509Manager {
     SSLContext sslContext = SSLContext.getInstance("TLSv1.2");
     sslContext.init(null, trustManagers, null);
 
-    X509TrustManager trustManager = (X509TrustManager) trustManagers[0];
-    builder.sslSocketFactory(sslContext.getSocketFactory(), trustManager);
+    return new SslLayer(sslContext.getSocketFactory(), (X509TrustManager) trustManagers[0]);
   }
 
   public String getX509AsBase64EncodedString() throws IOException {
@@ -105,25 +146,25 @@ public class SapX509Manager {
       return "";
     }
 
-    localCertPath = downloadAndGetLocalCertPath();
-    byte[] cert = Files.readAllBytes(localCertPath);
-
-    cleanUpDownloadedResource();
-
-    return Base64.getEncoder().encodeToString(cert);
+    return Base64.getEncoder().encodeToString(readX509());
   }
 
-  private ByteArrayInputStream getX509AsStream() throws IOException {
+  private byte[] readX509() throws IOException {
     if (Util.isNotNullOrEmpty(x509EncodedString)) {
-      return new ByteArrayInputStream(Base64.getDecoder().decode(x509EncodedString));
+      return Base64.getDecoder().decode(x509EncodedString);
     }
 
-    localCertPath = downloadAndGetLocalCertPath();
-    byte[] cert = Files.readAllBytes(localCertPath);
+    String certificateKey = gcpProjectId + "|" + gcsCertPath;
+    byte[] cert = DOWNLOADED_CERTIFICATES.getIfPresent(certificateKey);
+    if (cert == null) {
+      localCertPath = downloadAndGetLocalCertPath();
+      cert = Files.readAllBytes(localCertPath);
 
-    cleanUpDownloadedResource();
+      cleanUpDownloadedResource();
+      DOWNLOADED_CERTIFICATES.put(certificateKey, cert);
+    }
 
-    return new ByteArrayInputStream(cert);
+    return cert;
   }
 
   private Path downloadAndGetLocalCertPath() throws IOException {
@@ -183,4 +224,17 @@ public class SapX509Manager {
     }
     return gcpProjectId;
   }
+
+  /**
+   * Socket factory and trust manager built from a certificate.
+   */
+  private static final class SslLayer {
+    private final SSLSocketFactory socketFactory;
+    private final X509TrustManager trustManager;
+
+    private SslLayer(SSLSocketFactory socketFactory, X509TrustManager trustManager) {
+      this.socketFactory = socketFactory;
+      this.trustManager = trustManager;
+    }
+  }
 }
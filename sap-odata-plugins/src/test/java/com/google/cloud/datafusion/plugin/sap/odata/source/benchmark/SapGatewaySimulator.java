@@ -0,0 +1,431 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.odata.source.benchmark;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformer;
+import com.github.tomakehurst.wiremock.http.Fault;
+import com.github.tomakehurst.wiremock.http.QueryParameter;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.google.cloud.datafusion.plugin.sap.odata.source.transport.SapODataTransporter;
+import io.cdap.cdap.api.data.schema.Schema;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This {@code SapGatewaySimulator} emulates an SAP Gateway OData v2 service on top of WireMock. It serves
+ * a synthetic entity set of configurable width and row count, and supports:
+ * * $metadata
+ * * $count
+ * * $skip / $top paging of the entity set
+ * * $batch requests containing GET parts for the entity set
+ * <p>
+ * Latency, throttling (429 / 503) and connection failures can be injected deterministically, so that two runs
+ * with the same settings issue exactly the same sequence of responses.
+ */
+public class SapGatewaySimulator {
+
+  public static final String SERVICE_NAME = "sap/opu/odata/sap/ZBENCH_SRV";
+  public static final String ENTITY_NAME = "BenchEntitySet";
+  public static final String USERNAME = "bench";
+  public static final String PASSWORD = "bench";
+
+  private static final String NAMESPACE = "ZBENCH_SRV";
+  private static final String ENTITY_TYPE = "BenchEntityType";
+  private static final String KEY_COLUMN = "Id";
+  private static final String COLUMN_PREFIX = "Column";
+  private static final String BATCH_BOUNDARY = "batchresponse_sap_gateway_simulator";
+  private static final Pattern BATCH_GET_LINE = Pattern.compile("^GET\\s+(\\S+)\\s+HTTP/1\\.1", Pattern.MULTILINE);
+
+  private final long rowCount;
+  private final int columnCount;
+  private final int valueLength;
+  private final int latencyMillis;
+  private final int latencyJitterMillis;
+  private final int throttleEvery;
+  private final int throttleStatus;
+  private final int failEvery;
+
+  private final AtomicLong dataRequestCount = new AtomicLong();
+  private final AtomicLong throttledRequestCount = new AtomicLong();
+  private final AtomicLong failedRequestCount = new AtomicLong();
+  private final AtomicLong servedRowCount = new AtomicLong();
+  private final AtomicLong servedByteCount = new AtomicLong();
+
+  private WireMockServer server;
+
+  private SapGatewaySimulator(Builder builder) {
+    this.rowCount = builder.rowCount;
+    this.columnCount = builder.columnCount;
+    this.valueLength = builder.valueLength;
+    this.latencyMillis = builder.latencyMillis;
+    this.latencyJitterMillis = builder.latencyJitterMillis;
+    this.throttleEvery = builder.throttleEvery;
+    this.throttleStatus = builder.throttleStatus;
+    this.failEvery = builder.failEvery;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Starts the embedded WireMock server on a dynamic port and registers a catch-all stub, the actual responses
+   * are generated by the {@link GatewayTransformer}.
+   */
+  public void start() {
+    server = new WireMockServer(WireMockConfiguration.wireMockConfig()
+      .dynamicPort()
+      .containerThreads(64)
+      .jettyAcceptors(4)
+      .extensions(new GatewayTransformer()));
+    server.start();
+    server.stubFor(WireMock.any(WireMock.anyUrl())
+      .withBasicAuth(USERNAME, PASSWORD)
+      .willReturn(WireMock.ok()));
+  }
+
+  public void stop() {
+    if (server != null) {
+      server.stop();
+    }
+  }
+
+  public String getBaseURL() {
+    return "http://localhost:" + server.port();
+  }
+
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  public long getDataRequestCount() {
+    return dataRequestCount.get();
+  }
+
+  public long getThrottledRequestCount() {
+    return throttledRequestCount.get();
+  }
+
+  public long getFailedRequestCount() {
+    return failedRequestCount.get();
+  }
+
+  public long getServedRowCount() {
+    return servedRowCount.get();
+  }
+
+  public long getServedByteCount() {
+    return servedByteCount.get();
+  }
+
+  /**
+   * Builds the CDAP schema matching the synthetic entity type.
+   *
+   * @return record schema with a non-nullable key column followed by nullable string columns
+   */
+  public Schema getOutputSchema() {
+    List<Schema.Field> fields = new ArrayList<>(columnCount + 1);
+    fields.add(Schema.Field.of(KEY_COLUMN, Schema.of(Schema.Type.STRING)));
+    for (int col = 1; col <= columnCount; col++) {
+      fields.add(Schema.Field.of(COLUMN_PREFIX + col, Schema.nullableOf(Schema.of(Schema.Type.STRING))));
+    }
+
+    return Schema.recordOf("ODataColumnMetadata", fields);
+  }
+
+  /**
+   * Builds the EDMX document describing the synthetic entity set.
+   *
+   * @return $metadata document
+   */
+  public String getMetadata() {
+    StringBuilder edmx = new StringBuilder(512 + columnCount * 96)
+      .append("<?xml version=\"1.0\" encoding=\"utf-8\"?>")
+      .append("<edmx:Edmx Version=\"1.0\" xmlns:edmx=\"http://schemas.microsoft.com/ado/2007/06/edmx\"")
+      .append(" xmlns:m=\"http://schemas.microsoft.com/ado/2007/08/dataservices/metadata\"")
+      .append(" xmlns:sap=\"http://www.sap.com/Protocols/SAPData\">")
+      .append("<edmx:DataServices m:DataServiceVersion=\"2.0\">")
+      .append("<Schema Namespace=\"").append(NAMESPACE).append("\" xml:lang=\"en\" sap:schema-version=\"1\"")
+      .append(" xmlns=\"http://schemas.microsoft.com/ado/2008/09/edm\">")
+      .append("<EntityType Name=\"").append(ENTITY_TYPE).append("\" sap:content-version=\"1\">")
+      .append("<Key><PropertyRef Name=\"").append(KEY_COLUMN).append("\"/></Key>")
+      .append("<Property Name=\"").append(KEY_COLUMN).append("\" Type=\"Edm.String\" Nullable=\"false\"")
+      .append(" MaxLength=\"20\"/>");
+
+    for (int col = 1; col <= columnCount; col++) {
+      edmx.append("<Property Name=\"").append(COLUMN_PREFIX).append(col).append("\" Type=\"Edm.String\"")
+        .append(" MaxLength=\"").append(valueLength).append("\"/>");
+    }
+
+    edmx.append("</EntityType>")
+      .append("<EntityContainer Name=\"").append(NAMESPACE).append("_Entities\"")
+      .append(" m:IsDefaultEntityContainer=\"true\">")
+      .append("<EntitySet Name=\"").append(ENTITY_NAME).append("\" EntityType=\"").append(NAMESPACE).append('.')
+      .append(ENTITY_TYPE).append("\" sap:content-version=\"1\"/>")
+      .append("</EntityContainer></Schema></edmx:DataServices></edmx:Edmx>");
+
+    return edmx.toString();
+  }
+
+  /**
+   * Builds the JSON feed for the requested page of the synthetic entity set.
+   *
+   * @param skip rows to skip
+   * @param top  rows to return
+   * @return OData v2 JSON feed
+   */
+  String buildPage(long skip, long top) {
+    long from = Math.max(0L, skip);
+    long to = Math.min(rowCount, from + Math.max(0L, top));
+
+    StringBuilder feed = new StringBuilder((int) Math.min(Integer.MAX_VALUE - 64L,
+      64L + (to - from) * (96L + columnCount * (valueLength + 16L))));
+    feed.append("{\"d\":{\"results\":[");
+    for (long row = from; row < to; row++) {
+      if (row > from) {
+        feed.append(',');
+      }
+      String key = String.format("%020d", row);
+      feed.append("{\"__metadata\":{\"type\":\"").append(NAMESPACE).append('.').append(ENTITY_TYPE).append("\"},")
+        .append('"').append(KEY_COLUMN).append("\":\"").append(key).append('"');
+      for (int col = 1; col <= columnCount; col++) {
+        feed.append(",\"").append(COLUMN_PREFIX).append(col).append("\":\"");
+        appendValue(feed, row, col);
+        feed.append('"');
+      }
+      feed.append('}');
+    }
+    feed.append("]}}");
+
+    servedRowCount.addAndGet(to - from);
+    return feed.toString();
+  }
+
+  /**
+   * Appends a deterministic alphanumeric value of {@code valueLength} characters for the given cell.
+   */
+  private void appendValue(StringBuilder feed, long row, int col) {
+    long seed = row * 31L + col;
+    for (int i = 0; i < valueLength; i++) {
+      seed = seed * 6364136223846793005L + 1442695040888963407L;
+      int idx = (int) ((seed >>> 33) % 36);
+      feed.append((char) (idx < 10 ? '0' + idx : 'A' + idx - 10));
+    }
+  }
+
+  private String buildBatchResponse(String batchRequestBody) {
+    StringBuilder multipart = new StringBuilder();
+    Matcher matcher = BATCH_GET_LINE.matcher(batchRequestBody);
+    while (matcher.find()) {
+      String relativeUrl = matcher.group(1);
+      String body = buildPage(queryOption(relativeUrl, "$skip"), queryOption(relativeUrl, "$top"));
+      multipart.append("--").append(BATCH_BOUNDARY).append("\r\n")
+        .append("Content-Type: application/http\r\n")
+        .append("Content-Transfer-Encoding: binary\r\n\r\n")
+        .append("HTTP/1.1 200 OK\r\n")
+        .append("Content-Type: application/json\r\n")
+        .append("Content-Length: ").append(body.getBytes(StandardCharsets.UTF_8).length).append("\r\n")
+        .append(SapODataTransporter.SERVICE_VERSION).append(": 2.0\r\n\r\n")
+        .append(body).append("\r\n");
+    }
+    multipart.append("--").append(BATCH_BOUNDARY).append("--\r\n");
+
+    return multipart.toString();
+  }
+
+  private static long queryOption(String relativeUrl, String option) {
+    int queryStart = relativeUrl.indexOf('?');
+    if (queryStart < 0) {
+      return option.equals("$top") ? Long.MAX_VALUE : 0L;
+    }
+    for (String pair : relativeUrl.substring(queryStart + 1).split("&")) {
+      int eq = pair.indexOf('=');
+      if (eq > 0 && pair.substring(0, eq).equals(option)) {
+        return Long.parseLong(pair.substring(eq + 1));
+      }
+    }
+
+    return option.equals("$top") ? Long.MAX_VALUE : 0L;
+  }
+
+  private static long queryOption(Request request, String option, long defaultValue) {
+    QueryParameter param = request.queryParameter(option);
+    return param != null && param.isPresent() ? Long.parseLong(param.firstValue()) : defaultValue;
+  }
+
+  /**
+   * Generates the OData response for every request reaching the catch-all stub.
+   */
+  private class GatewayTransformer extends ResponseDefinitionTransformer {
+
+    @Override
+    public ResponseDefinition transform(Request request, ResponseDefinition responseDefinition, FileSource files,
+                                        Parameters parameters) {
+
+      if (responseDefinition.getStatus() != 200) {
+        // e.g. basic authentication mismatch, keep WireMock's own response
+        return responseDefinition;
+      }
+
+      String path = request.getUrl();
+      int queryStart = path.indexOf('?');
+      if (queryStart >= 0) {
+        path = path.substring(0, queryStart);
+      }
+
+      String servicePath = "/" + SERVICE_NAME;
+      if (path.equals(servicePath + "/$metadata")) {
+        return respond(200, "application/xml", getMetadata());
+      }
+      if (path.equals(servicePath + "/" + ENTITY_NAME + "/$count")) {
+        return respond(200, "text/plain", String.valueOf(rowCount));
+      }
+      if (path.equals(servicePath + "/$batch")) {
+        return injectFaults(() -> respond(202, "multipart/mixed; boundary=" + BATCH_BOUNDARY,
+          buildBatchResponse(request.getBodyAsString())));
+      }
+      if (path.equals(servicePath + "/" + ENTITY_NAME)) {
+        long skip = queryOption(request, "$skip", 0L);
+        long top = queryOption(request, "$top", rowCount);
+        return injectFaults(() -> respond(200, "application/json", buildPage(skip, top)));
+      }
+
+      return new ResponseDefinitionBuilder().withStatus(404).withBody("Resource not found for the segment.").build();
+    }
+
+    private ResponseDefinition injectFaults(Supplier<ResponseDefinition> success) {
+      long requestNo = dataRequestCount.incrementAndGet();
+      if (failEvery > 0 && requestNo % failEvery == 0) {
+        failedRequestCount.incrementAndGet();
+        return new ResponseDefinitionBuilder().withFault(Fault.CONNECTION_RESET_BY_PEER).build();
+      }
+      if (throttleEvery > 0 && requestNo % throttleEvery == 0) {
+        throttledRequestCount.incrementAndGet();
+        return new ResponseDefinitionBuilder()
+          .withStatus(throttleStatus)
+          .withHeader("Retry-After", "1")
+          .withBody("Service temporarily unavailable.")
+          .build();
+      }
+
+      return success.get();
+    }
+
+    private ResponseDefinition respond(int status, String contentType, String body) {
+      byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+      servedByteCount.addAndGet(bytes.length);
+
+      ResponseDefinitionBuilder builder = new ResponseDefinitionBuilder()
+        .withStatus(status)
+        .withHeader("Content-Type", contentType)
+        .withHeader(SapODataTransporter.SERVICE_VERSION, "2.0")
+        .withBody(bytes);
+      if (latencyJitterMillis > 0) {
+        builder.withUniformRandomDelay(latencyMillis, latencyMillis + latencyJitterMillis);
+      } else if (latencyMillis > 0) {
+        builder.withFixedDelay(latencyMillis);
+      }
+
+      return builder.build();
+    }
+
+    @Override
+    public String getName() {
+      return "sap-gateway-simulator";
+    }
+  }
+
+  /**
+   * Helper class to simplify {@link SapGatewaySimulator} class creation.
+   */
+  public static class Builder {
+    private long rowCount = 10_000L;
+    private int columnCount = 20;
+    private int valueLength = 10;
+    private int latencyMillis;
+    private int latencyJitterMillis;
+    private int throttleEvery;
+    private int throttleStatus = 503;
+    private int failEvery;
+
+    public Builder rowCount(long rowCount) {
+      this.rowCount = rowCount;
+      return this;
+    }
+
+    public Builder columnCount(int columnCount) {
+      this.columnCount = columnCount;
+      return this;
+    }
+
+    public Builder valueLength(int valueLength) {
+      this.valueLength = valueLength;
+      return this;
+    }
+
+    public Builder latencyMillis(int latencyMillis) {
+      this.latencyMillis = latencyMillis;
+      return this;
+    }
+
+    public Builder latencyJitterMillis(int latencyJitterMillis) {
+      this.latencyJitterMillis = latencyJitterMillis;
+      return this;
+    }
+
+    /**
+     * Every n-th data request (entity set page or $batch) is answered with {@code throttleStatus}, 0 disables it.
+     */
+    public Builder throttleEvery(int throttleEvery) {
+      this.throttleEvery = throttleEvery;
+      return this;
+    }
+
+    /**
+     * HTTP status used for throttled requests, e.g. 429 or 503.
+     */
+    public Builder throttleStatus(int throttleStatus) {
+      this.throttleStatus = throttleStatus;
+      return this;
+    }
+
+    /**
+     * Every n-th data request is answered with a connection reset, 0 disables it.
+     */
+    public Builder failEvery(int failEvery) {
+      this.failEvery = failEvery;
+      return this;
+    }
+
+    public SapGatewaySimulator build() {
+      return new SapGatewaySimulator(this);
+    }
+  }
+}
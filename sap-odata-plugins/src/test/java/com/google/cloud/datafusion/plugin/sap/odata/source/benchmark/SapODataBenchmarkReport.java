@@ -0,0 +1,142 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.odata.source.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This {@code SapODataBenchmarkReport} holds the result of one {@link SapODataThroughputBenchmarkTest} run. It is
+ * persisted as JSON so that a later run can be compared against a stored baseline.
+ */
+public class SapODataBenchmarkReport {
+
+  private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+  private String scenario;
+  private int readerThreads;
+  private int splitCount;
+  private long packageSize;
+  private long rowCount;
+  private long byteCount;
+  private long dataRequestCount;
+  private long throttledRequestCount;
+  private long failedRequestCount;
+  private long elapsedMillis;
+  private double rowsPerSecond;
+  private double bytesPerSecond;
+  private double p50PageLatencyMillis;
+  private double p99PageLatencyMillis;
+  private double peakHeapUsedMb;
+
+  static SapODataBenchmarkReport of(String scenario, int readerThreads, int splitCount, long packageSize,
+                                    long rowCount, long elapsedNanos, List<Long> pageLatencyNanos,
+                                    long peakHeapUsedBytes, SapGatewaySimulator simulator) {
+
+    SapODataBenchmarkReport report = new SapODataBenchmarkReport();
+    report.scenario = scenario;
+    report.readerThreads = readerThreads;
+    report.splitCount = splitCount;
+    report.packageSize = packageSize;
+    report.rowCount = rowCount;
+    report.byteCount = simulator.getServedByteCount();
+    report.dataRequestCount = simulator.getDataRequestCount();
+    report.throttledRequestCount = simulator.getThrottledRequestCount();
+    report.failedRequestCount = simulator.getFailedRequestCount();
+    report.elapsedMillis = elapsedNanos / 1_000_000L;
+
+    double elapsedSeconds = Math.max(elapsedNanos, 1L) / 1e9;
+    report.rowsPerSecond = rowCount / elapsedSeconds;
+    report.bytesPerSecond = report.byteCount / elapsedSeconds;
+
+    Collections.sort(pageLatencyNanos);
+    report.p50PageLatencyMillis = percentile(pageLatencyNanos, 0.50) / 1e6;
+    report.p99PageLatencyMillis = percentile(pageLatencyNanos, 0.99) / 1e6;
+    report.peakHeapUsedMb = peakHeapUsedBytes / (1024d * 1024d);
+
+    return report;
+  }
+
+  private static long percentile(List<Long> sortedValues, double quantile) {
+    if (sortedValues.isEmpty()) {
+      return 0L;
+    }
+    int idx = (int) Math.ceil(quantile * sortedValues.size()) - 1;
+    return sortedValues.get(Math.max(0, Math.min(idx, sortedValues.size() - 1)));
+  }
+
+  public static SapODataBenchmarkReport read(Path reportFile) throws IOException {
+    try (Reader reader = Files.newBufferedReader(reportFile, StandardCharsets.UTF_8)) {
+      return GSON.fromJson(reader, SapODataBenchmarkReport.class);
+    }
+  }
+
+  public void write(Path reportFile) throws IOException {
+    Files.createDirectories(reportFile.toAbsolutePath().getParent());
+    try (Writer writer = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8)) {
+      GSON.toJson(this, writer);
+    }
+  }
+
+  /**
+   * Describes the relative change of the key metrics against the given baseline, positive throughput deltas
+   * and negative latency deltas are improvements.
+   */
+  public String compareTo(SapODataBenchmarkReport baseline) {
+    return String.format("rows/s %+.1f%%, bytes/s %+.1f%%, p50 page latency %+.1f%%, p99 page latency %+.1f%%, " +
+        "peak heap %+.1f%%",
+      delta(rowsPerSecond, baseline.rowsPerSecond), delta(bytesPerSecond, baseline.bytesPerSecond),
+      delta(p50PageLatencyMillis, baseline.p50PageLatencyMillis),
+      delta(p99PageLatencyMillis, baseline.p99PageLatencyMillis),
+      delta(peakHeapUsedMb, baseline.peakHeapUsedMb));
+  }
+
+  private static double delta(double current, double baseline) {
+    return baseline == 0d ? 0d : (current - baseline) * 100d / baseline;
+  }
+
+  public String getScenario() {
+    return scenario;
+  }
+
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  public double getRowsPerSecond() {
+    return rowsPerSecond;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("[%s] threads: %d, splits: %d, package size: %d, rows: %d, bytes: %d, requests: %d " +
+        "(throttled: %d, failed: %d), elapsed: %d ms, rows/s: %.0f, bytes/s: %.0f, p50 page: %.1f ms, " +
+        "p99 page: %.1f ms, peak heap: %.1f MB",
+      scenario, readerThreads, splitCount, packageSize, rowCount, byteCount, dataRequestCount,
+      throttledRequestCount, failedRequestCount, elapsedMillis, rowsPerSecond, bytesPerSecond,
+      p50PageLatencyMillis, p99PageLatencyMillis, peakHeapUsedMb);
+  }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.odata.source.benchmark;
+
+import com.google.cloud.datafusion.plugin.sap.odata.source.config.SapODataPluginConfig;
+import com.google.cloud.datafusion.plugin.sap.odata.source.input.SapODataInputFormat;
+import com.google.cloud.datafusion.plugin.sap.odata.source.input.SapODataInputSplit;
+import com.google.cloud.datafusion.plugin.sap.odata.source.input.SapODataPartitionBuilder;
+import com.google.gson.Gson;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.JobID;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.task.JobContextImpl;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.cloud.datafusion.plugin.sap.odata.source.SapODataRuntimeHelper.ENCODED_ENTITY_METADATA_STRING;
+import static com.google.cloud.datafusion.plugin.sap.odata.source.SapODataRuntimeHelper.OUTPUT_SCHEMA;
+import static com.google.cloud.datafusion.plugin.sap.odata.source.SapODataRuntimeHelper.PARTITIONS_PROPERTY;
+import static com.google.cloud.datafusion.plugin.sap.odata.source.SapODataRuntimeHelper.SAP_ODATA_PLUGIN_PROPERTIES;
+
+/**
+ * End-to-end throughput benchmark driving the real {@link SapODataInputFormat} against the
+ * {@link SapGatewaySimulator} with many concurrent readers.
+ * <p>
+ * The functional check always runs on a small entity set. The full benchmark is skipped unless
+ * {@code -Dsap.odata.benchmark=true} is set, it can be tuned with the following system properties:
+ * * sap.odata.benchmark.rows, sap.odata.benchmark.columns, sap.odata.benchmark.valueLength
+ * * sap.odata.benchmark.splits, sap.odata.benchmark.threads, sap.odata.benchmark.packageSize
+ * * sap.odata.benchmark.latencyMillis, sap.odata.benchmark.jitterMillis
+ * * sap.odata.benchmark.throttleEvery, sap.odata.benchmark.throttleStatus, sap.odata.benchmark.failEvery
+ * * sap.odata.benchmark.baseline - report file of an earlier run to compare against
+ * * sap.odata.benchmark.tolerance - allowed rows/s regression against the baseline, defaults to 0.10
+ * <p>
+ * Each run writes its report to {@code target/benchmark/sap-odata-throughput.json}.
+ */
+public class SapODataThroughputBenchmarkTest {
+
+  private static final Gson GSON = new Gson();
+  private static final String PROPERTY_PREFIX = "sap.odata.benchmark.";
+
+  private SapGatewaySimulator simulator;
+
+  @After
+  public void tearDown() {
+    if (simulator != null) {
+      simulator.stop();
+    }
+  }
+
+  @Test
+  public void verifyAllRowsReadWithThrottlingAndLatency() throws Exception {
+    simulator = SapGatewaySimulator.builder()
+      .rowCount(2_000L)
+      .columnCount(8)
+      .latencyMillis(2)
+      .latencyJitterMillis(3)
+      .throttleEvery(7)
+      .throttleStatus(503)
+      .build();
+    simulator.start();
+
+    SapODataBenchmarkReport report = runScenario("functional", 4, 4, 250L);
+
+    Assert.assertEquals("Total record count read through SapODataInputFormat is not matching",
+      simulator.getRowCount(), report.getRowCount());
+    Assert.assertTrue("Throttled requests must have been retried", simulator.getThrottledRequestCount() > 0);
+  }
+
+  @Test
+  public void runThroughputBenchmark() throws Exception {
+    Assume.assumeTrue("Set -Dsap.odata.benchmark=true to run the SAP OData throughput benchmark",
+      Boolean.getBoolean("sap.odata.benchmark"));
+
+    simulator = SapGatewaySimulator.builder()
+      .rowCount(Long.getLong(PROPERTY_PREFIX + "rows", 200_000L))
+      .columnCount(Integer.getInteger(PROPERTY_PREFIX + "columns", 40))
+      .valueLength(Integer.getInteger(PROPERTY_PREFIX + "valueLength", 12))
+      .latencyMillis(Integer.getInteger(PROPERTY_PREFIX + "latencyMillis", 20))
+      .latencyJitterMillis(Integer.getInteger(PROPERTY_PREFIX + "jitterMillis", 30))
+      .throttleEvery(Integer.getInteger(PROPERTY_PREFIX + "throttleEvery", 50))
+      .throttleStatus(Integer.getInteger(PROPERTY_PREFIX + "throttleStatus", 503))
+      .failEvery(Integer.getInteger(PROPERTY_PREFIX + "failEvery", 0))
+      .build();
+    simulator.start();
+
+    SapODataBenchmarkReport report = runScenario("throughput",
+      Integer.getInteger(PROPERTY_PREFIX + "threads", 16),
+      Integer.getInteger(PROPERTY_PREFIX + "splits", 32),
+      Long.getLong(PROPERTY_PREFIX + "packageSize", 1000L));
+
+    System.out.println(report);
+    report.write(Paths.get("target", "benchmark", "sap-odata-throughput.json"));
+
+    String baselineFile = System.getProperty(PROPERTY_PREFIX + "baseline");
+    if (baselineFile != null) {
+      SapODataBenchmarkReport baseline = SapODataBenchmarkReport.read(Paths.get(baselineFile));
+      System.out.println("Compared to baseline: " + report.compareTo(baseline));
+
+      double tolerance = Double.parseDouble(System.getProperty(PROPERTY_PREFIX + "tolerance", "0.10"));
+      Assert.assertTrue("rows/s regressed beyond the allowed tolerance: " + report.compareTo(baseline),
+        report.getRowsPerSecond() >= baseline.getRowsPerSecond() * (1d - tolerance));
+    }
+  }
+
+  /**
+   * Plans the splits the same way as {@code SapODataRuntimeHelper}, then reads every split through
+   * {@link SapODataInputFormat} on {@code readerThreads} threads while sampling page latency and heap usage.
+   */
+  private SapODataBenchmarkReport runScenario(String scenario, int readerThreads, int splitCount, long packageSize)
+    throws Exception {
+
+    SapODataPluginConfig pluginConfig = SapODataPluginConfig.builder()
+      .referenceName("benchmark")
+      .baseURL(simulator.getBaseURL())
+      .serviceName(SapGatewaySimulator.SERVICE_NAME)
+      .entityName(SapGatewaySimulator.ENTITY_NAME)
+      .username(SapGatewaySimulator.USERNAME)
+      .password(SapGatewaySimulator.PASSWORD)
+      .numRowsToFetch(0L)
+      .skipRowCount(0L)
+      .splitCount(splitCount)
+      .batchSize(packageSize)
+      .build();
+
+    List<SapODataInputSplit> partitions = new SapODataPartitionBuilder().buildSplit(simulator.getRowCount(),
+      pluginConfig.getNumRowsToFetch(), pluginConfig.getSkipRowCount(), pluginConfig.getSplitCount(),
+      pluginConfig.getBatchSize());
+
+    Configuration conf = new Configuration(false);
+    conf.set(SAP_ODATA_PLUGIN_PROPERTIES, GSON.toJson(pluginConfig));
+    conf.set(PARTITIONS_PROPERTY, GSON.toJson(partitions));
+    conf.set(OUTPUT_SCHEMA, simulator.getOutputSchema().toString());
+    conf.set(ENCODED_ENTITY_METADATA_STRING,
+      Base64.getEncoder().encodeToString(simulator.getMetadata().getBytes(StandardCharsets.UTF_8)));
+
+    SapODataInputFormat inputFormat = new SapODataInputFormat();
+    List<InputSplit> splits = inputFormat.getSplits(new JobContextImpl(conf, new JobID()));
+
+    List<Long> pageLatencyNanos = new ArrayList<>();
+    AtomicLong totalRows = new AtomicLong();
+    AtomicLong peakHeapUsed = new AtomicLong();
+
+    MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+    ScheduledExecutorService heapSampler = Executors.newSingleThreadScheduledExecutor();
+    heapSampler.scheduleAtFixedRate(
+      () -> peakHeapUsed.accumulateAndGet(memoryBean.getHeapMemoryUsage().getUsed(), Math::max),
+      0L, 20L, TimeUnit.MILLISECONDS);
+
+    ExecutorService readers = Executors.newFixedThreadPool(readerThreads);
+    long startNanos = System.nanoTime();
+    try {
+      List<Future<List<Long>>> results = new ArrayList<>(splits.size());
+      for (InputSplit split : splits) {
+        results.add(readers.submit(() -> readSplit(inputFormat, (SapODataInputSplit) split, conf, totalRows)));
+      }
+      for (Future<List<Long>> result : results) {
+        pageLatencyNanos.addAll(result.get());
+      }
+    } finally {
+      readers.shutdownNow();
+      heapSampler.shutdownNow();
+    }
+    long elapsedNanos = System.nanoTime() - startNanos;
+
+    return SapODataBenchmarkReport.of(scenario, readerThreads, splits.size(), packageSize, totalRows.get(),
+      elapsedNanos, pageLatencyNanos, peakHeapUsed.get(), simulator);
+  }
+
+  /**
+   * Reads one split to the end and returns the time spent on each page fetch. The first page is fetched by
+   * {@code initialize}, every following page by the {@code nextKeyValue} call crossing a package boundary.
+   */
+  private static List<Long> readSplit(SapODataInputFormat inputFormat, SapODataInputSplit split, Configuration conf,
+                                      AtomicLong totalRows) throws Exception {
+
+    List<Long> pageLatencyNanos = new ArrayList<>();
+    TaskAttemptContext taContext = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+
+    try (RecordReader<LongWritable, StructuredRecord> reader = inputFormat.createRecordReader(split, taContext)) {
+      long pageStart = System.nanoTime();
+      reader.initialize(split, taContext);
+      pageLatencyNanos.add(System.nanoTime() - pageStart);
+
+      long rows = 0L;
+      while (true) {
+        boolean pageBoundary = rows > 0 && rows % split.getPackageSize() == 0;
+        pageStart = System.nanoTime();
+        if (!reader.nextKeyValue()) {
+          break;
+        }
+        if (pageBoundary) {
+          pageLatencyNanos.add(System.nanoTime() - pageStart);
+        }
+        reader.getCurrentValue();
+        rows++;
+      }
+      totalRows.addAndGet(rows);
+    }
+
+    return pageLatencyNanos;
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.odata.source.connection;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.google.cloud.datafusion.plugin.sap.exception.ConnectorException;
+import com.google.cloud.datafusion.plugin.sap.odata.source.TestUtil;
+import com.google.cloud.datafusion.plugin.sap.odata.source.connector.SAPODataConnectorConfig;
+import com.google.cloud.datafusion.plugin.sap.odata.source.model.Entities;
+import com.google.cloud.datafusion.plugin.sap.odata.source.model.Services;
+import com.google.cloud.datafusion.plugin.sap.odata.source.model.ServicesPage;
+import com.google.cloud.datafusion.plugin.sap.odata.source.transport.SapODataTransporter;
+import com.google.cloud.datafusion.plugin.util.ResourceConstants;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class ODataInterfaceImplTest {
+
+  private static final String CATALOG_PATH = ".*/IWFND/CATALOGSERVICE;v=2/ServiceCollection";
+
+  @Rule
+  public WireMockRule wireMockRule = new WireMockRule(WireMockConfiguration.wireMockConfig().dynamicPort());
+
+  private SAPODataConnectorConfig connectorConfig;
+
+  @Before
+  public void setUp() {
+    SapODataMetadataCache.invalidateAll();
+    connectorConfig = new SAPODataConnectorConfig("http://localhost:" + wireMockRule.port(), "v2", "basic",
+      "test", "secret");
+  }
+
+  @Test
+  public void testListServicesIsLimitedOnServerAndCached() throws ConnectorException {
+    String catalog = "{\"d\":{\"__count\":\"2\",\"results\":[" +
+      "{\"TechnicalServiceName\":\"ZFI_ACDOCA_SRV\"," +
+      "\"ServiceUrl\":\"https://sapgw.internal:44300/sap/opu/odata/sap/ZFI_ACDOCA_SRV/\"}," +
+      "{\"TechnicalServiceName\":\"ZMM_PO_SRV\",\"ServiceUrl\":\"\"}]}}";
+
+    WireMock.stubFor(WireMock.get(WireMock.urlPathMatching(CATALOG_PATH))
+      .withQueryParam("$top", WireMock.equalTo("2"))
+      .withQueryParam("$inlinecount", WireMock.equalTo("allpages"))
+      .withBasicAuth("test", "secret")
+      .willReturn(WireMock.ok()
+        .withHeader(SapODataTransporter.SERVICE_VERSION, "2.0")
+        .withBody(catalog)));
+
+    ODataInterfaceImpl oDataInterface = new ODataInterfaceImpl(connectorConfig);
+    ServicesPage page = oDataInterface.listServices(0L, 2);
+    List<String> servicePaths = page.getServices().stream().map(Services::getServiceName)
+      .collect(Collectors.toList());
+
+    Assert.assertEquals("sap/opu/odata/sap/ZFI_ACDOCA_SRV", servicePaths.get(0));
+    Assert.assertEquals("sap/opu/odata/sap/ZMM_PO_SRV", servicePaths.get(1));
+
+    // served from the cache shared by the connection
+    Assert.assertEquals(servicePaths.size(),
+      new ODataInterfaceImpl(connectorConfig).listServices(0L, 2).getServices().size());
+    WireMock.verify(1, WireMock.getRequestedFor(WireMock.urlPathMatching(CATALOG_PATH)));
+  }
+
+  @Test
+  public void testListServicesPagedOnServerWithTotalCount() throws ConnectorException {
+    String catalog = "{\"d\":{\"__count\":\"2501\",\"results\":[" +
+      "{\"TechnicalServiceName\":\"ZSD_ORDER_SRV\",\"ServiceUrl\":\"\"}]}}";
+
+    WireMock.stubFor(WireMock.get(WireMock.urlPathMatching(CATALOG_PATH))
+      .withQueryParam("$skip", WireMock.equalTo("2500"))
+      .withQueryParam("$top", WireMock.equalTo("1000"))
+      .willReturn(WireMock.ok()
+        .withHeader(SapODataTransporter.SERVICE_VERSION, "2.0")
+        .withBody(catalog)));
+
+    ServicesPage page = new ODataInterfaceImpl(connectorConfig).listServices(2500L, 1000);
+
+    Assert.assertEquals("Total count must be the count of all the registered services", 2501L,
+      page.getTotalCount());
+    Assert.assertEquals(1, page.getServices().size());
+    Assert.assertEquals("sap/opu/odata/sap/ZSD_ORDER_SRV", page.getServices().get(0).getServiceName());
+  }
+
+  @Test
+  public void testListEntitiesFromServiceMetadata() throws ConnectorException {
+    String metadata = TestUtil.convertInputStreamToString(TestUtil.readResource("sap-metadata.xml"));
+
+    WireMock.stubFor(WireMock.get("/sap/opu/odata/sap/ZGL_ACCOUNT_SRV/$metadata")
+      .withBasicAuth("test", "secret")
+      .willReturn(WireMock.ok()
+        .withHeader(SapODataTransporter.SERVICE_VERSION, "2.0")
+        .withBody(metadata)));
+
+    ODataInterfaceImpl oDataInterface = new ODataInterfaceImpl(connectorConfig);
+    List<String> entityNames = oDataInterface.listEntities("sap/opu/odata/sap/ZGL_ACCOUNT_SRV").stream()
+      .map(Entities::getEntityName)
+      .collect(Collectors.toList());
+
+    Assert.assertEquals(4, entityNames.size());
+    Assert.assertTrue(entityNames.contains("I_GLAccountText"));
+
+    oDataInterface.getServiceMetadata("sap/opu/odata/sap/ZGL_ACCOUNT_SRV");
+    WireMock.verify(1, WireMock.getRequestedFor(WireMock.urlEqualTo("/sap/opu/odata/sap/ZGL_ACCOUNT_SRV/$metadata")));
+  }
+
+  @Test
+  public void testSampleEntityWithSingleTopRequest() throws ConnectorException {
+    String servicePath = "sap/opu/odata/sap/C_GLACCOUNTHIERARCHYNODE_SRV";
+    String metadata = TestUtil.convertInputStreamToString(TestUtil.readResource("sap-metadata.xml"));
+    String data = TestUtil.convertInputStreamToString(TestUtil.readResource("sap-data.json"));
+
+    WireMock.stubFor(WireMock.get("/" + servicePath + "/$metadata")
+      .willReturn(WireMock.ok()
+        .withHeader(SapODataTransporter.SERVICE_VERSION, "2.0")
+        .withBody(metadata)));
+    WireMock.stubFor(WireMock.get(WireMock.urlPathEqualTo("/" + servicePath + "/C_GLAccountHierarchyNode"))
+      .withQueryParam("$top", WireMock.equalTo("10"))
+      .willReturn(WireMock.ok()
+        .withHeader(SapODataTransporter.SERVICE_VERSION, "2.0")
+        .withBody(data)));
+
+    ODataInterfaceImpl oDataInterface = new ODataInterfaceImpl(connectorConfig);
+    List<StructuredRecord> records = oDataInterface.sampleEntity(servicePath, "C_GLAccountHierarchyNode", 10);
+
+    Assert.assertEquals(10, records.size());
+    Assert.assertNotNull(records.get(0).get("GLAccountHierarchy"));
+
+    // the metadata parsed while sampling is reused, and no '$count' call is made
+    oDataInterface.sampleEntity(servicePath, "C_GLAccountHierarchyNode", 10);
+    WireMock.verify(1, WireMock.getRequestedFor(WireMock.urlEqualTo("/" + servicePath + "/$metadata")));
+    WireMock.verify(0, WireMock.getRequestedFor(WireMock.urlPathMatching(".*/\\$count")));
+  }
+
+  @Test
+  public void testConnectionWithInvalidCredentials() {
+    WireMock.stubFor(WireMock.get(WireMock.urlPathMatching(CATALOG_PATH))
+      .willReturn(WireMock.unauthorized()));
+
+    try {
+      new ODataInterfaceImpl(connectorConfig).testConnection();
+      Assert.fail("ConnectorException expected for invalid credentials");
+    } catch (ConnectorException e) {
+      Assert.assertEquals(ResourceConstants.ERR_ODATA_SERVICE_FAILURE.getCode(), e.getCode());
+      Assert.assertTrue(e.getMessage().contains(ResourceConstants.ERR_INVALID_CREDENTIAL.getMsgForKey()));
+    }
+  }
+}
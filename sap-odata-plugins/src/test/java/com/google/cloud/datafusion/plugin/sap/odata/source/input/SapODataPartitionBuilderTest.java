@@ -168,4 +168,33 @@ public class SapODataPartitionBuilderTest {
 
     partitionBuilder.buildSplit(availableRowCount, fetchRowCount, skipRowCount, splitCount, packageSize);
   }
+
+  @Test
+  public void testEstimatedBytesFromBytesPerRow() {
+    long availableRowCount = 100;
+    long fetchRowCount = 0;
+    long skipRowCount = 0;
+    int splitCount = 3;
+    long packageSize = 0;
+    long bytesPerRow = 250;
+
+    List<SapODataInputSplit> partitionList = partitionBuilder.buildSplit(availableRowCount,
+      fetchRowCount, skipRowCount, splitCount, packageSize, bytesPerRow);
+
+    Assert.assertEquals("Estimated bytes is not same", 34 * bytesPerRow, partitionList.get(0).getEstimatedBytes());
+    Assert.assertEquals("Estimated bytes is not same", 33 * bytesPerRow, partitionList.get(2).getEstimatedBytes());
+
+    List<SapODataInputSplit> rowCountList = partitionBuilder.buildSplit(availableRowCount,
+      fetchRowCount, skipRowCount, splitCount, packageSize);
+    Assert.assertEquals("Row count is not same", 34, rowCountList.get(0).getEstimatedBytes());
+  }
+
+  @Test
+  public void testPreviewSplit() {
+    SapODataInputSplit previewSplit = partitionBuilder.buildPreviewSplit(10, 100);
+
+    Assert.assertEquals("Start is not same", 11, previewSplit.getStart());
+    Assert.assertEquals("End is not same", 110, previewSplit.getEnd());
+    Assert.assertEquals("Package size is not same", 100, previewSplit.getPackageSize());
+  }
 }
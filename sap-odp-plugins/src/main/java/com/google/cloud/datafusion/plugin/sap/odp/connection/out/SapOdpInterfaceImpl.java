@@ -16,20 +16,28 @@
 
 package com.google.cloud.datafusion.plugin.sap.odp.connection.out;
 
+import com.google.cloud.datafusion.plugin.sap.connection.ConcurrentRfmCalls;
+import com.google.cloud.datafusion.plugin.sap.connection.RfcRetryPolicy;
 import com.google.cloud.datafusion.plugin.sap.connection.SapConnection;
 import com.google.cloud.datafusion.plugin.sap.connection.SapInterface;
 import com.google.cloud.datafusion.plugin.sap.exception.ConnectorException;
+import com.google.cloud.datafusion.plugin.sap.metadata.SapMetadataCache;
+import com.google.cloud.datafusion.plugin.sap.metadata.model.SapFieldMetadata;
 import com.google.cloud.datafusion.plugin.sap.metadata.model.SapObjectRuntimeOutput;
 import com.google.cloud.datafusion.plugin.sap.odp.metadata.model.SapOdpDatasource;
+import com.google.cloud.datafusion.plugin.sap.odp.metadata.model.SapOdpDatasourceField;
 import com.google.cloud.datafusion.plugin.sap.odp.metadata.model.SapOdpRuntimeConfigInfo;
 import com.google.cloud.datafusion.plugin.sap.odp.util.SapRfmExecutionHelper;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Implementation of APIs to connect with and execute operations in SAP via JCo
@@ -41,6 +49,15 @@ public class SapOdpInterfaceImpl implements SapInterface {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(SapOdpInterfaceImpl.class);
 
+  // ODP datasources have no change stamp to revalidate with, so cached metadata
+  // is loaded again from SAP after this long
+  static final long METADATA_TTL_MILLIS = TimeUnit.HOURS.toMillis(1L);
+
+  private static final String DATASOURCE_OBJECT_TYPE = "ODP_DATASOURCE";
+
+  private static final SapMetadataCache<CachedDatasource> METADATA_CACHE =
+    new SapMetadataCache<>(CachedDatasource.class, METADATA_TTL_MILLIS);
+
   private final SapRfmExecutionHelper rfmHelper;
 
   public SapOdpInterfaceImpl() {
@@ -58,7 +75,8 @@ public class SapOdpInterfaceImpl implements SapInterface {
   public SapOdpDatasource getSourceMetadata(String dataSourceName, SapConnection conn) throws ConnectorException {
     LOGGER.info("Initiate retrieve schema for SAP ODP datasource {}", dataSourceName);
 
-    SapOdpDatasource odpSourceMetadata = rfmHelper.getColumnMetadata(dataSourceName, conn);
+    SapOdpDatasource odpSourceMetadata = RfcRetryPolicy.getDefault().call(SapRfmExecutionHelper.METADATA_UTIL_RFM,
+      conn, () -> rfmHelper.getColumnMetadata(dataSourceName, conn));
     if (odpSourceMetadata == null) {
       odpSourceMetadata = new SapOdpDatasource(false, Collections.emptyList());
     }
@@ -66,6 +84,26 @@ public class SapOdpInterfaceImpl implements SapInterface {
     return odpSourceMetadata;
   }
 
+  /**
+   * Retrieves the datasource metadata like {@link #getSourceMetadata(String,
+   * SapConnection)}, from the metadata cache if it was cached within the last
+   * hour.
+   * 
+   * @param dataSourceName SAP ODP datasource name
+   * @param conn           SapConnection
+   * @return SapOdpDatasource
+   * @throws ConnectorException
+   */
+  public SapOdpDatasource getCachedSourceMetadata(String dataSourceName, SapConnection conn)
+    throws ConnectorException {
+
+    String key = SapMetadataCache.createKey(conn, DATASOURCE_OBJECT_TYPE, dataSourceName.toUpperCase());
+    CachedDatasource datasource =
+      METADATA_CACHE.get(key, () -> new CachedDatasource(getSourceMetadata(dataSourceName, conn)), null);
+
+    return new SapOdpDatasource(datasource.isHierarchical, new ArrayList<>(datasource.fields));
+  }
+
   /**
    * Retrieves the runtime SAP configuration like available work process count and
    * max memory allowed for work process.
@@ -83,18 +121,29 @@ public class SapOdpInterfaceImpl implements SapInterface {
 
     LOGGER.trace("Initiate read package count, work process count and max memory for work process");
 
-    SapOdpRuntimeConfigInfo.Builder rtOdpInfoBuilder = rfmHelper.getRuntimePackageCount(sourceName, filterOptions,
-      isSyncMode, extractMode, subcriberName, packageSize, conn);
-
-    SapOdpRuntimeConfigInfo.Builder sapConfigInfoBuilder = rfmHelper.getAvailableDialogWorkProcesses(conn);
-    SapOdpRuntimeConfigInfo configInfo = sapConfigInfoBuilder.build();
-
-    long wpMaxMemory = rfmHelper.getAvailableMemory(conn);
-    rtOdpInfoBuilder.setTotalWorkProcCount(configInfo.getTotalWorkProcCount());
-    rtOdpInfoBuilder.setAvailableWorkProcCount(configInfo.getAvailableWorkProcCount());
-    rtOdpInfoBuilder.setWpMaxMemory(wpMaxMemory);
-
-    return rtOdpInfoBuilder.build();
+    RfcRetryPolicy retryPolicy = RfcRetryPolicy.getDefault();
+    // Independent calls, requested at the same time
+    try (ConcurrentRfmCalls rfmCalls = new ConcurrentRfmCalls()) {
+      // Not retried, as the call starts an extraction in SAP
+      Future<SapOdpRuntimeConfigInfo.Builder> packageCountCall = rfmCalls.submit(() -> rfmHelper
+        .getRuntimePackageCount(sourceName, filterOptions, isSyncMode, extractMode, subcriberName, packageSize, conn));
+      Future<SapOdpRuntimeConfigInfo.Builder> workProcessCall = rfmCalls.submit(() -> retryPolicy
+        .call(SapRfmExecutionHelper.WORK_PROCESS_RFM, conn, () -> rfmHelper.getAvailableDialogWorkProcesses(conn)));
+      Future<Long> memoryCall = rfmCalls.submit(() -> retryPolicy
+        .call(SapRfmExecutionHelper.MEMORY_SUMMARY_RFM, conn, () -> rfmHelper.getAvailableMemory(conn)));
+
+      // Preparing a large extraction may take longer than the other calls are
+      // allowed to
+      SapOdpRuntimeConfigInfo.Builder rtOdpInfoBuilder = rfmCalls.getUntimed(packageCountCall);
+      SapOdpRuntimeConfigInfo configInfo = rfmCalls.get(workProcessCall).build();
+
+      long wpMaxMemory = rfmCalls.get(memoryCall);
+      rtOdpInfoBuilder.setTotalWorkProcCount(configInfo.getTotalWorkProcCount());
+      rtOdpInfoBuilder.setAvailableWorkProcCount(configInfo.getAvailableWorkProcCount());
+      rtOdpInfoBuilder.setWpMaxMemory(wpMaxMemory);
+
+      return rtOdpInfoBuilder.build();
+    }
   }
 
   /*
@@ -112,4 +161,21 @@ public class SapOdpInterfaceImpl implements SapInterface {
 
     return null;
   }
+
+  /**
+   * Datasource metadata as kept in the metadata cache, with the concrete field
+   * type
+   */
+  private static final class CachedDatasource {
+    private final boolean isHierarchical;
+    private final List<SapOdpDatasourceField> fields;
+
+    private CachedDatasource(SapOdpDatasource datasource) {
+      this.isHierarchical = datasource.isHierarchical();
+      this.fields = new ArrayList<>();
+      for (SapFieldMetadata field : datasource.getFieldMetadata()) {
+        fields.add((SapOdpDatasourceField) field);
+      }
+    }
+  }
 }
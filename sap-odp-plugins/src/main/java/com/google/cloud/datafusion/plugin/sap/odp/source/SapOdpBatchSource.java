@@ -117,12 +117,12 @@ public class SapOdpBatchSource extends BatchSource<LongWritable, StructuredRecor
     try {
       // If any connection param is macro, no need to create connection instance
       if (config.isConnectionReqd()) {
-        SapInterface sapInterface = new SapOdpInterfaceImpl();
+        SapOdpInterfaceImpl sapInterface = new SapOdpInterfaceImpl();
         createConnAndPing(sapInterface);
 
         if (!config.containsMacro(SapOdpPluginConfigWrapper.EXTRACT_SOURCE_VALUE)) {
           String inputDataSource = config.getSapSource();
-          SapObjectMetadata odpSourceMetadata = sapInterface.getSourceMetadata(inputDataSource, sapConn);
+          SapObjectMetadata odpSourceMetadata = sapInterface.getCachedSourceMetadata(inputDataSource, sapConn);
           config.validateFilterOptions(collector, odpSourceMetadata.getFieldMetadata());
 
           AbstractStructuredSchemaTransformer schemaTransformer = new SapOdpToStructuredSchemaTransformer();
@@ -143,6 +143,8 @@ public class SapOdpBatchSource extends BatchSource<LongWritable, StructuredRecor
       configureDatasourceException(e, collector);
       collector.addFailure(e.getMessage(), null);
       collector.getOrThrowException();
+    } finally {
+      closeConn();
     }
   }
 
@@ -164,7 +166,7 @@ public class SapOdpBatchSource extends BatchSource<LongWritable, StructuredRecor
       Schema outputSchema = context.getOutputSchema();
       if (outputSchema == null) {
         // Get column metadata from SAP if macros were used at configure time
-        SapObjectMetadata odpSourceMetadata = sapOdpInterface.getSourceMetadata(inputDataSource, sapConn);
+        SapObjectMetadata odpSourceMetadata = sapOdpInterface.getCachedSourceMetadata(inputDataSource, sapConn);
         config.validateFilterOptions(collector, odpSourceMetadata.getFieldMetadata());
 
         AbstractStructuredSchemaTransformer schemaTransformer = new SapOdpToStructuredSchemaTransformer();
@@ -209,6 +211,8 @@ public class SapOdpBatchSource extends BatchSource<LongWritable, StructuredRecor
     } catch (ConnectorException e) {
       collector.addFailure(e.getMessage(), null);
       collector.getOrThrowException();
+    } finally {
+      closeConn();
     }
   }
 
@@ -220,6 +224,13 @@ public class SapOdpBatchSource extends BatchSource<LongWritable, StructuredRecor
     sapInterface.ping(sapConn);
   }
 
+  private void closeConn() {
+    if (sapConn != null) {
+      sapConn.close();
+      sapConn = null;
+    }
+  }
+
   /**
    * Checks whether the input {@code LinkageError} is due to missing JCo
    * libraries. If yes, then wraps a custom user friendly message in soft
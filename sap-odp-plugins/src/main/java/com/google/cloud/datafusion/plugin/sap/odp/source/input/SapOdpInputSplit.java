@@ -25,13 +25,17 @@ import java.io.IOException;
 
 /**
  * Pojo to hold a wrapper for partition details like start and end indices of
- * the packages to be extracted in each split.
+ * the packages to be extracted in each split. The length of a split is its
+ * estimated size in bytes, so that splits of different widths can be compared
+ * when scheduling them.
  * 
  * @author sankalpbapat
  */
 public class SapOdpInputSplit extends InputSplit implements Writable {
   private long start;
   private long end;
+  // Estimated bytes to extract, i.e. package count times package size
+  private long estimatedBytes;
 
   public SapOdpInputSplit() {
   }
@@ -43,7 +47,7 @@ public class SapOdpInputSplit extends InputSplit implements Writable {
 
   @Override
   public long getLength() throws IOException, InterruptedException {
-    return end - start + 1;
+    return getEstimatedBytes();
   }
 
   @Override
@@ -55,12 +59,14 @@ public class SapOdpInputSplit extends InputSplit implements Writable {
   public void write(DataOutput out) throws IOException {
     out.writeLong(start);
     out.writeLong(end);
+    out.writeLong(estimatedBytes);
   }
 
   @Override
   public void readFields(DataInput in) throws IOException {
     this.start = in.readLong();
     this.end = in.readLong();
+    this.estimatedBytes = in.readLong();
   }
 
   public long getStart() {
@@ -70,4 +76,16 @@ public class SapOdpInputSplit extends InputSplit implements Writable {
   public long getEnd() {
     return end;
   }
+
+  /**
+   * @return Estimated bytes to extract, or the package count if the size is not
+   *         estimated
+   */
+  public long getEstimatedBytes() {
+    return estimatedBytes > 0 ? estimatedBytes : end - start + 1;
+  }
+
+  public void setEstimatedBytes(long estimatedBytes) {
+    this.estimatedBytes = estimatedBytes;
+  }
 }
@@ -159,6 +159,9 @@ public class SapOdpPartitionBuilder {
       // 'start' is the index of fist package beginning at 1 and 'end' is index of
       // last package for this split
       SapOdpInputSplit partition = new SapOdpInputSplit(start, end);
+      // Every package is at most the package size, so that the splits can be
+      // scheduled largest first
+      partition.setEstimatedBytes(exactPackageCount * optimizedPackageSizeBytes);
 
       partitions.add(partition);
     }
@@ -50,10 +50,10 @@ import javax.annotation.Nullable;
 public class SapRfmExecutionHelper {
   private static final Logger LOGGER = LoggerFactory.getLogger(SapRfmExecutionHelper.class);
 
-  private static final String METADATA_UTIL_RFM = "/GOOG/ODP_DS_METADATA";
-  private static final String ODP_PACKAGE_BUILDER_RFM = "/GOOG/ODP_DS_EXTRACT_DATA";
-  private static final String WORK_PROCESS_RFM = "TH_WPINFO";
-  private static final String MEMORY_SUMMARY_RFM = "SAPTUNE_GET_SUMMARY_STATISTIC";
+  public static final String METADATA_UTIL_RFM = "/GOOG/ODP_DS_METADATA";
+  public static final String ODP_PACKAGE_BUILDER_RFM = "/GOOG/ODP_DS_EXTRACT_DATA";
+  public static final String WORK_PROCESS_RFM = "TH_WPINFO";
+  public static final String MEMORY_SUMMARY_RFM = "SAPTUNE_GET_SUMMARY_STATISTIC";
 
   private static final String DATASOURCE_NAME = "I_OLTPSOURCE";
   private static final String SUBSCRIBER_PROCESS = "I_SUBSCRIBER_PROCESS";
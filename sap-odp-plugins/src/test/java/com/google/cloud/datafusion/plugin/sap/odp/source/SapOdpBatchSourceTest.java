@@ -159,7 +159,7 @@ public class SapOdpBatchSourceTest {
         result = "testSourceObj";
         minTimes = 0;
 
-        sapOdpInterface.getSourceMetadata(anyString, null);
+        sapOdpInterface.getCachedSourceMetadata(anyString, null);
         result = sapOdpDatasource;
         minTimes = 0;
       }
@@ -236,7 +236,7 @@ public class SapOdpBatchSourceTest {
         result = true;
         minTimes = 0;
 
-        sapOdpInterface.getSourceMetadata(anyString, null);
+        sapOdpInterface.getCachedSourceMetadata(anyString, null);
         result = new ConnectorException(errCode, errMsg);
         minTimes = 0;
       }
@@ -271,7 +271,7 @@ public class SapOdpBatchSourceTest {
         result = true;
         minTimes = 0;
 
-        sapOdpInterface.getSourceMetadata(anyString, null);
+        sapOdpInterface.getCachedSourceMetadata(anyString, null);
         result = new ConnectorException(errCode, errMsg);
         minTimes = 0;
       }
@@ -69,17 +69,17 @@ public class SapOdpPartitionBuilderTest {
     SapOdpInputSplit split1 = splits.get(0);
     Assert.assertEquals("Start does not match for split 1", 1L, split1.getStart());
     Assert.assertEquals("End does not match for split 1", 1L, split1.getEnd());
-    Assert.assertEquals("Length does not match for split 1", 1L, split1.getLength());
+    Assert.assertEquals("Length does not match for split 1", 28000000L, split1.getLength());
 
     SapOdpInputSplit split2 = splits.get(2);
     Assert.assertEquals("Start does not match for split 3", 3L, split2.getStart());
     Assert.assertEquals("End does not match for split 3", 3L, split2.getEnd());
-    Assert.assertEquals("Length does not match for split 3", 1L, split2.getLength());
+    Assert.assertEquals("Length does not match for split 3", 28000000L, split2.getLength());
 
     SapOdpInputSplit split3 = splits.get(3);
     Assert.assertEquals("Start does not match for split 4", 4L, split3.getStart());
     Assert.assertEquals("End does not match for split 4", 4L, split3.getEnd());
-    Assert.assertEquals("Length does not match for split 4", 1L, split3.getLength());
+    Assert.assertEquals("Length does not match for split 4", 28000000L, split3.getLength());
   }
 
   /**
@@ -107,17 +107,17 @@ public class SapOdpPartitionBuilderTest {
     SapOdpInputSplit split1 = splits.get(0);
     Assert.assertEquals("Start does not match for split 1", 1L, split1.getStart());
     Assert.assertEquals("End does not match for split 1", 1L, split1.getEnd());
-    Assert.assertEquals("Length does not match for split 1", 1L, split1.getLength());
+    Assert.assertEquals("Length does not match for split 1", 5000L, split1.getLength());
 
     SapOdpInputSplit split2 = splits.get(2);
     Assert.assertEquals("Start does not match for split 3", 3L, split2.getStart());
     Assert.assertEquals("End does not match for split 3", 3L, split2.getEnd());
-    Assert.assertEquals("Length does not match for split 3", 1L, split2.getLength());
+    Assert.assertEquals("Length does not match for split 3", 5000L, split2.getLength());
 
     SapOdpInputSplit split3 = splits.get(3);
     Assert.assertEquals("Start does not match for split 4", 4L, split3.getStart());
     Assert.assertEquals("End does not match for split 4", 4L, split3.getEnd());
-    Assert.assertEquals("Length does not match for split 4", 1L, split3.getLength());
+    Assert.assertEquals("Length does not match for split 4", 5000L, split3.getLength());
   }
 
   /**
@@ -145,17 +145,17 @@ public class SapOdpPartitionBuilderTest {
     SapOdpInputSplit split1 = splits.get(0);
     Assert.assertEquals("Start does not match for split 1", 1L, split1.getStart());
     Assert.assertEquals("End does not match for split 1", 3L, split1.getEnd());
-    Assert.assertEquals("Length does not match for split 1", 3L, split1.getLength());
+    Assert.assertEquals("Length does not match for split 1", 15000L, split1.getLength());
 
     SapOdpInputSplit split2 = splits.get(2);
     Assert.assertEquals("Start does not match for split 3", 7L, split2.getStart());
     Assert.assertEquals("End does not match for split 3", 9L, split2.getEnd());
-    Assert.assertEquals("Length does not match for split 3", 3L, split2.getLength());
+    Assert.assertEquals("Length does not match for split 3", 15000L, split2.getLength());
 
     SapOdpInputSplit split3 = splits.get(3);
     Assert.assertEquals("Start does not match for split 4", 10L, split3.getStart());
     Assert.assertEquals("End does not match for split 4", 12L, split3.getEnd());
-    Assert.assertEquals("Length does not match for split 4", 3L, split3.getLength());
+    Assert.assertEquals("Length does not match for split 4", 15000L, split3.getLength());
   }
 
   /**
@@ -183,17 +183,17 @@ public class SapOdpPartitionBuilderTest {
     SapOdpInputSplit split1 = splits.get(0);
     Assert.assertEquals("Start does not match for split 1", 1L, split1.getStart());
     Assert.assertEquals("End does not match for split 1", 3L, split1.getEnd());
-    Assert.assertEquals("Length does not match for split 1", 3L, split1.getLength());
+    Assert.assertEquals("Length does not match for split 1", 84000000L, split1.getLength());
 
     SapOdpInputSplit split2 = splits.get(2);
     Assert.assertEquals("Start does not match for split 3", 7L, split2.getStart());
     Assert.assertEquals("End does not match for split 3", 8L, split2.getEnd());
-    Assert.assertEquals("Length does not match for split 3", 2L, split2.getLength());
+    Assert.assertEquals("Length does not match for split 3", 56000000L, split2.getLength());
 
     SapOdpInputSplit split3 = splits.get(3);
     Assert.assertEquals("Start does not match for split 4", 9L, split3.getStart());
     Assert.assertEquals("End does not match for split 4", 10L, split3.getEnd());
-    Assert.assertEquals("Length does not match for split 4", 2L, split3.getLength());
+    Assert.assertEquals("Length does not match for split 4", 56000000L, split3.getLength());
   }
 
   /**
@@ -16,22 +16,38 @@
 
 package com.google.cloud.datafusion.plugin.sap.table.connection.out;
 
+import com.google.cloud.datafusion.plugin.sap.connection.ConcurrentRfmCalls;
+import com.google.cloud.datafusion.plugin.sap.connection.RfcRetryPolicy;
 import com.google.cloud.datafusion.plugin.sap.connection.SapConnection;
 import com.google.cloud.datafusion.plugin.sap.connection.SapInterface;
 import com.google.cloud.datafusion.plugin.sap.exception.ConnectorException;
+import com.google.cloud.datafusion.plugin.sap.metadata.SapMetadataCache;
+import com.google.cloud.datafusion.plugin.sap.metadata.model.SapFieldMetadata;
 import com.google.cloud.datafusion.plugin.sap.metadata.model.SapObjectMetadata;
 import com.google.cloud.datafusion.plugin.sap.metadata.model.SapObjectRuntimeOutput;
+import com.google.cloud.datafusion.plugin.sap.table.metadata.model.SapColumn;
 import com.google.cloud.datafusion.plugin.sap.table.metadata.model.SapTableRuntimeConfigInfo;
 import com.google.cloud.datafusion.plugin.sap.table.metadata.model.SapTableRuntimeOutput;
+import com.google.cloud.datafusion.plugin.sap.table.source.config.SapTablePluginConfig;
 import com.google.cloud.datafusion.plugin.sap.table.source.input.SapTableRecordReader;
 import com.google.cloud.datafusion.plugin.sap.table.util.SapRfmExecutionHelper;
+import com.google.cloud.datafusion.plugin.util.ResourceConstants;
+import com.google.gson.reflect.TypeToken;
+import com.sap.conn.jco.JCoTable;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
 
 /**
  * Implementation of APIs to connect with and execute operations in SAP via JCo
@@ -43,6 +59,29 @@ public class SapTableInterfaceImpl implements SapInterface {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(SapTableInterfaceImpl.class);
 
+  private static final String WORK_AREA_FIELD = "WA";
+
+  // Cached column metadata is used as is for this long, then revalidated with
+  // the last activation of the table in the ABAP dictionary
+  static final long METADATA_TTL_MILLIS = TimeUnit.MINUTES.toMillis(10L);
+
+  private static final String TABLE_OBJECT_TYPE = "TABLE";
+  private static final String TABLE_HEADER_TABLE = "DD02L";
+  private static final List<String> ACTIVATION_FIELDS = Arrays.asList("AS4DATE", "AS4TIME");
+  // Table statistics of the database, maintained by the SAP statistics jobs. Only
+  // SAP systems on Oracle keep them in a table readable through RFC, other
+  // databases estimate from a sample of the key values.
+  private static final String STATISTICS_TABLE = "DBSTATTORA";
+  private static final String STATISTICS_ROW_COUNT_FIELD = "NROWS";
+  // Records whose key values give the density of the keys, read in key order
+  // through the primary index
+  static final long KEY_SAMPLE_ROWS = 100000L;
+  // Longest numeric key whose values fit into a long
+  private static final int MAX_NUMERIC_KEY_LENGTH = 18;
+
+  private static final SapMetadataCache<List<SapColumn>> METADATA_CACHE =
+    new SapMetadataCache<>(new TypeToken<List<SapColumn>>() { }.getType(), METADATA_TTL_MILLIS);
+
   private final SapRfmExecutionHelper rfmHelper;
 
   public SapTableInterfaceImpl() {
@@ -68,29 +107,162 @@ public class SapTableInterfaceImpl implements SapInterface {
     return tableSourceMetadata;
   }
 
+  /**
+   * Retrieves the column metadata like {@link #getSourceMetadata(String,
+   * SapConnection)}, from the metadata cache if the table is unchanged since it
+   * was cached.
+   * 
+   * @param tableName SAP Table name
+   * @param conn      SapConnection
+   * @return SapObjectMetadata
+   * @throws ConnectorException
+   */
+  public SapObjectMetadata getCachedSourceMetadata(String tableName, SapConnection conn) throws ConnectorException {
+    String key = SapMetadataCache.createKey(conn, TABLE_OBJECT_TYPE, tableName.toUpperCase());
+    List<SapColumn> columns = METADATA_CACHE.get(key, () -> {
+      List<SapColumn> loadedColumns = new ArrayList<>();
+      for (SapFieldMetadata field : getSourceMetadata(tableName, conn).getFieldMetadata()) {
+        loadedColumns.add((SapColumn) field);
+      }
+
+      return loadedColumns;
+    }, () -> getTableChangeStamp(tableName.toUpperCase(), conn));
+
+    return new SapObjectMetadata(new ArrayList<>(columns));
+  }
+
+  /**
+   * Reads the date and time of the last activation of the table from the ABAP
+   * dictionary, which changes with any change to its columns.
+   * 
+   * @param tableName SAP Table name
+   * @param conn      SapConnection
+   * @return activation date and time, or null if the table is not found
+   * @throws ConnectorException
+   */
+  @Nullable
+  String getTableChangeStamp(String tableName, SapConnection conn) throws ConnectorException {
+    List<String> filterOptions = SapTablePluginConfig.addFilterCondition(Collections.emptyList(),
+      "TABNAME = '" + tableName + "' AND AS4LOCAL = 'A'");
+    List<String> values = getFieldValuesAt(TABLE_HEADER_TABLE, filterOptions, ACTIVATION_FIELDS, 0L, conn);
+
+    return values == null ? null : String.join(" ", values);
+  }
+
   /**
    * Retrieves the runtime SAP configuration like available work process count and
    * max memory allowed for work process.
    * 
    * @param sapTable      SAP Table name
    * @param filterOptions Filter option as a list
+   * @param fieldNames    SAP columns to be extracted, all columns if empty
+   * @param conn          SapConnection
+   * @return SapTableRuntimeConfigInfo
+   * @throws ConnectorException
+   */
+  public SapTableRuntimeConfigInfo getRuntimeConfigParams(String sapTable, List<String> filterOptions,
+                                                          List<String> fieldNames, SapConnection conn)
+    throws ConnectorException {
+
+    try (ConcurrentRfmCalls rfmCalls = new ConcurrentRfmCalls()) {
+      return getRuntimeConfigParams(sapTable, filterOptions, fieldNames, conn, rfmCalls);
+    }
+  }
+
+  /**
+   * Retrieves the runtime SAP configuration like available work process count and
+   * max memory allowed for work process. The record count, work processes and
+   * memory are requested at the same time through {@code rfmCalls}.
+   * 
+   * @param sapTable      SAP Table name
+   * @param filterOptions Filter option as a list
+   * @param fieldNames    SAP columns to be extracted, all columns if empty
    * @param conn          SapConnection
+   * @param rfmCalls      Concurrent calls sharing a timeout
    * @return SapTableRuntimeConfigInfo
    * @throws ConnectorException
    */
   public SapTableRuntimeConfigInfo getRuntimeConfigParams(String sapTable, List<String> filterOptions,
-                                                          SapConnection conn)
+                                                          List<String> fieldNames, SapConnection conn,
+                                                          ConcurrentRfmCalls rfmCalls)
+    throws ConnectorException {
+
+    return getRuntimeConfigParams(sapTable, filterOptions, fieldNames, false, conn, rfmCalls);
+  }
+
+  /**
+   * Retrieves the runtime SAP configuration like available work process count and
+   * max memory allowed for work process. The record count, work processes and
+   * memory are requested at the same time through {@code rfmCalls}. Counting the
+   * records is not limited by the timeout of {@code rfmCalls}. If
+   * {@code estimateRecordCount} is set and there is no filter, the record count
+   * is estimated instead of counting the records, which may take minutes for
+   * very large tables. The estimate is taken from the database statistics of the
+   * table, else from a sample of the values of {@code keyField}. The records are
+   * only counted if neither is available.
+   * 
+   * @param sapTable            SAP Table name
+   * @param filterOptions       Filter option as a list
+   * @param fieldNames          SAP columns to be extracted, all columns if empty
+   * @param estimateRecordCount whether the record count may be estimated
+   * @param keyField            Leading key column, other than the client, to
+   *                            estimate from, null if there is none
+   * @param conn                SapConnection
+   * @param rfmCalls            Concurrent calls sharing a timeout
+   * @return SapTableRuntimeConfigInfo
+   * @throws ConnectorException
+   */
+  public SapTableRuntimeConfigInfo getRuntimeConfigParams(String sapTable, List<String> filterOptions,
+                                                          List<String> fieldNames, boolean estimateRecordCount,
+                                                          @Nullable String keyField, SapConnection conn,
+                                                          ConcurrentRfmCalls rfmCalls)
     throws ConnectorException {
 
     LOGGER.debug("Initiate read table record count, work process count and max memory for work process");
 
-    SapTableRuntimeConfigInfo.Builder rtTableInfoBuilder =
-      rfmHelper.getRuntimeTableRecordCount(sapTable, filterOptions, conn);
+    // Read only calls, so temporary failures are retried
+    RfcRetryPolicy retryPolicy = RfcRetryPolicy.getDefault();
+
+    // Statistics and key samples cover the whole table, so they do not apply to
+    // filtered records
+    boolean useStatistics = estimateRecordCount && String.join("", filterOptions).trim().isEmpty();
+    Future<Long> estimateCall = useStatistics ? rfmCalls.submit(() -> getEstimatedRecordCount(sapTable, conn)) : null;
+    Future<Long> sampleCall = useStatistics && keyField != null
+      ? rfmCalls.submit(() -> getSampledRecordCount(sapTable, keyField, conn)) : null;
+    // Record size is still needed when the records are not counted
+    ConcurrentRfmCalls.RfmCall<SapTableRuntimeConfigInfo.Builder> recordCountRfm = useStatistics
+      ? () -> rfmHelper.getRuntimeTableRecordCount(sapTable, filterOptions, fieldNames, false, conn)
+      : () -> rfmHelper.getRuntimeTableRecordCount(sapTable, filterOptions, fieldNames, conn);
+    Future<SapTableRuntimeConfigInfo.Builder> recordCountCall =
+      rfmCalls.submit(() -> retryPolicy.call(SapRfmExecutionHelper.TABLE_READER_RFM, conn, recordCountRfm));
+    Future<SapTableRuntimeConfigInfo.Builder> workProcessCall = rfmCalls.submit(() -> retryPolicy
+      .call(SapRfmExecutionHelper.WORK_PROCESS_RFM, conn, () -> rfmHelper.getAvailableDialogWorkProcesses(conn)));
+    Future<Long> memoryCall = rfmCalls.submit(() -> retryPolicy
+      .call(SapRfmExecutionHelper.MEMORY_SUMMARY_RFM, conn, () -> rfmHelper.getAvailableMemory(conn)));
+
+    // Counting the records of a very large table may take longer than the other
+    // calls are allowed to
+    SapTableRuntimeConfigInfo.Builder rtTableInfoBuilder = rfmCalls.getUntimed(recordCountCall);
+    Long estimatedRecordCount = useStatistics ? rfmCalls.get(estimateCall) : null;
+    // Sampling seeks the highest key value, which is not limited by the timeout
+    Long sampledRecordCount = sampleCall != null ? rfmCalls.getUntimed(sampleCall) : null;
+    if (estimatedRecordCount != null) {
+      LOGGER.info(ResourceConstants.INFO_ESTIMATED_NUM_RECORDS.getMsgForKey(estimatedRecordCount, sapTable));
+      rtTableInfoBuilder.setRuntimeTableRecCount(estimatedRecordCount).setRecordCountEstimated(true);
+    } else if (sampledRecordCount != null) {
+      LOGGER.info(ResourceConstants.INFO_SAMPLED_NUM_RECORDS.getMsgForKey(sampledRecordCount, sapTable, keyField,
+        KEY_SAMPLE_ROWS));
+      rtTableInfoBuilder.setRuntimeTableRecCount(sampledRecordCount).setRecordCountEstimated(true);
+    } else if (estimateRecordCount) {
+      LOGGER.info(ResourceConstants.INFO_RECORD_COUNT_NOT_ESTIMATED.getMsgForKey(sapTable));
+      if (useStatistics) {
+        rtTableInfoBuilder = rfmHelper.getRuntimeTableRecordCount(sapTable, filterOptions, fieldNames, conn);
+      }
+    }
 
-    SapTableRuntimeConfigInfo.Builder sapConfigInfoBuilder = rfmHelper.getAvailableDialogWorkProcesses(conn);
-    SapTableRuntimeConfigInfo configInfo = sapConfigInfoBuilder.build();
+    SapTableRuntimeConfigInfo configInfo = rfmCalls.get(workProcessCall).build();
 
-    long wpMaxMemory = rfmHelper.getAvailableMemory(conn);
+    long wpMaxMemory = rfmCalls.get(memoryCall);
     rtTableInfoBuilder.setTotalWorkProcCount(configInfo.getTotalWorkProcCount());
     rtTableInfoBuilder.setAvailableWorkProcCount(configInfo.getAvailableWorkProcCount());
     rtTableInfoBuilder.setWpMaxMemory(wpMaxMemory);
@@ -98,6 +270,141 @@ public class SapTableInterfaceImpl implements SapInterface {
     return rtTableInfoBuilder.build();
   }
 
+  /**
+   * Reads the number of table records from the database statistics that SAP
+   * keeps for the table. Only available if SAP runs on Oracle.
+   * 
+   * @param sapTable SAP Table name
+   * @param conn     SapConnection
+   * @return estimated record count, or null if there are no statistics for the
+   *         table or they cannot be read, e.g. on databases other than Oracle
+   */
+  @Nullable
+  Long getEstimatedRecordCount(String sapTable, SapConnection conn) {
+    List<String> filterOptions =
+      SapTablePluginConfig.addFilterCondition(Collections.emptyList(), "TNAME = '" + sapTable + "'");
+    try {
+      String rowCount = getFieldValueAt(STATISTICS_TABLE, filterOptions, STATISTICS_ROW_COUNT_FIELD, 0L, conn);
+      long estimatedRecordCount = rowCount == null || rowCount.trim().isEmpty() ? -1L
+        : new BigDecimal(rowCount.trim()).longValue();
+
+      return estimatedRecordCount < 0 ? null : estimatedRecordCount;
+    } catch (ConnectorException | NumberFormatException e) {
+      // e.g. no authorization for the statistics table
+      LOGGER.debug("Unable to read database statistics of SAP table {}", sapTable, e);
+      return null;
+    }
+  }
+
+  /**
+   * Estimates the number of table records from the values of the numeric key
+   * column {@code keyField}, see {@link #estimateRecordCount(KeyLookup, long)}.
+   * Works on any database, as only the primary index is read.
+   * 
+   * @param sapTable SAP Table name
+   * @param keyField Leading key column, other than the client
+   * @param conn     SapConnection
+   * @return estimated record count, or null if the key values do not allow an
+   *         estimate or cannot be read
+   */
+  @Nullable
+  Long getSampledRecordCount(String sapTable, String keyField, SapConnection conn) {
+    KeyLookup keyLookup = new KeyLookup() {
+      @Override
+      public String getKeyValueAt(long rowSkips) throws ConnectorException {
+        return getFieldValueAt(sapTable, Collections.emptyList(), keyField, rowSkips, conn);
+      }
+
+      @Override
+      public String getKeyValueFrom(String lowerBound) throws ConnectorException {
+        List<String> filterOptions =
+          SapTablePluginConfig.addFilterCondition(Collections.emptyList(), keyField + " >= '" + lowerBound + "'");
+        return getFieldValueAt(sapTable, filterOptions, keyField, 0L, conn);
+      }
+    };
+
+    try {
+      return estimateRecordCount(keyLookup, KEY_SAMPLE_ROWS);
+    } catch (ConnectorException e) {
+      LOGGER.debug("Unable to sample key values of SAP table {}", sapTable, e);
+      return null;
+    }
+  }
+
+  /**
+   * Estimates the number of records from the density of their numeric key
+   * values. The keys of the first {@code sampleRows} records span a range of key
+   * values, the highest key is found by a binary search over the key values, and
+   * the records up to it are extrapolated from the density of the sample. Every
+   * lookup reads a single record in key order, starting from the first record or
+   * from a key value. Keys are expected to be evenly spread, so the estimate is
+   * rough.
+   * 
+   * @param keyLookup  reads key values in key order
+   * @param sampleRows number of records in the sample
+   * @return estimated record count, or null if the keys are not numeric digits of
+   *         the same length, there are no more records than {@code sampleRows},
+   *         or the sampled records all have the same key
+   * @throws ConnectorException
+   */
+  @Nullable
+  static Long estimateRecordCount(KeyLookup keyLookup, long sampleRows) throws ConnectorException {
+    String firstKey = keyLookup.getKeyValueAt(0L);
+    String sampleEndKey = firstKey == null ? null : keyLookup.getKeyValueAt(sampleRows);
+    int keyLength = firstKey == null ? 0 : firstKey.length();
+    if (!isNumericKey(sampleEndKey, keyLength) || !isNumericKey(firstKey, keyLength)) {
+      return null;
+    }
+
+    long firstValue = Long.parseLong(firstKey);
+    long sampleEndValue = Long.parseLong(sampleEndKey);
+    if (sampleEndValue <= firstValue) {
+      return null;
+    }
+
+    // Highest numeric key found so far, and the lowest value known to be above
+    // all numeric keys
+    long lastValue = sampleEndValue;
+    long upperBound = BigDecimal.TEN.pow(keyLength).longValueExact();
+    while (upperBound - lastValue > 1) {
+      long midValue = lastValue + (upperBound - lastValue) / 2;
+      String nextKey = keyLookup.getKeyValueFrom(String.format("%0" + keyLength + "d", midValue));
+      if (isNumericKey(nextKey, keyLength)) {
+        lastValue = Long.parseLong(nextKey);
+      } else {
+        upperBound = midValue;
+      }
+    }
+
+    double density = (double) sampleRows / (sampleEndValue - firstValue);
+    return Math.round(density * (lastValue - firstValue + 1));
+  }
+
+  private static boolean isNumericKey(@Nullable String key, int keyLength) {
+    if (key == null || key.length() != keyLength || keyLength == 0 || keyLength > MAX_NUMERIC_KEY_LENGTH) {
+      return false;
+    }
+
+    for (int i = 0; i < key.length(); i++) {
+      if (key.charAt(i) < '0' || key.charAt(i) > '9') {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Retrieves the number of dialog work processes currently available in SAP.
+   * 
+   * @param conn SapConnection
+   * @return available dialog work process count
+   * @throws ConnectorException
+   */
+  public int getAvailableWorkProcCount(SapConnection conn) throws ConnectorException {
+    return rfmHelper.getAvailableDialogWorkProcesses(conn).build().getAvailableWorkProcCount();
+  }
+
   /*
    * (non-Javadoc)
    * 
@@ -111,6 +418,25 @@ public class SapTableInterfaceImpl implements SapInterface {
                                               Map<String, String> operationsProps, SapConnection conn)
     throws ConnectorException {
 
+    return getSourceData(sapTable, filterOptions, Collections.emptyList(), operationsProps, conn);
+  }
+
+  /**
+   * Retrieves a package of table records, reading only the columns identified by
+   * {@code fieldNames}.
+   * 
+   * @param sapTable        SAP Table name
+   * @param filterOptions   Filter option as a list
+   * @param fieldNames      SAP columns to be extracted, all columns if empty
+   * @param operationsProps Row skips and row count of the package
+   * @param conn            SapConnection
+   * @return SapObjectRuntimeOutput
+   * @throws ConnectorException
+   */
+  public SapObjectRuntimeOutput getSourceData(String sapTable, List<String> filterOptions, List<String> fieldNames,
+                                              Map<String, String> operationsProps, SapConnection conn)
+    throws ConnectorException {
+
     LOGGER.debug("Initiate read table records");
     long rowSkips = Long.parseLong(operationsProps.get(SapTableRecordReader.ROW_SKIPS));
     long rowCount = Long.parseLong(operationsProps.get(SapTableRecordReader.ROW_COUNT));
@@ -118,6 +444,110 @@ public class SapTableInterfaceImpl implements SapInterface {
       return new SapTableRuntimeOutput(null, null);
     }
 
-    return rfmHelper.getTableRecords(sapTable, rowSkips, rowCount, filterOptions, conn);
+    return rfmHelper.getTableRecords(sapTable, rowSkips, rowCount, filterOptions, fieldNames, conn);
+  }
+
+  /**
+   * Counts the table records matching {@code filterOptions}, without reading any
+   * record.
+   * 
+   * @param sapTable      SAP Table name
+   * @param filterOptions Filter option as a list
+   * @param conn          SapConnection
+   * @return record count
+   * @throws ConnectorException
+   */
+  public long getRecordCount(String sapTable, List<String> filterOptions, SapConnection conn)
+    throws ConnectorException {
+
+    return rfmHelper.getRuntimeTableRecordCount(sapTable, filterOptions, Collections.emptyList(), conn).build()
+      .getRuntimeTableRecCount();
+  }
+
+  /**
+   * Reads the value of column {@code fieldName} in the record following the
+   * first {@code rowSkips} records matching {@code filterOptions}, in the order
+   * of the table keys.
+   * 
+   * @param sapTable      SAP Table name
+   * @param filterOptions Filter option as a list
+   * @param fieldName     SAP column name
+   * @param rowSkips      Number of records to skip
+   * @param conn          SapConnection
+   * @return column value without trailing spaces, or null if there is no such
+   *         record
+   * @throws ConnectorException
+   */
+  @Nullable
+  public String getFieldValueAt(String sapTable, List<String> filterOptions, String fieldName, long rowSkips,
+                                SapConnection conn)
+    throws ConnectorException {
+
+    List<String> values = getFieldValuesAt(sapTable, filterOptions, Collections.singletonList(fieldName), rowSkips,
+      conn);
+
+    return values == null ? null : values.get(0);
+  }
+
+  /**
+   * Reads the values of columns {@code fieldNames} in the record following the
+   * first {@code rowSkips} records matching {@code filterOptions}.
+   * 
+   * @return column values without trailing spaces, in the order of
+   *         {@code fieldNames}, or null if there is no such record
+   */
+  @Nullable
+  private List<String> getFieldValuesAt(String sapTable, List<String> filterOptions, List<String> fieldNames,
+                                        long rowSkips, SapConnection conn)
+    throws ConnectorException {
+
+    SapTableRuntimeOutput output = rfmHelper.getTableRecords(sapTable, rowSkips, 1L, filterOptions, fieldNames,
+      conn);
+
+    if (output == null || output.getOutputDataTable() == null || output.getOutputDataTable().isEmpty()) {
+      return null;
+    }
+
+    JCoTable dataTable = output.getOutputDataTable();
+    dataTable.firstRow();
+    String record = dataTable.getString(WORK_AREA_FIELD);
+    List<String> values = new ArrayList<>();
+    for (SapFieldMetadata column : output.getObjectMetadata().getFieldMetadata()) {
+      int offset = Math.min(column.getOffset(), record.length());
+      int end = Math.min(offset + column.getLength(), record.length());
+
+      int valueEnd = end;
+      while (valueEnd > offset && record.charAt(valueEnd - 1) == ' ') {
+        valueEnd--;
+      }
+
+      values.add(record.substring(offset, valueEnd));
+    }
+
+    return values;
+  }
+
+  /**
+   * Reads the values of the leading key column of a table, in key order
+   */
+  interface KeyLookup {
+
+    /**
+     * @param rowSkips number of records to skip
+     * @return key value of the record following the first {@code rowSkips}
+     *         records, or null if there is no such record
+     * @throws ConnectorException
+     */
+    @Nullable
+    String getKeyValueAt(long rowSkips) throws ConnectorException;
+
+    /**
+     * @param lowerBound lowest key value
+     * @return lowest key value not below {@code lowerBound}, or null if there is
+     *         none
+     * @throws ConnectorException
+     */
+    @Nullable
+    String getKeyValueFrom(String lowerBound) throws ConnectorException;
   }
 }
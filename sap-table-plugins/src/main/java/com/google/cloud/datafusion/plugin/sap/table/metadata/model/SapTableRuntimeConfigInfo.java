@@ -25,14 +25,17 @@ import com.google.cloud.datafusion.plugin.sap.metadata.model.SapRuntimeConfigInf
 public class SapTableRuntimeConfigInfo extends SapRuntimeConfigInfo {
   private final long runtimeTableRecCount;
   private final int recordSize;
+  // Record count is an estimate from database statistics, not an exact count
+  private final boolean recordCountEstimated;
 
-  private SapTableRuntimeConfigInfo(long tableRecCount, int recordSize, int totalWorkProcCount,
-                                    int availableWorkProcCount, long wpMaxMemory) {
+  private SapTableRuntimeConfigInfo(long tableRecCount, int recordSize, boolean recordCountEstimated,
+                                    int totalWorkProcCount, int availableWorkProcCount, long wpMaxMemory) {
 
     super(totalWorkProcCount, availableWorkProcCount, wpMaxMemory);
 
     this.runtimeTableRecCount = tableRecCount;
     this.recordSize = recordSize;
+    this.recordCountEstimated = recordCountEstimated;
   }
 
   public static Builder builder() {
@@ -47,6 +50,10 @@ public class SapTableRuntimeConfigInfo extends SapRuntimeConfigInfo {
     return recordSize;
   }
 
+  public boolean isRecordCountEstimated() {
+    return recordCountEstimated;
+  }
+
   /**
    * Helps to build an immutable {@code SapTableRuntimeConfigInfo}
    */
@@ -55,6 +62,7 @@ public class SapTableRuntimeConfigInfo extends SapRuntimeConfigInfo {
 
     private long runtimeTableRecCount;
     private int recordSize;
+    private boolean recordCountEstimated;
 
     private Builder() {
     }
@@ -62,8 +70,8 @@ public class SapTableRuntimeConfigInfo extends SapRuntimeConfigInfo {
     protected SapTableRuntimeConfigInfo createRuntimeConfig(int totalWorkProcCount, int availableWorkProcCount,
                                                             long wpMaxMemory) {
 
-      return new SapTableRuntimeConfigInfo(runtimeTableRecCount, recordSize, totalWorkProcCount, availableWorkProcCount,
-        wpMaxMemory);
+      return new SapTableRuntimeConfigInfo(runtimeTableRecCount, recordSize, recordCountEstimated, totalWorkProcCount,
+        availableWorkProcCount, wpMaxMemory);
     }
 
     protected Builder getThis() {
@@ -79,5 +87,10 @@ public class SapTableRuntimeConfigInfo extends SapRuntimeConfigInfo {
       this.recordSize = recordSize;
       return this;
     }
+
+    public Builder setRecordCountEstimated(boolean recordCountEstimated) {
+      this.recordCountEstimated = recordCountEstimated;
+      return this;
+    }
   }
 }
@@ -16,9 +16,12 @@
 
 package com.google.cloud.datafusion.plugin.sap.table.source;
 
+import com.google.cloud.datafusion.plugin.sap.connection.ConcurrentRfmCalls;
 import com.google.cloud.datafusion.plugin.sap.connection.SapConnection;
 import com.google.cloud.datafusion.plugin.sap.connection.SapInterface;
 import com.google.cloud.datafusion.plugin.sap.exception.ConnectorException;
+import com.google.cloud.datafusion.plugin.sap.metadata.SapMetadataCache;
+import com.google.cloud.datafusion.plugin.sap.metadata.model.SapFieldMetadata;
 import com.google.cloud.datafusion.plugin.sap.metadata.model.SapObjectMetadata;
 import com.google.cloud.datafusion.plugin.sap.source.AbstractStructuredSchemaTransformer;
 import com.google.cloud.datafusion.plugin.sap.source.SapJcoBatchSourceWrapper;
@@ -30,6 +33,9 @@ import com.google.cloud.datafusion.plugin.sap.table.source.config.SapTablePlugin
 import com.google.cloud.datafusion.plugin.sap.table.source.input.SapTableInputFormat;
 import com.google.cloud.datafusion.plugin.sap.table.source.input.SapTableInputSplit;
 import com.google.cloud.datafusion.plugin.sap.table.source.input.SapTablePartitionBuilder;
+import com.google.cloud.datafusion.plugin.sap.table.source.watermark.FileSystemWatermarkStore;
+import com.google.cloud.datafusion.plugin.sap.table.source.watermark.WatermarkStore;
+import com.google.cloud.datafusion.plugin.sap.table.source.watermark.Watermarks;
 import com.google.cloud.datafusion.plugin.util.ResourceConstants;
 import com.google.cloud.datafusion.plugin.util.Util;
 import com.google.common.collect.ImmutableSet;
@@ -49,17 +55,21 @@ import io.cdap.plugin.common.SourceInputFormatProvider;
 import io.cdap.plugin.common.batch.JobUtils;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.mapreduce.Job;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
@@ -96,16 +106,38 @@ public class SapTableBatchSource extends BatchSource<LongWritable, StructuredRec
   public static final String OUTPUT_SCHEMA_NAME = "columnMetadata";
   public static final String PARTITIONS_PROPERTY = "sapPartitions";
   public static final String TOTAL_WORK_PROCESS = "totalWorkProcess";
+  public static final String CONCURRENT_SPLITS = "sapConcurrentSplits";
+  public static final String CHECKPOINT_DIR = "sapCheckpointDir";
+
+  private static final String WATERMARK_OBJECT_TYPE = "TABLE_WATERMARK";
+  // Runtime arguments sizing the Spark executors
+  private static final String EXECUTOR_INSTANCES_ARG = "system.spark.spark.executor.instances";
+  private static final String EXECUTOR_CORES_ARG = "system.spark.spark.executor.cores";
 
   // Only these logical types are allowed to be changed to 'String' in the schema
   public static final Set<Schema.LogicalType> MODIFIABLE_LOGICAL_TYPES =
     ImmutableSet.of(Schema.LogicalType.DATE, Schema.LogicalType.TIME_MICROS, Schema.LogicalType.TIMESTAMP_MICROS);
 
+  // Client column is filtered by SAP itself, so it can't partition the records
+  private static final String CLIENT_DATA_TYPE = "CLNT";
+  // ABAP types of character like key columns, whose values can be used as
+  // literals in a key range condition
+  private static final Set<String> KEY_RANGE_ABAP_TYPES = ImmutableSet.of("C", "N", "D", "T");
+
   private final SapTablePluginConfig config;
 
   // SapConnection is not cached and is short lived only for validate call
   private SapConnection sapConn;
 
+  // Watermark of an incremental extraction, committed once the run succeeded
+  private WatermarkStore watermarkStore;
+  private String watermarkKey;
+  private String committedWatermark;
+  private String watermarkBound;
+
+  // Progress of the splits of this run, removed once the run finished
+  private String checkpointDir;
+
   public SapTableBatchSource(SapTablePluginConfig config) {
     this.config = config;
   }
@@ -118,12 +150,12 @@ public class SapTableBatchSource extends BatchSource<LongWritable, StructuredRec
     try {
       // If any connection param is macro, no need to create connection instance
       if (config.isConnectionReqd()) {
-        SapInterface sapInterface = new SapTableInterfaceImpl();
+        SapTableInterfaceImpl sapInterface = new SapTableInterfaceImpl();
         createConnAndPing(sapInterface);
 
         if (!config.containsMacro(SapTablePluginConfigWrapper.EXTRACT_TABLE_VALUE)) {
           String inputTable = config.getSapTable();
-          SapObjectMetadata tableMetadata = sapInterface.getSourceMetadata(inputTable, sapConn);
+          SapObjectMetadata tableMetadata = sapInterface.getCachedSourceMetadata(inputTable, sapConn);
 
           AbstractStructuredSchemaTransformer schemaTransformer = new SapTableToStructuredSchemaTransformer();
           String schemaRecName = inputTable.replace("/", "__");
@@ -150,6 +182,8 @@ public class SapTableBatchSource extends BatchSource<LongWritable, StructuredRec
       configureTableException(e, collector);
       collector.addFailure(e.getMessage(), null);
       collector.getOrThrowException();
+    } finally {
+      closeConn();
     }
   }
 
@@ -160,35 +194,79 @@ public class SapTableBatchSource extends BatchSource<LongWritable, StructuredRec
 
     try {
       SapTableInterfaceImpl sapTableInterface = new SapTableInterfaceImpl();
-      createConnAndPing(sapTableInterface);
+      createConn();
 
       String tableName = config.getSapTable().toUpperCase();
+      String watermarkField = config.getWatermarkField();
       Schema outputSchema = context.getOutputSchema();
-      if (outputSchema == null) {
-        // Get column metadata from SAP if macros were used at configure time
-        SapObjectMetadata tableMetadata = sapTableInterface.getSourceMetadata(tableName, sapConn);
-
-        AbstractStructuredSchemaTransformer schemaTransformer = new SapTableToStructuredSchemaTransformer();
-        String schemaRecName = tableName.replace("/", "__");
-        outputSchema = Schema.recordOf(OUTPUT_SCHEMA_NAME + "_" + schemaRecName,
-          schemaTransformer.createSchemaFields(tableMetadata.getFieldMetadata()));
-      }
+      // Schema of the extracted columns, if it does not depend on the column
+      // metadata
+      Schema plannedSchema = config.getSchema() != null ? config.getSchema() : outputSchema;
+      // Preview only reads the first records, which needs no estimate
+      boolean estimateRecordCount = config.isRecordCountEstimated() && !context.isPreviewEnabled();
+
+      SapObjectMetadata tableMetadata;
+      SapTableRuntimeConfigInfo runtimeTableInfo;
+      List<String> filterOptions;
+      // Column metadata and runtime configuration do not depend on each other, so
+      // they are requested from SAP at the same time, but only once the logon
+      // succeeded. Wrong credentials then fail a single logon, instead of one per
+      // call, which could lock the SAP user.
+      sapTableInterface.ping(sapConn);
+      try (ConcurrentRfmCalls rfmCalls = new ConcurrentRfmCalls()) {
+        Future<SapObjectMetadata> metadataCall =
+          rfmCalls.submit(() -> sapTableInterface.getCachedSourceMetadata(tableName, sapConn));
+        // The upper bound of an incremental extraction depends on the type of the
+        // watermark column, so its runtime configuration waits for the metadata
+        filterOptions = watermarkField == null ? config.getFormattedFilterOptions()
+          : getIncrementalFilterOptions(tableName, watermarkField, rfmCalls.get(metadataCall));
+        // Likewise, the record count is estimated from the values of the key column
+        String estimateKeyField = estimateRecordCount ? getKeyRangeField(rfmCalls.get(metadataCall)) : null;
+        Future<SapTableRuntimeConfigInfo> runtimeInfoCall = plannedSchema == null ? null
+          : rfmCalls.submit(() -> sapTableInterface.getRuntimeConfigParams(tableName, filterOptions,
+            new SapTableToStructuredSchemaTransformer().getNativeFieldNames(plannedSchema), estimateRecordCount,
+            estimateKeyField, sapConn, rfmCalls));
+
+        // Column metadata is needed for the key columns, and for the schema if macros
+        // were used at configure time
+        tableMetadata = rfmCalls.get(metadataCall);
+        if (outputSchema == null) {
+          AbstractStructuredSchemaTransformer schemaTransformer = new SapTableToStructuredSchemaTransformer();
+          String schemaRecName = tableName.replace("/", "__");
+          outputSchema = Schema.recordOf(OUTPUT_SCHEMA_NAME + "_" + schemaRecName,
+            schemaTransformer.createSchemaFields(tableMetadata.getFieldMetadata()));
+        }
 
-      // Fix for bug 190464284 - handle missing characters in time value (Jira GCB-218)
-      validateSchemaFields(outputSchema, config.getSchema(), collector);
-      collector.getOrThrowException();
-      if (config.getSchema() != null) {
-        outputSchema = config.getSchema();
-      }
+        // Fix for bug 190464284 - handle missing characters in time value (Jira GCB-218)
+        validateSchemaFields(outputSchema, config.getSchema(), collector);
+        collector.getOrThrowException();
+        if (config.getSchema() != null) {
+          outputSchema = config.getSchema();
+        }
 
-      // Get extractable record count based on Filter Options condition along
-      // with avg. record size, available work process count and max memory allowed
-      // for a work process from SAP
-      SapTableRuntimeConfigInfo runtimeTableInfo =
-        sapTableInterface.getRuntimeConfigParams(tableName, config.getFormattedFilterOptions(), sapConn);
+        if (watermarkField != null) {
+          validateWatermarkField(watermarkField, tableName, tableMetadata, collector);
+          collector.getOrThrowException();
+        }
+
+        // Get extractable record count based on Filter Options condition along
+        // with avg. record size, available work process count and max memory allowed
+        // for a work process from SAP. Record size only covers the columns in the
+        // output schema, as only those are extracted.
+        if (runtimeInfoCall != null) {
+          // Includes the record count, which is not limited by the timeout
+          runtimeTableInfo = rfmCalls.getUntimed(runtimeInfoCall);
+        } else {
+          List<String> fieldNames = new SapTableToStructuredSchemaTransformer().getNativeFieldNames(outputSchema);
+          runtimeTableInfo = sapTableInterface.getRuntimeConfigParams(tableName, filterOptions, fieldNames,
+            estimateRecordCount, estimateKeyField, sapConn, rfmCalls);
+        }
+      }
 
       long extractableRowCount = runtimeTableInfo.getRuntimeTableRecCount();
-      LOGGER.info(ResourceConstants.INFO_FOUND_NUM_RECORDS.getMsgForKey(extractableRowCount));
+      if (!runtimeTableInfo.isRecordCountEstimated()) {
+        LOGGER.info(ResourceConstants.INFO_FOUND_NUM_RECORDS.getMsgForKey(extractableRowCount));
+      }
 
       if (context.isPreviewEnabled()) {
         // Only supported from CDAP v6.3.0 onwards
@@ -202,11 +280,35 @@ public class SapTableBatchSource extends BatchSource<LongWritable, StructuredRec
 
       LOGGER.info(ResourceConstants.INFO_FOUND_MAX_MEMORY_FOR_WP.getMsgForKey(runtimeTableInfo.getWpMaxMemory()));
 
-      SapTablePartitionBuilder partitionBuilder = new SapTablePartitionBuilder();
+      String keyField = getKeyRangeField(tableMetadata);
+      SapTablePartitionBuilder.KeyRangeProbe keyRangeProbe = new SapTablePartitionBuilder.KeyRangeProbe() {
+        @Override
+        public String getKeyValueAt(long rowSkips) throws ConnectorException {
+          return sapTableInterface.getFieldValueAt(tableName, filterOptions, keyField, rowSkips, sapConn);
+        }
+
+        @Override
+        public long countRecords(String keyRange) throws ConnectorException {
+          return sapTableInterface.getRecordCount(tableName,
+            SapTablePluginConfig.addFilterCondition(filterOptions, keyRange), sapConn);
+        }
+      };
+
+      SapTablePartitionBuilder partitionBuilder = new SapTablePartitionBuilder(getExecutorSlots(context),
+        config.getSplitRowsPerSecond(), config.getPackageLookahead());
       List<SapTableInputSplit> partitions = partitionBuilder.build(runtimeTableInfo, extractableRowCount,
-        config.getRowsToFetch(), config.getNumSplits(), config.getPackageSize());
+        config.getRowsToFetch(), config.getNumSplits(), config.getPackageSize(), keyField, keyRangeProbe);
+
+      // Preview does not move the watermark
+      if (context.isPreviewEnabled()) {
+        watermarkBound = null;
+      }
+
+      if (config.getSplitRecovery() != null && !context.isPreviewEnabled()) {
+        checkpointDir = new Path(config.getCheckpointPath(), UUID.randomUUID().toString()).toString();
+      }
 
-      setJobForDataRead(context, outputSchema, partitions, runtimeTableInfo.getTotalWorkProcCount());
+      setJobForDataRead(context, outputSchema, filterOptions, partitions, runtimeTableInfo.getTotalWorkProcCount());
     } catch (LinkageError e) {
       // If error is raised due to missing JCo jars then raise soft exception, else
       // throw the actual error.
@@ -215,20 +317,194 @@ public class SapTableBatchSource extends BatchSource<LongWritable, StructuredRec
     } catch (ConnectorException | IOException e) {
       collector.addFailure(e.getMessage(), null);
       collector.getOrThrowException();
+    } finally {
+      closeConn();
+    }
+  }
+
+  @Override
+  public void onRunFinish(boolean succeeded, BatchSourceContext context) {
+    if (watermarkBound != null) {
+      commitWatermark(succeeded);
+    }
+
+    if (checkpointDir != null) {
+      deleteCheckpoints();
+    }
+  }
+
+  /**
+   * Commits the upper bound of the run, if the run succeeded. Otherwise the next
+   * run extracts the same records again.
+   */
+  private void commitWatermark(boolean succeeded) {
+    String watermarkField = config.getWatermarkField();
+    try {
+      if (!succeeded) {
+        LOGGER.warn(ResourceConstants.WARN_WATERMARK_NOT_COMMITTED.getMsgForKey(watermarkField));
+      } else if (committedWatermark == null || Watermarks.compare(watermarkBound, committedWatermark) > 0) {
+        watermarkStore.commit(watermarkKey, watermarkBound);
+        LOGGER.info(ResourceConstants.INFO_WATERMARK_COMMITTED.getMsgForKey(watermarkField, watermarkBound));
+      }
+    } catch (IOException e) {
+      // Records of this run are already written, so the run does not fail
+      LOGGER.warn(ResourceConstants.WARN_WATERMARK_NOT_COMMITTED.getMsgForKey(watermarkField), e);
+    } finally {
+      watermarkBound = null;
+    }
+  }
+
+  /**
+   * Removes the split checkpoints of this run, which are only used by retried
+   * attempts within the run.
+   */
+  private void deleteCheckpoints() {
+    try {
+      Path checkpointPath = new Path(checkpointDir);
+      checkpointPath.getFileSystem(new Configuration()).delete(checkpointPath, true);
+    } catch (IOException e) {
+      LOGGER.warn("Unable to remove the split checkpoints in '{}'", checkpointDir, e);
+    } finally {
+      checkpointDir = null;
+    }
+  }
+
+  /**
+   * Adds the conditions for the records between the last committed watermark and
+   * the upper bound of this run to the Filter Options.
+   *
+   * @param tableName      SAP table name
+   * @param watermarkField watermark column
+   * @param tableMetadata  Column metadata of the table
+   * @return Filter Options of the incremental extraction
+   * @throws IOException if the watermark store can't be read
+   */
+  private List<String> getIncrementalFilterOptions(String tableName, String watermarkField,
+                                                   SapObjectMetadata tableMetadata) throws IOException {
+    // Every source stage keeps its own watermark, even if it reads the same table,
+    // which does not change with the SAP user
+    watermarkKey = SapMetadataCache.createSystemKey(sapConn, WATERMARK_OBJECT_TYPE,
+      String.join("|", config.getReferenceName(), tableName, watermarkField));
+    watermarkStore = new FileSystemWatermarkStore(config.getWatermarkStatePath(), new Configuration());
+    committedWatermark = watermarkStore.getCommitted(watermarkKey);
+
+    SapFieldMetadata field = findField(tableMetadata, watermarkField);
+    // An unsupported column fails the validation before any record is read
+    watermarkBound = field == null ? null : Watermarks.createUpperBound(field, Instant.now());
+    List<String> filterOptions = config.getFormattedFilterOptions();
+    if (watermarkBound != null) {
+      filterOptions = SapTablePluginConfig.addFilterCondition(filterOptions,
+        Watermarks.createUpperCondition(watermarkField, watermarkBound));
+    }
+
+    if (committedWatermark == null) {
+      LOGGER.info(ResourceConstants.INFO_FULL_EXTRACT_NO_WATERMARK.getMsgForKey(watermarkField));
+      return filterOptions;
+    }
+
+    LOGGER.info(ResourceConstants.INFO_INCREMENTAL_EXTRACT.getMsgForKey(watermarkField, committedWatermark));
+
+    return SapTablePluginConfig.addFilterCondition(filterOptions,
+      Watermarks.createCondition(watermarkField, committedWatermark));
+  }
+
+  /**
+   * Checks that the watermark column exists and is a date or a timestamp, whose
+   * upper bound is taken from the clock.
+   */
+  private void validateWatermarkField(String watermarkField, String tableName, SapObjectMetadata tableMetadata,
+                                      FailureCollector collector) {
+
+    SapFieldMetadata field = findField(tableMetadata, watermarkField);
+    if (field == null || !Watermarks.isSupportedType(field)) {
+      String errMsg = ResourceConstants.ERR_INVALID_WATERMARK_FIELD.getMsgForKey(watermarkField, tableName);
+      collector.addFailure(errMsg, null).withConfigProperty(SapTablePluginConfigWrapper.WATERMARK_FIELD);
+    }
+  }
+
+  @Nullable
+  private SapFieldMetadata findField(SapObjectMetadata tableMetadata, String fieldName) {
+    for (SapFieldMetadata field : tableMetadata.getFieldMetadata()) {
+      if (fieldName.equals(field.getName())) {
+        return field;
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Finds the leading key column after the client, whose ranges SAP can read from
+   * the primary index. Key columns always come first in a table.
+   *
+   * @param tableMetadata Column metadata of the table
+   * @return key column name, or null if the table has no key column, e.g. a view,
+   *         or it is not character like
+   */
+  @Nullable
+  private String getKeyRangeField(SapObjectMetadata tableMetadata) {
+    for (SapFieldMetadata field : tableMetadata.getFieldMetadata()) {
+      if (!field.isKey()) {
+        return null;
+      }
+
+      if (!CLIENT_DATA_TYPE.equals(field.getDataType())) {
+        return KEY_RANGE_ABAP_TYPES.contains(field.getAbapType()) ? field.getName() : null;
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Finds the number of tasks the cluster runs at the same time, from the plugin
+   * configuration or else from the Spark executor runtime arguments.
+   *
+   * @param context Batch source context
+   * @return executor slots, 0 if unknown
+   */
+  private int getExecutorSlots(BatchSourceContext context) {
+    if (config.getExecutorSlots() > 0) {
+      return config.getExecutorSlots();
+    }
+
+    try {
+      String instances = context.getArguments().get(EXECUTOR_INSTANCES_ARG);
+      if (Util.isNullOrEmpty(instances)) {
+        return 0;
+      }
+
+      String cores = context.getArguments().get(EXECUTOR_CORES_ARG);
+      return Integer.parseInt(instances.trim()) * (Util.isNullOrEmpty(cores) ? 1 : Integer.parseInt(cores.trim()));
+    } catch (NumberFormatException e) {
+      LOGGER.debug("Unable to find the executor slots from the runtime arguments", e);
+      return 0;
     }
   }
 
   private void createConnAndPing(SapInterface sapInterface) throws ConnectorException {
-    sapConn = new SapConnection(config.getConnPropsByType());
-    sapConn.initDestination();
+    createConn();
 
     LOGGER.trace("Initiating SAP Table connection ping test");
     sapInterface.ping(sapConn);
   }
 
+  private void createConn() throws ConnectorException {
+    sapConn = new SapConnection(config.getConnPropsByType());
+    sapConn.initDestination();
+  }
+
+  private void closeConn() {
+    if (sapConn != null) {
+      sapConn.close();
+      sapConn = null;
+    }
+  }
+
   /**
    * Validates if UI updates to schema are allowed and expected when compared to
-   * plugin auto generated schema
+   * plugin auto generated schema. Columns may be removed from the schema, but the
+   * remaining columns must keep their order.
    *
    * @param autoGeneratedSchema
    * @param uiSchema
@@ -244,19 +520,32 @@ public class SapTableBatchSource extends BatchSource<LongWritable, StructuredRec
 
     List<Schema.Field> autoGenSchemaFields = autoGeneratedSchema.getFields();
     List<Schema.Field> uiSchemaFields = uiSchema.getFields();
-    if (autoGenSchemaFields.size() != uiSchemaFields.size()) {
+    if (autoGenSchemaFields.size() < uiSchemaFields.size()) {
       String err = ResourceConstants.ERR_SCHEMA_FIELD_COUNT_MISMATCH.getMsgForKey();
       String action = ResourceConstants.ERR_SCHEMA_FIELD_INVALID_ACTION.getMsgForKey();
       failureCollector.addFailure(err, action);
     }
 
+    // Index of the auto generated field expected next, skipping the fields
+    // removed on UI
+    int autoGenIdx = 0;
     // Iterate over fields of UI Schema
-    for (int i = 0; i < uiSchemaFields.size(); i++) {
+    int autoGenCount = autoGenSchemaFields.size();
+    for (int i = 0; i < uiSchemaFields.size() && autoGenCount > 0; i++) {
       Schema.Field uiField = uiSchemaFields.get(i);
       String uiEncodedColName = uiField.getName();
       Schema uiFieldSchema = uiField.getSchema();
 
-      Schema.Field autoGenField = autoGenSchemaFields.get(i);
+      int matchIdx = autoGenIdx;
+      while (matchIdx < autoGenCount && !uiEncodedColName.equals(autoGenSchemaFields.get(matchIdx).getName())) {
+        matchIdx++;
+      }
+
+      // If not found among the remaining fields, compare with the field expected
+      // next, to report the column as invalid
+      Schema.Field autoGenField =
+        autoGenSchemaFields.get(matchIdx < autoGenCount ? matchIdx : Math.min(autoGenIdx, autoGenCount - 1));
+      autoGenIdx = matchIdx + 1;
       String autoGenEncodedColName = autoGenField.getName();
       Schema autoGenFieldSchema = autoGenField.getSchema();
 
@@ -373,8 +662,8 @@ public class SapTableBatchSource extends BatchSource<LongWritable, StructuredRec
     }
   }
 
-  private void setJobForDataRead(BatchSourceContext context, Schema outputSchema, List<SapTableInputSplit> partitions,
-                                 int totalWorkProcessCount)
+  private void setJobForDataRead(BatchSourceContext context, Schema outputSchema, List<String> filterOptions,
+                                 List<SapTableInputSplit> partitions, int totalWorkProcessCount)
     throws IOException {
 
     Job job = JobUtils.createInstance();
@@ -391,9 +680,13 @@ public class SapTableBatchSource extends BatchSource<LongWritable, StructuredRec
     pluginConfigProps.put(SapTablePluginConfigWrapper.EXTRACT_TABLE_VALUE, inputTable);
 
     Gson gson = new GsonBuilder().create();
-    String filterOptionStr = gson.toJson(config.getFormattedFilterOptions());
+    String filterOptionStr = gson.toJson(filterOptions);
     pluginConfigProps.put(SapTablePluginConfigWrapper.FILTER_OPTIONS, filterOptionStr);
 
+    if (checkpointDir != null) {
+      pluginConfigProps.put(CHECKPOINT_DIR, checkpointDir);
+    }
+
     if (Util.isNotNullOrEmpty(config.getProject())) {
       pluginConfigProps.put(SapJcoPluginConfigWrapper.GCP_PROJECT_ID, config.getProject());
     }
@@ -412,6 +705,14 @@ public class SapTableBatchSource extends BatchSource<LongWritable, StructuredRec
     // Save total work process count in configuration to use as peak limit for JCo
     // connection
     conf.set(TOTAL_WORK_PROCESS, String.valueOf(totalWorkProcessCount));
+    // Splits running at the same time share the free work processes, whichever
+    // executor they run in
+    int executorSlots = getExecutorSlots(context);
+    conf.setInt(CONCURRENT_SPLITS, executorSlots > 0 ? Math.min(executorSlots, partitions.size()) : partitions.size());
+    conf.setInt(SapTablePluginConfigWrapper.PACKAGE_LOOKAHEAD, config.getPackageLookahead());
+    // Record readers count their network calls and throughput as metrics of this
+    // stage
+    conf.set(SapJcoBatchSourceWrapper.PLUGIN_STAGE_NAME, context.getStageName());
 
     conf.set(OUTPUT_SCHEMA_NAME, outputSchema.toString());
     emitLineage(context, outputSchema, inputTable);
@@ -16,16 +16,101 @@
 
 package com.google.cloud.datafusion.plugin.sap.table.source;
 
+import com.google.cloud.datafusion.plugin.sap.codec.AbapValueCodec;
+import com.google.cloud.datafusion.plugin.sap.metadata.model.SapFieldMetadata;
 import com.google.cloud.datafusion.plugin.sap.metadata.model.SapObjectMetadata;
 import com.google.cloud.datafusion.plugin.sap.source.AbstractStructuredSchemaTransformer;
 import com.google.cloud.datafusion.plugin.sap.table.metadata.model.SapColumn;
+import com.sap.conn.jco.JCoMetaData;
+import com.sap.conn.jco.JCoTable;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+
+import java.io.IOException;
+import java.util.List;
 
 /**
+ * Transforms the fixed width records of SAP tables into
+ * {@link StructuredRecord}.
+ * <p>
+ * Records are decoded using a plan compiled once for the runtime column
+ * metadata and the output schema. Columns are read by offset straight from the
+ * record, and the common types (strings, integers, decimals, dates, times and
+ * timestamps) are converted by {@link AbapValueCodec} without creating a
+ * substring per column. Any value the fast path cannot convert is handed over to
+ * the standard conversion, so that results and errors stay the same.
+ * 
  * @author sankalpbapat
  *
  */
 public class SapTableToStructuredSchemaTransformer extends AbstractStructuredSchemaTransformer {
 
+  private static final String WORK_AREA_FIELD = "WA";
+
+  // Decoding plan along with the metadata and schema it was compiled for
+  private SapObjectMetadata compiledMetadata;
+  private Schema compiledSchema;
+  private FieldDecoder[] fieldDecoders;
+
+  // Index of work area field in the output table, cached per table metadata
+  private JCoMetaData dataTableMetadata;
+  private int workAreaIdx;
+
+  /**
+   * Builds the {@code record} from the current row of the SAP output table.
+   * 
+   * @param dataTable          SAP output table positioned on the row to read
+   * @param runtimeObjMetadata column metadata helps to get individual column
+   *                           values from the row
+   * @param outputSchema       Plugin schema
+   * @return StructuredRecord
+   * @throws IOException
+   */
+  public StructuredRecord readFields(JCoTable dataTable, SapObjectMetadata runtimeObjMetadata, Schema outputSchema)
+    throws IOException {
+
+    return readFields(getRawRecord(dataTable), runtimeObjMetadata, outputSchema);
+  }
+
+  /**
+   * @param dataTable SAP output table positioned on the row to read
+   * @return all column values of the current row as one running string
+   */
+  public String getRawRecord(JCoTable dataTable) {
+    JCoMetaData tableMetadata = dataTable.getMetaData();
+    if (tableMetadata != dataTableMetadata) {
+      workAreaIdx = tableMetadata.indexOf(WORK_AREA_FIELD);
+      dataTableMetadata = tableMetadata;
+    }
+
+    return dataTable.getString(workAreaIdx);
+  }
+
+  /*
+   * (non-Javadoc)
+   * 
+   * @see com.google.cloud.datafusion.plugin.sap.source.
+   * AbstractStructuredSchemaTransformer#readFields(java.lang.String,
+   * com.google.cloud.datafusion.plugin.sap.metadata.model.SapObjectMetadata,
+   * io.cdap.cdap.api.data.schema.Schema)
+   */
+  @Override
+  public StructuredRecord readFields(String rawRecord, SapObjectMetadata runtimeObjMetadata, Schema outputSchema)
+    throws IOException {
+
+    if (runtimeObjMetadata != compiledMetadata || outputSchema != compiledSchema) {
+      compile(runtimeObjMetadata, outputSchema);
+    }
+
+    StructuredRecord.Builder recBuilder = StructuredRecord.builder(outputSchema);
+    for (FieldDecoder fieldDecoder : fieldDecoders) {
+      decodeField(fieldDecoder, rawRecord, recBuilder);
+    }
+
+    return recBuilder.build();
+  }
+
   /**
    * Retrieves the native value for the SAP Object's field from the raw SAP record
    * and column metadata corresponding to SAP table.<br/>
@@ -66,4 +151,166 @@ public class SapTableToStructuredSchemaTransformer extends AbstractStructuredSch
 
     return colValStr;
   }
+
+  private void compile(SapObjectMetadata runtimeObjMetadata, Schema outputSchema) {
+    List<SapFieldMetadata> columns = runtimeObjMetadata.getFieldMetadata();
+    List<Schema.Field> schemaFields = outputSchema.getFields();
+
+    FieldDecoder[] decoders = new FieldDecoder[schemaFields.size()];
+    // Schema fields and runtime columns are mapped by their position
+    for (int i = 0; i < decoders.length; i++) {
+      decoders[i] = new FieldDecoder(schemaFields.get(i), columns.get(i));
+    }
+
+    fieldDecoders = decoders;
+    compiledMetadata = runtimeObjMetadata;
+    compiledSchema = outputSchema;
+  }
+
+  private void decodeField(FieldDecoder field, String record, StructuredRecord.Builder recBuilder)
+    throws IOException {
+
+    int start = field.offset;
+    int recordLength = record.length();
+    // actual length of data in record may be less than metadata offset of column,
+    // if later columns do not have a value
+    if (start >= recordLength) {
+      recBuilder.set(field.name, null);
+      return;
+    }
+
+    int end = Math.min(start + field.length, recordLength);
+    int trimStart = start;
+    while (trimStart < end && record.charAt(trimStart) <= ' ') {
+      trimStart++;
+    }
+
+    // If no non-whitespace char is present in value and field type is String, then
+    // set original value (consisting of only whitespace)
+    if (trimStart == end) {
+      recBuilder.set(field.name, field.isString ? record.substring(start, end) : null);
+      return;
+    }
+
+    int trimEnd = end;
+    while (record.charAt(trimEnd - 1) <= ' ') {
+      trimEnd--;
+    }
+
+    try {
+      switch (field.kind) {
+        case STRING:
+          // Right trim string
+          int valueEnd = end;
+          while (valueEnd > start && Character.isWhitespace(record.charAt(valueEnd - 1))) {
+            valueEnd--;
+          }
+          recBuilder.set(field.name, record.substring(start, valueEnd));
+          return;
+
+        case INT:
+          long intVal = AbapValueCodec.parseLong(record, trimStart, trimEnd);
+          if (intVal < Integer.MIN_VALUE || intVal > Integer.MAX_VALUE) {
+            throw new NumberFormatException();
+          }
+          recBuilder.set(field.name, (int) intVal);
+          return;
+
+        case LONG:
+          recBuilder.set(field.name, AbapValueCodec.parseLong(record, trimStart, trimEnd));
+          return;
+
+        case DECIMAL:
+          recBuilder.setDecimal(field.name, AbapValueCodec.parseDecimal(record, trimStart, trimEnd, field.scale));
+          return;
+
+        case DATE:
+          recBuilder.set(field.name, AbapValueCodec.isInitialDate(record, trimStart, trimEnd) ? null
+            : AbapValueCodec.parseDateToEpochDay(record, trimStart, trimEnd));
+          return;
+
+        case TIME:
+          recBuilder.set(field.name, AbapValueCodec.parseTimeToMicrosOfDay(record, trimStart, trimEnd));
+          return;
+
+        case TIMESTAMP:
+          recBuilder.set(field.name, AbapValueCodec.isInitialDate(record, trimStart, trimEnd) ? null
+            : AbapValueCodec.parseUtcLongToEpochMicros(record, trimStart, trimEnd));
+          return;
+
+        default:
+          break;
+      }
+    } catch (RuntimeException e) {
+      // Let the standard conversion handle the value, including the error
+    }
+
+    processValue(field.nonNullSchema, recBuilder, field.name, record.substring(start, end));
+  }
+
+  private enum ValueKind {
+    STRING, INT, LONG, DECIMAL, DATE, TIME, TIMESTAMP, OTHER
+  }
+
+  /**
+   * Decoding instructions for one field, resolved once from its schema and
+   * column metadata.
+   */
+  private static final class FieldDecoder {
+    private final String name;
+    private final Schema nonNullSchema;
+    private final boolean isString;
+    private final ValueKind kind;
+    private final int scale;
+    private final int offset;
+    private final int length;
+
+    private FieldDecoder(Schema.Field field, SapFieldMetadata column) {
+      Schema fieldSchema = field.getSchema();
+
+      this.name = field.getName();
+      this.nonNullSchema = fieldSchema.isNullable() ? fieldSchema.getNonNullable() : fieldSchema;
+      this.isString = nonNullSchema.getType() == Schema.Type.STRING;
+      this.kind = getValueKind(nonNullSchema);
+      this.scale = kind == ValueKind.DECIMAL ? nonNullSchema.getScale() : 0;
+      this.offset = column.getOffset();
+      this.length = column.getLength();
+    }
+
+    private static ValueKind getValueKind(Schema nonNullSchema) {
+      Schema.LogicalType logicalType = nonNullSchema.getLogicalType();
+      if (logicalType != null) {
+        switch (logicalType) {
+          case DECIMAL:
+            return ValueKind.DECIMAL;
+
+          case DATE:
+            return ValueKind.DATE;
+
+          case TIME_MICROS:
+            return ValueKind.TIME;
+
+          case TIMESTAMP_MICROS:
+            return ValueKind.TIMESTAMP;
+
+          default:
+            return ValueKind.OTHER;
+        }
+      }
+
+      switch (nonNullSchema.getType()) {
+        case STRING:
+          return ValueKind.STRING;
+
+        case INT:
+          return ValueKind.INT;
+
+        case LONG:
+          return ValueKind.LONG;
+
+        default:
+          return ValueKind.OTHER;
+      }
+    }
+  }
 }
@@ -64,6 +64,14 @@ public class SapTablePluginConfig extends PluginConfig {
   private final Long rowsToFetch;
   private final Integer numSplits;
   private final Long packageSize;
+  private final Integer packageLookahead;
+  private final Integer executorSlots;
+  private final Long splitRowsPerSecond;
+  private final String recordCountMode;
+  private final String watermarkField;
+  private final String watermarkStatePath;
+  private final String splitRecovery;
+  private final String checkpointPath;
   private final String gcpProjectId;
   private final String gcsPath;
   private String schema;
@@ -99,6 +107,23 @@ public class SapTablePluginConfig extends PluginConfig {
       ? Long.parseLong(properties.get(SapTablePluginConfigWrapper.PACKAGE_SIZE))
       : null;
 
+    this.packageLookahead = properties.containsKey(SapTablePluginConfigWrapper.PACKAGE_LOOKAHEAD)
+      ? Integer.parseInt(properties.get(SapTablePluginConfigWrapper.PACKAGE_LOOKAHEAD))
+      : null;
+
+    this.executorSlots = properties.containsKey(SapTablePluginConfigWrapper.EXECUTOR_SLOTS)
+      ? Integer.parseInt(properties.get(SapTablePluginConfigWrapper.EXECUTOR_SLOTS))
+      : null;
+
+    this.splitRowsPerSecond = properties.containsKey(SapTablePluginConfigWrapper.SPLIT_ROWS_PER_SECOND)
+      ? Long.parseLong(properties.get(SapTablePluginConfigWrapper.SPLIT_ROWS_PER_SECOND))
+      : null;
+
+    this.recordCountMode = properties.get(SapTablePluginConfigWrapper.RECORD_COUNT_MODE);
+    this.watermarkField = properties.get(SapTablePluginConfigWrapper.WATERMARK_FIELD);
+    this.watermarkStatePath = properties.get(SapTablePluginConfigWrapper.WATERMARK_STATE_PATH);
+    this.splitRecovery = properties.get(SapTablePluginConfigWrapper.SPLIT_RECOVERY);
+    this.checkpointPath = properties.get(SapTablePluginConfigWrapper.CHECKPOINT_PATH);
     this.schema = properties.get("schema");
     this.gcpProjectId = properties.get(SapJcoPluginConfigWrapper.GCP_PROJECT_ID);
     this.gcsPath = properties.get(SapJcoPluginConfigWrapper.GCS_PATH);
@@ -185,6 +210,21 @@ public class SapTablePluginConfig extends PluginConfig {
     }
   }
 
+  /**
+   * Adds {@code condition} to the formatted filter options, so that the RFM only
+   * reads the records matching both.
+   *
+   * @param formattedFilterOptions filter options split for JCo, may be empty
+   * @param condition              Open SQL condition
+   * @return List of filter option fragments
+   */
+  public static List<String> addFilterCondition(List<String> formattedFilterOptions, String condition) {
+    String filter = String.join("", formattedFilterOptions).trim();
+    String combined = filter.isEmpty() ? condition : "( " + filter + " ) AND " + condition;
+
+    return splitStringForJco(combined, QUERY_SPLIT_OFFSET);
+  }
+
   @Nullable
   public Long getRowsToFetch() {
     if (rowsToFetch == null) {
@@ -212,6 +252,78 @@ public class SapTablePluginConfig extends PluginConfig {
     return packageSize;
   }
 
+  public int getPackageLookahead() {
+    if (packageLookahead == null) {
+      return SapTablePluginConfigWrapper.DEFAULT_PACKAGE_LOOKAHEAD;
+    }
+
+    return packageLookahead;
+  }
+
+  /**
+   * @return tasks the cluster runs at the same time, 0 if not specified
+   */
+  public int getExecutorSlots() {
+    if (executorSlots == null) {
+      return 0;
+    }
+
+    return executorSlots;
+  }
+
+  /**
+   * @return records a split extracts and converts per second, 0 if not specified
+   */
+  public long getSplitRowsPerSecond() {
+    if (splitRowsPerSecond == null) {
+      return 0L;
+    }
+
+    return splitRowsPerSecond;
+  }
+
+  /**
+   * @return {@code true} if the records to extract are estimated from database
+   *         statistics instead of being counted
+   */
+  public boolean isRecordCountEstimated() {
+    return SapTablePluginConfigWrapper.RECORD_COUNT_ESTIMATED_VALUE.equalsIgnoreCase(recordCountMode);
+  }
+
+  /**
+   * @return watermark column in upper case, or null for a full extract in every
+   *         run
+   */
+  @Nullable
+  public String getWatermarkField() {
+    return Util.isNotNullOrEmpty(watermarkField) ? watermarkField.trim().toUpperCase() : null;
+  }
+
+  @Nullable
+  public String getWatermarkStatePath() {
+    return watermarkStatePath;
+  }
+
+  /**
+   * @return split recovery mode in lower case, or null if retried splits are
+   *         extracted from SAP again
+   */
+  @Nullable
+  public String getSplitRecovery() {
+    if (Util.isNullOrEmpty(splitRecovery)
+      || SapTablePluginConfigWrapper.SPLIT_RECOVERY_NONE_VALUE.equalsIgnoreCase(splitRecovery)) {
+
+      return null;
+    }
+
+    return splitRecovery.toLowerCase();
+  }
+
+  @Nullable
+  public String getCheckpointPath() {
+    return checkpointPath;
+  }
+
   @Nullable
   public Schema getSchema() {
     try {
@@ -256,7 +368,7 @@ public class SapTablePluginConfig extends PluginConfig {
    * @param splitOffset offset to split the string at
    * @return List of original string's split fragments
    */
-  private List<String> splitStringForJco(String str, int splitOffset) {
+  private static List<String> splitStringForJco(String str, int splitOffset) {
     List<String> frags;
     int iterCount = 1 + (str.length() - 1) / splitOffset;
     frags = new ArrayList<>(iterCount);
@@ -42,6 +42,14 @@ public class SapTablePluginConfigWrapper extends SapJcoPluginConfigWrapper {
   public static final String NUM_ROWS_TO_FETCH = "Number of Rows to Fetch";
   public static final String NUM_SPLITS_TO_GENERATE = "Number of Splits to Generate";
   public static final String PACKAGE_SIZE_LABEL = "Package Size";
+  public static final String PACKAGE_LOOKAHEAD_LABEL = "Number of Packages to Prefetch";
+  public static final String EXECUTOR_SLOTS_LABEL = "Executor Slots";
+  public static final String SPLIT_ROWS_PER_SECOND_LABEL = "Records per Second per Split";
+  public static final String RECORD_COUNT_MODE_LABEL = "Record Count Mode";
+  public static final String WATERMARK_FIELD_LABEL = "Watermark Column";
+  public static final String WATERMARK_STATE_PATH_LABEL = "Watermark State Path";
+  public static final String SPLIT_RECOVERY_LABEL = "Split Recovery";
+  public static final String CHECKPOINT_PATH_LABEL = "Checkpoint Path";
 
   // Widgets UI fields' backend values
   public static final String EXTRACT_TABLE_VALUE = "sapTable";
@@ -49,6 +57,20 @@ public class SapTablePluginConfigWrapper extends SapJcoPluginConfigWrapper {
   public static final String ROWS_TO_FETCH = "rowsToFetch";
   public static final String NUM_SPLITS = "numSplits";
   public static final String PACKAGE_SIZE = "packageSize";
+  public static final String PACKAGE_LOOKAHEAD = "packageLookahead";
+  public static final String EXECUTOR_SLOTS = "executorSlots";
+  public static final String SPLIT_ROWS_PER_SECOND = "splitRowsPerSecond";
+  public static final String RECORD_COUNT_MODE = "recordCountMode";
+  public static final String RECORD_COUNT_EXACT_VALUE = "exact";
+  public static final String RECORD_COUNT_ESTIMATED_VALUE = "estimated";
+  public static final String WATERMARK_FIELD = "watermarkField";
+  public static final String WATERMARK_STATE_PATH = "watermarkStatePath";
+  public static final String SPLIT_RECOVERY = "splitRecovery";
+  public static final String SPLIT_RECOVERY_NONE_VALUE = "none";
+  public static final String SPLIT_RECOVERY_REPLAY_VALUE = "replay";
+  public static final String CHECKPOINT_PATH = "checkpointPath";
+
+  public static final int DEFAULT_PACKAGE_LOOKAHEAD = 1;
 
   @Macro
   @Description("A valid table/view name (case insensitive) existing in SAP. "
@@ -80,6 +102,66 @@ public class SapTablePluginConfigWrapper extends SapJcoPluginConfigWrapper {
     + "resource usage in SAP. If 0 or not specified, the execution framework will pick an appropriate value.")
   private Long packageSize;
 
+  @Nullable
+  @Macro
+  @Description("Number of packages every split requests from SAP in the background while the current package is "
+    + "being processed. Every split uses one SAP connection and work process per prefetched package, at least one, "
+    + "and keeps one more package in memory per prefetched package. Fewer splits are planned accordingly. "
+    + "0 disables prefetching. If not specified, 1 package is prefetched.")
+  private Integer packageLookahead;
+
+  @Nullable
+  @Macro
+  @Description("Number of tasks the cluster runs at the same time, i.e. executors times cores per executor. If the "
+    + "Number of Splits to Generate is 0, no more splits than this are created. If 0 or not specified, it is taken "
+    + "from the Spark executor instances and cores of the runtime arguments, if set.")
+  private Integer executorSlots;
+
+  @Nullable
+  @Macro
+  @Description("Number of records a split extracts and converts per second, e.g. as reported by an earlier run in "
+    + "the 'sap.extracted.records' and 'sap.extraction.millis' metrics, which is not taken over automatically. If "
+    + "the Number of Splits to Generate is 0, every split is made large enough to run for at least 30 seconds at "
+    + "this rate. Also used to predict the duration of the extraction. If 0 or not specified, the rate is unknown.")
+  private Long splitRowsPerSecond;
+
+  @Nullable
+  @Macro
+  @Description("How the records to extract are counted before partitioning. 'exact' counts the records in SAP. "
+    + "'estimated' estimates the records of tables extracted without Filter Options and starts extracting right "
+    + "away, at the cost of less evenly sized partitions. Database statistics are used on Oracle, else the values of "
+    + "a numeric leading key column are sampled. Tables with neither are counted exactly, so the mode does not help "
+    + "for them. If not specified, records are counted exactly.")
+  private String recordCountMode;
+
+  @Nullable
+  @Macro
+  @Description("Date or timestamp column whose value increases with every change of a record, e.g. a change date "
+    + "or UTC timestamp. If specified, every run only extracts the records from the watermark committed by the last "
+    + "successful run up to an upper bound taken when the run starts, which is committed once the run succeeded. "
+    + "Only a single column is supported. If not specified, all records are extracted in every run.")
+  private String watermarkField;
+
+  @Nullable
+  @Macro
+  @Description("Directory where the watermark of the Watermark Column is kept between runs, e.g. a Cloud "
+    + "Storage path. Required if a Watermark Column is specified.")
+  private String watermarkStatePath;
+
+  @Nullable
+  @Macro
+  @Description("How a split retried after a failure avoids extracting the same packages from SAP again. 'replay' "
+    + "emits the packages kept by the failed attempt again, without calling SAP, at the cost of keeping all "
+    + "extracted records in the Checkpoint Path while the split runs. If not specified, a retried split is extracted "
+    + "from SAP again.")
+  private String splitRecovery;
+
+  @Nullable
+  @Macro
+  @Description("Directory where the progress of the splits is kept while the pipeline runs, e.g. a Cloud Storage "
+    + "path. Required if a Split Recovery is specified.")
+  private String checkpointPath;
+
   @Nullable
   @Macro
   private String schema;
@@ -137,5 +219,51 @@ public class SapTablePluginConfigWrapper extends SapJcoPluginConfigWrapper {
       String errMsg = ResourceConstants.ERR_NEGATIVE_PARAM_PREFIX.getMsgForKey(PACKAGE_SIZE_LABEL);
       failureCollector.addFailure(errMsg, action).withConfigProperty(PACKAGE_SIZE);
     }
+
+    if (packageLookahead != null && !containsMacro(PACKAGE_LOOKAHEAD) && packageLookahead < 0) {
+      String errMsg = ResourceConstants.ERR_NEGATIVE_PARAM_PREFIX.getMsgForKey(PACKAGE_LOOKAHEAD_LABEL);
+      failureCollector.addFailure(errMsg, action).withConfigProperty(PACKAGE_LOOKAHEAD);
+    }
+
+    if (executorSlots != null && !containsMacro(EXECUTOR_SLOTS) && executorSlots < 0) {
+      String errMsg = ResourceConstants.ERR_NEGATIVE_PARAM_PREFIX.getMsgForKey(EXECUTOR_SLOTS_LABEL);
+      failureCollector.addFailure(errMsg, action).withConfigProperty(EXECUTOR_SLOTS);
+    }
+
+    if (splitRowsPerSecond != null && !containsMacro(SPLIT_ROWS_PER_SECOND) && splitRowsPerSecond < 0) {
+      String errMsg = ResourceConstants.ERR_NEGATIVE_PARAM_PREFIX.getMsgForKey(SPLIT_ROWS_PER_SECOND_LABEL);
+      failureCollector.addFailure(errMsg, action).withConfigProperty(SPLIT_ROWS_PER_SECOND);
+    }
+
+    if (Util.isNotNullOrEmpty(recordCountMode) && !containsMacro(RECORD_COUNT_MODE)
+      && !RECORD_COUNT_EXACT_VALUE.equalsIgnoreCase(recordCountMode)
+      && !RECORD_COUNT_ESTIMATED_VALUE.equalsIgnoreCase(recordCountMode)) {
+
+      String errMsg = ResourceConstants.ERR_INVALID_RECORD_COUNT_MODE.getMsgForKey(recordCountMode);
+      failureCollector.addFailure(errMsg, null).withConfigProperty(RECORD_COUNT_MODE);
+    }
+
+    if (Util.isNotNullOrEmpty(watermarkField) && Util.isNullOrEmpty(watermarkStatePath)
+      && !containsMacro(WATERMARK_STATE_PATH)) {
+
+      String errMsg = ResourceConstants.ERR_MISSING_PARAM_PREFIX.getMsgForKey(WATERMARK_STATE_PATH_LABEL);
+      failureCollector.addFailure(errMsg, ResourceConstants.ERR_MISSING_PARAM_OR_MACRO_ACTION.getMsgForKey())
+        .withConfigProperty(WATERMARK_STATE_PATH);
+    }
+
+    if (Util.isNotNullOrEmpty(splitRecovery) && !containsMacro(SPLIT_RECOVERY)) {
+      if (!SPLIT_RECOVERY_NONE_VALUE.equalsIgnoreCase(splitRecovery)
+        && !SPLIT_RECOVERY_REPLAY_VALUE.equalsIgnoreCase(splitRecovery)) {
+
+        String errMsg = ResourceConstants.ERR_INVALID_SPLIT_RECOVERY.getMsgForKey(splitRecovery);
+        failureCollector.addFailure(errMsg, null).withConfigProperty(SPLIT_RECOVERY);
+      } else if (!SPLIT_RECOVERY_NONE_VALUE.equalsIgnoreCase(splitRecovery) && Util.isNullOrEmpty(checkpointPath)
+        && !containsMacro(CHECKPOINT_PATH)) {
+
+        String errMsg = ResourceConstants.ERR_MISSING_PARAM_PREFIX.getMsgForKey(CHECKPOINT_PATH_LABEL);
+        failureCollector.addFailure(errMsg, ResourceConstants.ERR_MISSING_PARAM_OR_MACRO_ACTION.getMsgForKey())
+          .withConfigProperty(CHECKPOINT_PATH);
+      }
+    }
   }
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.table.source.input;
+
+/**
+ * Number of records requested from SAP in a single network call of a split.
+ * It starts at the planned package size, is halved every time SAP runs out of
+ * memory or time for a request, and doubles back after a run of successful
+ * requests, never exceeding the planned package size. Shared by the threads
+ * prefetching packages of the same split.
+ *
+ * @author sankalpbapat
+ *
+ */
+public class AdaptivePackageSize {
+
+  // Successful requests after which the package size is doubled again
+  static final int GROW_AFTER_SUCCESSES = 4;
+
+  private final long maxSize;
+  private final long minSize;
+
+  private long size;
+  private int successCount;
+
+  /**
+   * @param maxSize planned package size
+   * @param minSize package size below which a failed request is not split any
+   *                further
+   */
+  public AdaptivePackageSize(long maxSize, long minSize) {
+    this.maxSize = Math.max(1, maxSize);
+    this.minSize = Math.max(1, Math.min(minSize, this.maxSize));
+    this.size = this.maxSize;
+  }
+
+  public synchronized long getSize() {
+    return size;
+  }
+
+  /**
+   * Reduces the package size after a request for {@code failedRowCount} records
+   * ran out of SAP memory or time.
+   *
+   * @param failedRowCount number of records of the failed request
+   * @return {@code true} if the records can be requested in smaller packages,
+   *         {@code false} if the failed request was already at the minimum size
+   */
+  public synchronized boolean shrink(long failedRowCount) {
+    successCount = 0;
+    if (failedRowCount <= minSize) {
+      return false;
+    }
+
+    size = Math.min(size, Math.max(minSize, failedRowCount / 2));
+
+    return true;
+  }
+
+  /**
+   * Records a successful request and grows the package size after
+   * {@value #GROW_AFTER_SUCCESSES} successes in a row.
+   *
+   * @return {@code true} if the package size has grown
+   */
+  public synchronized boolean recordSuccess() {
+    if (size >= maxSize) {
+      return false;
+    }
+
+    successCount++;
+    if (successCount < GROW_AFTER_SUCCESSES) {
+      return false;
+    }
+
+    successCount = 0;
+    size = Math.min(maxSize, size * 2);
+
+    return true;
+  }
+}
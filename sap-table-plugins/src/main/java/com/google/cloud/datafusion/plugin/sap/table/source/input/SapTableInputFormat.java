@@ -34,12 +34,14 @@ import org.apache.hadoop.mapreduce.RecordReader;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Prepares and configures splits (start, end and length) along with the
- * {@code RecordReader}
+ * {@code RecordReader}. Splits are handed out largest first, by their estimated
+ * bytes.
  * 
  * @author sankalpbapat
  */
@@ -57,6 +59,8 @@ public class SapTableInputFormat extends SapJcoInputFormat {
     Gson gson = new GsonBuilder().create();
     List<SapTableInputSplit> partitions =
       gson.fromJson(conf.get(SapTableBatchSource.PARTITIONS_PROPERTY), INPUT_SPLIT_TYPE);
+    // Largest splits first, so that they do not start last and hold up the run
+    partitions.sort(Comparator.comparingLong(SapTableInputSplit::getEstimatedBytes).reversed());
 
     for (SapTableInputSplit partition : partitions) {
       splits.add(partition);
@@ -80,11 +84,16 @@ public class SapTableInputFormat extends SapJcoInputFormat {
       List<String> filterOptions = gson.fromJson(conf.get(SapTablePluginConfigWrapper.FILTER_OPTIONS), List.class);
       String schemaStr = conf.get(SapTableBatchSource.OUTPUT_SCHEMA_NAME);
       String totalWorkProcessCount = conf.get(SapTableBatchSource.TOTAL_WORK_PROCESS);
+      int packageLookahead = conf.getInt(SapTablePluginConfigWrapper.PACKAGE_LOOKAHEAD,
+        SapTablePluginConfigWrapper.DEFAULT_PACKAGE_LOOKAHEAD);
+      SapTableInputSplit tableSplit = (SapTableInputSplit) split;
 
       return (RecordReader<LongWritable, StructuredRecord>) recordReaderClass.getConstructor(Map.class, String.class,
-        List.class, String.class, long.class, long.class, long.class, String.class).newInstance(jcoConnProps, tableName,
-          filterOptions, schemaStr, ((SapTableInputSplit) split).getStart(), ((SapTableInputSplit) split).getEnd(),
-          ((SapTableInputSplit) split).getPackageSize(), totalWorkProcessCount);
+        List.class, String.class, long.class, long.class, long.class, String.class, int.class, String.class,
+        boolean.class)
+        .newInstance(jcoConnProps, tableName, filterOptions, schemaStr, tableSplit.getStart(), tableSplit.getEnd(),
+          tableSplit.getPackageSize(), totalWorkProcessCount, packageLookahead, tableSplit.getKeyRange(),
+          tableSplit.isOpenEnded());
     } catch (Exception e) {
       // should not happen
       throw new IllegalStateException("Unable to instantiate RecordReader with modified classloader.", e);
@@ -26,7 +26,13 @@ import java.io.IOException;
 /**
  * Pojo to hold a wrapper for partition details like start and end indices of
  * the records and static information like runtime Metadata which remains same
- * for all splits generated in this instance of InputFormat.
+ * for all splits generated in this instance of InputFormat. A split planned by
+ * key range also holds the condition on the key column, and its start and end
+ * indices are relative to the records in that range, so that SAP skips the
+ * earlier records of the range for every package but the first. An open ended split, planned
+ * from an estimated record count, reads on beyond its end index until SAP
+ * returns no more records. The length of a split is its estimated size in bytes,
+ * so that splits of different widths can be compared when scheduling them.
  * 
  * @author sankalpbapat
  */
@@ -36,19 +42,34 @@ public class SapTableInputSplit extends InputSplit implements Writable {
   // Standard package size. A split may need multiple SAP network calls (batches),
   // and last batch may have lesser number of records than this packageSize
   private long packageSize;
+  // Open SQL condition on the key column, empty if the split is a plain row window
+  private String keyRange = "";
+  private boolean openEnded;
+  // Estimated bytes to extract, i.e. record count times record size
+  private long estimatedBytes;
 
   public SapTableInputSplit() {
   }
 
   public SapTableInputSplit(long start, long end, long packageSize) {
+    this(start, end, packageSize, "");
+  }
+
+  public SapTableInputSplit(long start, long end, long packageSize, String keyRange) {
+    this(start, end, packageSize, keyRange, false);
+  }
+
+  public SapTableInputSplit(long start, long end, long packageSize, String keyRange, boolean openEnded) {
     this.start = start;
     this.end = end;
     this.packageSize = packageSize;
+    this.keyRange = keyRange;
+    this.openEnded = openEnded;
   }
 
   @Override
   public long getLength() throws IOException, InterruptedException {
-    return end - start + 1;
+    return getEstimatedBytes();
   }
 
   @Override
@@ -61,6 +82,9 @@ public class SapTableInputSplit extends InputSplit implements Writable {
     out.writeLong(start);
     out.writeLong(end);
     out.writeLong(packageSize);
+    out.writeUTF(keyRange);
+    out.writeBoolean(openEnded);
+    out.writeLong(estimatedBytes);
   }
 
   @Override
@@ -68,6 +92,9 @@ public class SapTableInputSplit extends InputSplit implements Writable {
     this.start = in.readLong();
     this.end = in.readLong();
     this.packageSize = in.readLong();
+    this.keyRange = in.readUTF();
+    this.openEnded = in.readBoolean();
+    this.estimatedBytes = in.readLong();
   }
 
   public long getStart() {
@@ -81,4 +108,24 @@ public class SapTableInputSplit extends InputSplit implements Writable {
   public long getPackageSize() {
     return packageSize;
   }
+
+  public String getKeyRange() {
+    return keyRange == null ? "" : keyRange;
+  }
+
+  public boolean isOpenEnded() {
+    return openEnded;
+  }
+
+  /**
+   * @return Estimated bytes to extract, or the record count if the size is not
+   *         estimated
+   */
+  public long getEstimatedBytes() {
+    return estimatedBytes > 0 ? estimatedBytes : end - start + 1;
+  }
+
+  public void setEstimatedBytes(long estimatedBytes) {
+    this.estimatedBytes = estimatedBytes;
+  }
 }
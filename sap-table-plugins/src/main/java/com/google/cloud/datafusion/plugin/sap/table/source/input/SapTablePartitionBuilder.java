@@ -16,6 +16,8 @@
 
 package com.google.cloud.datafusion.plugin.sap.table.source.input;
 
+import com.google.cloud.datafusion.plugin.sap.connection.ConcurrentRfmCalls;
+import com.google.cloud.datafusion.plugin.sap.exception.ConnectorException;
 import com.google.cloud.datafusion.plugin.sap.table.metadata.model.SapTableRuntimeConfigInfo;
 import com.google.cloud.datafusion.plugin.util.ResourceConstants;
 
@@ -25,8 +27,27 @@ import org.slf4j.LoggerFactory;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Future;
+
+import javax.annotation.Nullable;
 
 /**
+ * Partitions the records to extract into splits. Splits are either row windows
+ * of the records in key order, or ranges of the leading key column, which SAP
+ * starts with an index range scan instead of sorting and skipping all the
+ * earlier records. Only the first package of a range split avoids skipping
+ * records: the later packages are row windows within the range, as
+ * /GOOG/RFC_READ_TABLE reads the skipped and the requested records of a filtered
+ * request without ordering them, so there is no last key to continue from. A
+ * range never divides the records of one key value, so ranges on a leading key
+ * with few distinct values stay large.
+ * <p>
+ * The number of splits is limited by the dialog work processes available in SAP,
+ * as used by the prefetched packages of every split, and, if known, by the
+ * tasks the cluster runs at the same time. With a known
+ * extraction rate per split, splits are also kept long enough to outweigh their
+ * start up. Every plan reports its predicted duration.
+ * 
  * @author sankalpbapat
  *
  */
@@ -36,12 +57,199 @@ public class SapTablePartitionBuilder {
   private static final double MAX_WORK_PROCESS_USAGE_FACTOR = 0.5d;
   private static final double MAX_MEMORY_USAGE_FACTOR = 0.7d;
   private static final long DEFAULT_PACKAGE_SIZE = 70000L;
+  // Bytes per second a split extracts and converts, if its rate is not known. Only
+  // used to predict the duration, as it varies too much with the SAP system and
+  // the column types to size the splits by.
+  private static final long DEFAULT_SPLIT_BYTES_PER_SECOND = 8L * 1024 * 1024;
+  // Shortest extraction time of a split, below which task start up and the
+  // concurrent SAP connections cost more than the parallelism saves
+  private static final long MIN_SPLIT_SECONDS = 30L;
+
+  // Tasks the cluster runs at the same time, 0 if unknown
+  private final int executorSlots;
+  // Records a split extracts and converts per second, 0 if unknown
+  private final long splitRowsPerSecond;
+  // Dialog work processes a split uses at the same time
+  private final int workProcessesPerSplit;
 
   // These will save the updated/optimized values
   private long calculatedRowsToFetch;
   private int optimizedNumSplits;
   private long optimizedPackageSize;
+  private long predictedDurationSeconds;
+
+  public SapTablePartitionBuilder() {
+    this(0, 0L);
+  }
+
+  /**
+   * @param executorSlots      Tasks the cluster runs at the same time, i.e.
+   *                           executors times cores per executor, 0 if unknown
+   * @param splitRowsPerSecond Records a split extracts and converts per second,
+   *                           as measured by earlier runs or targeted, 0 if
+   *                           unknown
+   */
+  public SapTablePartitionBuilder(int executorSlots, long splitRowsPerSecond) {
+    this(executorSlots, splitRowsPerSecond, 1);
+  }
+
+  /**
+   * @param executorSlots      Tasks the cluster runs at the same time, i.e.
+   *                           executors times cores per executor, 0 if unknown
+   * @param splitRowsPerSecond Records a split extracts and converts per second,
+   *                           as measured by earlier runs or targeted, 0 if
+   *                           unknown
+   * @param packageLookahead   Packages every split requests in the background,
+   *                           each on its own work process
+   */
+  public SapTablePartitionBuilder(int executorSlots, long splitRowsPerSecond, int packageLookahead) {
+    this.executorSlots = Math.max(0, executorSlots);
+    this.splitRowsPerSecond = Math.max(0L, splitRowsPerSecond);
+    this.workProcessesPerSplit = Math.max(1, packageLookahead);
+  }
 
+  /**
+   * Partitions the records into ranges of the key column {@code keyField}. The
+   * first record of every row window is sampled to get the boundaries of the
+   * ranges, each sample sorting and skipping the records before it, and the
+   * records in every range are counted. All the samples, and
+   * then all the counts, are read from SAP at the same time. Falls back to the row
+   * windows if only some of the records are extracted, no boundary is found or
+   * the counted records do not add up to the records matching the filter, e.g.
+   * because the table changed in the meantime. If the record count is estimated,
+   * the row windows are used without sampling, as every sample sorts and skips
+   * the records before it, which takes about as long as the exact count that the
+   * estimate avoids.
+   * 
+   * @param runtimeConfig       SAP runtime configuration, with the record count
+   *                            matching the filter
+   * @param extractableRowCount Max. records to extract
+   * @param rowsToFetch         User input rows to fetch
+   * @param numSplits           User input number of splits
+   * @param packageSize         User input package size
+   * @param keyField            Leading key column, null to use row windows
+   * @param probe               Reads key values and record counts from SAP
+   * @return List of splits
+   * @throws ConnectorException
+   */
+  public List<SapTableInputSplit> build(SapTableRuntimeConfigInfo runtimeConfig, long extractableRowCount,
+                                        long rowsToFetch, int numSplits, long packageSize, @Nullable String keyField,
+                                        KeyRangeProbe probe)
+    throws ConnectorException {
+
+    List<SapTableInputSplit> rowWindows =
+      build(runtimeConfig, extractableRowCount, rowsToFetch, numSplits, packageSize);
+
+    long matchingRowCount = runtimeConfig.getRuntimeTableRecCount();
+    // Key ranges always cover all the records matching the filter
+    if (keyField == null || rowWindows.size() < 2 || calculatedRowsToFetch < matchingRowCount
+      || runtimeConfig.isRecordCountEstimated()) {
+      return rowWindows;
+    }
+
+    List<String> boundaries = new ArrayList<>(rowWindows.size() - 1);
+    try (ConcurrentRfmCalls rfmCalls = new ConcurrentRfmCalls()) {
+      List<Future<String>> sampleCalls = new ArrayList<>(rowWindows.size() - 1);
+      for (int i = 1; i < rowWindows.size(); i++) {
+        long rowSkips = rowWindows.get(i).getStart() - 1;
+        sampleCalls.add(rfmCalls.submit(() -> probe.getKeyValueAt(rowSkips)));
+      }
+
+      for (Future<String> sampleCall : sampleCalls) {
+        String keyValue = rfmCalls.get(sampleCall);
+        // Samples follow the key order, so a repeated value is always the last one
+        if (keyValue != null && !keyValue.isEmpty()
+          && (boundaries.isEmpty() || !keyValue.equals(boundaries.get(boundaries.size() - 1)))) {
+
+          boundaries.add(keyValue);
+        }
+      }
+    }
+
+    if (boundaries.isEmpty()) {
+      return rowWindows;
+    }
+
+    List<String> keyRanges = new ArrayList<>(boundaries.size() + 1);
+    for (int i = 0; i <= boundaries.size(); i++) {
+      String lowerBound = i == 0 ? null : boundaries.get(i - 1);
+      String upperBound = i == boundaries.size() ? null : boundaries.get(i);
+      keyRanges.add(createKeyRange(keyField, lowerBound, upperBound));
+    }
+
+    List<SapTableInputSplit> partitions = new ArrayList<>(keyRanges.size());
+    long rangedRowCount = 0L;
+    try (ConcurrentRfmCalls rfmCalls = new ConcurrentRfmCalls()) {
+      List<Future<Long>> countCalls = new ArrayList<>(keyRanges.size());
+      for (String keyRange : keyRanges) {
+        countCalls.add(rfmCalls.submit(() -> probe.countRecords(keyRange)));
+      }
+
+      for (int i = 0; i < keyRanges.size(); i++) {
+        long rangeRowCount = rfmCalls.getUntimed(countCalls.get(i));
+        rangedRowCount += rangeRowCount;
+        if (rangeRowCount > 0) {
+          partitions.add(new SapTableInputSplit(1L, rangeRowCount, optimizedPackageSize, keyRanges.get(i)));
+        }
+      }
+    }
+
+    if (partitions.isEmpty() || rangedRowCount != matchingRowCount) {
+      LOGGER.debug("Key ranges of column {} have {} records instead of {}, partitioning by row windows", keyField,
+        rangedRowCount, matchingRowCount);
+
+      return rowWindows;
+    }
+
+    optimizedNumSplits = partitions.size();
+    LOGGER.info(ResourceConstants.INFO_KEY_RANGE_SPLITS.getMsgForKey(optimizedNumSplits, keyField));
+    setEstimatedBytes(partitions, runtimeConfig.getRecordSize());
+    predictDuration(partitions, runtimeConfig.getRecordSize());
+
+    return partitions;
+  }
+
+  /**
+   * Creates the Open SQL condition for the records whose {@code keyField} value
+   * is within {@code lowerBound} (inclusive) and {@code upperBound} (exclusive).
+   * 
+   * @param keyField   Key column name
+   * @param lowerBound Lower bound, null if unbounded
+   * @param upperBound Upper bound, null if unbounded
+   * @return Open SQL condition
+   */
+  static String createKeyRange(String keyField, @Nullable String lowerBound, @Nullable String upperBound) {
+    StringBuilder keyRange = new StringBuilder();
+    if (lowerBound != null) {
+      keyRange.append(keyField).append(" >= ").append(toLiteral(lowerBound));
+    }
+
+    if (upperBound != null) {
+      if (lowerBound != null) {
+        keyRange.append(" AND ");
+      }
+      keyRange.append(keyField).append(" < ").append(toLiteral(upperBound));
+    }
+
+    return keyRange.toString();
+  }
+
+  private static String toLiteral(String value) {
+    return "'" + value.replace("'", "''") + "'";
+  }
+
+  /**
+   * Partitions the records into row windows. If the record count is estimated,
+   * the last window is open ended, so that it also reads any records beyond the
+   * estimate, unless only the first {@code rowsToFetch} records are extracted.
+   * 
+   * @param runtimeConfig       SAP runtime configuration
+   * @param extractableRowCount Max. records to extract
+   * @param rowsToFetch         User input rows to fetch
+   * @param numSplits           User input number of splits
+   * @param packageSize         User input package size
+   * @return List of splits
+   */
   public List<SapTableInputSplit> build(SapTableRuntimeConfigInfo runtimeConfig, long extractableRowCount,
                                         long rowsToFetch, int numSplits, long packageSize) {
 
@@ -49,6 +257,12 @@ public class SapTablePartitionBuilder {
     optimizedNumSplits = numSplits;
     optimizedPackageSize = packageSize;
 
+    boolean estimated = runtimeConfig.isRecordCountEstimated();
+    if (estimated) {
+      // Outdated statistics may report no records for a table which has some
+      extractableRowCount = Math.max(1L, extractableRowCount);
+    }
+
     double netCallCount = calcNetCallCount(runtimeConfig, extractableRowCount);
     int totalNwCalls = (int) Math.ceil(netCallCount);
     if (totalNwCalls < 1) {
@@ -72,7 +286,86 @@ public class SapTablePartitionBuilder {
     // E.g: [4, 4, 4, 4, 3.6, 3, 3, 3, 3, 3]. Along the way, start and end indices
     // of records in the splits are created by multiplying exact network calls with
     // packagSize
-    return createSplits(fullCallsPerSplit, splitCountWLastFullCall, netCallCount);
+    List<SapTableInputSplit> partitions = createSplits(fullCallsPerSplit, splitCountWLastFullCall, netCallCount);
+    if (estimated && totalNwCalls > 0) {
+      SapTableInputSplit lastPartition = partitions.get(partitions.size() - 1);
+      long lastEnd = rowsToFetch > calculatedRowsToFetch ? rowsToFetch : lastPartition.getEnd();
+      partitions.set(partitions.size() - 1, new SapTableInputSplit(lastPartition.getStart(), lastEnd,
+        optimizedPackageSize, lastPartition.getKeyRange(), rowsToFetch < 1));
+    }
+    setEstimatedBytes(partitions, runtimeConfig.getRecordSize());
+    predictDuration(partitions, runtimeConfig.getRecordSize());
+
+    return partitions;
+  }
+
+  /**
+   * Sets the estimated bytes of every split to its records times the record size,
+   * so that the splits can be scheduled largest first. The records of an open
+   * ended split are its estimated ones.
+   * 
+   * @param partitions Splits
+   * @param recordSize Size of a record in bytes
+   */
+  private static void setEstimatedBytes(List<SapTableInputSplit> partitions, int recordSize) {
+    for (SapTableInputSplit partition : partitions) {
+      long rowCount = Math.max(0L, partition.getEnd() - partition.getStart() + 1);
+      partition.setEstimatedBytes(rowCount * recordSize);
+    }
+  }
+
+  /**
+   * Predicts how long the extraction takes: the largest split at the extraction
+   * rate per split, once for every round of tasks the cluster needs to run all
+   * the splits. Without a known rate, the rate is derived from the record size.
+   * 
+   * @param partitions Splits, with their estimated bytes
+   * @param recordSize Size of a record in bytes
+   */
+  private void predictDuration(List<SapTableInputSplit> partitions, int recordSize) {
+    long maxSplitRows = 0L;
+    for (SapTableInputSplit partition : partitions) {
+      maxSplitRows = Math.max(maxSplitRows, partition.getEnd() - partition.getStart() + 1);
+    }
+
+    long rowsPerSecond = splitRowsPerSecond > 0 ? splitRowsPerSecond
+      : Math.max(1L, DEFAULT_SPLIT_BYTES_PER_SECOND / Math.max(1, recordSize));
+    int taskRounds = executorSlots > 0 ? 1 + (partitions.size() - 1) / executorSlots : 1;
+    predictedDurationSeconds = taskRounds * (long) Math.ceil((double) maxSplitRows / rowsPerSecond);
+
+    LOGGER.info(ResourceConstants.INFO_PREDICTED_DURATION.getMsgForKey(predictedDurationSeconds, partitions.size(),
+      taskRounds, rowsPerSecond));
+  }
+
+  /**
+   * Limits the number of splits chosen by the plugin to the tasks the cluster runs
+   * at the same time, as more splits would wait for a free task while holding no
+   * SAP work process, and to splits extracting for at least
+   * {@value #MIN_SPLIT_SECONDS} seconds at the known rate.
+   * 
+   * @param numSplits Number of splits SAP can serve
+   * @return Number of splits, at least 1
+   */
+  private int fitToCluster(int numSplits) {
+    int fittedNumSplits = numSplits;
+    if (executorSlots > 0) {
+      fittedNumSplits = Math.min(fittedNumSplits, executorSlots);
+    }
+
+    if (splitRowsPerSecond > 0) {
+      long minRowsPerSplit = splitRowsPerSecond * MIN_SPLIT_SECONDS;
+      fittedNumSplits = (int) Math.min(fittedNumSplits, 1 + (calculatedRowsToFetch - 1) / minRowsPerSplit);
+    }
+
+    return Math.max(1, fittedNumSplits);
+  }
+
+  /**
+   * @return predicted duration of the extraction in seconds, for the splits
+   *         built last
+   */
+  public long getPredictedDurationSeconds() {
+    return predictedDurationSeconds;
   }
 
   /**
@@ -94,7 +387,8 @@ public class SapTablePartitionBuilder {
       return 0d;
     }
 
-    int maxNumSplits = (int) (runtimeConfig.getAvailableWorkProcCount() * MAX_WORK_PROCESS_USAGE_FACTOR);
+    int maxNumSplits =
+      (int) (runtimeConfig.getAvailableWorkProcCount() * MAX_WORK_PROCESS_USAGE_FACTOR / workProcessesPerSplit);
     // No need to calculate further if max maxNumSplits is 0
     if (maxNumSplits < 1) {
       return 0d;
@@ -126,7 +420,11 @@ public class SapTablePartitionBuilder {
     } else {
       optimizedPackageSize = Math.min(optimizedPackageSize, maxPackageSize);
     }
-    optimizedPackageSize = Math.min(optimizedPackageSize, rowsPerSplit);
+    // Packages of an estimated record count are not fitted to the split size, as
+    // splits may have more records than estimated
+    if (!runtimeConfig.isRecordCountEstimated()) {
+      optimizedPackageSize = Math.min(optimizedPackageSize, rowsPerSplit);
+    }
 
     // Exact network call count needed to extract 'rowsToFetch' records, with all
     // calls fetching 'packageSize' records, except may be 1 call (if division
@@ -135,7 +433,7 @@ public class SapTablePartitionBuilder {
 
     // Splits NOT specified by user
     if (optimizedNumSplits < 1) {
-      optimizedNumSplits = (int) Math.min(Math.ceil(exactNetworkCallCount), maxNumSplits);
+      optimizedNumSplits = fitToCluster((int) Math.min(Math.ceil(exactNetworkCallCount), maxNumSplits));
     }
 
     LOGGER.info(ResourceConstants.INFO_NUM_RECORDS_PACKAGE.getMsgForKey(optimizedPackageSize));
@@ -183,4 +481,32 @@ public class SapTablePartitionBuilder {
 
     return partitions;
   }
+
+  /**
+   * Reads the values of the key column and counts the records of its ranges in
+   * SAP, for the records matching the filter. Called from several threads at the
+   * same time.
+   */
+  public interface KeyRangeProbe {
+
+    /**
+     * Reads the key value of the record following the first {@code rowSkips}
+     * records, in key order.
+     * 
+     * @param rowSkips Number of records to skip
+     * @return key value, or null if there is no such record
+     * @throws ConnectorException
+     */
+    @Nullable
+    String getKeyValueAt(long rowSkips) throws ConnectorException;
+
+    /**
+     * Counts the records within the key range.
+     * 
+     * @param keyRange Open SQL condition on the key column
+     * @return record count
+     * @throws ConnectorException
+     */
+    long countRecords(String keyRange) throws ConnectorException;
+  }
 }
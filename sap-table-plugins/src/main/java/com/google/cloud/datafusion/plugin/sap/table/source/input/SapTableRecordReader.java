@@ -17,21 +17,31 @@
 package com.google.cloud.datafusion.plugin.sap.table.source.input;
 
 import com.google.cloud.datafusion.plugin.sap.connection.SapConnection;
-import com.google.cloud.datafusion.plugin.sap.connection.SapInterface;
+import com.google.cloud.datafusion.plugin.sap.connection.RfcRetryPolicy;
+import com.google.cloud.datafusion.plugin.sap.connection.SapDestinationRegistry;
+import com.google.cloud.datafusion.plugin.sap.connection.WorkProcessGovernor;
 import com.google.cloud.datafusion.plugin.sap.exception.ConnectorException;
+import com.google.cloud.datafusion.plugin.sap.exception.RfcErrorClassifier;
+import com.google.cloud.datafusion.plugin.sap.exception.RfcErrorClassifier.ErrorType;
 import com.google.cloud.datafusion.plugin.sap.metadata.model.SapObjectMetadata;
-import com.google.cloud.datafusion.plugin.sap.source.AbstractStructuredSchemaTransformer;
 import com.google.cloud.datafusion.plugin.sap.table.connection.out.SapTableInterfaceImpl;
 import com.google.cloud.datafusion.plugin.sap.table.metadata.model.SapTableRuntimeOutput;
+import com.google.cloud.datafusion.plugin.sap.table.source.SapTableBatchSource;
 import com.google.cloud.datafusion.plugin.sap.table.source.SapTableToStructuredSchemaTransformer;
+import com.google.cloud.datafusion.plugin.sap.table.source.config.SapTablePluginConfig;
 import com.google.cloud.datafusion.plugin.util.ResourceConstants;
 import com.google.cloud.datafusion.plugin.util.Util;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sap.conn.jco.JCoTable;
 import com.sap.conn.jco.ext.DestinationDataProvider;
 
 import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
 
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.mapreduce.Counter;
 import org.apache.hadoop.mapreduce.InputSplit;
 import org.apache.hadoop.mapreduce.RecordReader;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
@@ -39,84 +49,223 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
+ * Reads the records of one split package by package. With a positive
+ * {@code packageLookahead}, the next packages are requested from SAP in the
+ * background on other pooled connections of the shared destination, while the
+ * current package is being converted. Packages are always consumed in order.
+ * A split planned by key range only reads the records of its range, and its row
+ * windows are relative to that range, so only its first package skips no
+ * records. An open ended split requests packages
+ * beyond its end until SAP returns an empty one. When SAP runs out of memory or
+ * time for a package, the package is requested in smaller parts instead, and
+ * the size of the parts grows back after successful requests. All the package requests to
+ * the destination in this JVM go through a {@link WorkProcessGovernor}, which
+ * holds them back while SAP has few dialog work processes available. With split
+ * recovery, every package part is kept in the checkpoint, so that a retried
+ * attempt replays the kept package parts without calling SAP.
+ *
  * @author sankalpbapat
  *
  */
-public class SapTableRecordReader extends RecordReader<LongWritable, StructuredRecord> {
+public class SapTableRecordReader extends RecordReader<LongWritable, StructuredRecord>
+  implements Supplier<Map<String, Long>> {
   private static final Logger LOGGER = LoggerFactory.getLogger(SapTableRecordReader.class);
 
-  private static final int MAX_RETRIES = 3;
-  private static final int INITIAL_WAIT_TIME_MILLIS = 5000;
+  // Smallest number of records requested after shrinking a package
+  private static final long MIN_PACKAGE_SIZE = 1000L;
+  // ABAP short dumps raised when a work process runs out of memory or time
+  private static final List<String> RESOURCE_DUMPS = ImmutableList.of("TSV_TNEW_PAGE_ALLOC_FAILED",
+    "TSV_TNEW_BLOCKS_NO_ROLL_MEMORY", "SYSTEM_NO_ROLL", "MEMORY_NO_MORE_PAGING", "TIME_OUT");
 
   public static final String ROW_SKIPS = "rowSkips";
   public static final String ROW_COUNT = "rowCount";
 
+  /**
+   * Counters of the SAP network calls of all splits, also counted as stage
+   * metrics under their metric names. The retry counters are taken from the
+   * retry policy of the split. Extracted records per extraction millisecond give
+   * the rate of a split, for the partition planning of later runs.
+   */
+  public enum PackageCounter {
+    NETWORK_CALLS("sap.network.calls"),
+    SHRUNK_PACKAGES("sap.shrunk.packages"),
+    GROWN_PACKAGES("sap.grown.packages"),
+    THROTTLED_CALLS("sap.throttled.calls"),
+    RETRIED_CALLS("sap.retried.calls"),
+    FATAL_FAILURES("sap.fatal.failures"),
+    EXHAUSTED_RETRIES("sap.exhausted.retries"),
+    DESTINATION_REFRESHES("sap.destination.refreshes"),
+    RETRY_WAIT_MILLIS("sap.retry.wait.millis"),
+    EXTRACTED_RECORDS("sap.extracted.records"),
+    EXTRACTION_MILLIS("sap.extraction.millis");
+
+    private final String metricName;
+
+    PackageCounter(String metricName) {
+      this.metricName = metricName;
+    }
+
+    public String getMetricName() {
+      return metricName;
+    }
+  }
+
   private final Map<String, String> jcoConnProps;
   private final String tableName;
   private final List<String> filterOptions;
-  private final SapInterface sapInterface;
+  private final SapTableInterfaceImpl sapInterface;
   private final Schema pluginSchema;
+  // SAP columns of the plugin schema, only these are read from SAP
+  private final List<String> fieldNames;
 
   private final long start;
   private final long end;
+  private final String keyRange;
   private final long packageSize;
+  // Split reads on beyond 'end' until SAP returns no more records
+  private final boolean openEnded;
   private final String totalWorkProcessCount;
+  private final int packageLookahead;
+  private final AdaptivePackageSize adaptivePackageSize;
+  // Retries the package requests of this split only, so that its counts belong
+  // to this split
+  private final RfcRetryPolicy retryPolicy;
+
+  // Packages requested in the background, in the order of their row windows
+  private final Deque<PendingPackage> pendingPackages;
+  // Remaining parts of the current package, if it was requested in parts
+  private final Deque<SapTableRuntimeOutput> packageParts;
 
   private SapConnection sapConn;
+  private ExecutorService packageFetcher;
+  private WorkProcessGovernor workProcessGovernor;
+  // Only updated on the reader thread, the package fetcher threads count into
+  // the PackageStats of their package instead
+  private final Map<PackageCounter, Counter> counters;
+  // Counts of this split, for its summary
+  private final PackageStats splitStats;
+  // Counts not taken as stage metrics yet
+  private final PackageStats unpublishedStats;
+  // Counts of the retry policy already counted
+  private final PackageStats countedRetryStats;
+  // Start of the extraction, -1 once the split finished
+  private long extractStartNanos = -1L;
 
   private SapObjectMetadata runtimeMetadata;
 
+  // Split recovery only, else null
+  private SplitCheckpoint checkpoint;
+  // Records of the package part replayed from the checkpoint, null once all the
+  // kept parts were replayed
+  private Iterator<String> replayedRecords;
+  private long replayedRows;
+
   private long pos;
   private LongWritable key;
   private StructuredRecord value;
-  private AbstractStructuredSchemaTransformer valueConverter;
+  private SapTableToStructuredSchemaTransformer valueConverter;
 
-  private Map<String, String> operProps;
+  // Number of rows of this split already requested from SAP
+  private long requestedRows;
   private SapTableRuntimeOutput sapTableOutput;
 
   public SapTableRecordReader(Map<String, String> jcoProps, String tableName, List<String> filterOptions,
-                              String schemaStr, long start, long end, long packageSize, String totalWorkProcessCount) {
+                              String schemaStr, long start, long end, long packageSize, String totalWorkProcessCount,
+                              int packageLookahead, String keyRange, boolean openEnded) {
 
     this.jcoConnProps = new HashMap<>(jcoProps);
     this.tableName = tableName;
 
-    this.filterOptions = new ArrayList<>(filterOptions);
+    this.filterOptions = Util.isNullOrEmpty(keyRange) ? new ArrayList<>(filterOptions)
+      : SapTablePluginConfig.addFilterCondition(filterOptions, keyRange);
 
     this.pluginSchema = getSchema(schemaStr);
+    this.fieldNames = pluginSchema == null ? Collections.emptyList()
+      : new SapTableToStructuredSchemaTransformer().getNativeFieldNames(pluginSchema);
     this.start = start;
     this.end = end;
+    this.keyRange = keyRange;
     this.packageSize = packageSize;
+    this.openEnded = openEnded;
     this.totalWorkProcessCount = totalWorkProcessCount;
+    this.packageLookahead = Math.max(0, packageLookahead);
+    this.adaptivePackageSize = new AdaptivePackageSize(packageSize, MIN_PACKAGE_SIZE);
+    this.retryPolicy = new RfcRetryPolicy(RfcRetryPolicy.DEFAULT_MAX_RETRIES, RfcRetryPolicy.DEFAULT_BASE_DELAY_MILLIS,
+      RfcRetryPolicy.DEFAULT_MAX_DELAY_MILLIS);
+    this.pendingPackages = new ArrayDeque<>();
+    this.packageParts = new ArrayDeque<>();
+    this.counters = new EnumMap<>(PackageCounter.class);
+    this.splitStats = new PackageStats();
+    this.unpublishedStats = new PackageStats();
+    this.countedRetryStats = new PackageStats();
     this.sapInterface = new SapTableInterfaceImpl();
   }
 
   @Override
   public void initialize(InputSplit split, TaskAttemptContext taContext) throws IOException, InterruptedException {
-    createConn(jcoConnProps);
-    operProps = new HashMap<>();
+    Configuration conf = taContext.getConfiguration();
+    sapConn = createConn(jcoConnProps);
+    workProcessGovernor = WorkProcessGovernor.forSplit(sapConn.getDestName(), Integer.parseInt(totalWorkProcessCount),
+      conf.getInt(SapTableBatchSource.CONCURRENT_SPLITS, 1), () -> sapInterface.getAvailableWorkProcCount(sapConn));
     sapTableOutput = new SapTableRuntimeOutput(null, null);
     key = new LongWritable();
     valueConverter = new SapTableToStructuredSchemaTransformer();
+    for (PackageCounter counter : PackageCounter.values()) {
+      counters.put(counter, taContext.getCounter(counter));
+    }
+
+    String checkpointDir = conf.get(SapTableBatchSource.CHECKPOINT_DIR);
+    if (checkpointDir != null) {
+      initCheckpoint(checkpointDir, conf);
+    }
+    extractStartNanos = System.nanoTime();
+
+    if (packageLookahead > 0) {
+      packageFetcher = Executors.newFixedThreadPool(packageLookahead,
+        new ThreadFactoryBuilder().setNameFormat("sap-table-package-fetcher-%d").setDaemon(true).build());
+    }
   }
 
   @Override
   public boolean nextKeyValue() throws IOException, InterruptedException {
+    // Package parts kept by a previous attempt are emitted first
+    if (replayedRecords != null) {
+      if (replayedRecords.hasNext() || replayNextPart()) {
+        return setCurrentRecord(replayedRecords.next());
+      }
+
+      if (!hasMorePackages()) {
+        return finishSplit();
+      }
+    }
+
     // First time into this method or all rows exhausted, call RFM
     if (sapTableOutput.getOutputDataTable() == null || sapTableOutput.getOutputDataTable().isEmpty()) {
-      calcSkipAndRowCount(pos);
-      sapTableOutput = executeRequest();
+      sapTableOutput = nextPackage();
       // If no rows are returned in current batch, then no point in making further
       // calls
       if (sapTableOutput.getOutputDataTable() == null || sapTableOutput.getOutputDataTable().isEmpty()) {
         LOGGER.info(ResourceConstants.INFO_NO_RECORDS.getMsgForKey(tableName));
 
-        return false;
+        return finishSplit();
       }
       if (runtimeMetadata == null) {
         runtimeMetadata = sapTableOutput.getObjectMetadata();
@@ -125,20 +274,124 @@ public class SapTableRecordReader extends RecordReader<LongWritable, StructuredR
       sapTableOutput.getOutputDataTable().deleteAllRows();
       // Check if any more network call is needed in the same split. If yes, keep the
       // process on, else return false
-      return isNextCallReqd(pos) ? nextKeyValue() : Boolean.FALSE.booleanValue();
+      return hasMorePackages() ? nextKeyValue() : finishSplit();
     }
 
+    return setCurrentRecord(valueConverter.getRawRecord(sapTableOutput.getOutputDataTable()));
+  }
+
+  private boolean setCurrentRecord(String rawRecord) throws IOException {
     long rowNum = pos + start;
     // Set the key field value as the output key value
     key.set(rowNum);
-    value =
-      valueConverter.readFields(sapTableOutput.getOutputDataTable().getString("WA"), runtimeMetadata, pluginSchema);
+    value = valueConverter.readFields(rawRecord, runtimeMetadata, pluginSchema);
 
     pos++;
 
     return true;
   }
 
+  /**
+   * Completes the split once all its records were read.
+   *
+   * @return {@code false}, as there is no next record
+   */
+  private boolean finishSplit() {
+    reportThroughput();
+    if (checkpoint != null) {
+      try {
+        checkpoint.delete();
+      } catch (IOException e) {
+        LOGGER.warn(ResourceConstants.WARN_SPLIT_CHECKPOINT_FAILED.getMsgForKey(start), e);
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Reports the records of this split and the time taken to extract and process
+   * them, along with a summary of its network calls, once.
+   */
+  private void reportThroughput() {
+    if (extractStartNanos < 0) {
+      return;
+    }
+
+    long elapsedMillis = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - extractStartNanos));
+    long extractedRows = pos;
+    extractStartNanos = -1L;
+    PackageStats throughput = new PackageStats();
+    throughput.add(PackageCounter.EXTRACTED_RECORDS, extractedRows);
+    throughput.add(PackageCounter.EXTRACTION_MILLIS, elapsedMillis);
+    countStats(throughput);
+    LOGGER.info(ResourceConstants.INFO_SPLIT_THROUGHPUT.getMsgForKey(start, extractedRows,
+      TimeUnit.MILLISECONDS.toSeconds(elapsedMillis), extractedRows * 1000L / elapsedMillis));
+    LOGGER.info(ResourceConstants.INFO_SPLIT_NETWORK_CALLS.getMsgForKey(start,
+      splitStats.get(PackageCounter.NETWORK_CALLS), splitStats.get(PackageCounter.RETRIED_CALLS),
+      splitStats.get(PackageCounter.THROTTLED_CALLS), splitStats.get(PackageCounter.SHRUNK_PACKAGES),
+      splitStats.get(PackageCounter.GROWN_PACKAGES)));
+  }
+
+  /**
+   * Adds the counts of a package to the counters, along with the retries counted
+   * by the retry policy since the last call, on the reader thread.
+   */
+  private void countStats(PackageStats stats) {
+    addRetryStats(stats);
+    for (PackageCounter counter : PackageCounter.values()) {
+      long count = stats.get(counter);
+      if (count > 0) {
+        counters.get(counter).increment(count);
+        splitStats.add(counter, count);
+        unpublishedStats.add(counter, count);
+      }
+    }
+  }
+
+  /**
+   * Adds the counts of the retry policy of this split not counted yet. Retries
+   * of a package still being requested are counted along with another package,
+   * but within this split.
+   */
+  private void addRetryStats(PackageStats stats) {
+    addRetryCount(stats, PackageCounter.RETRIED_CALLS, retryPolicy.getRetryCount());
+    addRetryCount(stats, PackageCounter.FATAL_FAILURES, retryPolicy.getFatalFailureCount());
+    addRetryCount(stats, PackageCounter.EXHAUSTED_RETRIES, retryPolicy.getExhaustedRetryCount());
+    addRetryCount(stats, PackageCounter.DESTINATION_REFRESHES, retryPolicy.getDestinationRefreshCount());
+    addRetryCount(stats, PackageCounter.RETRY_WAIT_MILLIS, retryPolicy.getBackoffMillis());
+  }
+
+  private void addRetryCount(PackageStats stats, PackageCounter counter, long policyCount) {
+    long count = policyCount - countedRetryStats.get(counter);
+    stats.add(counter, count);
+    countedRetryStats.add(counter, count);
+  }
+
+  /**
+   * Takes the counts of the packages read since the last call, to be counted as
+   * stage metrics by the record reader wrapper. Called on the reader thread.
+   *
+   * @return counts by metric name, empty if there are none
+   */
+  @Override
+  public Map<String, Long> get() {
+    if (unpublishedStats.isEmpty()) {
+      return Collections.emptyMap();
+    }
+
+    Map<String, Long> metrics = new HashMap<>();
+    for (PackageCounter counter : PackageCounter.values()) {
+      long count = unpublishedStats.get(counter);
+      if (count > 0) {
+        metrics.put(counter.getMetricName(), count);
+      }
+    }
+    unpublishedStats.clear();
+
+    return metrics;
+  }
+
   @Override
   public LongWritable getCurrentKey() throws IOException, InterruptedException {
     return key;
@@ -151,70 +404,380 @@ public class SapTableRecordReader extends RecordReader<LongWritable, StructuredR
 
   @Override
   public float getProgress() throws IOException, InterruptedException {
-    return pos / (float) getLength();
+    return Math.min(1f, pos / (float) getLength());
   }
 
   @Override
   public void close() throws IOException {
-    // No-op
+    if (packageFetcher != null) {
+      for (PendingPackage pendingPackage : pendingPackages) {
+        pendingPackage.parts.cancel(true);
+      }
+      pendingPackages.clear();
+      packageFetcher.shutdownNow();
+      packageFetcher = null;
+    }
+
+    if (workProcessGovernor != null) {
+      workProcessGovernor.removeSplit();
+    }
+
+    if (sapConn != null) {
+      SapDestinationRegistry.release(sapConn, getConcurrentCalls());
+      sapConn = null;
+    }
+  }
+
+  /**
+   * Picks up the package parts kept by previous attempts of this split, which are
+   * emitted again before the next package is requested from SAP.
+   */
+  private void initCheckpoint(String checkpointDir, Configuration conf) {
+    try {
+      checkpoint = new SplitCheckpoint(checkpointDir, SplitCheckpoint.createSplitId(start, end, keyRange), conf);
+      runtimeMetadata = checkpoint.readMetadata();
+      if (runtimeMetadata != null) {
+        replayedRecords = Collections.emptyIterator();
+      }
+    } catch (IOException e) {
+      // Attempt extracts the whole split again
+      LOGGER.warn(ResourceConstants.WARN_SPLIT_CHECKPOINT_FAILED.getMsgForKey(start), e);
+    }
+  }
+
+  /**
+   * Moves on to the next package part kept by a previous attempt, right after the
+   * rows already replayed.
+   *
+   * @return {@code true} if a part with records was kept
+   */
+  private boolean replayNextPart() {
+    SplitCheckpoint.KeptPart part = null;
+    try {
+      part = checkpoint.readPart(requestedRows + start - 1);
+    } catch (IOException e) {
+      LOGGER.warn(ResourceConstants.WARN_SPLIT_CHECKPOINT_FAILED.getMsgForKey(start), e);
+    }
+
+    if (part == null || part.getRawRecords().isEmpty()) {
+      replayedRecords = null;
+      if (replayedRows > 0) {
+        LOGGER.info(ResourceConstants.INFO_REPLAY_SPLIT.getMsgForKey(start, replayedRows));
+      }
+
+      return false;
+    }
+
+    requestedRows += part.getRowCount();
+    replayedRows += part.getRawRecords().size();
+    replayedRecords = part.getRawRecords().iterator();
+
+    return true;
+  }
+
+  /**
+   * Keeps the raw records of a package part, to be replayed if
+   * this attempt fails.
+   */
+  private void keepPart(long rowSkip, long rowCount, SapTableRuntimeOutput part) {
+    JCoTable dataTable = part.getOutputDataTable();
+    if (checkpoint == null || part.getObjectMetadata() == null || dataTable == null
+      || dataTable.isEmpty()) {
+      return;
+    }
+
+    // Runs on the package fetcher threads, so the converter of the reader can't be
+    // used
+    SapTableToStructuredSchemaTransformer rawRecordReader = new SapTableToStructuredSchemaTransformer();
+    List<String> rawRecords = new ArrayList<>(dataTable.getNumRows());
+    dataTable.firstRow();
+    do {
+      rawRecords.add(rawRecordReader.getRawRecord(dataTable));
+    } while (dataTable.nextRow());
+    dataTable.firstRow();
+
+    try {
+      checkpoint.writePart(rowSkip, rowCount, part.getObjectMetadata(), rawRecords);
+    } catch (IOException e) {
+      LOGGER.warn(ResourceConstants.WARN_SPLIT_CHECKPOINT_FAILED.getMsgForKey(start), e);
+    }
+  }
+
+  /**
+   * @return number of rows of this split not requested from SAP yet, unlimited
+   *         for an open ended split
+   */
+  private long getRemainingRows() {
+    return openEnded ? Long.MAX_VALUE - requestedRows : getLength() - requestedRows;
+  }
+
+  /**
+   * @return number of package requests this split runs at the same time, i.e.
+   *         the SAP connections and work processes it uses
+   */
+  private int getConcurrentCalls() {
+    return Math.max(1, packageLookahead);
+  }
+
+  private boolean hasMorePackages() {
+    return !packageParts.isEmpty() || !pendingPackages.isEmpty() || getRemainingRows() > 0;
+  }
+
+  /**
+   * Retrieves the next package of this split, or the next part of the current
+   * package if it was requested in parts.
+   *
+   * @return next package, empty if all rows have been requested
+   * @throws IOException
+   * @throws InterruptedException
+   */
+  private SapTableRuntimeOutput nextPackage() throws IOException, InterruptedException {
+    if (packageParts.isEmpty()) {
+      packageParts.addAll(fetchNextPackage());
+    }
+
+    SapTableRuntimeOutput nextPart = packageParts.poll();
+
+    return nextPart == null ? new SapTableRuntimeOutput(null, null) : nextPart;
+  }
+
+  /**
+   * Retrieves the parts of the next package of this split. Without lookahead the
+   * package is requested right away, else it is taken from the background
+   * requests, which are topped up to {@code packageLookahead} packages ahead of
+   * this one.
+   *
+   * @return parts of the next package, empty if all rows have been requested
+   * @throws IOException
+   * @throws InterruptedException
+   */
+  private List<SapTableRuntimeOutput> fetchNextPackage() throws IOException, InterruptedException {
+    if (packageFetcher == null) {
+      if (getRemainingRows() <= 0) {
+        return Collections.emptyList();
+      }
+
+      PackageStats stats = new PackageStats();
+      try {
+        return executeRequest(nextPackageProps(), stats);
+      } finally {
+        countStats(stats);
+      }
+    }
+
+    schedulePackages();
+    PendingPackage nextPackage = pendingPackages.poll();
+    if (nextPackage == null) {
+      return Collections.emptyList();
+    }
+
+    try {
+      List<SapTableRuntimeOutput> output = nextPackage.parts.get();
+      countStats(nextPackage.stats);
+      schedulePackages();
+
+      return output;
+    } catch (ExecutionException e) {
+      // Completion of the request makes its counts visible to this thread
+      countStats(nextPackage.stats);
+
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof InterruptedException) {
+        throw (InterruptedException) cause;
+      }
+
+      throw new IOException(cause);
+    }
   }
 
-  private boolean isNextCallReqd(long rowsDone) {
-    return getLength() - rowsDone > 0;
+  private void schedulePackages() {
+    // The package being converted is no longer pending, so at most
+    // packageLookahead requests are in flight at any time
+    while (pendingPackages.size() < packageLookahead && getRemainingRows() > 0) {
+      Map<String, String> packageProps = nextPackageProps();
+      PackageStats stats = new PackageStats();
+      pendingPackages.add(new PendingPackage(packageFetcher.submit(() -> executeRequest(packageProps, stats)), stats));
+    }
   }
 
-  private void calcSkipAndRowCount(long rowsDone) {
-    long rowSkip = rowsDone + start - 1;
-    long remain = getLength() - rowsDone;
+  /**
+   * Calculates the row window of the next package to request, right after the
+   * rows already requested. Packages cannot continue from the last key read
+   * instead, as SAP returns the records of a filtered request unordered.
+   *
+   * @return operation properties with row skips and row count
+   */
+  private Map<String, String> nextPackageProps() {
+    long rowSkip = requestedRows + start - 1;
+    long remain = getRemainingRows();
     long rowCount = remain > packageSize ? packageSize : remain;
+    requestedRows += rowCount;
 
+    Map<String, String> operProps = new HashMap<>();
     operProps.put(ROW_SKIPS, String.valueOf(rowSkip));
     operProps.put(ROW_COUNT, String.valueOf(rowCount));
+
+    return operProps;
   }
 
-  private SapTableRuntimeOutput executeRequest() throws IOException, InterruptedException {
+  /**
+   * Requests the records of a package from SAP, in parts of the adaptive
+   * package size. A part for which SAP runs out of memory or time is requested
+   * again in smaller parts. Other temporary failures are retried with jittered,
+   * increasing wait times by the {@link RfcRetryPolicy} of this split, fatal ones, e.g.
+   * a missing authorization, fail the package at once.
+   *
+   * @param operProps operation properties with row skips and row count of the
+   *                  package
+   * @param stats     counts of the network calls for the package
+   * @return parts of the package, in the order of their records
+   * @throws IOException          if a part fails for a fatal reason, or still
+   *                              fails after all the retries
+   * @throws InterruptedException
+   */
+  private List<SapTableRuntimeOutput> executeRequest(Map<String, String> operProps, PackageStats stats)
+    throws IOException, InterruptedException {
+
+    long rowSkip = Long.parseLong(operProps.get(ROW_SKIPS));
+    long rowCount = Long.parseLong(operProps.get(ROW_COUNT));
+    List<SapTableRuntimeOutput> parts = new ArrayList<>(1);
+    long fetchedRows = 0;
+
     int retryCount = 1;
-    int waitTimeMillis = INITIAL_WAIT_TIME_MILLIS;
-    while (true) {
+    while (fetchedRows < rowCount) {
+      long partRowCount = Math.min(rowCount - fetchedRows, adaptivePackageSize.getSize());
+      Map<String, String> partProps = new HashMap<>();
+      partProps.put(ROW_SKIPS, String.valueOf(rowSkip + fetchedRows));
+      partProps.put(ROW_COUNT, String.valueOf(partRowCount));
+
+      long callStartNanos = System.nanoTime();
       try {
-        return (SapTableRuntimeOutput) sapInterface.getSourceData(tableName, filterOptions, operProps, sapConn);
+        SapTableRuntimeOutput part = executeGoverned(partProps, stats);
+        parts.add(part);
+        keepPart(rowSkip + fetchedRows, partRowCount, part);
+
+        fetchedRows += partRowCount;
+        retryCount = 1;
+        if (adaptivePackageSize.recordSuccess()) {
+          stats.add(PackageCounter.GROWN_PACKAGES, 1L);
+          LOGGER.info(ResourceConstants.INFO_GROW_PACKAGE_SIZE.getMsgForKey(adaptivePackageSize.getSize()));
+        }
       } catch (ConnectorException e) {
-        long batchStart = Long.parseLong(operProps.get(ROW_SKIPS));
-        long batchEnd = batchStart + Long.parseLong(operProps.get(ROW_COUNT));
+        long batchStart = rowSkip + fetchedRows;
+        long batchEnd = batchStart + partRowCount;
 
-        if (retryCount > MAX_RETRIES) {
-          LOGGER.error(ResourceConstants.ERR_FAILED_PACKAGE_EXTRACT.getMsgForKeyWithCode(batchStart + 1, batchEnd,
-            retryCount - 1));
+        if (isResourceShortage(e) && adaptivePackageSize.shrink(partRowCount)) {
+          stats.add(PackageCounter.SHRUNK_PACKAGES, 1L);
+          LOGGER.warn(ResourceConstants.WARN_SHRINK_PACKAGE_EXTRACT.getMsgForKey(batchStart + 1, batchEnd,
+            adaptivePackageSize.getSize()));
+
+          continue;
+        }
+
+        ErrorType errorType = RfcErrorClassifier.classify(e);
+        long waitTimeMillis = retryPolicy.retryDelay(errorType, retryCount, sapConn, callStartNanos);
+        if (waitTimeMillis < 0) {
+          if (errorType == ErrorType.FATAL) {
+            LOGGER.error(ResourceConstants.ERR_FATAL_PACKAGE_EXTRACT.getMsgForKeyWithCode(batchStart + 1, batchEnd));
+          } else {
+            LOGGER.error(ResourceConstants.ERR_FAILED_PACKAGE_EXTRACT.getMsgForKeyWithCode(batchStart + 1, batchEnd,
+              retryCount - 1));
+          }
 
           throw new IOException(e);
         }
 
         LOGGER.warn(ResourceConstants.WARN_RETRY_PACKAGE_EXTRACT.getMsgForKey(batchStart + 1, batchEnd, retryCount,
-          waitTimeMillis / 1000));
+          waitTimeMillis));
 
         Thread.sleep(waitTimeMillis);
-        // Exponentially increase timeout for every retry attempt
-        waitTimeMillis *= 2;
         retryCount++;
       }
     }
+
+    return parts;
+  }
+
+  /**
+   * Requests a package part from SAP, once the work process governor allows one
+   * more call.
+   *
+   * @param operProps operation properties with row skips and row count
+   * @param stats     counts of the network calls for the package
+   * @return package part
+   * @throws ConnectorException
+   * @throws InterruptedException
+   */
+  private SapTableRuntimeOutput executeGoverned(Map<String, String> operProps, PackageStats stats)
+    throws ConnectorException, InterruptedException {
+
+    if (workProcessGovernor.acquire()) {
+      stats.add(PackageCounter.THROTTLED_CALLS, 1L);
+    }
+
+    try {
+      stats.add(PackageCounter.NETWORK_CALLS, 1L);
+      return (SapTableRuntimeOutput) sapInterface.getSourceData(tableName, filterOptions, fieldNames, operProps,
+        sapConn);
+    } finally {
+      workProcessGovernor.release();
+    }
   }
 
-  private void createConn(Map<String, String> pluginProps) throws IOException {
+  /**
+   * Checks if SAP failed a request because its work process ran out of memory or
+   * time, which a request for fewer records may avoid.
+   *
+   * Other database failures are not, unless SAP reports one of these dumps for
+   * them. Neither is an exceeded data buffer, which /GOOG/RFC_READ_TABLE raises
+   * for records wider than 30000 characters, whatever the number of records.
+   *
+   * @param e exception raised for the request
+   * @return {@code true} for memory and timeout failures
+   */
+  static boolean isResourceShortage(ConnectorException e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      String message = cause.getMessage();
+      if (message == null) {
+        continue;
+      }
+
+      for (String dump : RESOURCE_DUMPS) {
+        if (message.contains(dump)) {
+          return true;
+        }
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Acquires the connection shared by the splits reading from the destination in
+   * this JVM. Benchmarks override it to read from an in-process fake of SAP.
+   *
+   * @param pluginProps JCo connection properties
+   * @return SAP connection
+   * @throws IOException
+   */
+  protected SapConnection createConn(Map<String, String> pluginProps) throws IOException {
     // JCo connection pool and expiration timeout properties, to avoid batch and
     // pipeline failures due to large requests which take more than 60 sec. to
     // respond (default timeout)
     // Max. allowed JCo connections to this SAP system is determined by PEAK_LIMIT,
-    // and is set to total number of Dialog work processes in SAP
+    // and is set to total number of Dialog work processes in SAP. The destination
+    // and its pool are shared by all the splits in this JVM, so the limit applies
+    // across splits and pool capacity follows the number of running splits.
     pluginProps.put(DestinationDataProvider.JCO_PEAK_LIMIT, totalWorkProcessCount);
-    pluginProps.put(DestinationDataProvider.JCO_POOL_CAPACITY, "5");
     pluginProps.put(DestinationDataProvider.JCO_EXPIRATION_TIME, "180000");
     pluginProps.put(DestinationDataProvider.JCO_EXPIRATION_PERIOD, "180000");
     pluginProps.put(DestinationDataProvider.JCO_MAX_GET_TIME, "180000");
 
-    sapConn = new SapConnection(pluginProps);
     try {
-      sapConn.initDestination();
+      // Every prefetched package is requested on its own pooled connection
+      return SapDestinationRegistry.acquire(pluginProps, getConcurrentCalls());
     } catch (ConnectorException e) {
       throw new IOException(e);
     }
@@ -237,4 +800,48 @@ public class SapTableRecordReader extends RecordReader<LongWritable, StructuredR
       throw new IllegalArgumentException("Unable to parse schema with error: " + e.getMessage(), e);
     }
   }
+
+  /**
+   * Counts of the network calls for a package, or a split. The counts of a
+   * package are only updated by the thread requesting it.
+   */
+  private static final class PackageStats {
+    private final long[] counts = new long[PackageCounter.values().length];
+
+    private void add(PackageCounter counter, long count) {
+      counts[counter.ordinal()] += count;
+    }
+
+    private long get(PackageCounter counter) {
+      return counts[counter.ordinal()];
+    }
+
+    private boolean isEmpty() {
+      for (long count : counts) {
+        if (count != 0) {
+          return false;
+        }
+      }
+
+      return true;
+    }
+
+    private void clear() {
+      Arrays.fill(counts, 0L);
+    }
+  }
+
+  /**
+   * Package requested in the background, along with the counts of its network
+   * calls.
+   */
+  private static final class PendingPackage {
+    private final Future<List<SapTableRuntimeOutput>> parts;
+    private final PackageStats stats;
+
+    private PendingPackage(Future<List<SapTableRuntimeOutput>> parts, PackageStats stats) {
+      this.parts = parts;
+      this.stats = stats;
+    }
+  }
 }
@@ -0,0 +1,202 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.cloud.datafusion.plugin.sap.table.source.input;
+
+import com.google.cloud.datafusion.plugin.sap.metadata.model.SapFieldMetadata;
+import com.google.cloud.datafusion.plugin.sap.metadata.model.SapObjectMetadata;
+import com.google.cloud.datafusion.plugin.sap.table.metadata.model.SapColumn;
+import com.google.common.hash.Hashing;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * Progress of one split, kept in the checkpoint directory of the run, so that an
+ * attempt retried by the execution framework does not extract the same packages
+ * from SAP again. The raw records of every package part are kept, to be emitted
+ * again without calling SAP.
+ *
+ * @author sankalpbapat
+ *
+ */
+final class SplitCheckpoint {
+
+  private static final String METADATA_FILE_NAME = "metadata";
+  private static final String PART_FILE_PREFIX = "part_";
+  private static final Type COLUMNS_TYPE = new TypeToken<List<SapColumn>>() { }.getType();
+  private static final Gson GSON = new Gson();
+
+  private final Path splitPath;
+  private final FileSystem fs;
+
+  private volatile boolean isMetadataWritten;
+
+  /**
+   * @param checkpointDir checkpoint directory of the run
+   * @param splitId       id of the split, the same for all its attempts
+   * @param conf          Hadoop configuration to access the file system
+   * @throws IOException
+   */
+  SplitCheckpoint(String checkpointDir, String splitId, Configuration conf) throws IOException {
+    this.splitPath = new Path(checkpointDir, splitId);
+    this.fs = splitPath.getFileSystem(conf);
+  }
+
+  /**
+   * Creates an id from the row window and key range of a split, which does not
+   * change between its attempts.
+   */
+  static String createSplitId(long start, long end, @Nullable String keyRange) {
+    String split = start + "|" + end + "|" + (keyRange == null ? "" : keyRange);
+
+    return Hashing.sha256().hashString(split, StandardCharsets.UTF_8).toString();
+  }
+
+  /**
+   * @return runtime column metadata kept with the package parts, or null if no
+   *         part was kept
+   * @throws IOException
+   */
+  @Nullable
+  SapObjectMetadata readMetadata() throws IOException {
+    try (FSDataInputStream in = fs.open(new Path(splitPath, METADATA_FILE_NAME))) {
+      List<SapColumn> columns = GSON.fromJson(readString(in), COLUMNS_TYPE);
+
+      return columns == null ? null : new SapObjectMetadata(new ArrayList<>(columns));
+    } catch (FileNotFoundException | JsonParseException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Keeps the raw records of a package part, together with the runtime column
+   * metadata needed to read them. Parts are written by the package fetcher
+   * threads, each to its own file.
+   *
+   * @param rowSkip    rows skipped before the part
+   * @param rowCount   rows requested for the part
+   * @param metadata   runtime column metadata of the part
+   * @param rawRecords raw records of the part
+   * @throws IOException
+   */
+  void writePart(long rowSkip, long rowCount, SapObjectMetadata metadata, List<String> rawRecords)
+    throws IOException {
+
+    if (!isMetadataWritten) {
+      List<SapColumn> columns = new ArrayList<>();
+      for (SapFieldMetadata field : metadata.getFieldMetadata()) {
+        columns.add((SapColumn) field);
+      }
+
+      try (FSDataOutputStream out = fs.create(new Path(splitPath, METADATA_FILE_NAME), true)) {
+        writeString(out, GSON.toJson(columns, COLUMNS_TYPE));
+      }
+      isMetadataWritten = true;
+    }
+
+    try (FSDataOutputStream out = fs.create(new Path(splitPath, PART_FILE_PREFIX + rowSkip), true)) {
+      out.writeLong(rowCount);
+      out.writeInt(rawRecords.size());
+      for (String rawRecord : rawRecords) {
+        writeString(out, rawRecord);
+      }
+    }
+  }
+
+  /**
+   * @param rowSkip rows skipped before the part
+   * @return package part kept by a previous attempt, or null if none was kept
+   *         for this row window
+   * @throws IOException
+   */
+  @Nullable
+  KeptPart readPart(long rowSkip) throws IOException {
+    try (FSDataInputStream in = fs.open(new Path(splitPath, PART_FILE_PREFIX + rowSkip))) {
+      long rowCount = in.readLong();
+      int recordCount = in.readInt();
+      List<String> rawRecords = new ArrayList<>(recordCount);
+      for (int i = 0; i < recordCount; i++) {
+        rawRecords.add(readString(in));
+      }
+
+      return new KeptPart(rowCount, rawRecords);
+    } catch (FileNotFoundException | EOFException e) {
+      // Not kept, or only partially written by an attempt that was stopped
+      return null;
+    }
+  }
+
+  /**
+   * Removes the checkpoint once all the records of the split were read.
+   */
+  void delete() throws IOException {
+    fs.delete(splitPath, true);
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Package part kept by a previous attempt
+   */
+  static final class KeptPart {
+    private final long rowCount;
+    private final List<String> rawRecords;
+
+    private KeptPart(long rowCount, List<String> rawRecords) {
+      this.rowCount = rowCount;
+      this.rawRecords = rawRecords;
+    }
+
+    long getRowCount() {
+      return rowCount;
+    }
+
+    List<String> getRawRecords() {
+      return rawRecords;
+    }
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.cloud.datafusion.plugin.sap.table.source.watermark;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import javax.annotation.Nullable;
+
+/**
+ * Keeps the watermarks in a directory of any file system supported by Hadoop,
+ * e.g. a Cloud Storage bucket or a local directory of the driver. Each key has
+ * its own sub directory with the committed watermark.
+ *
+ * @author sankalpbapat
+ *
+ */
+public class FileSystemWatermarkStore implements WatermarkStore {
+
+  private static final String COMMITTED_FILE_NAME = "watermark";
+
+  private final Path basePath;
+  private final Configuration conf;
+
+  /**
+   * @param basePath directory of the watermarks, created on first write
+   * @param conf     Hadoop configuration to access the file system
+   */
+  public FileSystemWatermarkStore(String basePath, Configuration conf) {
+    this.basePath = new Path(basePath);
+    this.conf = conf;
+  }
+
+  @Override
+  @Nullable
+  public String getCommitted(String key) throws IOException {
+    return read(new Path(getKeyPath(key), COMMITTED_FILE_NAME));
+  }
+
+  @Override
+  public void commit(String key, String watermark) throws IOException {
+    Path keyPath = getKeyPath(key);
+    Path committedPath = new Path(keyPath, COMMITTED_FILE_NAME);
+    Path partPath = new Path(keyPath, COMMITTED_FILE_NAME + "." + UUID.randomUUID() + ".part");
+
+    FileSystem fs = committedPath.getFileSystem(conf);
+    write(fs, partPath, watermark);
+    // Rename does not replace an existing file on all file systems. Losing the old
+    // watermark only causes a full extract in the next run, never missing records.
+    fs.delete(committedPath, false);
+    if (!fs.rename(partPath, committedPath)) {
+      fs.delete(partPath, false);
+      throw new IOException("Unable to commit watermark to '" + committedPath + "'");
+    }
+  }
+
+  @Nullable
+  private String read(Path filePath) throws IOException {
+    FileSystem fs = filePath.getFileSystem(conf);
+    try (FSDataInputStream in = fs.open(filePath)) {
+      return new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8);
+    } catch (FileNotFoundException e) {
+      return null;
+    }
+  }
+
+  private void write(FileSystem fs, Path filePath, String content) throws IOException {
+    try (FSDataOutputStream out = fs.create(filePath, true)) {
+      out.write(content.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  private Path getKeyPath(String key) {
+    // Table names may contain '/' for customer namespaces, so only a hash of the
+    // key is safe as a directory name
+    return new Path(basePath, Hashing.sha256().hashString(key, StandardCharsets.UTF_8).toString());
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.cloud.datafusion.plugin.sap.table.source.watermark;
+
+import java.io.IOException;
+
+import javax.annotation.Nullable;
+
+/**
+ * Keeps the watermark of incremental extractions between pipeline runs. The
+ * upper bound of a run is only committed after the run succeeded, so that a
+ * failed run is extracted again from the previous watermark.
+ *
+ * @author sankalpbapat
+ *
+ */
+public interface WatermarkStore {
+
+  /**
+   * @param key watermark key
+   * @return last committed watermark, or null if none was committed yet
+   * @throws IOException
+   */
+  @Nullable
+  String getCommitted(String key) throws IOException;
+
+  /**
+   * Commits the watermark, replacing the previous one.
+   *
+   * @param key       watermark key
+   * @param watermark new watermark
+   * @throws IOException
+   */
+  void commit(String key, String watermark) throws IOException;
+}
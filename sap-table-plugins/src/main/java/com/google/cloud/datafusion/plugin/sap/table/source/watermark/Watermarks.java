@@ -0,0 +1,172 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.cloud.datafusion.plugin.sap.table.source.watermark;
+
+import com.google.cloud.datafusion.plugin.sap.metadata.model.SapFieldMetadata;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import javax.annotation.Nullable;
+
+/**
+ * Watermark values are kept as literals of the watermark column, e.g.
+ * '20211008' for a date or '20211008232445' for a UTC timestamp, so that they
+ * can be used in the Filter Options condition of the next run.
+ *
+ * The Table reader RFM can't return the highest value of a column, so every run
+ * reads up to an upper bound taken from the clock when the run starts, and
+ * commits that bound once it succeeded. Records changed while the run reads are
+ * then extracted by the next run, whichever split they belong to. Only a single
+ * column is supported, i.e. a date and a time column, like AEDAT and AEZEIT, can
+ * not be combined, so the date column alone re-extracts the records of the day
+ * of the previous bound.
+ *
+ * @author sankalpbapat
+ *
+ */
+public final class Watermarks {
+
+  // Changes are stamped before their logical unit of work is committed in SAP,
+  // and the clocks of SAP and of the pipeline may differ
+  static final Duration COMMIT_LAG = Duration.ofHours(1L);
+  // Dates and timestamps other than UTC timestamps are kept in the time zone of
+  // the SAP system, which is at most 12 hours behind UTC
+  static final Duration MAX_ZONE_LAG = Duration.ofHours(12L);
+
+  private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+  private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+  private static final int DATE_LENGTH = 8;
+  private static final int TIMESTAMP_LENGTH = 14;
+  // Length with decimals of short and long UTC timestamps, TIMESTAMP and
+  // TIMESTAMPL, as read from the column metadata
+  private static final int UTC_TIMESTAMP_LENGTH = 15;
+  private static final int UTC_TIMESTAMPL_LENGTH = 28;
+  private static final int UTC_TIMESTAMPL_DECIMALS = 7;
+
+  private Watermarks() {
+  }
+
+  /**
+   * @param field watermark column
+   * @return {@code true} if the column is a date or a timestamp, which can be
+   *         bounded by the clock
+   */
+  public static boolean isSupportedType(SapFieldMetadata field) {
+    return getFormat(field) != null;
+  }
+
+  /**
+   * Creates the upper bound of a run in the format of the watermark column. UTC
+   * timestamps are bounded by the UTC time, less the commit lag. Dates and local
+   * timestamps are bounded by the time of the westernmost time zone, so that the
+   * bound is never ahead of the SAP system.
+   *
+   * @param field watermark column
+   * @param now   start of the run
+   * @return upper bound, or null if the column is not supported
+   */
+  @Nullable
+  public static String createUpperBound(SapFieldMetadata field, Instant now) {
+    DateTimeFormatter format = getFormat(field);
+    if (format == null) {
+      return null;
+    }
+
+    Instant bound = now.minus(COMMIT_LAG);
+    if (!isUtcTimestamp(field)) {
+      bound = bound.minus(MAX_ZONE_LAG);
+    }
+
+    return format.format(bound.atOffset(ZoneOffset.UTC));
+  }
+
+  /**
+   * Creates the condition for the records changed at or after the watermark. The
+   * records at the watermark itself are extracted again, as more of them may have
+   * been changed after the previous run read them.
+   *
+   * @param fieldName watermark column
+   * @param watermark last committed watermark
+   * @return Open SQL condition
+   */
+  public static String createCondition(String fieldName, String watermark) {
+    return fieldName + " >= '" + watermark.replace("'", "''") + "'";
+  }
+
+  /**
+   * Creates the condition for the records changed up to the upper bound of a run.
+   *
+   * @param fieldName  watermark column
+   * @param upperBound upper bound of the run
+   * @return Open SQL condition
+   */
+  public static String createUpperCondition(String fieldName, String upperBound) {
+    return fieldName + " <= '" + upperBound.replace("'", "''") + "'";
+  }
+
+  /**
+   * Compares watermark values numerically if both are numbers, else
+   * alphabetically.
+   *
+   * @return negative, zero or positive, as {@code first} is lower, equal or
+   *         higher than {@code second}
+   */
+  public static int compare(String first, String second) {
+    try {
+      return new BigDecimal(first).compareTo(new BigDecimal(second));
+    } catch (NumberFormatException e) {
+      return first.compareTo(second);
+    }
+  }
+
+  @Nullable
+  private static DateTimeFormatter getFormat(SapFieldMetadata field) {
+    switch (field.getAbapType()) {
+      case "D":
+        return DATE_FORMAT;
+
+      case "P":
+        return isUtcTimestamp(field) ? TIMESTAMP_FORMAT : null;
+
+      case "C":
+      case "N":
+        // Dates and timestamps kept as text or digits
+        if (field.getLength() == DATE_LENGTH) {
+          return DATE_FORMAT;
+        }
+        return field.getLength() == TIMESTAMP_LENGTH ? TIMESTAMP_FORMAT : null;
+
+      default:
+        return null;
+    }
+  }
+
+  private static boolean isUtcTimestamp(SapFieldMetadata field) {
+    if (!"P".equals(field.getAbapType())) {
+      return false;
+    }
+
+    return field.getDecimals() == 0 ? field.getLength() == UTC_TIMESTAMP_LENGTH
+      : field.getDecimals() == UTC_TIMESTAMPL_DECIMALS && field.getLength() == UTC_TIMESTAMPL_LENGTH;
+  }
+}
@@ -37,7 +37,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.annotation.Nullable;
 
@@ -50,11 +52,13 @@ public class SapRfmExecutionHelper {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(SapRfmExecutionHelper.class);
 
-  private static final String METADATA_UTIL_RFM = "DDIF_FIELDINFO_GET";
-  private static final String TABLE_READER_RFM = "/GOOG/RFC_READ_TABLE";
-  private static final String WORK_PROCESS_RFM = "TH_WPINFO";
-  private static final String MEMORY_SUMMARY_RFM = "SAPTUNE_GET_SUMMARY_STATISTIC";
+  public static final String METADATA_UTIL_RFM = "DDIF_FIELDINFO_GET";
+  public static final String TABLE_READER_RFM = "/GOOG/RFC_READ_TABLE";
+  public static final String WORK_PROCESS_RFM = "TH_WPINFO";
+  public static final String MEMORY_SUMMARY_RFM = "SAPTUNE_GET_SUMMARY_STATISTIC";
   private static final String QUERY_TABLE_PARAM = "QUERY_TABLE";
+  private static final String FIELDS_PARAM = "FIELDS";
+  private static final String FIELD_NAME = "FIELDNAME";
   private static final String MARK_FIELD_TRUE_VALUE = "X";
 
   /**
@@ -137,11 +141,33 @@ public class SapRfmExecutionHelper {
    *
    * @param sapTable      table name
    * @param filterOptions filterOptions
+   * @param fieldNames    SAP columns to be extracted, all columns if empty
    * @param conn          SapConnection
    * @return SapTableRuntimeConfigInfo.Builder
    * @throws ConnectorException
    */
   public SapTableRuntimeConfigInfo.Builder getRuntimeTableRecordCount(String sapTable, List<String> filterOptions,
+                                                                      List<String> fieldNames, SapConnection conn)
+    throws ConnectorException {
+
+    return getRuntimeTableRecordCount(sapTable, filterOptions, fieldNames, true, conn);
+  }
+
+  /**
+   * Retrieves the record size of the SAP table and, if {@code countRecords} is
+   * set, the number of records matching {@code filterOptions}. Without counting,
+   * SAP only reads the column metadata, not the table.
+   *
+   * @param sapTable      table name
+   * @param filterOptions filterOptions
+   * @param fieldNames    SAP columns to be extracted, all columns if empty
+   * @param countRecords  whether the records are counted
+   * @param conn          SapConnection
+   * @return SapTableRuntimeConfigInfo.Builder
+   * @throws ConnectorException
+   */
+  public SapTableRuntimeConfigInfo.Builder getRuntimeTableRecordCount(String sapTable, List<String> filterOptions,
+                                                                      List<String> fieldNames, boolean countRecords,
                                                                       SapConnection conn)
     throws ConnectorException {
 
@@ -150,7 +176,9 @@ public class SapRfmExecutionHelper {
     JCoFunction function = conn.getJCoFunction(TABLE_READER_RFM);
     function.getImportParameterList().setValue(QUERY_TABLE_PARAM, sapTable);
     function.getImportParameterList().setValue("NO_DATA", MARK_FIELD_TRUE_VALUE);
-    function.getImportParameterList().setValue("IM_REC_COUNT", MARK_FIELD_TRUE_VALUE);
+    if (countRecords) {
+      function.getImportParameterList().setValue("IM_REC_COUNT", MARK_FIELD_TRUE_VALUE);
+    }
     JCoTable tabList =
       function.getTableParameterList().getTable(SapTablePluginConfigWrapper.FILTER_OPTIONS.toUpperCase());
 
@@ -159,17 +187,26 @@ public class SapRfmExecutionHelper {
       tabList.setValue("TEXT", filterOption);
     }
 
+    setFields(function, fieldNames);
+
     try {
       conn.executeFunction(function);
 
-      long recordCount = Long.parseLong(function.getExportParameterList().getString("EX_COUNT"));
-      rtTableInfoBuilder.setRuntimeTableRecCount(recordCount);
+      if (countRecords) {
+        long recordCount = Long.parseLong(function.getExportParameterList().getString("EX_COUNT"));
+        rtTableInfoBuilder.setRuntimeTableRecCount(recordCount);
+      }
 
-      JCoTable fieldMetaTable = function.getTableParameterList().getTable("FIELDS");
-      fieldMetaTable.setRow(fieldMetaTable.getNumRows() - 1);
-      int offset = Integer.parseInt(fieldMetaTable.getString("OFFSET"));
-      int length = Integer.parseInt(fieldMetaTable.getString("LENGTH"));
-      rtTableInfoBuilder.setRecordSize(offset + length);
+      // Width of the (projected) work area is the end of its farthest column
+      int recordSize = 0;
+      JCoTable fieldMetaTable = function.getTableParameterList().getTable(FIELDS_PARAM);
+      for (int j = 0; j < fieldMetaTable.getNumRows(); j++) {
+        fieldMetaTable.setRow(j);
+        int offset = Integer.parseInt(fieldMetaTable.getString("OFFSET"));
+        int length = Integer.parseInt(fieldMetaTable.getString("LENGTH"));
+        recordSize = Math.max(recordSize, offset + length);
+      }
+      rtTableInfoBuilder.setRecordSize(recordSize);
     } catch (AbapException e) {
       if (e.getKey().equalsIgnoreCase("OPTION_NOT_VALID")) {
         String errMsg = ResourceConstants.ERR_OPTION_NOT_VALID.getMsgForKeyWithCode();
@@ -267,20 +304,23 @@ public class SapRfmExecutionHelper {
   }
 
   /**
-   * Executes RFM to get SAP table records
+   * Executes RFM to get SAP table records. If {@code fieldNames} are specified,
+   * only those columns are read and transferred by SAP, and the column metadata
+   * in the output follows the order of {@code fieldNames}.
    *
    * @param sapTable
    * @param rowSkips
-   * @param rowSkips
    * @param rowCount
    * @param filterOptions
+   * @param fieldNames    SAP columns to be extracted, all columns if empty
    * @param conn
    * @return jcoTable
    * @throws ConnectorException
    */
   @Nullable
   public SapTableRuntimeOutput getTableRecords(String sapTable, long rowSkips, long rowCount,
-                                               List<String> filterOptions, SapConnection conn)
+                                               List<String> filterOptions, List<String> fieldNames,
+                                               SapConnection conn)
 
     throws ConnectorException {
 
@@ -297,16 +337,18 @@ public class SapRfmExecutionHelper {
       tabList.setValue("TEXT", filterOption);
     }
 
+    setFields(function, fieldNames);
+
     try {
       conn.executeFunction(function);
 
       List<SapFieldMetadata> colMetaList = new ArrayList<>();
-      SapObjectMetadata tableMetadata = new SapObjectMetadata(colMetaList);
+      Map<String, SapFieldMetadata> colMetaByName = new HashMap<>();
 
-      JCoTable fieldMetaTable = function.getTableParameterList().getTable("FIELDS");
+      JCoTable fieldMetaTable = function.getTableParameterList().getTable(FIELDS_PARAM);
       for (int j = 0; j < fieldMetaTable.getNumRows(); j++) {
         fieldMetaTable.setRow(j);
-        String fieldName = fieldMetaTable.getString("FIELDNAME");
+        String fieldName = fieldMetaTable.getString(FIELD_NAME);
         String desc = fieldMetaTable.getString("FIELDTEXT");
         String offset = fieldMetaTable.getString("OFFSET");
         String length = fieldMetaTable.getString("LENGTH");
@@ -316,8 +358,12 @@ public class SapRfmExecutionHelper {
           Integer.valueOf(length), 0, null, dataIntType, false);
 
         colMetaList.add(column);
+        colMetaByName.put(fieldName, column);
       }
 
+      SapObjectMetadata tableMetadata =
+        new SapObjectMetadata(fieldNames.isEmpty() ? colMetaList : orderByFieldNames(colMetaByName, fieldNames));
+
       String outputTable = function.getExportParameterList().getString("OUT_TABLE");
       // Return JCoTable identified by OUT_TABLE parameter of RFM
       return new SapTableRuntimeOutput(tableMetadata, function.getTableParameterList().getTable(outputTable));
@@ -343,6 +389,49 @@ public class SapRfmExecutionHelper {
     return null;
   }
 
+  /**
+   * Restricts the columns read by the RFM to {@code fieldNames}. No column is
+   * set if the list is empty, in which case the RFM reads all the columns.
+   *
+   * @param function   RFM to be executed
+   * @param fieldNames SAP column names
+   */
+  private void setFields(JCoFunction function, List<String> fieldNames) {
+    JCoTable fieldList = function.getTableParameterList().getTable(FIELDS_PARAM);
+    for (String fieldName : fieldNames) {
+      fieldList.appendRow();
+      fieldList.setValue(FIELD_NAME, fieldName);
+    }
+  }
+
+  /**
+   * Arranges the column metadata returned by the RFM in the order of
+   * {@code fieldNames}, so that the column at any index refers to the schema
+   * field at the same index, with offset and length in the projected record.
+   *
+   * @param colMetaByName column metadata returned by the RFM, by column name
+   * @param fieldNames    SAP column names in the schema order
+   * @return List of column metadata
+   * @throws ConnectorException if SAP did not return a requested column
+   */
+  private List<SapFieldMetadata> orderByFieldNames(Map<String, SapFieldMetadata> colMetaByName,
+                                                   List<String> fieldNames)
+    throws ConnectorException {
+
+    List<SapFieldMetadata> colMetaList = new ArrayList<>(fieldNames.size());
+    for (String fieldName : fieldNames) {
+      SapFieldMetadata column = colMetaByName.get(fieldName);
+      if (column == null) {
+        String errMsg = ResourceConstants.ERR_FIELD_NOT_RETURNED.getMsgForKeyWithCode(fieldName);
+        throw new ConnectorException(ResourceConstants.ERR_FIELD_NOT_RETURNED.getCode(), errMsg);
+      }
+
+      colMetaList.add(column);
+    }
+
+    return colMetaList;
+  }
+
   /**
    * Handles generic JCoException thrown from SAP while executing RFM
    *
@@ -266,7 +266,7 @@ public class SapTableInterfaceImplTest {
   /**
    * Test method for
    * {@link com.google.cloud.datafusion.plugin.sap.connection.SapInterface#getRuntimeConfigParams(java.lang.String,
-   * java.util.List<String>,
+   * java.util.List<String>, java.util.List<String>,
    * com.google.cloud.datafusion.plugin.sap.connection.SapConnection)}.
    * @throws ConnectorException
    */
@@ -280,7 +280,7 @@ public class SapTableInterfaceImplTest {
 
     new Expectations() {
       {
-        rfmHelper.getRuntimeTableRecordCount(anyString, null, null);
+        rfmHelper.getRuntimeTableRecordCount(anyString, null, null, null);
         result = rtTableInfoBuilder;
         minTimes = 0;
 
@@ -296,7 +296,8 @@ public class SapTableInterfaceImplTest {
 
     String sapTable = "VBAK";
     SapRuntimeConfigInfo sapTableRuntimeConfigInfo =
-      sapTableInterface.getRuntimeConfigParams(sapTable, Arrays.asList("TEST_COLUMN = 'Sample Test Value'"), conn);
+      sapTableInterface.getRuntimeConfigParams(sapTable, Arrays.asList("TEST_COLUMN = 'Sample Test Value'"),
+        Collections.emptyList(), conn);
 
     Assert.assertNotNull("Generated sap table configuration is null", sapTableRuntimeConfigInfo);
     Assert.assertEquals(50000L, ((SapTableRuntimeConfigInfo) sapTableRuntimeConfigInfo).getRuntimeTableRecCount());
@@ -306,6 +307,46 @@ public class SapTableInterfaceImplTest {
     Assert.assertEquals(2500, ((SapTableRuntimeConfigInfo) sapTableRuntimeConfigInfo).getRecordSize());
   }
 
+  /**
+   * Test method for
+   * {@link SapTableInterfaceImpl#estimateRecordCount(SapTableInterfaceImpl.KeyLookup, long)}.
+   * @throws ConnectorException
+   */
+  @Test
+  public void testEstimateRecordCountFromKeySample() throws ConnectorException {
+    List<String> keys = new ArrayList<>();
+    for (long key = 4900000000L; keys.size() < 10000; key += 3) {
+      keys.add(String.valueOf(key));
+    }
+
+    Long estimate = SapTableInterfaceImpl.estimateRecordCount(new SortedKeys(keys), 100L);
+
+    Assert.assertNotNull("Evenly spread numeric keys must be estimated", estimate);
+    Assert.assertEquals(10000d, estimate, 100d);
+  }
+
+  /**
+   * Test method for
+   * {@link SapTableInterfaceImpl#estimateRecordCount(SapTableInterfaceImpl.KeyLookup, long)}.
+   * @throws ConnectorException
+   */
+  @Test
+  public void testEstimateRecordCountNotPossible() throws ConnectorException {
+    List<String> numericKeys = new ArrayList<>();
+    List<String> textKeys = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      numericKeys.add(String.format("%010d", i));
+      textKeys.add(String.format("A%09d", i));
+    }
+
+    Assert.assertNull("Keys other than digits must not be estimated",
+      SapTableInterfaceImpl.estimateRecordCount(new SortedKeys(textKeys), 100L));
+    Assert.assertNull("Tables not larger than the sample must be counted",
+      SapTableInterfaceImpl.estimateRecordCount(new SortedKeys(numericKeys), 1000L));
+    Assert.assertNull("Sample of a single key value must not be estimated",
+      SapTableInterfaceImpl.estimateRecordCount(new SortedKeys(Collections.nCopies(1000, "0000000001")), 100L));
+  }
+
   /**
    * Test method for {@link com.google.cloud.datafusion.plugin.sap.connection.SapInterface
    * #getSourceData(java.lang.String, java.util.List<String>,
@@ -323,7 +364,7 @@ public class SapTableInterfaceImplTest {
 
     new Expectations() {
       {
-        rfmHelper.getTableRecords(anyString, anyLong, anyLong, null, null);
+        rfmHelper.getTableRecords(anyString, anyLong, anyLong, null, null, null);
         result = rtTableInfo;
         minTimes = 0;
       }
@@ -360,6 +401,91 @@ public class SapTableInterfaceImplTest {
     Assert.assertNull(((SapTableRuntimeOutput) sapTableRuntimeOutput).getOutputDataTable());
   }
 
+  /**
+   * Test method for {@link com.google.cloud.datafusion.plugin.sap.table.connection.out.SapTableInterfaceImpl
+   * #getSourceData(java.lang.String, java.util.List<String>, java.util.List<String>,
+   * java.util.Map<String, String>,
+   * com.google.cloud.datafusion.plugin.sap.connection.SapConnection)}.
+   * @throws ConnectorException
+   */
+  @Test
+  public void testGetSourceDataProjectedFields() throws ConnectorException {
+    new Expectations() {
+      {
+        jcoTable.getNumRows();
+        result = 2;
+        minTimes = 0;
+
+        jcoTable.getString("FIELDNAME");
+        returns("MANDT", "ERDAT");
+        minTimes = 0;
+
+        jcoTable.getString("OFFSET");
+        returns("0", "3");
+        minTimes = 0;
+
+        jcoTable.getString("LENGTH");
+        returns("3", "8");
+        minTimes = 0;
+      }
+    };
+
+    String sapTable = "VBAK";
+    operationsProps.put(SapTableRecordReader.ROW_SKIPS, "0");
+    operationsProps.put(SapTableRecordReader.ROW_COUNT, "10");
+    SapObjectRuntimeOutput sapTableRuntimeOutput = sapTableInterface.getSourceData(sapTable,
+      Collections.emptyList(), Arrays.asList("ERDAT", "MANDT"), operationsProps, conn);
+
+    List<SapFieldMetadata> columns = sapTableRuntimeOutput.getObjectMetadata().getFieldMetadata();
+    Assert.assertEquals(2, columns.size());
+    Assert.assertEquals("Column metadata must follow the order of requested fields", "ERDAT",
+      columns.get(0).getName());
+    Assert.assertEquals(3, ((SapColumn) columns.get(0)).getOffset());
+    Assert.assertEquals("MANDT", columns.get(1).getName());
+    Assert.assertEquals(0, ((SapColumn) columns.get(1)).getOffset());
+  }
+
+  /**
+   * Test method for {@link com.google.cloud.datafusion.plugin.sap.table.connection.out.SapTableInterfaceImpl
+   * #getSourceData(java.lang.String, java.util.List<String>, java.util.List<String>,
+   * java.util.Map<String, String>,
+   * com.google.cloud.datafusion.plugin.sap.connection.SapConnection)}.
+   */
+  @Test
+  public void testGetSourceDataProjectedFieldMissingFail() {
+    new Expectations() {
+      {
+        jcoTable.getNumRows();
+        result = 1;
+        minTimes = 0;
+
+        jcoTable.getString("FIELDNAME");
+        result = "MANDT";
+        minTimes = 0;
+
+        jcoTable.getString("OFFSET");
+        result = "0";
+        minTimes = 0;
+
+        jcoTable.getString("LENGTH");
+        result = "3";
+        minTimes = 0;
+      }
+    };
+
+    String sapTable = "VBAK";
+    try {
+      operationsProps.put(SapTableRecordReader.ROW_SKIPS, "0");
+      operationsProps.put(SapTableRecordReader.ROW_COUNT, "10");
+      sapTableInterface.getSourceData(sapTable, Collections.emptyList(), Arrays.asList("MATNR"), operationsProps,
+        conn);
+
+      Assert.fail("SapInterface getTableRecords expected to fail for missing field but succeeded.");
+    } catch (ConnectorException e) {
+      Assert.assertEquals(ResourceConstants.ERR_FIELD_NOT_RETURNED.getCode(), e.getCode());
+    }
+  }
+
   /**
    * Test method for
    * {@link com.google.cloud.datafusion.plugin.sap.connection.SapInterface#getSourceData(java.lang.String,
@@ -432,4 +558,32 @@ public class SapTableInterfaceImplTest {
         ResourceConstants.ERR_DB_FAILURE.getMsgForKeyWithCode(sapTable), e.getMessage());
     }
   }
+
+  /**
+   * Key values of a table in key order, read like through the primary index
+   */
+  private static final class SortedKeys implements SapTableInterfaceImpl.KeyLookup {
+    private final List<String> keys;
+
+    private SortedKeys(List<String> keys) {
+      this.keys = new ArrayList<>(keys);
+      Collections.sort(this.keys);
+    }
+
+    @Override
+    public String getKeyValueAt(long rowSkips) {
+      return rowSkips < keys.size() ? keys.get((int) rowSkips) : null;
+    }
+
+    @Override
+    public String getKeyValueFrom(String lowerBound) {
+      for (String key : keys) {
+        if (key.compareTo(lowerBound) >= 0) {
+          return key;
+        }
+      }
+
+      return null;
+    }
+  }
 }
@@ -18,6 +18,7 @@ package com.google.cloud.datafusion.plugin.sap.table.source;
 
 import com.google.cloud.datafusion.plugin.sap.metadata.model.SapFieldMetadata;
 import com.google.cloud.datafusion.plugin.sap.metadata.model.SapObjectMetadata;
+import com.google.cloud.datafusion.plugin.sap.source.AbstractStructuredSchemaTransformer;
 import com.google.cloud.datafusion.plugin.sap.table.metadata.model.SapColumn;
 import com.google.cloud.datafusion.plugin.util.ResourceConstants;
 
@@ -38,6 +39,7 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -194,6 +196,19 @@ public class SapTableToStructuredSchemaTransformerTest {
     Assert.assertEquals(expectedSchemaFields.toString(), actualResult.toString());
   }
 
+  /**
+   * Test method for
+   * {@link com.google.cloud.datafusion.plugin.sap.table.source.SapTableToStructuredSchemaTransformer
+   * #getNativeFieldNames(io.cdap.cdap.api.data.schema.Schema)}.
+   */
+  @Test
+  public void testGetNativeFieldNames() {
+    Schema schema = Schema.recordOf("columnMetadata", expectedSchemaFields.subList(12, 15));
+    List<String> actualResult = schemaTransformer.getNativeFieldNames(schema);
+
+    Assert.assertEquals(Arrays.asList(FIELD_NAME + 13, "field/Name_14", FIELD_NAME + 15), actualResult);
+  }
+
   /**
    * Test method for
    * {@link com.google.cloud.datafusion.plugin.sap.table.source.SapTableToStructuredSchemaTransformer
@@ -535,4 +550,70 @@ public class SapTableToStructuredSchemaTransformerTest {
       Assert.assertEquals(goldErr, e.getMessage());
     }
   }
+
+  /**
+   * Test method for
+   * {@link com.google.cloud.datafusion.plugin.sap.table.source.SapTableToStructuredSchemaTransformer
+   * #readFields(java.lang.String, com.google.cloud.datafusion.plugin.sap.metadata.model.SapObjectMetadata,
+   *  io.cdap.cdap.api.data.schema.Schema)}.
+   */
+  @Test
+  public void testReadFieldsSameAsStandardConversion() {
+    Schema pluginSchema = Schema.recordOf("columnMetadata", schemaTransformer.createSchemaFields(sapColumnList));
+    // Column by column conversion, as done before records were decoded from a
+    // compiled plan
+    AbstractStructuredSchemaTransformer standardTransformer = new AbstractStructuredSchemaTransformer() {
+      @Override
+      public String getFieldNativeValue(SapObjectMetadata runtimeMetadata, String rawRecord, int fieldIdx) {
+        return schemaTransformer.getFieldNativeValue(runtimeMetadata, rawRecord, fieldIdx);
+      }
+    };
+
+    List<String> rawRecords = Arrays.asList(
+      " chr  00256abapG  string      44444-2147483647 8888888888888888888 7777777.77777"
+        + "AAAAAAAAAAAAx=                               -1234.567123456.78901-12345678901.2345678920191130034259"
+        + "1991-12-31 23:59:59.0005671",
+      " ab\tc\t\t\t\t\t\t    x           -12   42--2147483648-9223372036854775808                 "
+        + "                                         1234.567-        12.5-              1.5E+3",
+      "                                 12- 2147483647 9223372036854775807                 "
+        + "                                            -0.001     +0.00001                   0",
+      "                                --12",
+      "                                +42-",
+      "                                     2147483648",
+      "                                                9223372036854775808",
+      "                                                                                    "
+        + "                                         -1234.567-",
+      "                                                                                    "
+        + "                                            0.0001",
+      "                                                                                    "
+        + "                                                            1-2",
+      "short");
+
+    for (String rawRecord : rawRecords) {
+      StructuredRecord expected = null;
+      String expectedErr = null;
+      try {
+        expected = standardTransformer.readFields(rawRecord, tableMetadata, pluginSchema);
+      } catch (IOException e) {
+        expectedErr = e.getMessage();
+      }
+
+      try {
+        StructuredRecord actual = schemaTransformer.readFields(rawRecord, tableMetadata, pluginSchema);
+        Assert.assertNull("Expected to fail for '" + rawRecord + "'", expectedErr);
+
+        for (Schema.Field field : pluginSchema.getFields()) {
+          Object expectedVal = expected.get(field.getName());
+          Object actualVal = actual.get(field.getName());
+          if (expectedVal instanceof byte[]) {
+            Assert.assertArrayEquals(field.getName(), (byte[]) expectedVal, (byte[]) actualVal);
+          } else {
+            Assert.assertEquals(field.getName(), expectedVal, actualVal);
+          }
+        }
+      } catch (IOException e) {
+        Assert.assertEquals(expectedErr, e.getMessage());
+      }
+    }
+  }
 }
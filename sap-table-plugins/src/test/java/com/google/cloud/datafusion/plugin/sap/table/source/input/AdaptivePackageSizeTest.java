@@ -0,0 +1,109 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.table.source.input;
+
+import com.google.cloud.datafusion.plugin.sap.exception.ConnectorException;
+import com.google.cloud.datafusion.plugin.util.ResourceConstants;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author sankalpbapat
+ *
+ */
+public class AdaptivePackageSizeTest {
+
+  @Test
+  public void testShrinkHalvesFailedPackage() {
+    AdaptivePackageSize packageSize = new AdaptivePackageSize(70000L, 1000L);
+
+    Assert.assertTrue(packageSize.shrink(70000L));
+    Assert.assertEquals(35000L, packageSize.getSize());
+
+    // A smaller part failing shrinks further, a larger one does not grow back
+    Assert.assertTrue(packageSize.shrink(20000L));
+    Assert.assertEquals(10000L, packageSize.getSize());
+    Assert.assertTrue(packageSize.shrink(35000L));
+    Assert.assertEquals(10000L, packageSize.getSize());
+  }
+
+  @Test
+  public void testShrinkStopsAtMinSize() {
+    AdaptivePackageSize packageSize = new AdaptivePackageSize(3000L, 1000L);
+
+    Assert.assertTrue(packageSize.shrink(3000L));
+    Assert.assertEquals(1500L, packageSize.getSize());
+    Assert.assertTrue(packageSize.shrink(1500L));
+    Assert.assertEquals(1000L, packageSize.getSize());
+    Assert.assertFalse("Package at minimum size must not shrink", packageSize.shrink(1000L));
+    Assert.assertEquals(1000L, packageSize.getSize());
+
+    // Planned package size smaller than the minimum cannot shrink at all
+    AdaptivePackageSize smallPackageSize = new AdaptivePackageSize(500L, 1000L);
+    Assert.assertFalse(smallPackageSize.shrink(500L));
+    Assert.assertEquals(500L, smallPackageSize.getSize());
+  }
+
+  @Test
+  public void testGrowAfterSuccessesUpToMaxSize() {
+    AdaptivePackageSize packageSize = new AdaptivePackageSize(70000L, 1000L);
+    packageSize.shrink(70000L);
+    packageSize.shrink(35000L);
+    Assert.assertEquals(17500L, packageSize.getSize());
+
+    for (int i = 1; i < AdaptivePackageSize.GROW_AFTER_SUCCESSES; i++) {
+      Assert.assertFalse(packageSize.recordSuccess());
+    }
+    Assert.assertTrue(packageSize.recordSuccess());
+    Assert.assertEquals(35000L, packageSize.getSize());
+
+    // A failure restarts the run of successes
+    packageSize.recordSuccess();
+    packageSize.shrink(100000L);
+    for (int i = 1; i < AdaptivePackageSize.GROW_AFTER_SUCCESSES; i++) {
+      Assert.assertFalse(packageSize.recordSuccess());
+    }
+    Assert.assertTrue(packageSize.recordSuccess());
+    Assert.assertEquals(70000L, packageSize.getSize());
+
+    for (int i = 0; i < AdaptivePackageSize.GROW_AFTER_SUCCESSES; i++) {
+      Assert.assertFalse("Package size must not exceed the planned size", packageSize.recordSuccess());
+    }
+    Assert.assertEquals(70000L, packageSize.getSize());
+  }
+
+  @Test
+  public void testIsResourceShortage() {
+    Assert.assertFalse("Data buffer is exceeded by the record width, which fewer records do not change",
+      SapTableRecordReader.isResourceShortage(new ConnectorException(
+        ResourceConstants.ERR_DATA_BUFFER_EXCEEDED.getCode(), "Data buffer exceeded")));
+    Assert.assertTrue(SapTableRecordReader.isResourceShortage(new ConnectorException(
+      ResourceConstants.ERR_EXEC_FUNC.getCode(), "JCO_ERROR_SYSTEM_FAILURE - TSV_TNEW_PAGE_ALLOC_FAILED")));
+    Assert.assertTrue(SapTableRecordReader.isResourceShortage(new ConnectorException(
+      ResourceConstants.ERR_DB_FAILURE.getCode(), "Database failure", new RuntimeException("TIME_OUT"))));
+
+    Assert.assertFalse("Only database failures due to memory or time are resource shortages",
+      SapTableRecordReader.isResourceShortage(new ConnectorException(
+        ResourceConstants.ERR_DB_FAILURE.getCode(), "Database failure", new RuntimeException("SQL_FAILURE"))));
+
+    Assert.assertFalse(SapTableRecordReader.isResourceShortage(new ConnectorException(
+      ResourceConstants.ERR_NOT_AUTHORIZED_FOR_TABLE.getCode(), "Not authorized")));
+    Assert.assertFalse(SapTableRecordReader.isResourceShortage(new ConnectorException(
+      ResourceConstants.ERR_EXEC_FUNC.getCode(), (String) null)));
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.datafusion.plugin.sap.table.source.input;
+
+import com.google.cloud.datafusion.plugin.sap.table.source.SapTableBatchSource;
+import com.google.gson.Gson;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.JobID;
+import org.apache.hadoop.mapreduce.task.JobContextImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author sankalpbapat
+ *
+ */
+public class SapTableInputFormatTest {
+
+  @Test
+  public void testGetSplitsLargestFirst() throws IOException, InterruptedException {
+    SapTableInputSplit narrowRange = createSplit("MATNR < 'B'", 100L, 500);
+    SapTableInputSplit wideRange = createSplit("MATNR >= 'B' AND MATNR < 'C'", 900L, 500);
+    SapTableInputSplit lastRange = createSplit("MATNR >= 'C'", 900L, 500);
+
+    Configuration conf = new Configuration(false);
+    conf.set(SapTableBatchSource.PARTITIONS_PROPERTY,
+      new Gson().toJson(Arrays.asList(narrowRange, wideRange, lastRange)));
+
+    List<InputSplit> splits = new SapTableInputFormat().getSplits(new JobContextImpl(conf, new JobID()));
+
+    Assert.assertEquals("InputSplit count does not match", 3, splits.size());
+    Assert.assertEquals("Largest split must come first", wideRange.getKeyRange(),
+      ((SapTableInputSplit) splits.get(0)).getKeyRange());
+    Assert.assertEquals("Splits of the same size must keep their order", lastRange.getKeyRange(),
+      ((SapTableInputSplit) splits.get(1)).getKeyRange());
+    Assert.assertEquals("Smallest split must come last", narrowRange.getKeyRange(),
+      ((SapTableInputSplit) splits.get(2)).getKeyRange());
+    Assert.assertEquals("Length does not match for largest split", 450000L, splits.get(0).getLength());
+  }
+
+  private static SapTableInputSplit createSplit(String keyRange, long rowCount, int recordSize) {
+    SapTableInputSplit split = new SapTableInputSplit(1L, rowCount, 100L, keyRange);
+    split.setEstimatedBytes(rowCount * recordSize);
+
+    return split;
+  }
+}
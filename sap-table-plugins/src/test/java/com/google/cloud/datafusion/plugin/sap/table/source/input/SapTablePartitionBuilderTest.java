@@ -16,6 +16,7 @@
 
 package com.google.cloud.datafusion.plugin.sap.table.source.input;
 
+import com.google.cloud.datafusion.plugin.sap.exception.ConnectorException;
 import com.google.cloud.datafusion.plugin.sap.table.metadata.model.SapTableRuntimeConfigInfo;
 
 import org.junit.Assert;
@@ -23,7 +24,10 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * @author sankalpbapat
@@ -35,6 +39,9 @@ public class SapTablePartitionBuilderTest {
 
   private SapTablePartitionBuilder sapTablePartitionBuilder;
 
+  private static final Pattern LOWER_BOUND = Pattern.compile(">= '([^']*)'");
+  private static final Pattern UPPER_BOUND = Pattern.compile("< '([^']*)'");
+
   /**
    * @throws Exception
    */
@@ -68,17 +75,17 @@ public class SapTablePartitionBuilderTest {
     SapTableInputSplit split1 = splits.get(0);
     Assert.assertEquals("Start does not match for split 1", 1L, split1.getStart());
     Assert.assertEquals("End does not match for split 1", 280L, split1.getEnd());
-    Assert.assertEquals("Length does not match for split 1", 280L, split1.getLength());
+    Assert.assertEquals("Length does not match for split 1", 2800000L, split1.getLength());
 
     SapTableInputSplit split2 = splits.get(2);
     Assert.assertEquals("Start does not match for split 3", 561L, split2.getStart());
     Assert.assertEquals("End does not match for split 3", 840L, split2.getEnd());
-    Assert.assertEquals("Length does not match for split 3", 280L, split2.getLength());
+    Assert.assertEquals("Length does not match for split 3", 2800000L, split2.getLength());
 
     SapTableInputSplit split3 = splits.get(3);
     Assert.assertEquals("Start does not match for split 4", 841L, split3.getStart());
     Assert.assertEquals("End does not match for split 4", 1000L, split3.getEnd());
-    Assert.assertEquals("Length does not match for split 4", 160L, split3.getLength());
+    Assert.assertEquals("Length does not match for split 4", 1600000L, split3.getLength());
   }
 
   /**
@@ -106,17 +113,17 @@ public class SapTablePartitionBuilderTest {
     SapTableInputSplit split1 = splits.get(0);
     Assert.assertEquals("Start does not match for split 1", 1L, split1.getStart());
     Assert.assertEquals("End does not match for split 1", 14000L, split1.getEnd());
-    Assert.assertEquals("Length does not match for split 1", 14000L, split1.getLength());
+    Assert.assertEquals("Length does not match for split 1", 140000000L, split1.getLength());
 
     SapTableInputSplit split2 = splits.get(1);
     Assert.assertEquals("Start does not match for split 2", 14001L, split2.getStart());
     Assert.assertEquals("End does not match for split 2", 28000L, split2.getEnd());
-    Assert.assertEquals("Length does not match for split 2", 14000L, split2.getLength());
+    Assert.assertEquals("Length does not match for split 2", 140000000L, split2.getLength());
 
     SapTableInputSplit split8 = splits.get(7);
     Assert.assertEquals("Start does not match for split 8", 88001L, split8.getStart());
     Assert.assertEquals("End does not match for split 8", 99200L, split8.getEnd());
-    Assert.assertEquals("Length does not match for split 8", 11200L, split8.getLength());
+    Assert.assertEquals("Length does not match for split 8", 112000000L, split8.getLength());
   }
 
   /**
@@ -144,17 +151,17 @@ public class SapTablePartitionBuilderTest {
     SapTableInputSplit split5 = splits.get(4);
     Assert.assertEquals("Start does not match for split 5", 78401L, split5.getStart());
     Assert.assertEquals("End does not match for split 5", 98000L, split5.getEnd());
-    Assert.assertEquals("Length does not match for split 5", 19600L, split5.getLength());
+    Assert.assertEquals("Length does not match for split 5", 196000000L, split5.getLength());
 
     SapTableInputSplit split9 = splits.get(8);
     Assert.assertEquals("Start does not match for split 9", 149601L, split9.getStart());
     Assert.assertEquals("End does not match for split 9", 166400L, split9.getEnd());
-    Assert.assertEquals("Length does not match for split 9", 16800L, split9.getLength());
+    Assert.assertEquals("Length does not match for split 9", 168000000L, split9.getLength());
 
     SapTableInputSplit split10 = splits.get(9);
     Assert.assertEquals("Start does not match for split 10", 166401L, split10.getStart());
     Assert.assertEquals("End does not match for split 10", 183200L, split10.getEnd());
-    Assert.assertEquals("Length does not match for split 10", 16800L, split10.getLength());
+    Assert.assertEquals("Length does not match for split 10", 168000000L, split10.getLength());
   }
 
   /**
@@ -182,12 +189,12 @@ public class SapTablePartitionBuilderTest {
     SapTableInputSplit split1 = (SapTableInputSplit) splits.get(0);
     Assert.assertEquals("Start does not match for split 1", 1L, split1.getStart());
     Assert.assertEquals("End does not match for split 1", 16800L, split1.getEnd());
-    Assert.assertEquals("Length does not match for split 1", 16800L, split1.getLength());
+    Assert.assertEquals("Length does not match for split 1", 168000000L, split1.getLength());
 
     SapTableInputSplit split4 = (SapTableInputSplit) splits.get(3);
     Assert.assertEquals("Start does not match for split 4", 50401L, split4.getStart());
     Assert.assertEquals("End does not match for split 4", 67200L, split4.getEnd());
-    Assert.assertEquals("Length does not match for split 4", 16800L, split4.getLength());
+    Assert.assertEquals("Length does not match for split 4", 168000000L, split4.getLength());
   }
 
   /**
@@ -215,17 +222,17 @@ public class SapTablePartitionBuilderTest {
     SapTableInputSplit split1 = splits.get(0);
     Assert.assertEquals("Start does not match for split 1", 1L, split1.getStart());
     Assert.assertEquals("End does not match for split 1", 16800L, split1.getEnd());
-    Assert.assertEquals("Length does not match for split 1", 16800L, split1.getLength());
+    Assert.assertEquals("Length does not match for split 1", 168000000L, split1.getLength());
 
     SapTableInputSplit split2 = splits.get(1);
     Assert.assertEquals("Start does not match for split 2", 16801L, split2.getStart());
     Assert.assertEquals("End does not match for split 2", 33600L, split2.getEnd());
-    Assert.assertEquals("Length does not match for split 2", 16800L, split2.getLength());
+    Assert.assertEquals("Length does not match for split 2", 168000000L, split2.getLength());
 
     SapTableInputSplit split8 = splits.get(7);
     Assert.assertEquals("Start does not match for split 8", 117601L, split8.getStart());
     Assert.assertEquals("End does not match for split 8", 134400L, split8.getEnd());
-    Assert.assertEquals("Length does not match for split 8", 16800L, split8.getLength());
+    Assert.assertEquals("Length does not match for split 8", 168000000L, split8.getLength());
   }
 
   /**
@@ -253,12 +260,12 @@ public class SapTablePartitionBuilderTest {
     SapTableInputSplit split2 = (SapTableInputSplit) splits.get(1);
     Assert.assertEquals("Start does not match for split 2", 2801L, split2.getStart());
     Assert.assertEquals("End does not match for split 2", 5600L, split2.getEnd());
-    Assert.assertEquals("Length does not match for split 2", 2800L, split2.getLength());
+    Assert.assertEquals("Length does not match for split 2", 56000000L, split2.getLength());
 
     SapTableInputSplit split3 = (SapTableInputSplit) splits.get(2);
     Assert.assertEquals("Start does not match for split 3", 5601L, split3.getStart());
     Assert.assertEquals("End does not match for split 3", 8400L, split3.getEnd());
-    Assert.assertEquals("Length does not match for split 3", 2800L, split3.getLength());
+    Assert.assertEquals("Length does not match for split 3", 56000000L, split3.getLength());
   }
 
   /**
@@ -286,12 +293,12 @@ public class SapTablePartitionBuilderTest {
     SapTableInputSplit split2 = splits.get(1);
     Assert.assertEquals("Start does not match for split 2", 101L, split2.getStart());
     Assert.assertEquals("End does not match for split 2", 200L, split2.getEnd());
-    Assert.assertEquals("Length does not match for split 2", 100L, split2.getLength());
+    Assert.assertEquals("Length does not match for split 2", 5000000L, split2.getLength());
 
     SapTableInputSplit split3 = splits.get(2);
     Assert.assertEquals("Start does not match for split 3", 201L, split3.getStart());
     Assert.assertEquals("End does not match for split 3", 300L, split3.getEnd());
-    Assert.assertEquals("Length does not match for split 3", 100L, split3.getLength());
+    Assert.assertEquals("Length does not match for split 3", 5000000L, split3.getLength());
   }
 
   /**
@@ -320,12 +327,12 @@ public class SapTablePartitionBuilderTest {
     SapTableInputSplit split3 = splits.get(2);
     Assert.assertEquals("Start does not match for split 3", 3361L, split3.getStart());
     Assert.assertEquals("End does not match for split 3", 5040L, split3.getEnd());
-    Assert.assertEquals("Length does not match for split 3", 1680L, split3.getLength());
+    Assert.assertEquals("Length does not match for split 3", 84000000L, split3.getLength());
 
     SapTableInputSplit split6 = splits.get(5);
     Assert.assertEquals("Start does not match for split 6", 8401L, split6.getStart());
     Assert.assertEquals("End does not match for split 6", 10000L, split6.getEnd());
-    Assert.assertEquals("Length does not match for split 6", 1600L, split6.getLength());
+    Assert.assertEquals("Length does not match for split 6", 80000000L, split6.getLength());
   }
 
   /**
@@ -353,7 +360,7 @@ public class SapTablePartitionBuilderTest {
     SapTableInputSplit split1 = splits.get(0);
     Assert.assertEquals("Start does not match for split 1", 1L, split1.getStart());
     Assert.assertEquals("End does not match for split 1", 15L, split1.getEnd());
-    Assert.assertEquals("Length does not match for split 1", 15L, split1.getLength());
+    Assert.assertEquals("Length does not match for split 1", 750L, split1.getLength());
   }
 
   /**
@@ -439,4 +446,289 @@ public class SapTablePartitionBuilderTest {
     Assert.assertEquals("End does not match for split 1", 0L, split1.getEnd());
     Assert.assertEquals("Length does not match for split 1", 0L, split1.getLength());
   }
+
+  /**
+   * Test method for
+   * {@link com.google.cloud.datafusion.plugin.sap.table.source.input.SapTablePartitionBuilder#build()}.
+   */
+  @Test
+  public void testBuildKeyRangesSuccessful()
+    throws ConnectorException, IOException, InterruptedException {
+
+    List<String> keys = createKeys(1000);
+    sapTableRuntimeConfigInfo = createKeyRangeConfig(1000L);
+
+    List<SapTableInputSplit> splits = sapTablePartitionBuilder.build(sapTableRuntimeConfigInfo, 1000L, 0L, 0, 0L,
+      "VBELN", new InMemoryKeyRangeProbe(keys, 0L));
+
+    Assert.assertEquals("InputSplit count for key ranges does not match", 4, splits.size());
+
+    SapTableInputSplit split1 = splits.get(0);
+    Assert.assertEquals("Key range does not match for split 1", "VBELN < '0093'", split1.getKeyRange());
+    Assert.assertEquals("Start does not match for split 1", 1L, split1.getStart());
+    Assert.assertEquals("Length does not match for split 1", 2790000L, split1.getLength());
+
+    SapTableInputSplit split3 = splits.get(2);
+    Assert.assertEquals("Key range does not match for split 3", "VBELN >= '0186' AND VBELN < '0280'",
+      split3.getKeyRange());
+    Assert.assertEquals("Start does not match for split 3", 1L, split3.getStart());
+    Assert.assertEquals("Length does not match for split 3", 2820000L, split3.getLength());
+
+    SapTableInputSplit split4 = splits.get(3);
+    Assert.assertEquals("Key range does not match for split 4", "VBELN >= '0280'", split4.getKeyRange());
+    Assert.assertEquals("Length does not match for split 4", 1600000L, split4.getLength());
+  }
+
+  /**
+   * Test method for
+   * {@link com.google.cloud.datafusion.plugin.sap.table.source.input.SapTablePartitionBuilder#build()}.
+   */
+  @Test
+  public void testBuildKeyRangesWRowsToFetchUsesRowWindows()
+    throws ConnectorException, IOException, InterruptedException {
+
+    sapTableRuntimeConfigInfo = createKeyRangeConfig(1000L);
+
+    List<SapTableInputSplit> splits = sapTablePartitionBuilder.build(sapTableRuntimeConfigInfo, 1000L, 900L, 0, 0L,
+      "VBELN", new InMemoryKeyRangeProbe(createKeys(1000), 0L));
+
+    Assert.assertEquals("InputSplit count for set rowsToFetch does not match", 4, splits.size());
+    Assert.assertEquals("Key range must not be set when only first rows are extracted", "",
+      splits.get(1).getKeyRange());
+    Assert.assertEquals("Start does not match for split 2", 281L, splits.get(1).getStart());
+  }
+
+  /**
+   * Test method for
+   * {@link com.google.cloud.datafusion.plugin.sap.table.source.input.SapTablePartitionBuilder#build()}.
+   */
+  @Test
+  public void testBuildKeyRangesCountMismatchUsesRowWindows()
+    throws ConnectorException, IOException, InterruptedException {
+
+    sapTableRuntimeConfigInfo = createKeyRangeConfig(1000L);
+
+    // Table changed after the matching records were counted
+    List<SapTableInputSplit> splits = sapTablePartitionBuilder.build(sapTableRuntimeConfigInfo, 1000L, 0L, 0, 0L,
+      "VBELN", new InMemoryKeyRangeProbe(createKeys(1000), 5L));
+
+    Assert.assertEquals("InputSplit count for changed table does not match", 4, splits.size());
+    Assert.assertEquals("Key range must not be set for changed table", "", splits.get(3).getKeyRange());
+    Assert.assertEquals("Start does not match for split 4", 841L, splits.get(3).getStart());
+  }
+
+  /**
+   * Test method for
+   * {@link com.google.cloud.datafusion.plugin.sap.table.source.input.SapTablePartitionBuilder#build()}.
+   */
+  @Test
+  public void testBuildEstimatedLastSplitOpenEnded() {
+    sapTableRuntimeConfigInfo = createEstimatedConfig(1000L);
+
+    List<SapTableInputSplit> splits = sapTablePartitionBuilder.build(sapTableRuntimeConfigInfo, 1000L, 0L, 0, 0L);
+
+    Assert.assertEquals("InputSplit count for estimated records does not match", 4, splits.size());
+    Assert.assertFalse("Only the last split may be open ended", splits.get(2).isOpenEnded());
+    Assert.assertEquals("Package size does not match for split 1", 280L, splits.get(0).getPackageSize());
+
+    SapTableInputSplit split4 = splits.get(3);
+    Assert.assertTrue("Last split must be open ended", split4.isOpenEnded());
+    Assert.assertEquals("Start does not match for split 4", 841L, split4.getStart());
+    Assert.assertEquals("End does not match for split 4", 1000L, split4.getEnd());
+  }
+
+  /**
+   * Test method for
+   * {@link com.google.cloud.datafusion.plugin.sap.table.source.input.SapTablePartitionBuilder#build()}.
+   */
+  @Test
+  public void testBuildEstimatedNoRecordsStillReads() {
+    // Outdated statistics
+    sapTableRuntimeConfigInfo = createEstimatedConfig(0L);
+
+    List<SapTableInputSplit> splits = sapTablePartitionBuilder.build(sapTableRuntimeConfigInfo, 0L, 0L, 0, 0L);
+
+    Assert.assertEquals("InputSplit count for estimated 0 records does not match", 1, splits.size());
+    Assert.assertTrue("Split must be open ended", splits.get(0).isOpenEnded());
+    Assert.assertEquals("Package size must not shrink to the estimate", 280L, splits.get(0).getPackageSize());
+  }
+
+  /**
+   * Test method for
+   * {@link com.google.cloud.datafusion.plugin.sap.table.source.input.SapTablePartitionBuilder#build()}.
+   */
+  @Test
+  public void testBuildEstimatedWRowsToFetchEndsAtRowsToFetch() throws ConnectorException {
+    sapTableRuntimeConfigInfo = createEstimatedConfig(1000L);
+
+    List<SapTableInputSplit> splits = sapTablePartitionBuilder.build(sapTableRuntimeConfigInfo, 1000L, 1500L, 0, 0L,
+      "VBELN", new InMemoryKeyRangeProbe(createKeys(2000), 0L));
+
+    Assert.assertEquals("InputSplit count for set rowsToFetch does not match", 4, splits.size());
+    Assert.assertEquals("Key range must not be set when only first rows are extracted", "",
+      splits.get(3).getKeyRange());
+    Assert.assertFalse("Split must not read beyond rows to fetch", splits.get(3).isOpenEnded());
+    Assert.assertEquals("End does not match for split 4", 1500L, splits.get(3).getEnd());
+  }
+
+  /**
+   * Test method for
+   * {@link com.google.cloud.datafusion.plugin.sap.table.source.input.SapTablePartitionBuilder#build()}.
+   */
+  @Test
+  public void testBuildEstimatedKeyRangesNotSampled() throws ConnectorException {
+    SapTablePartitionBuilder.KeyRangeProbe probe = new SapTablePartitionBuilder.KeyRangeProbe() {
+      @Override
+      public String getKeyValueAt(long rowSkips) {
+        throw new AssertionError("Key values must not be sampled for estimated records");
+      }
+
+      @Override
+      public long countRecords(String keyRange) {
+        throw new AssertionError("Key ranges must not be counted for estimated records");
+      }
+    };
+
+    List<SapTableInputSplit> splits = sapTablePartitionBuilder.build(createEstimatedConfig(1000L), 1000L, 0L, 0, 0L,
+      "VBELN", probe);
+
+    Assert.assertEquals("InputSplit count for estimated records does not match", 4, splits.size());
+    for (SapTableInputSplit split : splits) {
+      Assert.assertEquals("Estimated records must be partitioned by row windows", "", split.getKeyRange());
+    }
+    Assert.assertTrue("Last split must be open ended", splits.get(3).isOpenEnded());
+    Assert.assertEquals("Start does not match for split 4", 841L, splits.get(3).getStart());
+  }
+
+  /**
+   * Test method for
+   * {@link com.google.cloud.datafusion.plugin.sap.table.source.input.SapTablePartitionBuilder#build()}.
+   */
+  @Test
+  public void testBuildLimitedByPrefetchWorkProcesses() {
+    // 17 work processes for splits, every split prefetching 3 packages
+    sapTablePartitionBuilder = new SapTablePartitionBuilder(0, 0L, 3);
+
+    List<SapTableInputSplit> splits = sapTablePartitionBuilder.build(createClusterConfig(), 200000L, 0L, 0, 0L);
+
+    Assert.assertEquals("InputSplit count must leave a work process per prefetched package", 5, splits.size());
+    Assert.assertEquals("End does not match for split 1", 42000L, splits.get(0).getEnd());
+    Assert.assertEquals("End does not match for split 5", 200000L, splits.get(4).getEnd());
+  }
+
+  /**
+   * Test method for
+   * {@link com.google.cloud.datafusion.plugin.sap.table.source.input.SapTablePartitionBuilder#build()}.
+   */
+  @Test
+  public void testBuildLimitedByExecutorSlots() {
+    sapTablePartitionBuilder = new SapTablePartitionBuilder(8, 0L);
+
+    List<SapTableInputSplit> splits = sapTablePartitionBuilder.build(createClusterConfig(), 200000L, 0L, 0, 0L);
+
+    Assert.assertEquals("InputSplit count must not exceed the executor slots", 8, splits.size());
+    Assert.assertEquals("End does not match for split 1", 25200L, splits.get(0).getEnd());
+    Assert.assertEquals("End does not match for split 8", 200000L, splits.get(7).getEnd());
+    // 25200 records at 838 records (8 MB) per second
+    Assert.assertEquals("Predicted duration does not match", 31L,
+      sapTablePartitionBuilder.getPredictedDurationSeconds());
+  }
+
+  /**
+   * Test method for
+   * {@link com.google.cloud.datafusion.plugin.sap.table.source.input.SapTablePartitionBuilder#build()}.
+   */
+  @Test
+  public void testBuildLimitedBySplitRate() {
+    sapTablePartitionBuilder = new SapTablePartitionBuilder(0, 1000L);
+
+    List<SapTableInputSplit> splits = sapTablePartitionBuilder.build(createClusterConfig(), 200000L, 0L, 0, 0L);
+
+    Assert.assertEquals("InputSplit count for splits of 30 seconds does not match", 7, splits.size());
+    Assert.assertEquals("End does not match for split 1", 30800L, splits.get(0).getEnd());
+    Assert.assertEquals("Predicted duration does not match", 31L,
+      sapTablePartitionBuilder.getPredictedDurationSeconds());
+  }
+
+  /**
+   * Test method for
+   * {@link com.google.cloud.datafusion.plugin.sap.table.source.input.SapTablePartitionBuilder#build()}.
+   */
+  @Test
+  public void testBuildUserSplitsPredictedInTaskRounds() {
+    sapTablePartitionBuilder = new SapTablePartitionBuilder(4, 0L);
+
+    List<SapTableInputSplit> splits = sapTablePartitionBuilder.build(createClusterConfig(), 200000L, 0L, 12, 0L);
+
+    Assert.assertEquals("InputSplit count set by the user must be kept", 12, splits.size());
+    Assert.assertEquals("End does not match for split 1", 16800L, splits.get(0).getEnd());
+    // 3 rounds of 4 tasks, each up to 16800 records at 838 records per second
+    Assert.assertEquals("Predicted duration does not match", 63L,
+      sapTablePartitionBuilder.getPredictedDurationSeconds());
+  }
+
+  @Test
+  public void testCreateKeyRangeEscapesQuotes() {
+    Assert.assertEquals("MATNR >= 'A''B' AND MATNR < 'C'", SapTablePartitionBuilder.createKeyRange("MATNR", "A'B",
+      "C"));
+  }
+
+  private static List<String> createKeys(int rowCount) {
+    // Every key value is repeated 3 times, like a leading key column of a
+    // composite key
+    List<String> keys = new ArrayList<>(rowCount);
+    for (int i = 0; i < rowCount; i++) {
+      keys.add(String.format("%04d", i / 3));
+    }
+
+    return keys;
+  }
+
+  private static SapTableRuntimeConfigInfo createKeyRangeConfig(long matchingRowCount) {
+    return SapTableRuntimeConfigInfo.builder().setRuntimeTableRecCount(matchingRowCount).setRecordSize(10000)
+      .setTotalWorkProcCount(100).setAvailableWorkProcCount(50).setWpMaxMemory(4000000L).build();
+  }
+
+  private static SapTableRuntimeConfigInfo createClusterConfig() {
+    // 2800 records per package, up to 17 splits
+    return SapTableRuntimeConfigInfo.builder().setRuntimeTableRecCount(200000L).setRecordSize(10000)
+      .setTotalWorkProcCount(70).setAvailableWorkProcCount(35).setWpMaxMemory(40000000L).build();
+  }
+
+  private static SapTableRuntimeConfigInfo createEstimatedConfig(long estimatedRowCount) {
+    return SapTableRuntimeConfigInfo.builder().setRuntimeTableRecCount(estimatedRowCount).setRecordCountEstimated(true)
+      .setRecordSize(10000).setTotalWorkProcCount(100).setAvailableWorkProcCount(50).setWpMaxMemory(4000000L).build();
+  }
+
+  /**
+   * Answers the probes from sorted key values, counting {@code extraRowCount}
+   * more records in every range.
+   */
+  private static final class InMemoryKeyRangeProbe implements SapTablePartitionBuilder.KeyRangeProbe {
+    private final List<String> keys;
+    private final long extraRowCount;
+
+    private InMemoryKeyRangeProbe(List<String> keys, long extraRowCount) {
+      this.keys = keys;
+      this.extraRowCount = extraRowCount;
+    }
+
+    @Override
+    public String getKeyValueAt(long rowSkips) {
+      return rowSkips < keys.size() ? keys.get((int) rowSkips) : null;
+    }
+
+    @Override
+    public long countRecords(String keyRange) {
+      Matcher lower = LOWER_BOUND.matcher(keyRange);
+      Matcher upper = UPPER_BOUND.matcher(keyRange);
+      String lowerBound = lower.find() ? lower.group(1) : null;
+      String upperBound = upper.find() ? upper.group(1) : null;
+
+      return extraRowCount + keys.stream()
+        .filter(key -> (lowerBound == null || key.compareTo(lowerBound) >= 0)
+          && (upperBound == null || key.compareTo(upperBound) < 0))
+        .count();
+    }
+  }
 }
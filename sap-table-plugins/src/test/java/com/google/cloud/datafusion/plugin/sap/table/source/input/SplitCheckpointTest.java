@@ -0,0 +1,122 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.cloud.datafusion.plugin.sap.table.source.input;
+
+import com.google.cloud.datafusion.plugin.sap.metadata.model.SapFieldMetadata;
+import com.google.cloud.datafusion.plugin.sap.metadata.model.SapObjectMetadata;
+import com.google.cloud.datafusion.plugin.sap.table.metadata.model.SapColumn;
+
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps split checkpoints in a local directory.
+ *
+ * @author sankalpbapat
+ *
+ */
+public class SplitCheckpointTest {
+
+  private static final String SPLIT_ID = SplitCheckpoint.createSplitId(1L, 50000L, "VBELN < '0000500000'");
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private String checkpointDir;
+  private SplitCheckpoint checkpoint;
+
+  @Before
+  public void setUp() throws IOException {
+    checkpointDir = tempFolder.newFolder().getAbsolutePath();
+    checkpoint = new SplitCheckpoint(checkpointDir, SPLIT_ID, new Configuration());
+  }
+
+  @Test
+  public void testSplitIdSameForAllAttempts() {
+    Assert.assertEquals(SPLIT_ID, SplitCheckpoint.createSplitId(1L, 50000L, "VBELN < '0000500000'"));
+    Assert.assertNotEquals(SPLIT_ID, SplitCheckpoint.createSplitId(1L, 50000L, "VBELN >= '0000500000'"));
+    Assert.assertNotEquals(SplitCheckpoint.createSplitId(1L, 50000L, null),
+      SplitCheckpoint.createSplitId(50001L, 100000L, null));
+  }
+
+  @Test
+  public void testNothingReplayedAfterDelete() throws IOException {
+    SapObjectMetadata metadata = new SapObjectMetadata(Arrays.<SapFieldMetadata>asList(
+      new SapColumn("VBELN", "Sales Document", null, 1, 0, 10, 0, "CHAR", "C", true)));
+    checkpoint.writePart(0L, 2L, metadata, Arrays.asList("0000000001", "0000000002"));
+
+    SplitCheckpoint retried = new SplitCheckpoint(checkpointDir, SPLIT_ID, new Configuration());
+    retried.delete();
+    Assert.assertNull(retried.readMetadata());
+    Assert.assertNull(retried.readPart(0L));
+  }
+
+  @Test
+  public void testReplayKeptParts() throws IOException {
+    SapObjectMetadata metadata = new SapObjectMetadata(Arrays.<SapFieldMetadata>asList(
+      new SapColumn("VBELN", "Sales Document", null, 1, 0, 10, 0, "CHAR", "C", true),
+      new SapColumn("AEDAT", "Changed On", null, 2, 10, 8, 0, "DATS", "D", false)));
+    List<String> firstPart = Arrays.asList("000000000120211008", "000000000220211009");
+    List<String> secondPart = Arrays.asList("00000000032021101ä");
+
+    Assert.assertNull(checkpoint.readMetadata());
+    checkpoint.writePart(0L, 2L, metadata, firstPart);
+    checkpoint.writePart(2L, 2L, metadata, secondPart);
+
+    SplitCheckpoint retried = new SplitCheckpoint(checkpointDir, SPLIT_ID, new Configuration());
+    List<SapFieldMetadata> columns = retried.readMetadata().getFieldMetadata();
+    Assert.assertEquals(2, columns.size());
+    Assert.assertEquals("AEDAT", columns.get(1).getName());
+    Assert.assertEquals(10, columns.get(1).getOffset());
+    Assert.assertEquals("D", columns.get(1).getAbapType());
+
+    SplitCheckpoint.KeptPart part = retried.readPart(0L);
+    Assert.assertEquals(2L, part.getRowCount());
+    Assert.assertEquals(firstPart, part.getRawRecords());
+    part = retried.readPart(2L);
+    Assert.assertEquals("Requested rows must be kept, even if SAP returned fewer", 2L, part.getRowCount());
+    Assert.assertEquals(secondPart, part.getRawRecords());
+    Assert.assertNull(retried.readPart(4L));
+  }
+
+  @Test
+  public void testPartiallyWrittenPartNotReplayed() throws IOException {
+    SapObjectMetadata metadata = new SapObjectMetadata(Arrays.<SapFieldMetadata>asList(
+      new SapColumn("VBELN", "Sales Document", null, 1, 0, 10, 0, "CHAR", "C", true)));
+    checkpoint.writePart(0L, 2L, metadata, Arrays.asList("0000000001", "0000000002"));
+
+    File partFile = new File(new File(checkpointDir, SPLIT_ID), "part_0");
+    try (RandomAccessFile file = new RandomAccessFile(partFile, "rw")) {
+      file.setLength(file.length() - 4);
+    }
+    // Checksum of the local file system no longer matches the truncated file
+    new File(partFile.getParentFile(), ".part_0.crc").delete();
+
+    Assert.assertNull(checkpoint.readPart(0L));
+  }
+}
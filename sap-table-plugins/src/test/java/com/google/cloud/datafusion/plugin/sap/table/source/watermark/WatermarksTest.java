@@ -0,0 +1,111 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package com.google.cloud.datafusion.plugin.sap.table.source.watermark;
+
+import com.google.cloud.datafusion.plugin.sap.metadata.model.SapFieldMetadata;
+import com.google.cloud.datafusion.plugin.sap.table.metadata.model.SapColumn;
+
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.time.Instant;
+
+/**
+ * Creates the upper bounds of the runs and commits them to a local directory
+ * through the file system store.
+ *
+ * @author sankalpbapat
+ *
+ */
+public class WatermarksTest {
+
+  private static final String KEY = "sap01/00|100|EN|TABLE_WATERMARK|SapTable|/GOOG/VBAK|AEDAT";
+  private static final Instant RUN_START = Instant.parse("2021-10-09T13:30:00Z");
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private WatermarkStore store;
+
+  @Before
+  public void setUp() throws IOException {
+    store = new FileSystemWatermarkStore(tempFolder.newFolder().getAbsolutePath(), new Configuration());
+  }
+
+  @Test
+  public void testCommitReplacesWatermark() throws IOException {
+    Assert.assertNull(store.getCommitted(KEY));
+    store.commit(KEY, "20211007");
+    store.commit(KEY, "20211009");
+
+    Assert.assertEquals("20211009", store.getCommitted(KEY));
+  }
+
+  @Test
+  public void testUpperBoundOfUtcTimestamps() {
+    Assert.assertEquals("20211009123000", Watermarks.createUpperBound(column("P", "DEC", 15, 0), RUN_START));
+    Assert.assertEquals("20211009123000", Watermarks.createUpperBound(column("P", "DEC", 28, 7), RUN_START));
+  }
+
+  @Test
+  public void testUpperBoundOfLocalDates() {
+    // Never ahead of the westernmost time zone, 12 hours behind UTC
+    Assert.assertEquals("20211009", Watermarks.createUpperBound(column("D", "DATS", 8, 0), RUN_START));
+    Assert.assertEquals("20211009", Watermarks.createUpperBound(column("C", "CHAR", 8, 0), RUN_START));
+    Assert.assertEquals("20211009003000", Watermarks.createUpperBound(column("N", "NUMC", 14, 0), RUN_START));
+    Assert.assertEquals("20211008", Watermarks.createUpperBound(column("D", "DATS", 8, 0),
+      Instant.parse("2021-10-09T12:59:59Z")));
+  }
+
+  @Test
+  public void testUnsupportedTypes() {
+    SapFieldMetadata time = column("T", "TIMS", 6, 0);
+    SapFieldMetadata amount = column("P", "CURR", 15, 2);
+    SapFieldMetadata text = column("C", "CHAR", 10, 0);
+
+    Assert.assertFalse(Watermarks.isSupportedType(time));
+    Assert.assertNull(Watermarks.createUpperBound(time, RUN_START));
+    Assert.assertFalse(Watermarks.isSupportedType(amount));
+    Assert.assertFalse(Watermarks.isSupportedType(text));
+    Assert.assertTrue(Watermarks.isSupportedType(column("D", "DATS", 8, 0)));
+  }
+
+  @Test
+  public void testCompareTimestamps() {
+    Assert.assertTrue(Watermarks.compare("20211008232445.3245740", "20211008232445") > 0);
+    Assert.assertTrue(Watermarks.compare("9", "10") < 0);
+    Assert.assertTrue(Watermarks.compare("B", "AB") > 0);
+    Assert.assertEquals(0, Watermarks.compare("20211008", "20211008"));
+  }
+
+  @Test
+  public void testCreateCondition() {
+    Assert.assertEquals("AEDAT >= '20211008'", Watermarks.createCondition("AEDAT", "20211008"));
+    Assert.assertEquals("/GOOG/NAME >= 'O''NEIL'", Watermarks.createCondition("/GOOG/NAME", "O'NEIL"));
+    Assert.assertEquals("AEDAT <= '20211009'", Watermarks.createUpperCondition("AEDAT", "20211009"));
+  }
+
+  private static SapFieldMetadata column(String abapType, String dataType, int length, int decimals) {
+    return new SapColumn("AEDAT", null, null, 1, 0, length, decimals, dataType, abapType, false);
+  }
+}